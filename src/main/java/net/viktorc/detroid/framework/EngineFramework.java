@@ -6,10 +6,15 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.FileHandler;
 import java.util.logging.Logger;
 import javafx.application.Application;
+import net.viktorc.detroid.framework.engine.Bitboard;
+import net.viktorc.detroid.framework.engine.MagicsConfig;
+import net.viktorc.detroid.framework.engine.TableBaseGenerator;
 import net.viktorc.detroid.framework.gui.GUI;
 import net.viktorc.detroid.framework.tuning.DataSetUtils;
 import net.viktorc.detroid.framework.tuning.EngineParameters;
@@ -40,7 +45,9 @@ import net.viktorc.detroid.framework.validation.ControllerEngine;
  * draws or tactical positions from the EPD file which can, in certain cases, improve the tuning results. Last but not least, the
  * conversion mode allows for converting the numbers logged by the tuning methods into XML files that the engine can read its parameters'
  * values from. The game play optimization algorithm logs the probability vector, while the static evaluation tuning method logs the
- * optimal values of the parameter fields.
+ * optimal values of the parameter fields. The magics optimization mode searches for magic numbers that allow for smaller sliding
+ * piece move set tables in parallel and saves them to the magics configuration file. The endgame tablebase generation mode generates the
+ * pure Java 3 and 4 piece endgame tablebases the engine falls back on if the Gaviota probing library is not available.
  *
  * @author Viktor
  */
@@ -70,6 +77,18 @@ public final class EngineFramework implements Runnable {
    * The default EPD game result operation code.
    */
   private static final String DEF_GAME_RES_OP_CODE = "Gr";
+  /**
+   * The default maximum number of magic numbers to try for each square and magic shift value.
+   */
+  private static final long DEF_MAGIC_SEARCH_ATTEMPTS = 1000000;
+  /**
+   * The default maximum number of pieces to generate endgame tablebases for.
+   */
+  private static final int DEF_EGTB_PIECES = 4;
+  /**
+   * The default path to the folder the generated endgame tablebases are written to.
+   */
+  private static final String DEF_EGTB_DIR_PATH = "dtb";
 
   private EngineFactory factory;
   private String[] args;
@@ -97,6 +116,8 @@ public final class EngineFramework implements Runnable {
    * [--labelopcode <string> {Gr}] [--minhalfmoveind <integer>] [--destfile <string> {positions.epd}]}<br>
    * PGN file generation by self-play: {@code -g pgn -games <integer> -tc <integer> [--inc <integer> {0}] [--trybook <bool> {false}]
    * [--tryhash <integer>] [--trythreads <integer>] [--destfile <string> {games.pgn}] [--concurrency <integer> {1}]}<br>
+   * Endgame tablebase generation: {@code -g egtb [--pieces <integer> {4}] [--destdir <string> {dtb}]
+   * [--concurrency <integer> {number of available processors}]}<br>
    * Removing draws from an EPD file: {@code -f draw -sourcefile <string> [--labelopcode <string> {Gr}]
    * [--destfile <string> {games.pgn}]}<br>
    * Removing tactical positions from an EPD file: {@code -f tactical -sourcefile <string> [--destfile <string> {positions.epd}]}<br>
@@ -105,7 +126,8 @@ public final class EngineFramework implements Runnable {
    * Probability vector conversion to parameters file: {@code -c probvector -value <quoted_comma_separated_decimals>
    * [--paramtype <eval | control | management | eval+control | control+management | all> {all}] [--paramsfile <string> {params.xml}]}<br>
    * Parameter value array conversion to parameters file: {@code -c parameters -value <quoted_comma_separated_decimals>
-   * [--paramsfile <string> {params.xml}]}
+   * [--paramsfile <string> {params.xml}]}<br>
+   * Magics optimization: {@code -m [--attempts <integer> {1000000}] [--concurrency <integer> {number of available processors}]}
    */
   public EngineFramework(EngineFactory factory, String[] args) {
     this.factory = factory;
@@ -505,12 +527,49 @@ public final class EngineFramework implements Runnable {
     runInEPDGenerationMode(sourceFile, destFile, gameResOpCode, maxNumOfGames, minElo, minHalfMoveIndex);
   }
 
+  private void runInEGTBGenerationMode(int maxNumOfPieces, String destDir, int concurrency) {
+    ForkJoinPool pool = new ForkJoinPool(concurrency);
+    try {
+      List<String> generated = new TableBaseGenerator(pool, destDir, Logger.getAnonymousLogger()).generate(maxNumOfPieces);
+      System.out.printf("Generated %d endgame tablebases into %s%n", generated.size(), destDir);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private void runInEGTBGenerationMode(String[] args) {
+    int maxNumOfPieces = DEF_EGTB_PIECES;
+    String destDir = DEF_EGTB_DIR_PATH;
+    int concurrency = Runtime.getRuntime().availableProcessors();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      switch (arg) {
+        case "--pieces":
+          maxNumOfPieces = Integer.parseInt(args[++i]);
+          break;
+        case "--destdir":
+          destDir = args[++i];
+          break;
+        case "--concurrency":
+          concurrency = Integer.parseInt(args[++i]);
+          break;
+        default:
+          throw new IllegalArgumentException();
+      }
+    }
+    runInEGTBGenerationMode(maxNumOfPieces, destDir, concurrency);
+  }
+
   private void runInGenerationMode(String[] args) {
     String arg0 = args[0];
     if ("pgn".equals(arg0)) {
       runInPGNGenerationMode(Arrays.copyOfRange(args, 1, args.length));
     } else if ("epd".equals(arg0)) {
       runInEPDGenerationMode(Arrays.copyOfRange(args, 1, args.length));
+    } else if ("egtb".equals(arg0)) {
+      runInEGTBGenerationMode(Arrays.copyOfRange(args, 1, args.length));
     } else {
       throw new IllegalArgumentException();
     }
@@ -693,6 +752,53 @@ public final class EngineFramework implements Runnable {
     }
   }
 
+  private void runInMagicsOptimizationMode(long attempts, int concurrency) {
+    MagicsConfig magicsConfig = MagicsConfig.getInstance();
+    List<Map.Entry<Long, Byte>> rookMagics = new ArrayList<>(64);
+    List<Map.Entry<Long, Byte>> bishopMagics = new ArrayList<>(64);
+    ForkJoinPool pool = new ForkJoinPool(concurrency);
+    try {
+      magicsConfig.load();
+      for (int i = 0; i < 64; i++) {
+        rookMagics.add(magicsConfig.getRookMagics(i));
+        bishopMagics.add(magicsConfig.getBishopMagics(i));
+      }
+      long bytesBefore = Bitboard.computeMagicTableSize(rookMagics) + Bitboard.computeMagicTableSize(bishopMagics);
+      List<Map.Entry<Long, Byte>> denserRookMagics = Bitboard.generateDenserMagics(true, rookMagics, attempts, pool);
+      List<Map.Entry<Long, Byte>> denserBishopMagics = Bitboard.generateDenserMagics(false, bishopMagics, attempts, pool);
+      long bytesAfter = Bitboard.computeMagicTableSize(denserRookMagics) + Bitboard.computeMagicTableSize(denserBishopMagics);
+      for (int i = 0; i < 64; i++) {
+        magicsConfig.setRookMagics(i, denserRookMagics.get(i));
+        magicsConfig.setBishopMagics(i, denserBishopMagics.get(i));
+      }
+      magicsConfig.save();
+      System.out.printf("Magic move set table size - before: %d bytes; after: %d bytes%n", bytesBefore, bytesAfter);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private void runInMagicsOptimizationMode(String[] args) {
+    long attempts = DEF_MAGIC_SEARCH_ATTEMPTS;
+    int concurrency = Runtime.getRuntime().availableProcessors();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      switch (arg) {
+        case "--attempts":
+          attempts = Long.parseLong(args[++i]);
+          break;
+        case "--concurrency":
+          concurrency = Integer.parseInt(args[++i]);
+          break;
+        default:
+          throw new IllegalArgumentException();
+      }
+    }
+    runInMagicsOptimizationMode(attempts, concurrency);
+  }
+
   private void runInGUIMode() {
     try (ControllerEngine controller = factory.newControllerEngineInstance();
         UCIEngine searchEngine = factory.newEngineInstance()) {
@@ -726,6 +832,10 @@ public final class EngineFramework implements Runnable {
         case "-c":
           runInConversionMode(Arrays.copyOfRange(args, 1, args.length));
           break;
+        // Optimize the magics of the sliding piece move set tables.
+        case "-m":
+          runInMagicsOptimizationMode(Arrays.copyOfRange(args, 1, args.length));
+          break;
         default:
           throw new IllegalArgumentException();
       }
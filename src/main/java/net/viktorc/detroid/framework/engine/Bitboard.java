@@ -9,7 +9,11 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import net.viktorc.detroid.framework.util.BitOperations;
 
@@ -591,6 +595,60 @@ public class Bitboard {
     return allMagics;
   }
 
+  /**
+   * Searches for denser magics for each square either for a rook or a bishop using a fork-join pool. Starting from the specified magics, it
+   * keeps trying to find a magic number that works with a magic shift value greater by one than that of the best magics found for the
+   * square so far, relying on constructive collisions, i.e. occupancy variations with the same move sets hashing onto the same index. The
+   * random attempts of each search are distributed over the threads of the pool and the search stops as soon as one of them succeeds or
+   * all the attempts fail.
+   *
+   * @param rook Whether the magics are to be generated for a rook move set or a bishop move set.
+   * @param magics The current magic number and magic shift value pairs of the 64 squares.
+   * @param maxAttempts The maximum number of magic numbers to try for each magic shift value.
+   * @param pool The fork-join pool to use for the search.
+   * @return A list of 64 magic number and magic shift value pairs with magic shift values not less than those of the specified magics.
+   */
+  public static List<Map.Entry<Long, Byte>> generateDenserMagics(boolean rook, List<Map.Entry<Long, Byte>> magics, long maxAttempts,
+      ForkJoinPool pool) {
+    List<Map.Entry<Long, Byte>> denserMagics = new ArrayList<>(64);
+    for (int i = 0; i < 64; i++) {
+      long bit = Square.values()[i].bitboard;
+      long[] occVar;
+      long[] moveVar;
+      if (rook) {
+        occVar = BitOperations.getAllSubsets(computeRookOccupancyMasks(bit));
+        moveVar = computeRookMoveSetVariations(bit, occVar);
+      } else {
+        occVar = BitOperations.getAllSubsets(computeBishopOccupancyMasks(bit));
+        moveVar = computeBishopMoveSetVariations(bit, occVar);
+      }
+      Map.Entry<Long, Byte> bestMagics = magics.get(i);
+      // A shift of 64 would be taken modulo 64 by the JVM.
+      while (bestMagics.getValue() < 63) {
+        byte shift = (byte) (bestMagics.getValue() + 1);
+        Long magicNumber = pool.invoke(new MagicSearchTask(occVar, moveVar, shift, maxAttempts, new AtomicBoolean()));
+        if (magicNumber == null) {
+          break;
+        }
+        bestMagics = new AbstractMap.SimpleEntry<>(magicNumber, shift);
+      }
+      denserMagics.add(bestMagics);
+    }
+    return denserMagics;
+  }
+
+  /**
+   * @param magics The magic number and magic shift value pairs of the 64 squares either for a rook or a bishop.
+   * @return The number of bytes the move set lookup table built using the magics takes up.
+   */
+  public static long computeMagicTableSize(List<Map.Entry<Long, Byte>> magics) {
+    long size = 0;
+    for (Map.Entry<Long, Byte> magic : magics) {
+      size += 1L << (64 - magic.getValue());
+    }
+    return size * Long.BYTES;
+  }
+
   /**
    * Returns a long in binary form aligned like a chess board with one byte per row, in a human-readable way.
    *
@@ -858,4 +916,76 @@ public class Bitboard {
 
   }
 
+  /**
+   * A fork-join task for trying a number of random magic numbers for a square with a given magic shift value. If the number of attempts is
+   * too large, it is split in half between two sub-tasks. The tasks of the same search share a flag so that they can stop once a magic
+   * number is found.
+   *
+   * @author Viktor
+   */
+  private static class MagicSearchTask extends RecursiveTask<Long> {
+
+    /**
+     * Default serial version ID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private static final long ATTEMPTS_PER_TASK = 1L << 12;
+
+    private final long[] occVar;
+    private final long[] moveVar;
+    private final byte shift;
+    private final long attempts;
+    private final AtomicBoolean found;
+
+    MagicSearchTask(long[] occVar, long[] moveVar, byte shift, long attempts, AtomicBoolean found) {
+      this.occVar = occVar;
+      this.moveVar = moveVar;
+      this.shift = shift;
+      this.attempts = attempts;
+      this.found = found;
+    }
+
+    @Override
+    protected Long compute() {
+      if (found.get()) {
+        return null;
+      }
+      if (attempts > ATTEMPTS_PER_TASK) {
+        long half = attempts / 2;
+        MagicSearchTask task1 = new MagicSearchTask(occVar, moveVar, shift, half, found);
+        MagicSearchTask task2 = new MagicSearchTask(occVar, moveVar, shift, attempts - half, found);
+        task1.fork();
+        Long magicNumber = task2.compute();
+        Long otherMagicNumber = task1.join();
+        return magicNumber != null ? magicNumber : otherMagicNumber;
+      }
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int size = 1 << (64 - shift);
+      long[] magicDatabase = new long[size];
+      // The attempt in which each entry of the database was last set so that it does not have to be cleared before each attempt.
+      long[] setInAttempt = new long[size];
+      for (long attempt = 1; attempt <= attempts && !found.get(); attempt++) {
+        long magicNumber = random.nextLong() & random.nextLong() & random.nextLong();
+        boolean collision = false;
+        for (int i = 0; i < occVar.length; i++) {
+          int index = (int) ((occVar[i] * magicNumber) >>> shift);
+          if (setInAttempt[index] != attempt) {
+            setInAttempt[index] = attempt;
+            magicDatabase[index] = moveVar[i];
+          } else if (magicDatabase[index] != moveVar[i]) {
+            collision = true;
+            break;
+          }
+        }
+        if (!collision) {
+          found.set(true);
+          return magicNumber;
+        }
+      }
+      return null;
+    }
+
+  }
+
 }
@@ -0,0 +1,118 @@
+package net.viktorc.detroid.framework.engine;
+
+/**
+ * A set-associative transposition table that groups its slots into buckets of four entries. As every entry takes up 16 bytes, a bucket
+ * is 64 bytes long which is the size of a cache line on most architectures; although the alignment of the backing array is not guaranteed,
+ * a bucket spans at most two cache lines. The number of buckets is a power of two, thus the bucket of a position is determined by masking
+ * its key instead of deriving the remainder of a division.
+ *
+ * If there is no entry for the position in its bucket, an empty or expired slot is used if available; otherwise the entry with the lowest
+ * replacement value is overwritten. The replacement value of an entry is its depth reduced in proportion to how many generations old it
+ * is, so entries from previous searches gradually give way to new ones without the table ever having to be swept.
+ *
+ * @author Viktor
+ */
+class BucketedTranspositionTable extends TranspositionTable {
+
+  /**
+   * The number of entries per bucket.
+   */
+  static final int BUCKET_SIZE = 4;
+
+  // The maximum number of buckets such that the array of slots does not exceed the maximum array length.
+  private static final long MAX_BUCKETS = Long.highestOneBit(MAX_CAPACITY / BUCKET_SIZE);
+  // The depth penalty applied to an entry per generation of age when choosing the entry to replace.
+  private static final int AGE_PENALTY = 8;
+
+  private final long bucketMask;
+
+  /**
+   * Constructs a transposition table that takes up at most approximately the specified number of bytes.
+   *
+   * @param sizeInBytes The maximum size of the table in bytes.
+   */
+  BucketedTranspositionTable(long sizeInBytes) {
+    super(numberOfBuckets(sizeInBytes) * BUCKET_SIZE);
+    bucketMask = capacity() / BUCKET_SIZE - 1;
+  }
+
+  /**
+   * Returns the greatest power of two number of buckets that fits into the specified number of bytes.
+   *
+   * @param sizeInBytes The maximum size of the table in bytes.
+   * @return The number of buckets.
+   */
+  private static long numberOfBuckets(long sizeInBytes) {
+    long buckets = Math.max(1, Math.min(sizeInBytes / (BUCKET_SIZE * ENTRY_SIZE), MAX_BUCKETS));
+    return Long.highestOneBit(buckets);
+  }
+
+  /**
+   * Returns the index of the first slot of the bucket the key maps to.
+   *
+   * @param key The 64 bit position hash key.
+   * @return The index of the first slot of the bucket.
+   */
+  private long bucketIndex(long key) {
+    return (key & bucketMask) * BUCKET_SIZE;
+  }
+
+  /**
+   * Returns the value of an entry when it comes to choosing the entry to replace from a bucket.
+   *
+   * @param data The packed data of the entry.
+   * @return The replacement value of the entry.
+   */
+  private int replacementValue(long data) {
+    return depth(data) - AGE_PENALTY * age(data);
+  }
+
+  @Override
+  protected long find(long key) {
+    long bucket = bucketIndex(key);
+    for (long ind = bucket; ind < bucket + BUCKET_SIZE; ind++) {
+      if (matches(ind, key)) {
+        return ind;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  boolean put(TTEntry entry) {
+    long key = entry.getKey();
+    byte generation = entry.getGeneration();
+    long data = pack(entry.getDepth(), entry.getType(), entry.getScore(), entry.getBestMove(), generation, entry.isBusy());
+    long bucket = bucketIndex(key);
+    long replaceInd = -1;
+    int minValue = Integer.MAX_VALUE;
+    for (long ind = bucket; ind < bucket + BUCKET_SIZE; ind++) {
+      long slotData = table.dataAt(ind);
+      // Empty and expired slots are always the first to be filled.
+      if (isVacant(slotData)) {
+        if (minValue != Integer.MIN_VALUE) {
+          minValue = Integer.MIN_VALUE;
+          replaceInd = ind;
+        }
+        continue;
+      }
+      /* If there is an entry for the same position, only replace it if it is not more valuable or it is from an
+       * earlier search. */
+      if (table.isEntryOf(ind, key, slotData)) {
+        if (compare(data, slotData) >= 0 || generation(slotData) != generation) {
+          table.store(ind, key, data);
+          return true;
+        }
+        return false;
+      }
+      int value = replacementValue(slotData);
+      if (value < minValue) {
+        minValue = value;
+        replaceInd = ind;
+      }
+    }
+    table.store(replaceInd, key, data);
+    return true;
+  }
+
+}
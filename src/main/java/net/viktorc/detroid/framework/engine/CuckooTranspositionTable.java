@@ -0,0 +1,135 @@
+package net.viktorc.detroid.framework.engine;
+
+import net.viktorc.detroid.framework.util.MillerRabin;
+
+/**
+ * A transposition table whose slots are divided into two regions with different prime lengths. Every position can be stored in one slot
+ * per region, similarly to {@link net.viktorc.detroid.framework.util.Cache}, without the relocation of entries. When both candidate slots
+ * are taken, the less valuable one of them is replaced if the new entry is at least as valuable.
+ *
+ * @author Viktor
+ */
+class CuckooTranspositionTable extends TranspositionTable {
+
+  private static final float T1_SHARE = 0.6f;
+  private static final float T2_SHARE = 0.4f;
+
+  private final long t1Length;
+  private final long t2Length;
+
+  /**
+   * Constructs a transposition table that takes up at most approximately the specified number of bytes.
+   *
+   * @param sizeInBytes The maximum size of the table in bytes.
+   */
+  CuckooTranspositionTable(long sizeInBytes) {
+    this(regionLengths(sizeInBytes));
+  }
+
+  private CuckooTranspositionTable(long[] regionLengths) {
+    super(regionLengths[0] + regionLengths[1]);
+    t1Length = regionLengths[0];
+    t2Length = regionLengths[1];
+  }
+
+  /**
+   * Computes the lengths of the two regions so that they are unique primes and their sum does not exceed the number of entries that fit
+   * into the specified number of bytes.
+   *
+   * @param sizeInBytes The maximum size of the table in bytes.
+   * @return The lengths of the two regions.
+   */
+  private static long[] regionLengths(long sizeInBytes) {
+    long capacity = Math.min(sizeInBytes / ENTRY_SIZE, MAX_CAPACITY);
+    long tL1 = MillerRabin.greatestLEPrime(Math.max(3, Math.round(T1_SHARE * capacity)));
+    long tL2 = MillerRabin.greatestLEPrime(Math.max(3, Math.round(T2_SHARE * capacity)));
+    if (tL1 == tL2) {
+      tL2 = MillerRabin.greatestLEPrime(tL2 - 1);
+    }
+    return new long[]{tL1, tL2};
+  }
+
+  /**
+   * Returns the index of the slot in the first region the key maps to.
+   *
+   * @param key The 64 bit position hash key.
+   * @return The index of the slot.
+   */
+  private long index1(long key) {
+    return (key & Long.MAX_VALUE) % t1Length;
+  }
+
+  /**
+   * Returns the index of the slot in the second region the key maps to.
+   *
+   * @param key The 64 bit position hash key.
+   * @return The index of the slot.
+   */
+  private long index2(long key) {
+    return t1Length + (key & Long.MAX_VALUE) % t2Length;
+  }
+
+  @Override
+  protected long find(long key) {
+    long ind = index1(key);
+    if (matches(ind, key)) {
+      return ind;
+    }
+    ind = index2(key);
+    if (matches(ind, key)) {
+      return ind;
+    }
+    return -1;
+  }
+
+  @Override
+  boolean put(TTEntry entry) {
+    long key = entry.getKey();
+    long data = pack(entry.getDepth(), entry.getType(), entry.getScore(), entry.getBestMove(), entry.getGeneration(),
+        entry.isBusy());
+    long ind1 = index1(key);
+    long ind2 = index2(key);
+    long data1 = table.dataAt(ind1);
+    long data2 = table.dataAt(ind2);
+    // Checking for an entry with the same key. If there is one, insertion can terminate regardless of its success.
+    if (!isVacant(data1) && table.isEntryOf(ind1, key, data1)) {
+      if (compare(data, data1) >= 0) {
+        table.store(ind1, key, data);
+        return true;
+      }
+      return false;
+    }
+    if (!isVacant(data2) && table.isEntryOf(ind2, key, data2)) {
+      if (compare(data, data2) >= 0) {
+        table.store(ind2, key, data);
+        return true;
+      }
+      return false;
+    }
+    // If there was no entry with the same key, but there was at least one empty or expired slot, insert the entry into it.
+    if (isVacant(data1)) {
+      table.store(ind1, key, data);
+      return true;
+    }
+    if (isVacant(data2)) {
+      table.store(ind2, key, data);
+      return true;
+    }
+    // Make sure not to push out the better entry out of the two.
+    long ind;
+    long replacedData;
+    if (compare(data1, data2) <= 0) {
+      ind = ind1;
+      replacedData = data1;
+    } else {
+      ind = ind2;
+      replacedData = data2;
+    }
+    if (compare(data, replacedData) >= 0) {
+      table.store(ind, key, data);
+      return true;
+    }
+    return false;
+  }
+
+}
@@ -1,6 +1,9 @@
 package net.viktorc.detroid.framework.engine;
 
 import java.io.IOException;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -13,6 +16,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -26,8 +30,6 @@ import net.viktorc.detroid.framework.uci.Option;
 import net.viktorc.detroid.framework.uci.ScoreType;
 import net.viktorc.detroid.framework.uci.SearchInformation;
 import net.viktorc.detroid.framework.uci.SearchResults;
-import net.viktorc.detroid.framework.util.Cache;
-import net.viktorc.detroid.framework.util.SizeEstimator;
 import net.viktorc.detroid.framework.validation.ControllerEngine;
 import net.viktorc.detroid.framework.validation.GameState;
 
@@ -59,6 +61,8 @@ public class Detroid implements ControllerEngine, TunableEngine {
 
   // The default path to the 3 and 4 men Gaviota endgame tablebases.
   private static final String DEFAULT_EGTB_FOLDERS_PATH = "gtb/3;gtb/4";
+  // The default path to the pure Java endgame tablebases generated by TableBaseGenerator.
+  private static final String DEFAULT_DTB_FOLDER_PATH = "dtb";
   // The default compression scheme of the Gaviotat endgame tablebase files.
   private static final CompressionScheme DEFAULT_EGTB_COMP_SCHEME = CompressionScheme.CP4;
   // The minimum allowed number of search threads to use.
@@ -70,21 +74,34 @@ public class Detroid implements ControllerEngine, TunableEngine {
   // The minimum allowed hash size in MB.
   private static final int MIN_HASH_SIZE = 1;
   // The maximum allowed hash size in MB.
-  private static final int MAX_HASH_SIZE = (int) (Runtime.getRuntime().maxMemory() / (2L << 20));
+  private static final int MAX_HASH_SIZE = maxHashSize();
   // The default hash size in MB.
   private static final int DEFAULT_HASH_SIZE = Math.min(DEFAULT_SEARCH_THREADS * 32, MAX_HASH_SIZE);
+  // The default transposition table storage and replacement scheme.
+  private static final TranspositionTable.Scheme DEFAULT_HASH_SCHEME = TranspositionTable.Scheme.CUCKOO;
+  // The default way of sharing the work between the search threads.
+  private static final Search.ParallelScheme DEFAULT_PARALLEL_SEARCH_SCHEME = Search.ParallelScheme.BUSY_FLAG;
   // The minimum allowed endgame tablebase cache size in MB.
   private static final int MIN_EGTB_CACHE_SIZE = 0;
   // The maximum allowed endgame tablebase cache size in MB.
   private static final int MAX_EGTB_CACHE_SIZE = Math.min(256, MAX_HASH_SIZE);
   // The default endgame tablebase cache size in MB.
   private static final int DEFAULT_EGTB_CACHE_SIZE = Math.min(DEFAULT_SEARCH_THREADS * 16, MAX_EGTB_CACHE_SIZE);
+  // The share of the hash size the perft hash table is allowed to take up in 16ths.
+  private static final int PERFT_HASH_SHARE_16TH = 4;
+  // The hash entry generations are stored in 7 bits and wrap around.
+  private static final int GENERATION_MASK = 0x7F;
+  // The number of hash table slots the background cleanup task processes between checks for interruption.
+  private static final long HASH_CLEANUP_CHUNK_SIZE = 1L << 16;
 
   private final Object mainLock;
   private final Object searchLock;
   private final Object stopLock;
+  // Guards the references to the hash tables while their memory is released and reallocated.
+  private final Object hashLock;
 
   private Option<?> hashSize;
+  private Option<?> hashScheme;
   private Option<?> clearHash;
   private Option<?> ponder;
   private Option<?> ownBook;
@@ -95,7 +112,9 @@ public class Detroid implements ControllerEngine, TunableEngine {
   private Option<?> egtbCompScheme;
   private Option<?> egtbCacheSize;
   private Option<?> egtbClearCache;
+  private Option<?> dtbFilesPath;
   private Option<?> numOfSearchThreads;
+  private Option<?> parallelSearchScheme;
   private Option<?> parametersPath;
   private Option<?> uciOpponent;
   private Option<?> uciAnalysis;
@@ -106,12 +125,17 @@ public class Detroid implements ControllerEngine, TunableEngine {
   private DetroidDebugInfo debugInfo;
   private OpeningBook book;
   private EndGameTableBase egtb;
+  private EndGameTableBase dtb;
   private Game game;
   private Evaluator eval;
-  private Cache<TTEntry> transTable;
-  private Cache<ETEntry> evalTable;
+  private TranspositionTable transTable;
+  private EvaluationTable evalTable;
   private ExecutorService executor;
+  private ExecutorService hashCleaner;
+  private ExecutorService searchHelperPool;
+  private SearchThreadState[] searchThreadStates;
   private Future<SearchResults> search;
+  private Future<?> hashCleanup;
   private volatile boolean bookMove;
   private volatile boolean outOfBook;
   private volatile boolean init;
@@ -130,16 +154,54 @@ public class Detroid implements ControllerEngine, TunableEngine {
     mainLock = new Object();
     searchLock = new Object();
     stopLock = new Object();
+    hashLock = new Object();
+  }
+
+  /**
+   * Returns the maximum hash size in megabytes. The hash tables are allocated in direct memory, so it is the direct memory limit of the
+   * JVM, which defaults to the maximum heap size, but at most half of the physical memory of the machine.
+   *
+   * @return The maximum hash size in megabytes.
+   */
+  @SuppressWarnings("deprecation")
+  private static int maxHashSize() {
+    long memory = Runtime.getRuntime().maxMemory();
+    HotSpotDiagnosticMXBean hotSpotBean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+    if (hotSpotBean != null) {
+      long maxDirectMemory = Long.parseLong(hotSpotBean.getVMOption("MaxDirectMemorySize").getValue());
+      // A value of 0 means that the limit is the default one, the maximum heap size.
+      if (maxDirectMemory > 0) {
+        memory = maxDirectMemory;
+      }
+    }
+    OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+      // Its replacement, getTotalMemorySize, is only available as of Java 14 while the engine targets Java 8.
+      memory = Math.min(memory, ((com.sun.management.OperatingSystemMXBean) osBean).getTotalPhysicalMemorySize() / 2);
+    }
+    return (int) Math.min(Integer.MAX_VALUE, memory / (1L << 20));
   }
 
   private void setHashSize(int hashSize) {
     long sizeInBytes = hashSize * 1024L * 1024L;
-    SizeEstimator estimator = SizeEstimator.getInstance();
     double transTableShare = ((double) params.transTableShare16th) / 16;
-    transTable = new Cache<>(TTEntry::new, (int) (sizeInBytes * transTableShare / estimator.sizeOf(TTEntry.class)));
-    evalTable = new Cache<>(ETEntry::new, (int) (sizeInBytes * (1d - transTableShare) / estimator.sizeOf(ETEntry.class)));
-    gen = 0;
-    // Prompt for garbage collection.
+    // Release the memory of the old tables before allocating the new ones.
+    stopHashCleanup();
+    synchronized (hashLock) {
+      if (transTable != null) {
+        transTable.free();
+      }
+      if (evalTable != null) {
+        evalTable.free();
+      }
+      transTable = TranspositionTable.newInstance((TranspositionTable.Scheme) options.get(hashScheme),
+          (long) (sizeInBytes * transTableShare));
+      evalTable = new EvaluationTable((long) (sizeInBytes * (1d - transTableShare)));
+    }
+    // The evaluator must not keep a reference to the released evaluation table.
+    eval = new Evaluator(params, controllerMode || deterministicEvalMode ? null : evalTable);
+    setHashGeneration((byte) 0);
+    // Prompt for garbage collection as the direct memory of the released tables is only reclaimed once they are collected.
     System.gc();
     if (debugMode) {
       debugInfo.set("Hash capacity data\n" +
@@ -151,12 +213,110 @@ public class Detroid implements ControllerEngine, TunableEngine {
   private void clearHash() {
     transTable.clear();
     evalTable.clear();
-    gen = 0;
+    setHashGeneration((byte) 0);
     if (debugMode) {
       debugInfo.set("Hash tables cleared");
     }
   }
 
+  private void setHashGeneration(byte generation) {
+    gen = generation;
+    transTable.setCurrentGeneration(gen, params.transTableEntryLifeCycle);
+    evalTable.setCurrentGeneration(gen, params.evalTableEntryLifeCycle);
+  }
+
+  /**
+   * Advances the generation of the hash tables by the specified number. It takes constant time as the entries are aged relative to the
+   * current generation and the ones that have outlived their life cycles are treated as empty. The slots of the expired entries are
+   * emptied by a background task, so that they do not resurface once the generations wrap around.
+   *
+   * @param generations The number of generations to advance by.
+   */
+  private void advanceHashGeneration(int generations) {
+    setHashGeneration((byte) ((gen + generations) & GENERATION_MASK));
+    // If a cleanup is still in progress, it will make use of the new generation.
+    if (hashCleanup == null || hashCleanup.isDone()) {
+      TranspositionTable transTable = this.transTable;
+      EvaluationTable evalTable = this.evalTable;
+      hashCleanup = hashCleaner.submit(() -> {
+        long transCapacity = transTable.capacity();
+        for (long i = 0; i < transCapacity && !Thread.currentThread().isInterrupted(); i += HASH_CLEANUP_CHUNK_SIZE) {
+          transTable.removeExpired(i, Math.min(transCapacity, i + HASH_CLEANUP_CHUNK_SIZE));
+        }
+        long evalCapacity = evalTable.capacity();
+        for (long i = 0; i < evalCapacity && !Thread.currentThread().isInterrupted(); i += HASH_CLEANUP_CHUNK_SIZE) {
+          evalTable.removeExpired(i, Math.min(evalCapacity, i + HASH_CLEANUP_CHUNK_SIZE));
+        }
+      });
+    }
+  }
+
+  /**
+   * Interrupts the background hash cleanup task if it is running and waits for it to terminate. It has to be called before the memory of
+   * the hash tables is released.
+   */
+  private void stopHashCleanup() {
+    if (hashCleanup == null) {
+      return;
+    }
+    hashCleanup.cancel(true);
+    hashCleanup = null;
+    // As the executor is single-threaded, a task submitted after the cleanup task cannot complete before the cleanup task terminates.
+    try {
+      hashCleaner.submit(() -> {
+      }).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      if (debugMode) {
+        debugInfo.set(e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Sets up the long-lived helper search threads and the states of the search threads for the specified number of search threads. The
+   * states of the threads that are kept are reused.
+   *
+   * @param numOfThreads The total number of search threads.
+   */
+  private void setSearchThreads(int numOfThreads) {
+    if (searchThreadStates != null && searchThreadStates.length == numOfThreads) {
+      return;
+    }
+    if (searchHelperPool != null) {
+      searchHelperPool.shutdown();
+      searchHelperPool = null;
+    }
+    if (numOfThreads > 1) {
+      searchHelperPool = Executors.newFixedThreadPool(numOfThreads - 1, r -> {
+        Thread thread = new Thread(r);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    SearchThreadState[] states = new SearchThreadState[numOfThreads];
+    for (int i = 0; i < numOfThreads; i++) {
+      states[i] = searchThreadStates != null && i < searchThreadStates.length ? searchThreadStates[i] :
+          new SearchThreadState(Search.MAX_KILLER_MOVE_DIST_FROM_ROOT);
+    }
+    searchThreadStates = states;
+  }
+
+  /**
+   * Prepares the states of the search threads for a new search. Unless the engine is in controller or deterministic evaluation mode, the
+   * history tables are carried over from the previous search with decayed scores.
+   */
+  private void prepareSearchThreadStates() {
+    for (SearchThreadState state : searchThreadStates) {
+      if (controllerMode || deterministicEvalMode) {
+        state.reset();
+      } else {
+        state.prepareForSearch();
+      }
+    }
+  }
+
   private void setPlayerNames() {
     if (newGame) {
       if (game.isWhitesTurn()) {
@@ -365,14 +525,27 @@ public class Detroid implements ControllerEngine, TunableEngine {
     return results;
   }
 
+  /**
+   * Returns the endgame tablebases to use in the search. The Gaviota tablebases are preferred if the probing library is loaded and
+   * initialized; otherwise the pure Java tablebases are used.
+   *
+   * @return The endgame tablebases to probe.
+   */
+  private EndGameTableBase getTableBase() {
+    return egtb.isProbingLibLoaded() && egtb.isInit() ? egtb : dtb;
+  }
+
   private void startGameTreeSearch(Set<Move> allowedMoves, boolean doPonder, boolean doInfinite, Integer depth, Long nodes,
       Integer mateDistance) {
-    if (egtb.isProbingLibLoaded() && egtb.isInit()) {
-      egtb.resetStats();
+    EndGameTableBase tableBase = getTableBase();
+    if (tableBase.isProbingLibLoaded() && tableBase.isInit()) {
+      tableBase.resetStats();
+      tableBase.resetProbeStats();
     }
     boolean analysisMode = (Boolean) options.get(uciAnalysis);
-    Search gameTreeSearch = new Search(game.getPosition(), params, eval, egtb, searchInfo, (int) options.get(numOfSearchThreads),
-        transTable, gen, analysisMode, doPonder || doInfinite,
+    prepareSearchThreadStates();
+    Search gameTreeSearch = new Search(game.getPosition(), params, eval, tableBase, searchInfo, searchThreadStates, searchHelperPool,
+        (Search.ParallelScheme) options.get(parallelSearchScheme), transTable, gen, analysisMode, doPonder || doInfinite,
         depth == null ? (mateDistance == null ? Integer.MAX_VALUE : mateDistance) : depth, nodes == null ? Long.MAX_VALUE : nodes,
         allowedMoves);
     search = gameTreeSearch;
@@ -491,20 +664,6 @@ public class Detroid implements ControllerEngine, TunableEngine {
     return collectGameTreeSearchResults();
   }
 
-  private long perft(Position pos, int depth) {
-    long leafNodes = 0;
-    List<Move> moves = pos.getMoves();
-    if (depth == 1) {
-      return moves.size();
-    }
-    for (Move m : moves) {
-      pos.makeMove(m);
-      leafNodes += perft(pos, depth - 1);
-      pos.unmakeMove();
-    }
-    return leafNodes;
-  }
-
   @Override
   public void init() throws Exception {
     synchronized (mainLock) {
@@ -521,6 +680,8 @@ public class Detroid implements ControllerEngine, TunableEngine {
         egtb.init(DEFAULT_EGTB_FOLDERS_PATH, DEFAULT_EGTB_CACHE_SIZE * 1024L * 1024L,
             DEFAULT_EGTB_COMP_SCHEME);
       }
+      dtb = new MappedTableBase();
+      dtb.init(DEFAULT_DTB_FOLDER_PATH, 0);
       debugInfo = new DetroidDebugInfo();
       debugMode = false;
       controllerMode = false;
@@ -532,7 +693,13 @@ public class Detroid implements ControllerEngine, TunableEngine {
       parametersPath = new Option.StringOption("ParametersPath", DEFAULT_PARAMETERS_FILE_PATH);
       numOfSearchThreads = new Option.SpinOption(THREADS_OPTION_NAME, DEFAULT_SEARCH_THREADS, MIN_SEARCH_THREADS,
           MAX_SEARCH_THREADS);
+      parallelSearchScheme = new Option.ComboOption("ParallelSearchScheme", DEFAULT_PARALLEL_SEARCH_SCHEME.toString(),
+          new TreeSet<>(Arrays.stream(Search.ParallelScheme.values()).map(Object::toString)
+              .collect(Collectors.toList())));
       hashSize = new Option.SpinOption(HASH_OPTION_NAME, DEFAULT_HASH_SIZE, MIN_HASH_SIZE, MAX_HASH_SIZE);
+      hashScheme = new Option.ComboOption("HashScheme", DEFAULT_HASH_SCHEME.toString(),
+          new TreeSet<>(Arrays.stream(TranspositionTable.Scheme.values()).map(Object::toString)
+              .collect(Collectors.toList())));
       clearHash = new Option.ButtonOption("ClearHash");
       ownBook = new Option.CheckOption(OWN_BOOK_OPTION_NAME, true);
       primaryBookPath = new Option.StringOption("PolyglotBookPrimaryPath", DEFAULT_BOOK_FILE_PATH);
@@ -545,12 +712,15 @@ public class Detroid implements ControllerEngine, TunableEngine {
       egtbCacheSize = new Option.SpinOption("GaviotaTbCache", DEFAULT_EGTB_CACHE_SIZE, MIN_EGTB_CACHE_SIZE,
           MAX_EGTB_CACHE_SIZE);
       egtbClearCache = new Option.ButtonOption("GaviotaTbClearCache");
+      dtbFilesPath = new Option.StringOption("DtbPath", DEFAULT_DTB_FOLDER_PATH);
       ponder = new Option.CheckOption("Ponder", true);
       uciOpponent = new Option.StringOption("UCI_Opponent", "?");
       uciAnalysis = new Option.CheckOption("UCI_AnalyseMode", false);
       options.put(parametersPath, parametersPath.getDefaultValue().get());
       options.put(numOfSearchThreads, numOfSearchThreads.getDefaultValue().get());
+      options.put(parallelSearchScheme, DEFAULT_PARALLEL_SEARCH_SCHEME);
       options.put(hashSize, hashSize.getDefaultValue().get());
+      options.put(hashScheme, DEFAULT_HASH_SCHEME);
       options.put(clearHash, null);
       options.put(ownBook, ownBook.getDefaultValue().get());
       options.put(primaryBookPath, primaryBookPath.getDefaultValue().get());
@@ -560,13 +730,24 @@ public class Detroid implements ControllerEngine, TunableEngine {
       options.put(egtbCompScheme, DEFAULT_EGTB_COMP_SCHEME);
       options.put(egtbCacheSize, egtbCacheSize.getDefaultValue().get());
       options.put(egtbClearCache, null);
+      options.put(dtbFilesPath, dtbFilesPath.getDefaultValue().get());
       options.put(ponder, ponder.getDefaultValue().get());
       options.put(uciOpponent, uciOpponent.getDefaultValue().get());
       options.put(uciAnalysis, uciAnalysis.getDefaultValue().get());
       searchInfo = new DetroidSearchInformation();
+      hashCleaner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+      });
+      // Have the KPK bitbase generated in the background instead of on the first probe.
+      Thread kpkGenerator = new Thread(KPKBitbase::ensureGenerated);
+      kpkGenerator.setDaemon(true);
+      kpkGenerator.start();
       setHashSize(controllerMode || deterministicEvalMode ? MIN_HASH_SIZE : DEFAULT_HASH_SIZE);
-      eval = new Evaluator(params, controllerMode || deterministicEvalMode ? null : evalTable);
       executor = Executors.newSingleThreadExecutor();
+      setSearchThreads((int) options.get(numOfSearchThreads));
       init = true;
     }
   }
@@ -604,7 +785,6 @@ public class Detroid implements ControllerEngine, TunableEngine {
           if (MIN_HASH_SIZE <= val && MAX_HASH_SIZE >= val) {
             if (val != (Integer) options.get(hashSize)) {
               setHashSize(val);
-              eval = new Evaluator(params, controllerMode || deterministicEvalMode ? null : evalTable);
               options.put(hashSize, value);
             }
             if (debugMode) {
@@ -612,6 +792,19 @@ public class Detroid implements ControllerEngine, TunableEngine {
             }
             return true;
           }
+        } else if (hashScheme.equals(setting)) {
+          String schemeName = (String) value;
+          TranspositionTable.Scheme scheme = Arrays.stream(TranspositionTable.Scheme.values())
+              .filter(s -> schemeName.equals(s.name()))
+              .collect(Collectors.toList()).get(0);
+          if (scheme != options.get(hashScheme)) {
+            options.put(hashScheme, scheme);
+            setHashSize((Integer) options.get(hashSize));
+          }
+          if (debugMode) {
+            debugInfo.set("Hash scheme successfully set to " + value);
+          }
+          return true;
         } else if (clearHash.equals(setting)) {
           clearHash();
           return true;
@@ -755,18 +948,38 @@ public class Detroid implements ControllerEngine, TunableEngine {
           }
         } else if (egtbClearCache.equals(setting)) {
           if (egtb.isProbingLibLoaded()) {
+            egtb.stopPrefetching();
             egtb.clearCache();
             return true;
           }
+        } else if (dtbFilesPath.equals(setting)) {
+          dtb.init((String) value, 0);
+          options.put(dtbFilesPath, value);
+          if (debugMode) {
+            debugInfo.set("DTB files path successfully set to " + value + "; available tablebases: " +
+                dtb.areTableBasesAvailable(3) + ", " + dtb.areTableBasesAvailable(4));
+          }
+          return true;
         } else if (numOfSearchThreads.equals(setting)) {
           if (value != null && MIN_SEARCH_THREADS <= (Integer) value &&
               MAX_SEARCH_THREADS >= (Integer) value) {
             options.put(numOfSearchThreads, value);
+            setSearchThreads((Integer) value);
             if (debugMode) {
               debugInfo.set("Number of search threads successfully set to " + value);
             }
             return true;
           }
+        } else if (parallelSearchScheme.equals(setting)) {
+          String schemeName = (String) value;
+          Search.ParallelScheme scheme = Arrays.stream(Search.ParallelScheme.values())
+              .filter(s -> schemeName.equals(s.name()))
+              .collect(Collectors.toList()).get(0);
+          options.put(parallelSearchScheme, scheme);
+          if (debugMode) {
+            debugInfo.set("Parallel search scheme successfully set to " + value);
+          }
+          return true;
         } else if (parametersPath.equals(setting)) {
           try {
             String filePath = (String) value;
@@ -820,10 +1033,15 @@ public class Detroid implements ControllerEngine, TunableEngine {
     synchronized (mainLock) {
       newGame = true;
       outOfBook = false;
+      // Let all the entries of the previous game expire.
       if (!controllerMode && !deterministicEvalMode) {
-        clearHash();
+        advanceHashGeneration(Math.max(params.transTableEntryLifeCycle, params.evalTableEntryLifeCycle) + 1);
+      }
+      for (SearchThreadState state : searchThreadStates) {
+        state.reset();
       }
       if (egtb.isProbingLibLoaded()) {
+        egtb.stopPrefetching();
         egtb.clearCache();
       }
     }
@@ -849,21 +1067,13 @@ public class Detroid implements ControllerEngine, TunableEngine {
           }
           game = new Game(pos);
         }
-        // Otherwise just clear the obsolete entries from the hash tables.
+        // Otherwise just let the obsolete entries of the hash tables expire.
         else {
           if (debugMode) {
             debugInfo.set("Position0 set within the same game");
           }
-          gen++;
           if (!controllerMode && !deterministicEvalMode) {
-            if (gen == 127) {
-              transTable.clear();
-              evalTable.clear();
-              gen = 0;
-            } else {
-              transTable.remove(e -> e.getGeneration() < gen - params.transTableEntryLifeCycle);
-              evalTable.remove(e -> e.getGeneration() < gen - params.evalTableEntryLifeCycle);
-            }
+            advanceHashGeneration(1);
           }
           game = new Game(game.getStartPos(), game.getEvent(), game.getSite(), game.getWhitePlayerName(), game.getBlackPlayerName());
         }
@@ -963,21 +1173,28 @@ public class Detroid implements ControllerEngine, TunableEngine {
 
   @Override
   public short getHashLoadPermill() {
-    long transLoad = transTable.size();
-    long evalLoad = evalTable.size();
-    long totalLoad = transLoad + evalLoad;
-    long transCapacity = transTable.capacity();
-    long evalCapacity = evalTable.capacity();
-    long totalCapacity = transCapacity + evalCapacity;
-    if (debugMode) {
-      debugInfo.set(String.format("TT load factor - %.2f%nET load factor - %.2f",
-          ((float) transLoad) / transCapacity, ((float) evalLoad) / evalCapacity));
-      debugInfo.set(String.format("Total hash size in MB - %.2f", (float) ((double) transTable.memorySize() +
-          evalTable.memorySize()) / (1L << 20)));
+    /* It is called by the search observers while the main lock is held by the search, so only the hash lock is taken to make sure that
+     * the tables are not released while they are sampled. */
+    synchronized (hashLock) {
+      if (transTable == null || evalTable == null) {
+        return 0;
+      }
+      long transLoad = transTable.size();
+      long evalLoad = evalTable.size();
+      long totalLoad = transLoad + evalLoad;
+      long transCapacity = transTable.capacity();
+      long evalCapacity = evalTable.capacity();
+      long totalCapacity = transCapacity + evalCapacity;
+      if (debugMode) {
+        debugInfo.set(String.format("TT load factor - %.2f%nET load factor - %.2f",
+            ((float) transLoad) / transCapacity, ((float) evalLoad) / evalCapacity));
+        debugInfo.set(String.format("Total hash size in MB - %.2f", (float) ((double) transTable.memorySize() +
+            evalTable.memorySize()) / (1L << 20)));
+      }
+      /* Due to the non-thread-safe nature of the hash tables, incorrect size values may be returned; ensure
+       * the load does not exceed 1000. */
+      return (short) Math.min(1000, 1000 * totalLoad / totalCapacity);
     }
-    /* Due to the non-thread-safe nature of the hash tables, incorrect size values may be returned; ensure
-     * the load does not exceed 1000. */
-    return (short) Math.min(1000, 1000 * totalLoad / totalCapacity);
   }
 
   @Override
@@ -1011,6 +1228,7 @@ public class Detroid implements ControllerEngine, TunableEngine {
       }
       if (egtb.isProbingLibLoaded()) {
         try {
+          egtb.stopPrefetching();
           egtb.close();
         } catch (IOException e) {
           if (debugMode) {
@@ -1018,10 +1236,26 @@ public class Detroid implements ControllerEngine, TunableEngine {
           }
         }
       }
+      try {
+        dtb.close();
+      } catch (IOException e) {
+        if (debugMode) {
+          debugInfo.set(e.getMessage());
+        }
+      }
       executor.shutdown();
+      if (searchHelperPool != null) {
+        searchHelperPool.shutdown();
+      }
+      stopHashCleanup();
+      hashCleaner.shutdown();
       searchInfo.deleteObservers();
-      transTable = null;
-      evalTable = null;
+      synchronized (hashLock) {
+        transTable.free();
+        evalTable.free();
+        transTable = null;
+        evalTable = null;
+      }
       init = false;
     }
   }
@@ -1196,7 +1430,14 @@ public class Detroid implements ControllerEngine, TunableEngine {
   @Override
   public long perft(int depth) {
     synchronized (mainLock) {
-      return perft(game.getPosition(), depth);
+      /* The perft hash table only exists for the duration of the perft. It is allocated in addition to the hash tables of the engine, which
+       * are left intact, so its size is limited to a fraction of the hash size. */
+      Perft perft = new Perft(ForkJoinPool.commonPool(), (Integer) options.get(hashSize) * 1024L * 1024L * PERFT_HASH_SHARE_16TH / 16);
+      try {
+        return perft.perft(game.getPosition(), depth);
+      } finally {
+        perft.free();
+      }
     }
   }
 
@@ -0,0 +1,120 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+import net.viktorc.detroid.framework.engine.EndGameTableBase.DTM;
+import net.viktorc.detroid.framework.engine.EndGameTableBase.WDL;
+
+/**
+ * A fixed-size, lock-free cache of endgame tablebase probing results keyed by the Zobrist keys of the positions. It is meant to sit in
+ * front of the probing library so that repeated probes of the same positions by the search threads are answered without going through
+ * the library and its synchronization. The packed results are stored in a {@link LockFreeHashTable}. Only definite results are cached;
+ * an entry holding the distance to mate as well can also answer WDL probes, but not vice versa.
+ *
+ * @author Viktor
+ */
+final class EGTBResultCache {
+
+  private static final int SHIFT_WDL = 32;
+  private static final long MASK_DISTANCE = 0xFFFFFFFFL;
+  private static final long MASK_WDL = 3L;
+  private static final long DTM_BIT = 1L << 34;
+  // Set in the data of every entry so that non-empty slots never hold a data value of 0.
+  private static final long OCCUPIED_BIT = 1L << 35;
+  private static final WDL[] WDLS = WDL.values();
+
+  private final LockFreeHashTable table;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  /**
+   * Constructs a cache with the specified number of slots.
+   *
+   * @param capacity The number of slots. It has to be a power of two.
+   */
+  EGTBResultCache(int capacity) {
+    table = new LockFreeHashTable(capacity);
+    hits = new LongAdder();
+    misses = new LongAdder();
+  }
+
+  /**
+   * Looks up the WDL status of the position with the specified key.
+   *
+   * @param key The Zobrist key of the position.
+   * @return The cached WDL status of the position or null if it is not in the cache.
+   */
+  WDL getWDL(long key) {
+    long data = table.find(key);
+    if (data == LockFreeHashTable.MISS) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return WDLS[(int) ((data >>> SHIFT_WDL) & MASK_WDL)];
+  }
+
+  /**
+   * Looks up the WDL status and the distance to mate of the position with the specified key.
+   *
+   * @param key The Zobrist key of the position.
+   * @return The cached DTM information of the position or null if it is not in the cache.
+   */
+  DTM getDTM(long key) {
+    long data = table.find(key);
+    if ((data & DTM_BIT) == 0) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return new DTM(WDLS[(int) ((data >>> SHIFT_WDL) & MASK_WDL)], (int) (data & MASK_DISTANCE));
+  }
+
+  /**
+   * Caches the WDL status of the position with the specified key unless it is null or the position already has DTM information cached.
+   *
+   * @param key The Zobrist key of the position.
+   * @param wdl The WDL status of the position.
+   */
+  void putWDL(long key, WDL wdl) {
+    if (wdl == null || (table.find(key) & DTM_BIT) != 0) {
+      return;
+    }
+    table.store(key, ((long) wdl.ordinal() << SHIFT_WDL) | OCCUPIED_BIT);
+  }
+
+  /**
+   * Caches the DTM information of the position with the specified key unless it is null or incomplete.
+   *
+   * @param key The Zobrist key of the position.
+   * @param dtm The DTM information of the position.
+   */
+  void putDTM(long key, DTM dtm) {
+    if (dtm == null || dtm.getWdl() == null) {
+      return;
+    }
+    table.store(key, (dtm.getDistance() & MASK_DISTANCE) | ((long) dtm.getWdl().ordinal() << SHIFT_WDL) | DTM_BIT | OCCUPIED_BIT);
+  }
+
+  /**
+   * @return The number of look-ups answered by the cache since the last reset of the stats.
+   */
+  long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return The number of look-ups not answered by the cache since the last reset of the stats.
+   */
+  long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Resets the hit and miss counters.
+   */
+  void resetStats() {
+    hits.reset();
+    misses.reset();
+  }
+
+}
@@ -1,18 +1,16 @@
 package net.viktorc.detroid.framework.engine;
 
-import net.viktorc.detroid.framework.util.Cache.Entry;
-
 /**
- * An evaluation hash table entry that stores information about the static evaluation scores of leaf nodes. It uses Robert Hyatt's lock-less
- * hashing.
+ * A container for the data of an evaluation hash table entry that stores information about the static evaluation score of a leaf node. It
+ * is used to transfer data into and out of the {@link EvaluationTable} which stores the entries packed into primitive long integers.
  *
  * @author Viktor
  */
-public class ETEntry implements Entry<ETEntry> {
+public class ETEntry {
 
-  private volatile long key;
-  private volatile short score;
-  private volatile byte generation;
+  private long key;
+  private short score;
+  private byte generation;
 
   /**
    * @return The 64 bit position hash key.
@@ -35,13 +33,6 @@ public class ETEntry implements Entry<ETEntry> {
     return generation;
   }
 
-  /**
-   * @param generation The age of the entry.
-   */
-  public void setGeneration(byte generation) {
-    this.generation = generation;
-  }
-
   /**
    * @param key The 64 bit position hash key.
    * @param score The evaluation score.
@@ -53,50 +44,9 @@ public class ETEntry implements Entry<ETEntry> {
     this.generation = generation;
   }
 
-  /**
-   * XORs the data fields into the key.
-   */
-  public synchronized void setupKey() {
-    key ^= score;
-  }
-
-  @Override
-  public long hashKey() {
-    return key ^ score;
-  }
-
-  @Override
-  public boolean isEmpty() {
-    return key == 0;
-  }
-
-  @Override
-  public void assume(ETEntry entry) {
-    set(entry.key, entry.score, entry.generation);
-  }
-
-  @Override
-  public void swap(ETEntry entry) {
-    long key = this.key;
-    short score = this.score;
-    byte generation = this.generation;
-    assume(entry);
-    entry.set(key, score, generation);
-  }
-
-  @Override
-  public void empty() {
-    key = 0;
-  }
-
-  @Override
-  public int compareTo(ETEntry e) {
-    return generation - e.generation;
-  }
-
   @Override
   public String toString() {
     return String.format("KEY: %s; SCORE: %d; GENERATION: %d", key, score, generation);
   }
 
-}
\ No newline at end of file
+}
@@ -6,7 +6,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 /**
- * An abstract class for chess endgame tablebases. As there is no Java EGTB, it assumes the probing library to be a native shared library.
+ * An abstract class for chess endgame tablebases. It assumes the probing library to be a native shared library unless the implementation
+ * overrides the library loading methods like the pure Java {@link MappedTableBase} does.
  *
  * @author Viktor
  */
@@ -86,6 +87,13 @@ public abstract class EndGameTableBase implements Closeable {
    */
   public abstract void resetStats();
 
+  /**
+   * Resets the stats collected on the Java side of the probing such as the result cache hits and the time spent in the probing library.
+   * The stats of the probing library itself are reset by {@link #resetStats()}.
+   */
+  public void resetProbeStats() {
+  }
+
   /**
    * It probes for the given position and if found, it returns whether it is a winning position, a losing position, or a draw; else it
    * returns null.
@@ -106,6 +114,23 @@ public abstract class EndGameTableBase implements Closeable {
    */
   public abstract DTM probeDTM(Position pos, boolean soft);
 
+  /**
+   * Asynchronously warms the probing cache up for the given position and its children so that subsequent hard probes of positions of the
+   * same material signature are less likely to have to wait for the tablebase files to be read. The method returns immediately and the
+   * position is not modified. It does nothing by default.
+   *
+   * @param pos The chess position to prefetch the tablebase data for.
+   */
+  public void prefetch(Position pos) {
+  }
+
+  /**
+   * Stops all prefetching and waits for any prefetch in progress to finish. It has to be called before the probing cache is cleared or
+   * the tablebases are closed, so that these operations do not interfere with background probes. It does nothing by default.
+   */
+  public void stopPrefetching() {
+  }
+
   /**
    * A simple enum for possible outcomes for positions in endgame tablebases.
    *
@@ -176,12 +201,25 @@ public abstract class EndGameTableBase implements Closeable {
     private final long totalSoftProbes;
     private final long totalDriveHits;
     private final long totalCacheHits;
+    private final long totalResultCacheHits;
+    private final long totalResultCacheMisses;
+    private final long totalLibraryCalls;
+    private final long totalLibraryCallTime;
 
     public EGTBStats(long totalHardProbes, long totalSoftProbes, long totalDriveHits, long totalCacheHits) {
+      this(totalHardProbes, totalSoftProbes, totalDriveHits, totalCacheHits, 0, 0, 0, 0);
+    }
+
+    public EGTBStats(long totalHardProbes, long totalSoftProbes, long totalDriveHits, long totalCacheHits, long totalResultCacheHits,
+        long totalResultCacheMisses, long totalLibraryCalls, long totalLibraryCallTime) {
       this.totalHardProbes = totalHardProbes;
       this.totalSoftProbes = totalSoftProbes;
       this.totalDriveHits = totalDriveHits;
       this.totalCacheHits = totalCacheHits;
+      this.totalResultCacheHits = totalResultCacheHits;
+      this.totalResultCacheMisses = totalResultCacheMisses;
+      this.totalLibraryCalls = totalLibraryCalls;
+      this.totalLibraryCallTime = totalLibraryCallTime;
     }
 
     /**
@@ -220,6 +258,51 @@ public abstract class EndGameTableBase implements Closeable {
       return totalCacheHits;
     }
 
+    /**
+     * Returns the total number of probes answered by the result cache in front of the probing library.
+     *
+     * @return The number of result cache hits.
+     */
+    public long getTotalResultCacheHits() {
+      return totalResultCacheHits;
+    }
+
+    /**
+     * Returns the total number of probes that had to be passed on to the probing library by the result cache.
+     *
+     * @return The number of result cache misses.
+     */
+    public long getTotalResultCacheMisses() {
+      return totalResultCacheMisses;
+    }
+
+    /**
+     * Returns the total number of probing calls made to the probing library.
+     *
+     * @return The number of probing library calls.
+     */
+    public long getTotalLibraryCalls() {
+      return totalLibraryCalls;
+    }
+
+    /**
+     * Returns the total time spent in probing library calls including the cost of the transitions into and out of native code.
+     *
+     * @return The time spent in the probing library in nanoseconds.
+     */
+    public long getTotalLibraryCallTime() {
+      return totalLibraryCallTime;
+    }
+
+    /**
+     * Returns the average time a probing library call takes including the cost of the transitions into and out of native code.
+     *
+     * @return The average time of a probing library call in nanoseconds or 0 if there have not been any calls.
+     */
+    public long getAverageLibraryCallTime() {
+      return totalLibraryCalls == 0 ? 0 : totalLibraryCallTime / totalLibraryCalls;
+    }
+
   }
 
 }
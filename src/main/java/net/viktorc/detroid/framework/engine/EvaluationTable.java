@@ -0,0 +1,262 @@
+package net.viktorc.detroid.framework.engine;
+
+import net.viktorc.detroid.framework.util.LongArray;
+import net.viktorc.detroid.framework.util.SizeOf;
+
+/**
+ * A pre-allocated, lock-free evaluation hash table backed by a single flat array of long integers. Every entry is packed into one long; the
+ * lowest 16 bits hold the score, the next 7 bits the generation, the next bit marks the slot as occupied, and the highest 40 bits hold the
+ * upper 40 bits of the position hash key. As the entries are read and written atomically, no locking or key XOR-ing is necessary. The
+ * slots are grouped into buckets of eight entries, i.e. one cache line, and the number of buckets is a power of two so that the bucket of
+ * a position is determined by the lowest bits of its key. Within a bucket, the entry of the oldest generation is replaced.
+ *
+ * Entries are aged relative to the current generation of the table and the ones older than the entry life cycle are treated as empty.
+ * Starting a new generation thus takes constant time; the slots of expired entries may be emptied incrementally via
+ * {@link #removeExpired(long, long)} to prevent them from resurfacing once the generation values wrap around.
+ *
+ * The array is allocated off-heap whenever possible (see {@link LongArray#allocate(long)}), thus the size of the table is not limited by
+ * the maximum heap size and the garbage collector does not have to scan it. The memory of the table has to be released explicitly by
+ * calling {@link #free()}.
+ *
+ * @author Viktor
+ */
+public class EvaluationTable {
+
+  /**
+   * The number of bytes a single entry takes up in the table.
+   */
+  static final int ENTRY_SIZE = SizeOf.LONG.getNumOfBytes();
+  /**
+   * The number of entries per bucket.
+   */
+  static final int BUCKET_SIZE = 8;
+
+  // The maximum number of buckets such that the array does not exceed the maximum array length.
+  private static final long MAX_BUCKETS = Long.highestOneBit(LongArray.maxLength() / BUCKET_SIZE);
+  // The maximum number of slots to check when estimating the load of the table.
+  private static final int LOAD_SAMPLE_SIZE = 1000;
+
+  private static final int SHIFT_GENERATION = 16;
+  private static final int SHIFT_OCCUPIED = 23;
+  private static final int SHIFT_KEY = 24;
+  private static final long MASK_SCORE = 0xFFFFL;
+  private static final long MASK_GENERATION = 0x7FL;
+  private static final long MASK_KEY = -1L << SHIFT_KEY;
+  private static final long OCCUPIED_BIT = 1L << SHIFT_OCCUPIED;
+
+  private final LongArray slots;
+  private final long bucketMask;
+
+  private volatile byte currentGeneration;
+  private volatile int entryLifeCycle;
+
+  /**
+   * Constructs an evaluation table that takes up at most approximately the specified number of bytes.
+   *
+   * @param sizeInBytes The maximum size of the table in bytes.
+   */
+  EvaluationTable(long sizeInBytes) {
+    long buckets = Long.highestOneBit(Math.max(1, Math.min(sizeInBytes / (BUCKET_SIZE * ENTRY_SIZE), MAX_BUCKETS)));
+    slots = LongArray.allocate(buckets * BUCKET_SIZE);
+    bucketMask = buckets - 1;
+    entryLifeCycle = (int) MASK_GENERATION;
+  }
+
+  /**
+   * @param slot The packed entry.
+   * @return The evaluation score.
+   */
+  private static short score(long slot) {
+    return (short) slot;
+  }
+
+  /**
+   * @param slot The packed entry.
+   * @return The age of the entry.
+   */
+  private static byte generation(long slot) {
+    return (byte) ((slot >>> SHIFT_GENERATION) & MASK_GENERATION);
+  }
+
+  /**
+   * @param slot The packed entry.
+   * @return The age of the entry relative to the current generation of the table.
+   */
+  private int age(long slot) {
+    return (int) ((currentGeneration - generation(slot)) & MASK_GENERATION);
+  }
+
+  /**
+   * @param slot The packed entry.
+   * @return Whether the slot is empty or the entry it holds has expired.
+   */
+  private boolean isVacant(long slot) {
+    return slot == 0 || age(slot) > entryLifeCycle;
+  }
+
+  /**
+   * Packs the fields of an entry into a single long integer.
+   *
+   * @param key The 64 bit position hash key.
+   * @param score The evaluation score.
+   * @param generation The age of the entry.
+   * @return The packed entry.
+   */
+  private static long pack(long key, short score, byte generation) {
+    return (key & MASK_KEY) | OCCUPIED_BIT | ((generation & MASK_GENERATION) << SHIFT_GENERATION) | (score & MASK_SCORE);
+  }
+
+  /**
+   * Returns the index of the first slot of the bucket the key maps to.
+   *
+   * @param key The 64 bit position hash key.
+   * @return The index of the bucket in the array.
+   */
+  private long bucketIndex(long key) {
+    return (key & bucketMask) * BUCKET_SIZE;
+  }
+
+  /**
+   * Returns the total number of slots in the table.
+   *
+   * @return The total number of entry slots.
+   */
+  long capacity() {
+    return slots.length();
+  }
+
+  /**
+   * Returns an estimate of the number of non-expired entries in the table based on the load of a sample of evenly spaced slots.
+   *
+   * @return The estimated number of non-expired entries.
+   */
+  long size() {
+    long capacity = capacity();
+    long sampleSize = Math.min(capacity, LOAD_SAMPLE_SIZE);
+    long stride = capacity / sampleSize;
+    long load = 0;
+    for (long i = 0; i < sampleSize; i++) {
+      if (!isVacant(slots.get(i * stride))) {
+        load++;
+      }
+    }
+    return load * capacity / sampleSize;
+  }
+
+  /**
+   * Returns the size of the table in bytes.
+   *
+   * @return The size of the table in bytes.
+   */
+  long memorySize() {
+    return slots.length() * ENTRY_SIZE;
+  }
+
+  /**
+   * Loads the data of the entry identified by the key into the specified entry object if it is in the table. If the generation of the
+   * stored entry differs from the specified one, it is updated.
+   *
+   * @param key The 64 bit position hash key.
+   * @param generation The current age.
+   * @param entry The entry object to load the data into.
+   * @return Whether the table contained an entry for the key.
+   */
+  boolean get(long key, byte generation, ETEntry entry) {
+    long bucket = bucketIndex(key);
+    for (long ind = bucket; ind < bucket + BUCKET_SIZE; ind++) {
+      long slot = slots.get(ind);
+      if (!isVacant(slot) && ((slot ^ key) & MASK_KEY) == 0) {
+        if (generation(slot) != generation) {
+          slots.set(ind, (slot & ~(MASK_GENERATION << SHIFT_GENERATION)) | ((generation & MASK_GENERATION) << SHIFT_GENERATION));
+        }
+        entry.set(key, score(slot), generation);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Inserts an entry into the table. If there is an entry for the same position, it is overwritten; otherwise an empty or expired slot is
+   * used if available, else the oldest entry of the bucket is replaced.
+   *
+   * @param entry The entry to insert.
+   */
+  void put(ETEntry entry) {
+    long key = entry.getKey();
+    byte generation = entry.getGeneration();
+    long bucket = bucketIndex(key);
+    long replaceInd = bucket;
+    int maxAge = -1;
+    for (long ind = bucket; ind < bucket + BUCKET_SIZE; ind++) {
+      long slot = slots.get(ind);
+      if (isVacant(slot)) {
+        if (maxAge != Integer.MAX_VALUE) {
+          maxAge = Integer.MAX_VALUE;
+          replaceInd = ind;
+        }
+        continue;
+      }
+      if (((slot ^ key) & MASK_KEY) == 0) {
+        replaceInd = ind;
+        break;
+      }
+      int age = age(slot);
+      if (age > maxAge) {
+        maxAge = age;
+        replaceInd = ind;
+      }
+    }
+    slots.set(replaceInd, pack(key, entry.getScore(), generation));
+  }
+
+  /**
+   * Sets the current generation of the table and the number of generations for which entries are retained. It takes constant time as
+   * the entries are aged lazily.
+   *
+   * @param generation The current generation.
+   * @param entryLifeCycle The number of generations after which entries expire.
+   */
+  void setCurrentGeneration(byte generation, int entryLifeCycle) {
+    this.entryLifeCycle = entryLifeCycle;
+    currentGeneration = generation;
+  }
+
+  /**
+   * Empties the slots holding expired entries within the specified range. As the entries are not locked, an entry inserted into a slot
+   * concurrently may be lost, which is harmless.
+   *
+   * @param fromInd The index of the first slot of the range (inclusive).
+   * @param toInd The index of the last slot of the range (exclusive).
+   */
+  void removeExpired(long fromInd, long toInd) {
+    for (long i = fromInd; i < toInd; i++) {
+      long slot = slots.get(i);
+      if (slot != 0 && isVacant(slot)) {
+        slots.set(i, 0);
+      }
+    }
+  }
+
+  /**
+   * Clears the table by emptying all slots.
+   */
+  void clear() {
+    slots.clear();
+  }
+
+  /**
+   * Releases the memory held by the table. The table must not be used after the call.
+   */
+  void free() {
+    slots.free();
+  }
+
+  @Override
+  public String toString() {
+    long load = size();
+    return String.format("Load: %d; Capacity: %d; Load Factor: %.2f; Size: %dkB", load, capacity(),
+        ((double) load) / capacity(), Math.round(((double) memorySize()) / (1L << 10)));
+  }
+
+}
@@ -12,7 +12,6 @@ import net.viktorc.detroid.framework.engine.Bitboard.File;
 import net.viktorc.detroid.framework.engine.Bitboard.Rank;
 import net.viktorc.detroid.framework.engine.Bitboard.Square;
 import net.viktorc.detroid.framework.util.BitOperations;
-import net.viktorc.detroid.framework.util.Cache;
 
 /**
  * A class for evaluating chess positions. It uses an evaluation hash table to improve performance. It also offers a static exchange
@@ -157,33 +156,14 @@ public class Evaluator {
 
   private final DetroidParameters params;
   // Evaluation score hash table.
-  private final Cache<ETEntry> evalTable;
+  private final EvaluationTable evalTable;
+  // Pawn-king structure score hash table.
+  private final PawnKingTable pawnKingTable;
+  // Material score and flag hash table.
+  private final MaterialTable materialTable;
 
-  private short[] pstWhiteKingMg;
-  private short[] pstWhiteQueenMg;
-  private short[] pstWhiteRookMg;
-  private short[] pstWhiteBishopMg;
-  private short[] pstWhiteKnightMg;
-  private short[] pstWhitePawnMg;
-  private short[] pstBlackKingMg;
-  private short[] pstBlackQueenMg;
-  private short[] pstBlackRookMg;
-  private short[] pstBlackBishopMg;
-  private short[] pstBlackKnightMg;
-  private short[] pstBlackPawnMg;
-
-  private short[] pstWhiteKingEg;
-  private short[] pstWhiteQueenEg;
-  private short[] pstWhiteRookEg;
-  private short[] pstWhiteBishopEg;
-  private short[] pstWhiteKnightEg;
-  private short[] pstWhitePawnEg;
-  private short[] pstBlackKingEg;
-  private short[] pstBlackQueenEg;
-  private short[] pstBlackRookEg;
-  private short[] pstBlackBishopEg;
-  private short[] pstBlackKnightEg;
-  private short[] pstBlackPawnEg;
+  // Packed middle and end game piece-square scores indexed by piece and square with the scores of black negated.
+  private int[] pieceSquareScores;
 
   // Tapered piece values for all possible game phases.
   private short[] queenValues;
@@ -198,83 +178,30 @@ public class Evaluator {
    * @param params A reference to the engine parameters.
    * @param evalTable A reference to the evaluation hash table to use.
    */
-  public Evaluator(DetroidParameters params, Cache<ETEntry> evalTable) {
+  public Evaluator(DetroidParameters params, EvaluationTable evalTable) {
     this.params = params;
     this.evalTable = evalTable;
-    initPieceSquareArrays();
+    pawnKingTable = new PawnKingTable();
+    materialTable = new MaterialTable();
+    initPieceSquareScores();
     initPieceValues();
   }
 
-  private void initPieceSquareArrays() {
-    short[] pstPawnMg = params.getPstPawnMg();
-    short[] pstPawnEg = params.getPstPawnEg();
-    short[] pstKnightMg = params.getPstKnightMg();
-    short[] pstKnightEg = params.getPstKnightEg();
-    short[] pstBishopMg = params.getPstBishopMg();
-    short[] pstBishopEg = params.getPstBishopEg();
-    short[] pstRookMg = params.getPstRookMg();
-    short[] pstRookEg = params.getPstRookEg();
-    short[] pstQueenMg = params.getPstQueenMg();
-    short[] pstQueenEg = params.getPstQueenEg();
-    short[] pstKingMg = params.getPstKingMg();
-    short[] pstKingEg = params.getPstKingEg();
-    pstWhitePawnMg = new short[64];
-    pstWhitePawnEg = new short[64];
-    pstWhiteKnightMg = new short[64];
-    pstWhiteKnightEg = new short[64];
-    pstWhiteBishopMg = new short[64];
-    pstWhiteBishopEg = new short[64];
-    pstWhiteRookMg = new short[64];
-    pstWhiteRookEg = new short[64];
-    pstWhiteQueenMg = new short[64];
-    pstWhiteQueenEg = new short[64];
-    pstWhiteKingMg = new short[64];
-    pstWhiteKingEg = new short[64];
-    pstBlackPawnMg = new short[64];
-    pstBlackPawnEg = new short[64];
-    pstBlackKnightMg = new short[64];
-    pstBlackKnightEg = new short[64];
-    pstBlackBishopMg = new short[64];
-    pstBlackBishopEg = new short[64];
-    pstBlackRookMg = new short[64];
-    pstBlackRookEg = new short[64];
-    pstBlackQueenMg = new short[64];
-    pstBlackQueenEg = new short[64];
-    pstBlackKingMg = new short[64];
-    pstBlackKingEg = new short[64];
-    /* Due to the reversed order of the rows in the definition of the white piece-square tables, they are just
-     * right for black with negated values. */
-    for (int i = 0; i < 64; i++) {
-      pstBlackPawnMg[i] = pstPawnMg[i];
-      pstBlackPawnEg[i] = pstPawnEg[i];
-      pstBlackKnightMg[i] = pstKnightMg[i];
-      pstBlackKnightEg[i] = pstKnightEg[i];
-      pstBlackBishopMg[i] = pstBishopMg[i];
-      pstBlackBishopEg[i] = pstBishopEg[i];
-      pstBlackRookMg[i] = pstRookMg[i];
-      pstBlackRookEg[i] = pstRookEg[i];
-      pstBlackQueenMg[i] = pstQueenMg[i];
-      pstBlackQueenEg[i] = pstQueenEg[i];
-      pstBlackKingMg[i] = pstKingMg[i];
-      pstBlackKingEg[i] = pstKingEg[i];
-    }
-    // To get the right values for the white piece-square tables, vertically mirror and negate the ones for black.
-    for (int i = 0; i < 8; i++) {
-      for (int j = 0; j < 8; j++) {
-        int c1 = i * 8 + j;
-        int c2 = ((7 - i) * 8) + j;
-        pstWhitePawnMg[c1] = pstBlackPawnMg[c2];
-        pstWhitePawnEg[c1] = pstBlackPawnEg[c2];
-        pstWhiteKnightMg[c1] = pstBlackKnightMg[c2];
-        pstWhiteKnightEg[c1] = pstBlackKnightEg[c2];
-        pstWhiteBishopMg[c1] = pstBlackBishopMg[c2];
-        pstWhiteBishopEg[c1] = pstBlackBishopEg[c2];
-        pstWhiteRookMg[c1] = pstBlackRookMg[c2];
-        pstWhiteRookEg[c1] = pstBlackRookEg[c2];
-        pstWhiteQueenMg[c1] = pstBlackQueenMg[c2];
-        pstWhiteQueenEg[c1] = pstBlackQueenEg[c2];
-        pstWhiteKingMg[c1] = pstBlackKingMg[c2];
-        pstWhiteKingEg[c1] = pstBlackKingEg[c2];
+  private void initPieceSquareScores() {
+    short[][] pstMg = new short[][]{params.getPstKingMg(), params.getPstQueenMg(), params.getPstRookMg(), params.getPstBishopMg(),
+        params.getPstKnightMg(), params.getPstPawnMg()};
+    short[][] pstEg = new short[][]{params.getPstKingEg(), params.getPstQueenEg(), params.getPstRookEg(), params.getPstBishopEg(),
+        params.getPstKnightEg(), params.getPstPawnEg()};
+    pieceSquareScores = new int[Piece.values().length * 64];
+    for (int i = 0; i < pstMg.length; i++) {
+      int whiteOffset = (Piece.W_KING.ind + i) * 64;
+      int blackOffset = (Piece.B_KING.ind + i) * 64;
+      for (int j = 0; j < 64; j++) {
+        /* Due to the reversed order of the rows in the definition of the piece-square tables, they are just right for black with
+         * negated values. To get the right values for white, vertically mirror them. */
+        int mirroredSqrInd = ((7 - j / 8) * 8) + j % 8;
+        pieceSquareScores[whiteOffset + j] = packScores(pstMg[i][mirroredSqrInd], pstEg[i][mirroredSqrInd]);
+        pieceSquareScores[blackOffset + j] = packScores(-pstMg[i][j], -pstEg[i][j]);
       }
     }
   }
@@ -295,6 +222,26 @@ public class Evaluator {
     }
   }
 
+  /**
+   * Packs a middle game and an end game score into a single integer. The packed scores can be added up and subtracted as long as the
+   * end game score remains within the range of a short.
+   *
+   * @param mgScore The middle game score.
+   * @param egScore The end game score.
+   * @return The packed scores.
+   */
+  private static int packScores(int mgScore, int egScore) {
+    return (mgScore << 16) + egScore;
+  }
+
+  private static short packedMgScore(int scores) {
+    return (short) ((scores + 0x8000) >> 16);
+  }
+
+  private static short packedEgScore(int scores) {
+    return (short) scores;
+  }
+
   private static short taperedEvalScore(int mgEval, int egEval, int phaseScore) {
     return (short) ((mgEval * (Position.MAX_PHASE_SCORE - phaseScore) + egEval * phaseScore) / Position.MAX_PHASE_SCORE);
   }
@@ -452,12 +399,22 @@ public class Evaluator {
    * @return The MVV/LVA score of the move.
    */
   public static short MVVLVA(Move move) {
+    return MVVLVA(move.toInt());
+  }
+
+  /**
+   * Returns the MVV/LVA score of the specified move.
+   *
+   * @param move The move to score encoded as an integer (see {@link Move#toInt()}).
+   * @return The MVV/LVA score of the move.
+   */
+  public static short MVVLVA(int move) {
     short score = 0;
-    if (move.type == MoveType.PROMOTION_TO_QUEEN.ind) {
+    if (Move.getType(move) == MoveType.PROMOTION_TO_QUEEN.ind) {
       byte queenValue = MVV_LVA_PIECE_VALUES[Piece.W_QUEEN.ind];
       score += queenValue * queenValue;
     }
-    score += MVV_LVA[move.movedPiece][move.capturedPiece];
+    score += MVV_LVA[Move.getMovedPiece(move)][Move.getCapturedPiece(move)];
     return score;
   }
 
@@ -469,46 +426,103 @@ public class Evaluator {
    * @return The SEE score of the move.
    */
   public short SEE(Position pos, Move move) {
+    return SEE(pos, move.toInt());
+  }
+
+  /**
+   * A static exchange evaluation algorithm for determining a close approximation of a capture's value.
+   *
+   * @param pos The position in which the move is to be evaluated.
+   * @param move The move to score encoded as an integer (see {@link Move#toInt()}).
+   * @return The SEE score of the move.
+   */
+  public short SEE(Position pos, int move) {
+    return (short) staticExchange(pos, move, Short.MIN_VALUE, Short.MAX_VALUE);
+  }
+
+  /**
+   * Returns whether the SEE score of the move is greater than or equal to the threshold. It is cheaper than computing the SEE score as
+   * the exchange is only simulated until its outcome relative to the threshold is decided.
+   *
+   * @param pos The position in which the move is to be evaluated.
+   * @param move The move to score encoded as an integer (see {@link Move#toInt()}).
+   * @param threshold The value to compare the SEE score of the move to.
+   * @return Whether the SEE score of the move is at least as high as the threshold.
+   */
+  public boolean isSEEAtLeast(Position pos, int move, int threshold) {
+    return staticExchange(pos, move, threshold - 1, threshold) >= threshold;
+  }
+
+  /**
+   * Simulates the exchange on the destination square of the move with the least valuable attackers first and returns its outcome clamped
+   * to the specified window. Instead of recording the speculative gains of the exchange and then back-propagating them, it maintains the
+   * range the outcome is known to fall in from the speculative gains seen so far. This way it does not need to allocate any memory and can
+   * stop as soon as the range narrows down to a single value within the window.
+   *
+   * @param pos The position in which the move is to be evaluated.
+   * @param move The move to score encoded as an integer.
+   * @param lowerLimit The lower limit of the window.
+   * @param upperLimit The upper limit of the window.
+   * @return The SEE score of the move clamped to the window.
+   */
+  private int staticExchange(Position pos, int move, int lowerLimit, int upperLimit) {
+    final byte from = Move.getFrom(move);
+    final byte to = Move.getTo(move);
+    final byte movedPiece = Move.getMovedPiece(move);
+    final byte capturedPiece = Move.getCapturedPiece(move);
+    final byte moveType = Move.getType(move);
     final short phaseScore = pos.getPhaseScore();
     final short queenValue = queenValues[phaseScore];
     final short rookValue = rookValues[phaseScore];
     final short bishopValue = bishopValues[phaseScore];
     final short knightValue = knightValues[phaseScore];
     final short pawnValue = pawnValues[phaseScore];
-    short victimVal = materialValueByPieceInd(queenValue, rookValue, bishopValue, knightValue, pawnValue, move.capturedPiece);
+    short gain = materialValueByPieceInd(queenValue, rookValue, bishopValue, knightValue, pawnValue, capturedPiece);
     // If the captor was a king, return the captured piece's value as capturing the king would be illegal.
-    if (move.movedPiece == Piece.W_KING.ind || move.movedPiece == Piece.B_KING.ind) {
-      return victimVal;
+    if (movedPiece == Piece.W_KING.ind || movedPiece == Piece.B_KING.ind) {
+      return Math.min(upperLimit, Math.max(lowerLimit, gain));
     }
-    int i = 0;
-    short[] gains = new short[32];
-    gains[i] = victimVal;
     short attackerVal;
     // In case the move is a promotion.
-    if (move.type >= MoveType.PROMOTION_TO_QUEEN.ind) {
-      if (move.type == MoveType.PROMOTION_TO_QUEEN.ind) {
-        gains[i] += queenValue - pawnValue;
+    if (moveType >= MoveType.PROMOTION_TO_QUEEN.ind) {
+      if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
+        gain += queenValue - pawnValue;
         attackerVal = queenValue;
-      } else if (move.type == MoveType.PROMOTION_TO_ROOK.ind) {
-        gains[i] += rookValue - pawnValue;
+      } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
+        gain += rookValue - pawnValue;
         attackerVal = rookValue;
-      } else if (move.type == MoveType.PROMOTION_TO_BISHOP.ind) {
-        gains[i] += bishopValue - pawnValue;
+      } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
+        gain += bishopValue - pawnValue;
         attackerVal = bishopValue;
       } else { // Promotion to knight.
-        gains[i] += knightValue - pawnValue;
+        gain += knightValue - pawnValue;
         attackerVal = knightValue;
       }
     } else {
-      attackerVal = materialValueByPieceInd(queenValue, rookValue, bishopValue, knightValue, pawnValue, move.movedPiece);
+      attackerVal = materialValueByPieceInd(queenValue, rookValue, bishopValue, knightValue, pawnValue, movedPiece);
+    }
+    /* The outcome can not be better than the gain of the move itself and it can not be worse than what is left of it after the captor
+     * is recaptured, as the exchange can always be stopped there. */
+    if (gain <= lowerLimit) {
+      return lowerLimit;
+    }
+    if (gain - attackerVal >= upperLimit) {
+      return upperLimit;
     }
-    long occupied = pos.getAllOccupied() ^ BitOperations.toBit(move.from);
+    /* The outcome of the exchange is the negamax value of the sequence of speculative gains where each side can choose to stop the
+     * exchange; i.e. min(gain0, max(-gain1, min(gain2, max(-gain3, ...)))). Every gain, from the perspective of the side making the
+     * capture, that is known not to be the last one narrows the bounds of the outcome. */
+    int lowerBound = lowerLimit;
+    int upperBound = upperLimit;
+    boolean ownGain = true;
+    short prevGain;
+    long occupied = pos.getAllOccupied() ^ BitOperations.toBit(from);
     boolean whitesTurn = pos.isWhitesTurn();
-    MoveSetBase dB = MoveSetBase.getByIndex(move.to);
+    MoveSetBase dB = MoveSetBase.getByIndex(to);
     // Assume the following order of value: 1. queen, 2. rook, 3. bishop, 4. knight.
     do {
-      i++;
-      gains[i] = (short) (attackerVal - gains[i - 1]);
+      prevGain = gain;
+      gain = (short) (attackerVal - prevGain);
       short prevAttackerVal = attackerVal;
       whitesTurn = !whitesTurn;
       long attackers, bpAttack, rkAttack;
@@ -554,21 +568,92 @@ public class Evaluator {
         break;
       }
       // Prune if engaging in further captures would result in material loss.
-      if (Math.max(gains[i], -gains[i - 1]) < 0) {
+      if (Math.max(gain, -prevGain) < 0) {
         break;
       }
+      // The previous gain is not the last one, so it can be used to narrow the bounds.
+      if (ownGain) {
+        upperBound = Math.min(upperBound, Math.max(lowerBound, prevGain));
+      } else {
+        lowerBound = Math.max(lowerBound, -prevGain);
+      }
+      if (lowerBound >= upperBound) {
+        return upperBound;
+      }
+      ownGain = !ownGain;
       // Simulate move.
       occupied ^= BitOperations.getLSBit(attackers);
     } while (true);
-    while (--i > 0) {
-      gains[i - 1] = (short) Math.min(-gains[i], gains[i - 1]);
+    // The last speculative gain was not realized as the exchange ended before it.
+    return Math.min(upperBound, Math.max(lowerBound, ownGain ? prevGain : -prevGain));
+  }
+
+  /**
+   * Computes the evaluation terms that only depend on the material on the board and packs them into a long (see {@link MaterialTable}).
+   *
+   * @param materialKey The material key of the position.
+   * @param phaseScore The phase score of the position.
+   * @return The packed material data.
+   */
+  private long materialData(long materialKey, short phaseScore) {
+    int numOfWhitePawns = MaterialTable.count(materialKey, Piece.W_PAWN);
+    int numOfWhiteKnights = MaterialTable.count(materialKey, Piece.W_KNIGHT);
+    int numOfWhiteBishops = MaterialTable.count(materialKey, Piece.W_BISHOP);
+    int numOfWhiteRooks = MaterialTable.count(materialKey, Piece.W_ROOK);
+    int numOfWhiteQueens = MaterialTable.count(materialKey, Piece.W_QUEEN);
+    int numOfBlackPawns = MaterialTable.count(materialKey, Piece.B_PAWN);
+    int numOfBlackKnights = MaterialTable.count(materialKey, Piece.B_KNIGHT);
+    int numOfBlackBishops = MaterialTable.count(materialKey, Piece.B_BISHOP);
+    int numOfBlackRooks = MaterialTable.count(materialKey, Piece.B_ROOK);
+    int numOfBlackQueens = MaterialTable.count(materialKey, Piece.B_QUEEN);
+    int numOfWhiteDarkBishops = MaterialTable.countOnDarkSquares(materialKey, Piece.W_BISHOP);
+    int numOfBlackDarkBishops = MaterialTable.countOnDarkSquares(materialKey, Piece.B_BISHOP);
+    int numOfPawns = numOfWhitePawns + numOfBlackPawns;
+    int numOfWhitePieces = numOfWhiteKnights + numOfWhiteBishops + numOfWhiteRooks + numOfWhiteQueens;
+    int numOfBlackPieces = numOfBlackKnights + numOfBlackBishops + numOfBlackRooks + numOfBlackQueens;
+    int numOfPieces = numOfWhitePieces + numOfBlackPieces;
+    long flags = 0;
+    // The same scenarios as in isMaterialInsufficient(Position).
+    if (numOfPawns == 0 && numOfWhiteRooks + numOfBlackRooks + numOfWhiteQueens + numOfBlackQueens == 0) {
+      int numOfBishops = numOfWhiteBishops + numOfBlackBishops;
+      int numOfDarkBishops = numOfWhiteDarkBishops + numOfBlackDarkBishops;
+      if (numOfPieces <= 1 || (numOfWhiteKnights + numOfBlackKnights == 0 &&
+          (numOfDarkBishops == 0 || numOfDarkBishops == numOfBishops))) {
+        flags |= MaterialTable.INSUFFICIENT_MATERIAL;
+      }
+    }
+    if (numOfPawns == 0 && numOfPieces <= 3) {
+      flags |= MaterialTable.MOP_UP;
+    }
+    if (numOfWhitePieces == 0) {
+      flags |= MaterialTable.WHITE_BARE;
     }
-    return gains[0];
+    if (numOfBlackPieces == 0) {
+      flags |= MaterialTable.BLACK_BARE;
+    }
+    if (numOfPawns == 1 && numOfPieces == 0) {
+      flags |= MaterialTable.KPK;
+    }
+    short materialScore = (short) (queenValues[phaseScore] * (numOfWhiteQueens - numOfBlackQueens) +
+        rookValues[phaseScore] * (numOfWhiteRooks - numOfBlackRooks) +
+        bishopValues[phaseScore] * (numOfWhiteBishops - numOfBlackBishops) +
+        knightValues[phaseScore] * (numOfWhiteKnights - numOfBlackKnights) +
+        pawnValues[phaseScore] * (numOfWhitePawns - numOfBlackPawns));
+    // A bishop pair means bishops on both light and dark squares.
+    int bishopPairAdvantageDiff = 0;
+    if (numOfWhiteDarkBishops > 0 && numOfWhiteBishops > numOfWhiteDarkBishops) {
+      bishopPairAdvantageDiff += 1;
+    }
+    if (numOfBlackDarkBishops > 0 && numOfBlackBishops > numOfBlackDarkBishops) {
+      bishopPairAdvantageDiff -= 1;
+    }
+    return MaterialTable.pack(materialScore, phaseScore, bishopPairAdvantageDiff, flags);
   }
 
   /**
    * A static evaluation of the chess position from the color to move's point of view. It considers material imbalance, coverage, pawn
-   * structure, queen-king tropism, mobility, immediate captures, etc. It assumes that the position is not a check.
+   * structure, queen-king tropism, mobility, immediate captures, etc. It assumes that the position is not a check. If the position does
+   * not yet maintain its piece-square score using the piece-square table of the evaluator, the table is set for the position.
    *
    * @param pos The position to score.
    * @param hashGen The hash generation.
@@ -578,64 +663,48 @@ public class Evaluator {
    */
   public short score(Position pos, byte hashGen, ETEntry entry, Map<String, Double> gradientCache) {
     // Probe evaluation hash table.
-    if (evalTable != null) {
-      ETEntry eE = evalTable.get(pos.getKey());
-      if (eE != null && eE.hashKey() == pos.getKey()) {
-        eE.setGeneration(hashGen);
-        return eE.getScore();
-      }
+    if (evalTable != null && evalTable.get(pos.getKey(), hashGen, entry)) {
+      return entry.getScore();
     }
     short score = 0;
     short mgScore = 0;
     short egScore = 0;
     // In case of no hash hit, calculate the base score from scratch.
-    byte numOfWhiteQueens = BitOperations.hammingWeight(pos.getWhiteQueens());
-    byte numOfWhiteRooks = BitOperations.hammingWeight(pos.getWhiteRooks());
-    byte numOfWhiteBishops = BitOperations.hammingWeight(pos.getWhiteBishops());
-    byte numOfWhiteKnights = BitOperations.hammingWeight(pos.getWhiteKnights());
-    byte numOfBlackQueens = BitOperations.hammingWeight(pos.getBlackQueens());
-    byte numOfBlackRooks = BitOperations.hammingWeight(pos.getBlackRooks());
-    byte numOfBlackBishops = BitOperations.hammingWeight(pos.getBlackBishops());
-    byte numOfBlackKnights = BitOperations.hammingWeight(pos.getBlackKnights());
+    long materialKey = pos.getMaterialKey();
+    long materialData = materialTable.get(materialKey);
+    if (materialData == MaterialTable.MISS) {
+      materialData = materialData(materialKey, pos.getPhaseScore());
+      materialTable.put(materialKey, materialData);
+    }
     // Check for insufficient material. Only consider the widely acknowledged scenarios without blocked position testing.
-    if (isMaterialInsufficient(pos)) {
+    if ((materialData & MaterialTable.INSUFFICIENT_MATERIAL) != 0) {
+      return Score.INSUFFICIENT_MATERIAL.value;
+    }
+    // Look up king and pawn versus king positions in the bitbase.
+    if ((materialData & MaterialTable.KPK) != 0 && !KPKBitbase.isWin(pos)) {
       return Score.INSUFFICIENT_MATERIAL.value;
     }
     // Phase score for tapered evaluation.
-    final short phaseScore = pos.getPhaseScore();
+    final short phaseScore = MaterialTable.phaseScore(materialData);
     final short queenValue = queenValues[phaseScore];
     final short rookValue = rookValues[phaseScore];
     final short bishopValue = bishopValues[phaseScore];
     final short knightValue = knightValues[phaseScore];
     final short pawnValue = pawnValues[phaseScore];
-    byte numOfWhitePawns = BitOperations.hammingWeight(pos.getWhitePawns());
-    byte numOfBlackPawns = BitOperations.hammingWeight(pos.getBlackPawns());
     // Base material score.
-    int numOfQueensDiff = numOfWhiteQueens - numOfBlackQueens;
-    int numOfRooksDiff = numOfWhiteRooks - numOfBlackRooks;
-    int numOfBishopsDiff = numOfWhiteBishops - numOfBlackBishops;
-    int numOfKnightsDiff = numOfWhiteKnights - numOfBlackKnights;
-    int numOfPawnsDiff = numOfWhitePawns - numOfBlackPawns;
-    int materialScore = queenValue * numOfQueensDiff +
-        rookValue * numOfRooksDiff +
-        bishopValue * numOfBishopsDiff +
-        knightValue * numOfKnightsDiff +
-        pawnValue * numOfPawnsDiff;
+    short materialScore = MaterialTable.materialScore(materialData);
     score += materialScore;
     // Bishop pair advantage.
-    int bishopPairAdvantageDiff = 0;
-    if (numOfWhiteBishops >= 2 && Diagonal.getBySquareIndex(BitOperations.indexOfLSBit(
-        pos.getWhiteBishops())).ind % 2 != Diagonal.getBySquareIndex(BitOperations.indexOfLSBit(
-        BitOperations.resetLSBit(pos.getWhiteBishops()))).ind % 2) {
-      bishopPairAdvantageDiff += 1;
-    }
-    if (numOfBlackBishops >= 2 && Diagonal.getBySquareIndex(BitOperations.indexOfLSBit(
-        pos.getBlackBishops())).ind % 2 != Diagonal.getBySquareIndex(BitOperations.indexOfLSBit(
-        BitOperations.resetLSBit(pos.getBlackBishops()))).ind % 2) {
-      bishopPairAdvantageDiff -= 1;
-    }
+    int bishopPairAdvantageDiff = MaterialTable.bishopPairAdvantageDiff(materialData);
     mgScore += params.bishopPairAdvantageMg * bishopPairAdvantageDiff;
     egScore += params.bishopPairAdvantageEg * bishopPairAdvantageDiff;
+    // Piece-square scores. They are kept up to date by the position once it is provided with the piece-square table.
+    if (pos.getPieceSquareScores() != pieceSquareScores) {
+      pos.setPieceSquareScores(pieceSquareScores);
+    }
+    int pieceSquareScore = pos.getPieceSquareScore();
+    mgScore += packedMgScore(pieceSquareScore);
+    egScore += packedEgScore(pieceSquareScore);
     // Stopped pawns.
     int numOfStoppedPawnsDiff = BitOperations.hammingWeight(Bitboard.computeBlackPawnAdvanceSets(pos.getBlackPawns(),
         Bitboard.FULL_BOARD) & (pos.getAllWhiteOccupied() ^ pos.getWhitePawns())) -
@@ -648,10 +717,8 @@ public class Evaluator {
     long blackKing = pos.getBlackKing();
     byte whiteKingInd = BitOperations.indexOfBit(whiteKing);
     byte blackKingInd = BitOperations.indexOfBit(blackKing);
-    long whitePinningPieces = Bitboard.getPinningPieces(blackKingInd, pos.getWhiteQueens() | pos.getWhiteRooks(),
-        pos.getWhiteQueens() | pos.getWhiteBishops(), pos.getAllOccupied(), pos.getAllBlackOccupied());
-    long blackPinningPieces = Bitboard.getPinningPieces(whiteKingInd, pos.getBlackQueens() | pos.getBlackRooks(),
-        pos.getBlackQueens() | pos.getBlackBishops(), pos.getAllOccupied(), pos.getAllWhiteOccupied());
+    long whitePinningPieces = pos.getWhitePinningPieces();
+    long blackPinningPieces = pos.getBlackPinningPieces();
     long[] whitePinLines = new long[BitOperations.hammingWeight(whitePinningPieces)];
     long temp = whitePinningPieces;
     long blackPinnedPieces = Bitboard.EMPTY_BOARD;
@@ -672,34 +739,14 @@ public class Evaluator {
       whitePinnedPieces |= (pinLine & pos.getAllWhiteOccupied());
       temp = BitOperations.resetLSBit(temp);
     }
-    // Pawn shield and pawn storm.
     long whitePawns = pos.getWhitePawns();
     long blackPawns = pos.getBlackPawns();
-    int pawnShield1Diff = 0;
-    int pawnShield2Diff = 0;
-    if ((whiteKing & SHORT_CASTLED_W_KING_LOC) != Bitboard.EMPTY_BOARD) {
-      pawnShield1Diff += BitOperations.hammingWeight(whitePawns & SHORT_CASTLED_W_KING_PAWN_SHIELD1);
-      pawnShield2Diff += BitOperations.hammingWeight(whitePawns & SHORT_CASTLED_W_KING_PAWN_SHIELD2);
-    } else if ((whiteKing & LONG_CASTLED_W_KING_LOC) != Bitboard.EMPTY_BOARD) {
-      pawnShield1Diff += BitOperations.hammingWeight(whitePawns & LONG_CASTLED_W_KING_PAWN_SHIELD1);
-      pawnShield2Diff += BitOperations.hammingWeight(whitePawns & LONG_CASTLED_W_KING_PAWN_SHIELD2);
-    }
-    if ((blackKing & SHORT_CASTLED_B_KING_LOC) != Bitboard.EMPTY_BOARD) {
-      pawnShield1Diff -= BitOperations.hammingWeight(blackPawns & SHORT_CASTLED_B_KING_PAWN_SHIELD1);
-      pawnShield2Diff -= BitOperations.hammingWeight(blackPawns & SHORT_CASTLED_B_KING_PAWN_SHIELD2);
-    } else if ((blackKing & LONG_CASTLED_B_KING_LOC) != Bitboard.EMPTY_BOARD) {
-      pawnShield1Diff -= BitOperations.hammingWeight(blackPawns & LONG_CASTLED_B_KING_PAWN_SHIELD1);
-      pawnShield2Diff -= BitOperations.hammingWeight(blackPawns & LONG_CASTLED_B_KING_PAWN_SHIELD2);
-    }
-    mgScore += params.pawnShieldWeight1Mg * pawnShield1Diff;
-    egScore += params.pawnShieldWeight1Eg * pawnShield1Diff;
-    mgScore += params.pawnShieldWeight2Mg * pawnShield2Diff;
-    egScore += params.pawnShieldWeight2Eg * pawnShield2Diff;
-    // Blocked pawns.
-    int numOfBlockedPawnsDiff = (BitOperations.hammingWeight((blackPawns >>> 8) & blackPawns) -
-        BitOperations.hammingWeight((whitePawns << 8) & whitePawns));
-    mgScore += params.blockedPawnWeightMg * numOfBlockedPawnsDiff;
-    egScore += params.blockedPawnWeightEg * numOfBlockedPawnsDiff;
+    /* The scores of the terms that only depend on the pawn-king structure are looked up in the pawn-king table. If the gradient is
+     * requested, the terms have to be computed. */
+    long pawnKingData = gradientCache == null ? pawnKingTable.get(pos.getPawnKingKey()) : PawnKingTable.MISS;
+    boolean pawnKingHit = pawnKingData != PawnKingTable.MISS;
+    short pawnKingMgScore = 0;
+    short pawnKingEgScore = 0;
     // Passed pawns.
     long whiteAdvanceSpans = Bitboard.fillNorth(whitePawns) << 8;
     long whiteAttackSpans = ((whiteAdvanceSpans >>> 1) & ~File.H.bitboard) | ((whiteAdvanceSpans << 1) & ~File.A.bitboard);
@@ -709,17 +756,48 @@ public class Evaluator {
     long blackFrontSpans = blackAdvanceSpans | blackAttackSpans;
     long whitePassedPawns = whitePawns & ~blackFrontSpans & ~whiteAdvanceSpans;
     long blackPassedPawns = blackPawns & ~whiteFrontSpans & ~blackAdvanceSpans;
-    int numOfPassedPawnsDiff = (BitOperations.hammingWeight(whitePassedPawns) - BitOperations.hammingWeight(blackPassedPawns));
-    mgScore += params.passedPawnWeightMg * numOfPassedPawnsDiff;
-    egScore += params.passedPawnWeightEg * numOfPassedPawnsDiff;
     // Isolated pawns.
     long whiteSideSpans = Bitboard.fillSouth(whiteAttackSpans);
     long blackSideSpans = Bitboard.fillNorth(blackAttackSpans);
     long whiteIsolatedPawns = whitePawns & ~whiteSideSpans;
     long blackIsolatedPawns = blackPawns & ~blackSideSpans;
-    int numOfIsolatedPawnsDiff = (BitOperations.hammingWeight(blackIsolatedPawns) - BitOperations.hammingWeight(whiteIsolatedPawns));
-    mgScore += params.isolatedPawnWeightMg * numOfIsolatedPawnsDiff;
-    egScore += params.isolatedPawnWeightEg * numOfIsolatedPawnsDiff;
+    int pawnShield1Diff = 0;
+    int pawnShield2Diff = 0;
+    int numOfBlockedPawnsDiff = 0;
+    int numOfPassedPawnsDiff = 0;
+    int numOfIsolatedPawnsDiff = 0;
+    if (!pawnKingHit) {
+      // Pawn shield and pawn storm.
+      if ((whiteKing & SHORT_CASTLED_W_KING_LOC) != Bitboard.EMPTY_BOARD) {
+        pawnShield1Diff += BitOperations.hammingWeight(whitePawns & SHORT_CASTLED_W_KING_PAWN_SHIELD1);
+        pawnShield2Diff += BitOperations.hammingWeight(whitePawns & SHORT_CASTLED_W_KING_PAWN_SHIELD2);
+      } else if ((whiteKing & LONG_CASTLED_W_KING_LOC) != Bitboard.EMPTY_BOARD) {
+        pawnShield1Diff += BitOperations.hammingWeight(whitePawns & LONG_CASTLED_W_KING_PAWN_SHIELD1);
+        pawnShield2Diff += BitOperations.hammingWeight(whitePawns & LONG_CASTLED_W_KING_PAWN_SHIELD2);
+      }
+      if ((blackKing & SHORT_CASTLED_B_KING_LOC) != Bitboard.EMPTY_BOARD) {
+        pawnShield1Diff -= BitOperations.hammingWeight(blackPawns & SHORT_CASTLED_B_KING_PAWN_SHIELD1);
+        pawnShield2Diff -= BitOperations.hammingWeight(blackPawns & SHORT_CASTLED_B_KING_PAWN_SHIELD2);
+      } else if ((blackKing & LONG_CASTLED_B_KING_LOC) != Bitboard.EMPTY_BOARD) {
+        pawnShield1Diff -= BitOperations.hammingWeight(blackPawns & LONG_CASTLED_B_KING_PAWN_SHIELD1);
+        pawnShield2Diff -= BitOperations.hammingWeight(blackPawns & LONG_CASTLED_B_KING_PAWN_SHIELD2);
+      }
+      pawnKingMgScore += params.pawnShieldWeight1Mg * pawnShield1Diff;
+      pawnKingEgScore += params.pawnShieldWeight1Eg * pawnShield1Diff;
+      pawnKingMgScore += params.pawnShieldWeight2Mg * pawnShield2Diff;
+      pawnKingEgScore += params.pawnShieldWeight2Eg * pawnShield2Diff;
+      // Blocked pawns.
+      numOfBlockedPawnsDiff = (BitOperations.hammingWeight((blackPawns >>> 8) & blackPawns) -
+          BitOperations.hammingWeight((whitePawns << 8) & whitePawns));
+      pawnKingMgScore += params.blockedPawnWeightMg * numOfBlockedPawnsDiff;
+      pawnKingEgScore += params.blockedPawnWeightEg * numOfBlockedPawnsDiff;
+      numOfPassedPawnsDiff = (BitOperations.hammingWeight(whitePassedPawns) - BitOperations.hammingWeight(blackPassedPawns));
+      pawnKingMgScore += params.passedPawnWeightMg * numOfPassedPawnsDiff;
+      pawnKingEgScore += params.passedPawnWeightEg * numOfPassedPawnsDiff;
+      numOfIsolatedPawnsDiff = (BitOperations.hammingWeight(blackIsolatedPawns) - BitOperations.hammingWeight(whiteIsolatedPawns));
+      pawnKingMgScore += params.isolatedPawnWeightMg * numOfIsolatedPawnsDiff;
+      pawnKingEgScore += params.isolatedPawnWeightEg * numOfIsolatedPawnsDiff;
+    }
     // Backward pawns.
     long whitePawnCaptures = Bitboard.computeWhitePawnCaptureSets(pos.getWhitePawns() & ~whitePinnedPieces, Bitboard.FULL_BOARD);
     long blackPawnCaptures = Bitboard.computeBlackPawnCaptureSets(pos.getBlackPawns() & ~blackPinnedPieces, Bitboard.FULL_BOARD);
@@ -798,8 +876,6 @@ public class Evaluator {
           whiteNormalPawnWhiteKingTropism += whiteKingManhattanDistances[pieceInd];
           whiteNormalPawnBlackKingTropism += blackKingManhattanDistances[pieceInd];
         }
-        mgScore += pstWhitePawnMg[pieceInd];
-        egScore += pstWhitePawnEg[pieceInd];
       } else {
         long unrestrictedMoveSet;
         if (pieceType == Piece.W_KNIGHT.ind) {
@@ -810,8 +886,6 @@ public class Evaluator {
           whiteKnightMobility += BitOperations.hammingWeight(moveSet);
           whiteKnightWhiteKingTropism += whiteKingChebyshevDistances[pieceInd];
           whiteKnightBlackKingTropism += blackKingChebyshevDistances[pieceInd];
-          mgScore += pstWhiteKnightMg[pieceInd];
-          egScore += pstWhiteKnightEg[pieceInd];
         } else if (pieceType == Piece.W_BISHOP.ind) {
           unrestrictedMoveSet = moveSetDb.getBishopMoveSet(Bitboard.FULL_BOARD, pos.getAllOccupied());
           pseudoLegalMoveSet = unrestrictedMoveSet & pos.getAllNonWhiteOccupied();
@@ -820,8 +894,6 @@ public class Evaluator {
           whiteBishopMobility += BitOperations.hammingWeight(moveSet);
           whiteBishopWhiteKingTropism += whiteKingChebyshevDistances[pieceInd];
           whiteBishopBlackKingTropism += blackKingChebyshevDistances[pieceInd];
-          mgScore += pstWhiteBishopMg[pieceInd];
-          egScore += pstWhiteBishopEg[pieceInd];
         } else if (pieceType == Piece.W_ROOK.ind) {
           unrestrictedMoveSet = moveSetDb.getRookMoveSet(Bitboard.FULL_BOARD, pos.getAllOccupied());
           pseudoLegalMoveSet = unrestrictedMoveSet & pos.getAllNonWhiteOccupied();
@@ -830,8 +902,6 @@ public class Evaluator {
           whiteRookMobility += BitOperations.hammingWeight(moveSet);
           whiteRookWhiteKingTropism += whiteKingChebyshevDistances[pieceInd];
           whiteRookBlackKingTropism += blackKingChebyshevDistances[pieceInd];
-          mgScore += pstWhiteRookMg[pieceInd];
-          egScore += pstWhiteRookEg[pieceInd];
         } else { // White queen.
           unrestrictedMoveSet = moveSetDb.getQueenMoveSet(Bitboard.FULL_BOARD, pos.getAllOccupied());
           pseudoLegalMoveSet = unrestrictedMoveSet & pos.getAllNonWhiteOccupied();
@@ -839,8 +909,6 @@ public class Evaluator {
           whiteQueenMobility += BitOperations.hammingWeight(moveSet);
           whiteQueenWhiteKingTropism += whiteKingChebyshevDistances[pieceInd];
           whiteQueenBlackKingTropism += blackKingChebyshevDistances[pieceInd];
-          mgScore += pstWhiteQueenMg[pieceInd];
-          egScore += pstWhiteQueenEg[pieceInd];
         }
         whitePieceAttacksAndDefense |= (unrestrictedMoveSet & pinnedPieceMoveSetRestriction);
       }
@@ -905,8 +973,6 @@ public class Evaluator {
           blackNormalPawnBlackKingTropism += blackKingManhattanDistances[pieceInd];
           blackNormalPawnWhiteKingTropism += whiteKingManhattanDistances[pieceInd];
         }
-        mgScore -= pstBlackPawnMg[pieceInd];
-        egScore -= pstBlackPawnEg[pieceInd];
       } else {
         long unrestrictedMoveSet;
         if (pieceType == Piece.B_KNIGHT.ind) {
@@ -917,8 +983,6 @@ public class Evaluator {
           blackKnightMobility += BitOperations.hammingWeight(moveSet);
           blackKnightBlackKingTropism += blackKingChebyshevDistances[pieceInd];
           blackKnightWhiteKingTropism += whiteKingChebyshevDistances[pieceInd];
-          mgScore -= pstBlackKnightMg[pieceInd];
-          egScore -= pstBlackKnightEg[pieceInd];
         } else if (pieceType == Piece.B_BISHOP.ind) {
           unrestrictedMoveSet = moveSetDb.getBishopMoveSet(Bitboard.FULL_BOARD, pos.getAllOccupied());
           pseudoLegalMoveSet = unrestrictedMoveSet & pos.getAllNonBlackOccupied();
@@ -927,8 +991,6 @@ public class Evaluator {
           blackBishopMobility += BitOperations.hammingWeight(moveSet);
           blackBishopBlackKingTropism += blackKingChebyshevDistances[pieceInd];
           blackBishopWhiteKingTropism += whiteKingChebyshevDistances[pieceInd];
-          mgScore -= pstBlackBishopMg[pieceInd];
-          egScore -= pstBlackBishopEg[pieceInd];
         } else if (pieceType == Piece.B_ROOK.ind) {
           unrestrictedMoveSet = moveSetDb.getRookMoveSet(Bitboard.FULL_BOARD, pos.getAllOccupied());
           pseudoLegalMoveSet = unrestrictedMoveSet & pos.getAllNonBlackOccupied();
@@ -937,8 +999,6 @@ public class Evaluator {
           blackRookMobility += BitOperations.hammingWeight(moveSet);
           blackRookBlackKingTropism += blackKingChebyshevDistances[pieceInd];
           blackRookWhiteKingTropism += whiteKingChebyshevDistances[pieceInd];
-          mgScore -= pstBlackRookMg[pieceInd];
-          egScore -= pstBlackRookEg[pieceInd];
         } else { // Black queen.
           unrestrictedMoveSet = moveSetDb.getQueenMoveSet(Bitboard.FULL_BOARD, pos.getAllOccupied());
           pseudoLegalMoveSet = unrestrictedMoveSet & pos.getAllNonBlackOccupied();
@@ -946,8 +1006,6 @@ public class Evaluator {
           blackQueenMobility += BitOperations.hammingWeight(moveSet);
           blackQueenBlackKingTropism += blackKingChebyshevDistances[pieceInd];
           blackQueenWhiteKingTropism += whiteKingChebyshevDistances[pieceInd];
-          mgScore -= pstBlackQueenMg[pieceInd];
-          egScore -= pstBlackQueenEg[pieceInd];
         }
         blackPieceAttacksAndDefense |= (unrestrictedMoveSet & pinnedPieceMoveSetRestriction);
       }
@@ -958,11 +1016,6 @@ public class Evaluator {
       }
       blackPieceSet = BitOperations.resetLSBit(blackPieceSet);
     }
-    // King piece-square scores.
-    mgScore += pstWhiteKingMg[whiteKingInd];
-    egScore += pstWhiteKingEg[whiteKingInd];
-    mgScore -= pstBlackKingMg[blackKingInd];
-    egScore -= pstBlackKingEg[blackKingInd];
     // Mobility scores.
     int queenMobilityDiff = whiteQueenMobility - blackQueenMobility;
     int rookMobilityDiff = whiteRookMobility - blackRookMobility;
@@ -1044,8 +1097,6 @@ public class Evaluator {
     egScore += params.friendlyBishopTropismWeightEg * friendlyBishopKingTropismDiff;
     mgScore += params.friendlyKnightTropismWeightMg * friendlyKnightKingTropismDiff;
     egScore += params.friendlyKnightTropismWeightEg * friendlyKnightKingTropismDiff;
-    mgScore += params.friendlyPassedPawnTropismWeightMg * friendlyPassedPawnKingTropismDiff;
-    egScore += params.friendlyPassedPawnTropismWeightEg * friendlyPassedPawnKingTropismDiff;
     mgScore += params.friendlyWeakPawnTropismWeightMg * friendlyWeakPawnKingTropismDiff;
     egScore += params.friendlyWeakPawnTropismWeightEg * friendlyWeakPawnKingTropismDiff;
     mgScore += params.friendlyNormalPawnTropismWeightMg * friendlyNormalPawnKingTropismDiff;
@@ -1058,8 +1109,6 @@ public class Evaluator {
     egScore += params.opponentBishopTropismWeightEg * opponentBishopKingTropismDiff;
     mgScore += params.opponentKnightTropismWeightMg * opponentKnightKingTropismDiff;
     egScore += params.opponentKnightTropismWeightEg * opponentKnightKingTropismDiff;
-    mgScore += params.opponentPassedPawnTropismWeightMg * opponentPassedPawnKingTropismDiff;
-    egScore += params.opponentPassedPawnTropismWeightEg * opponentPassedPawnKingTropismDiff;
     mgScore += params.opponentWeakPawnTropismWeightMg * opponentWeakPawnKingTropismDiff;
     egScore += params.opponentWeakPawnTropismWeightEg * opponentWeakPawnKingTropismDiff;
     mgScore += params.opponentNormalPawnTropismWeightMg * opponentNormalPawnKingTropismDiff;
@@ -1071,6 +1120,19 @@ public class Evaluator {
     egScore += params.attackedKingZoneSquareWeightEg * uniqueAttackedKingZoneSquaresDiff;
     mgScore += params.kingZoneAttackerWeightMg * numKingZoneAttackersDiff;
     egScore += params.kingZoneAttackerWeightEg * numKingZoneAttackersDiff;
+    // Pawn-king structure scores.
+    if (pawnKingHit) {
+      pawnKingMgScore = PawnKingTable.mgScore(pawnKingData);
+      pawnKingEgScore = PawnKingTable.egScore(pawnKingData);
+    } else {
+      pawnKingMgScore += params.friendlyPassedPawnTropismWeightMg * friendlyPassedPawnKingTropismDiff;
+      pawnKingEgScore += params.friendlyPassedPawnTropismWeightEg * friendlyPassedPawnKingTropismDiff;
+      pawnKingMgScore += params.opponentPassedPawnTropismWeightMg * opponentPassedPawnKingTropismDiff;
+      pawnKingEgScore += params.opponentPassedPawnTropismWeightEg * opponentPassedPawnKingTropismDiff;
+      pawnKingTable.put(pos.getPawnKingKey(), pawnKingMgScore, pawnKingEgScore);
+    }
+    mgScore += pawnKingMgScore;
+    egScore += pawnKingEgScore;
     // Asymmetric evaluation terms.
     int highestExchangeValue = 0;
     AtomicReference<String> victimParamNameRef;
@@ -1106,22 +1168,16 @@ public class Evaluator {
     // Mop-up evaluation for end-games.
     int weakKingCenterTropism = 0;
     int kingKingTropism = 0;
-    int numOfPawns = numOfWhitePawns + numOfBlackPawns;
-    if (numOfPawns == 0) {
-      int numOfWhitePieces = numOfWhiteKnights + numOfWhiteBishops + numOfWhiteRooks + numOfWhiteQueens;
-      int numOfBlackPieces = numOfBlackKnights + numOfBlackBishops + numOfBlackRooks + numOfBlackQueens;
-      int numOfPieces = numOfWhitePieces + numOfBlackPieces;
-      if (numOfPieces <= 3) {
-        if (materialScore > 0) {
-          kingKingTropism = -CHEBYSHEV_DISTANCE[whiteKingInd][blackKingInd];
-          if (numOfBlackPieces == 0) {
-            weakKingCenterTropism = MANHATTAN_DISTANCE_TO_CENTER[blackKingInd];
-          }
-        } else if (materialScore < 0) {
-          kingKingTropism = CHEBYSHEV_DISTANCE[blackKingInd][whiteKingInd];
-          if (numOfWhitePieces == 0) {
-            weakKingCenterTropism = -MANHATTAN_DISTANCE_TO_CENTER[whiteKingInd];
-          }
+    if ((materialData & MaterialTable.MOP_UP) != 0) {
+      if (materialScore > 0) {
+        kingKingTropism = -CHEBYSHEV_DISTANCE[whiteKingInd][blackKingInd];
+        if ((materialData & MaterialTable.BLACK_BARE) != 0) {
+          weakKingCenterTropism = MANHATTAN_DISTANCE_TO_CENTER[blackKingInd];
+        }
+      } else if (materialScore < 0) {
+        kingKingTropism = CHEBYSHEV_DISTANCE[blackKingInd][whiteKingInd];
+        if ((materialData & MaterialTable.WHITE_BARE) != 0) {
+          weakKingCenterTropism = -MANHATTAN_DISTANCE_TO_CENTER[whiteKingInd];
         }
       }
     }
@@ -1131,13 +1187,17 @@ public class Evaluator {
     score *= colorFactor;
     if (evalTable != null) {
       entry.set(pos.getKey(), score, hashGen);
-      entry.setupKey();
       evalTable.put(entry);
     }
     if (gradientCache != null) {
       // Calculate the derivative of the tapered evaluation w.r.t. the mid-game and end-game scores.
       double dPstEgParam = (double) phaseScore / Position.MAX_PHASE_SCORE;
       double dPstMgParam = 1d - dPstEgParam;
+      int numOfQueensDiff = MaterialTable.count(materialKey, Piece.W_QUEEN) - MaterialTable.count(materialKey, Piece.B_QUEEN);
+      int numOfRooksDiff = MaterialTable.count(materialKey, Piece.W_ROOK) - MaterialTable.count(materialKey, Piece.B_ROOK);
+      int numOfBishopsDiff = MaterialTable.count(materialKey, Piece.W_BISHOP) - MaterialTable.count(materialKey, Piece.B_BISHOP);
+      int numOfKnightsDiff = MaterialTable.count(materialKey, Piece.W_KNIGHT) - MaterialTable.count(materialKey, Piece.B_KNIGHT);
+      int numOfPawnsDiff = MaterialTable.count(materialKey, Piece.W_PAWN) - MaterialTable.count(materialKey, Piece.B_PAWN);
       gradientCache.put("queenValueMg", dPstMgParam * numOfQueensDiff);
       gradientCache.put("queenValueEg", dPstEgParam * numOfQueensDiff);
       gradientCache.put("rookValueMg", dPstMgParam * numOfRooksDiff);
@@ -1267,7 +1327,8 @@ public class Evaluator {
 
   /**
    * A static evaluation of the chess position from the color to move's point of view. It considers material imbalance, coverage, pawn
-   * structure, queen-king tropism, mobility, immediate captures, etc. It assumes that the position is not a check.
+   * structure, queen-king tropism, mobility, immediate captures, etc. It assumes that the position is not a check. If the position does
+   * not yet maintain its piece-square score using the piece-square table of the evaluator, the table is set for the position.
    *
    * @param pos The position to score.
    * @param hashGen The hash generation.
@@ -1,6 +1,12 @@
 package net.viktorc.detroid.framework.engine;
 
 import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import net.viktorc.detroid.framework.util.BitOperations;
@@ -66,10 +72,29 @@ public class GaviotaTableBaseJNI extends EndGameTableBase {
   /* The fraction (of 128) of the cache that should be devoted to storing WDL information;
    * The rest is to store DTM information. */
   private static final int WDL_FRACTION = 64;
+  // The number of slots of the Java-side result cache.
+  private static final int RESULT_CACHE_CAPACITY = 1 << 16;
+  // The length of the square and piece arrays passed to the probing library; the maximum number of pieces per side plus the terminator.
+  private static final int PROBE_ARRAY_LENGTH = 17;
 
   private static final GaviotaTableBaseJNI INSTANCE = new GaviotaTableBaseJNI();
 
   private final Lock probeLock;
+  private final EGTBResultCache resultCache;
+  // The arrays the positions are marshalled into; only accessed while holding the probe lock.
+  private final int[] wSquares;
+  private final int[] bSquares;
+  private final char[] wPieces;
+  private final char[] bPieces;
+  private final LongAdder libraryCalls;
+  private final LongAdder libraryCallTime;
+  // A single background thread for prefetching; only the most recent prefetch request is kept waiting.
+  private final ExecutorService prefetcher;
+  // Held by the prefetch tasks while they run.
+  private final Lock prefetchLock;
+  // Incremented whenever the prefetch requests made so far are to be abandoned.
+  private final AtomicInteger prefetchEpoch;
+  private volatile long lastPrefetchKey;
   private boolean hasBeenInit;
 
   /**
@@ -77,6 +102,21 @@ public class GaviotaTableBaseJNI extends EndGameTableBase {
    */
   private GaviotaTableBaseJNI() {
     probeLock = new ReentrantLock(true);
+    resultCache = new EGTBResultCache(RESULT_CACHE_CAPACITY);
+    wSquares = new int[PROBE_ARRAY_LENGTH];
+    bSquares = new int[PROBE_ARRAY_LENGTH];
+    wPieces = new char[PROBE_ARRAY_LENGTH];
+    bPieces = new char[PROBE_ARRAY_LENGTH];
+    libraryCalls = new LongAdder();
+    libraryCallTime = new LongAdder();
+    prefetcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), r -> {
+      Thread thread = new Thread(r);
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    prefetchLock = new ReentrantLock();
+    prefetchEpoch = new AtomicInteger();
   }
 
   /**
@@ -109,7 +149,30 @@ public class GaviotaTableBaseJNI extends EndGameTableBase {
   }
 
   /**
-   * Probes the loaded tablebase files or cache for the specified position.
+   * Writes the square indices and the Gaviota piece types of the specified pieces into the arrays followed by the terminating {@link
+   * #NO_SQUARE} and {@link #NO_PIECE} entries.
+   *
+   * @param pos The position.
+   * @param pieces The bitboard of the pieces of one side.
+   * @param squares The array to write the square indices to.
+   * @param pieceTypes The array to write the piece types to.
+   */
+  private static void marshal(Position pos, long pieces, int[] squares, char[] pieceTypes) {
+    int i = 0;
+    while (pieces != 0) {
+      byte square = BitOperations.indexOfLSBit(pieces);
+      squares[i] = square;
+      pieceTypes[i++] = (char) (Piece.W_PAWN.ind - ((pos.getPiece(square) - 1) % Piece.W_PAWN.ind));
+      pieces = BitOperations.resetLSBit(pieces);
+    }
+    squares[i] = NO_SQUARE;
+    pieceTypes[i] = NO_PIECE;
+  }
+
+  /**
+   * Probes the loaded tablebase files or cache for the specified position. The position is marshalled into arrays reused across probes
+   * after the probe lock has been acquired, so probing does not allocate anything on the Java side except for the result array returned by
+   * the DTM probing functions of the library. The number of library calls and the time spent in them are recorded.
    *
    * @param pos The position to look for.
    * @param dtm Whether the result should include DTM information as well; which is more expensive.
@@ -118,6 +181,10 @@ public class GaviotaTableBaseJNI extends EndGameTableBase {
    * net.viktorc.detroid.framework.engine.EndGameTableBase.WDL} instance depending on the <code>dtm</code> argument; else null.
    */
   private Object probe(Position pos, boolean dtm, boolean soft) {
+    if (BitOperations.hammingWeight(pos.getAllWhiteOccupied()) >= PROBE_ARRAY_LENGTH ||
+        BitOperations.hammingWeight(pos.getAllBlackOccupied()) >= PROBE_ARRAY_LENGTH) {
+      return null;
+    }
     int sideToMove = pos.isWhitesTurn() ? 0 : 1;
     int enPassant = pos.getEnPassantRights() == EnPassantRights.NONE.ind ? NO_SQUARE :
         pos.getEnPassantRights() + (pos.isWhitesTurn() ? EnPassantRights.TO_W_DEST_SQR_IND :
@@ -126,30 +193,6 @@ public class GaviotaTableBaseJNI extends EndGameTableBase {
         pos.getBlackCastlingRights() : pos.getBlackCastlingRights() ^ CastlingRights.ALL.ind) |
         ((pos.getWhiteCastlingRights() % CastlingRights.ALL.ind == 0 ? pos.getWhiteCastlingRights() :
             pos.getWhiteCastlingRights() ^ CastlingRights.ALL.ind) << 2);
-    byte[] wAllOccuppied = BitOperations.serialize(pos.getAllWhiteOccupied());
-    int[] wSquares = new int[wAllOccuppied.length + 1];
-    char[] wPieces = new char[wAllOccuppied.length + 1];
-    int i = 0;
-    for (; i < wAllOccuppied.length; i++) {
-      int square = wAllOccuppied[i];
-      wSquares[i] = square;
-      byte piece = pos.getPiece(square);
-      wPieces[i] = (char) (Piece.W_PAWN.ind - ((piece - 1) % Piece.W_PAWN.ind));
-    }
-    wSquares[i] = NO_SQUARE;
-    wPieces[i] = NO_PIECE;
-    byte[] bAllOccupied = BitOperations.serialize(pos.getAllBlackOccupied());
-    int[] bSquares = new int[bAllOccupied.length + 1];
-    char[] bPieces = new char[bAllOccupied.length + 1];
-    i = 0;
-    for (; i < bAllOccupied.length; i++) {
-      int square = bAllOccupied[i];
-      bSquares[i] = square;
-      byte piece = pos.getPiece(square);
-      bPieces[i] = (char) (Piece.W_PAWN.ind - ((piece - 1) % Piece.W_PAWN.ind));
-    }
-    bSquares[i] = NO_SQUARE;
-    bPieces[i] = NO_PIECE;
     boolean lockAcquired;
     if (soft) {
       lockAcquired = probeLock.tryLock();
@@ -159,18 +202,24 @@ public class GaviotaTableBaseJNI extends EndGameTableBase {
     }
     if (lockAcquired) {
       try {
+        marshal(pos, pos.getAllWhiteOccupied(), wSquares, wPieces);
+        marshal(pos, pos.getAllBlackOccupied(), bSquares, bPieces);
+        long start = System.nanoTime();
         if (dtm) {
           int[] res = soft ? probeSoft(sideToMove, enPassant, castling, wSquares, bSquares,
               wPieces, bPieces) : probe(sideToMove, enPassant, castling, wSquares,
               bSquares, wPieces, bPieces);
+          recordLibraryCall(start);
           if (res == null) {
             return null;
           }
           return new DTM(resIntToWDL(res[0], pos.isWhitesTurn()), res[1]);
         } else {
-          return resIntToWDL(soft ? probeSoftWDL(sideToMove, enPassant, castling, wSquares,
+          int res = soft ? probeSoftWDL(sideToMove, enPassant, castling, wSquares,
               bSquares, wPieces, bPieces) : probeWDL(sideToMove, enPassant, castling,
-              wSquares, bSquares, wPieces, bPieces), pos.isWhitesTurn());
+              wSquares, bSquares, wPieces, bPieces);
+          recordLibraryCall(start);
+          return resIntToWDL(res, pos.isWhitesTurn());
         }
       } finally {
         probeLock.unlock();
@@ -179,6 +228,44 @@ public class GaviotaTableBaseJNI extends EndGameTableBase {
     return null;
   }
 
+  /**
+   * Hard probes the position and all its children, which makes the probing library load the blocks of the tablebase files they are in into
+   * its cache and puts the results into the result cache. It stops early if a new prefetch request is made in the meantime and it does
+   * nothing if prefetching has been stopped since the request was made.
+   *
+   * @param pos The position to warm the caches up for. It is modified during the execution of the method.
+   * @param key The key of the position.
+   * @param epoch The prefetch epoch at the time of the request.
+   */
+  private void warmUp(Position pos, long key, int epoch) {
+    prefetchLock.lock();
+    try {
+      if (prefetchEpoch.get() != epoch || !isInit()) {
+        return;
+      }
+      probeDTM(pos, false);
+      MoveList moves = new MoveList();
+      pos.getMoves(moves);
+      for (int i = 0; i < moves.size() && lastPrefetchKey == key && prefetchEpoch.get() == epoch; i++) {
+        pos.makeMove(moves.get(i));
+        probeDTM(pos, false);
+        pos.unmakeMoveAsInt();
+      }
+    } finally {
+      prefetchLock.unlock();
+    }
+  }
+
+  /**
+   * Records a call to the probing library that started at the specified time.
+   *
+   * @param start The value of {@link System#nanoTime()} right before the call.
+   */
+  private void recordLibraryCall(long start) {
+    libraryCallTime.add(System.nanoTime() - start);
+    libraryCalls.increment();
+  }
+
   /**
    * Initializes the Gaviota probing library using the specified parameters.
    *
@@ -388,36 +475,117 @@ public class GaviotaTableBaseJNI extends EndGameTableBase {
     getStats(intStats, fpStats);
     return new EGTBStats(intStats[WDL_HARD_PROB] + intStats[DTM_HARD_PROB],
         intStats[WDL_SOFT_PROB] + intStats[DTM_SOFT_PROB],
-        intStats[DRIVE_HITS], intStats[MEMORY_HITS]);
+        intStats[DRIVE_HITS], intStats[MEMORY_HITS], resultCache.getHits(), resultCache.getMisses(), libraryCalls.sum(),
+        libraryCallTime.sum());
   }
 
+  @Override
+  public void resetProbeStats() {
+    resultCache.resetStats();
+    libraryCalls.reset();
+    libraryCallTime.reset();
+  }
+
+  /**
+   * Initializes or restarts the probing library. Prefetching is stopped and the probe lock is held for the duration of the call, so no
+   * probe can run inside the library while it is being restarted.
+   *
+   * @param path The paths to the folders containing the tablebase files separated by semicolons.
+   * @param cacheSize The size of the probing cache in bytes.
+   * @param args The {@link CompressionScheme} of the tablebase files.
+   */
   @Override
   public void init(String path, long cacheSize, Object... args) {
     CompressionScheme compScheme = (CompressionScheme) args[0];
     String absPath = Arrays.stream(path.split(";")).collect(StringBuilder::new,
         (s, p) -> s.append(";").append(p), StringBuilder::append).toString();
-    if (!hasBeenInit) {
-      init(false, compScheme.ordinal(), absPath);
-      if (isInit()) {
-        initCache(cacheSize, WDL_FRACTION);
-        hasBeenInit = true;
-      }
-    } else {
-      restart(false, compScheme.ordinal(), absPath);
-      if (isInit()) {
-        restartCache(cacheSize, WDL_FRACTION);
+    stopPrefetching();
+    probeLock.lock();
+    try {
+      if (!hasBeenInit) {
+        init(false, compScheme.ordinal(), absPath);
+        if (isInit()) {
+          initCache(cacheSize, WDL_FRACTION);
+          hasBeenInit = true;
+        }
+      } else {
+        restart(false, compScheme.ordinal(), absPath);
+        if (isInit()) {
+          restartCache(cacheSize, WDL_FRACTION);
+        }
       }
+    } finally {
+      probeLock.unlock();
     }
   }
 
+  /**
+   * It probes for the given position and if found, it returns whether it is a winning position, a losing position, or a draw; else it
+   * returns null. The result cache is checked first and the probing library is only called if the position is not in it.
+   *
+   * @param pos The chess position to look for.
+   * @param soft Whether only the cache should be probed.
+   * @return Whether it is a winning position, a losing position, or a draw.
+   */
   @Override
   public WDL probeWDL(Position pos, boolean soft) {
-    return (WDL) probe(pos, false, soft);
+    long key = pos.getKey();
+    WDL wdl = resultCache.getWDL(key);
+    if (wdl == null) {
+      wdl = (WDL) probe(pos, false, soft);
+      resultCache.putWDL(key, wdl);
+    }
+    return wdl;
   }
 
+  /**
+   * It probes for the given position and if found, it returns whether it is a win, loss, or draw; and in case it is a win or loss, it also
+   * returns the distance to mate. If the position is not found, it returns null. The result cache is checked first and the probing
+   * library is only called if the position is not in it.
+   *
+   * @param pos The chess position to look for.
+   * @param soft Whether only the cache should be probed.
+   * @return Whether it is a win, loss, or draw; and potentially the distance to mate.
+   */
   @Override
   public DTM probeDTM(Position pos, boolean soft) {
-    return (DTM) probe(pos, true, soft);
+    long key = pos.getKey();
+    DTM dtm = resultCache.getDTM(key);
+    if (dtm == null) {
+      dtm = (DTM) probe(pos, true, soft);
+      resultCache.putDTM(key, dtm);
+    }
+    return dtm;
+  }
+
+  /**
+   * Prefetches the tablebase data of the given position and its children on a background thread. If the previous prefetch request has not
+   * been started yet, it is discarded in favour of this one. Repeated requests for the same position are ignored.
+   *
+   * @param pos The chess position to prefetch the tablebase data for.
+   */
+  @Override
+  public void prefetch(Position pos) {
+    long key = pos.getKey();
+    if (key == lastPrefetchKey) {
+      return;
+    }
+    lastPrefetchKey = key;
+    Position copy = new Position(pos);
+    int epoch = prefetchEpoch.get();
+    prefetcher.execute(() -> warmUp(copy, key, epoch));
+  }
+
+  /**
+   * Abandons all the prefetch requests made so far and waits for the prefetch task in progress to finish. Tasks started afterwards for
+   * these requests return without probing.
+   */
+  @Override
+  public void stopPrefetching() {
+    prefetchEpoch.incrementAndGet();
+    lastPrefetchKey = 0;
+    prefetchLock.lock();
+    prefetchLock.unlock();
   }
 
   /**
@@ -0,0 +1,224 @@
+package net.viktorc.detroid.framework.engine;
+
+import net.viktorc.detroid.framework.util.BitOperations;
+
+/**
+ * A pure Java king and pawn versus king bitbase. It is generated in memory by retrograde analysis when the class is initialized and takes
+ * up 24KB. It stores a single bit for every position with white having the pawn on one of the files A to D denoting whether the position
+ * is won for white; all other positions are mapped to these by mirroring the board horizontally and/or flipping the colors. The
+ * generation starts from the positions that can be classified immediately (promotions that cannot be stopped, stalemates, and undefended
+ * pawns that can be captured) and repeatedly classifies the rest based on their children until none of them changes anymore. The
+ * positions that remain unclassified are draws.
+ *
+ * @author Viktor
+ */
+final class KPKBitbase {
+
+  // The number of distinct pawn squares; 4 files times the 6 ranks a pawn can be on.
+  private static final int NUM_OF_PAWN_SQUARES = 24;
+  private static final int SIZE = 2 * 64 * 64 * NUM_OF_PAWN_SQUARES;
+  // Classifications during the generation; chosen so that OR-ing the classifications of the children tells which ones occur among them.
+  private static final byte INVALID = 0;
+  private static final byte UNKNOWN = 1;
+  private static final byte DRAW = 2;
+  private static final byte WIN = 4;
+  private static final long[] KING_ATTACKS;
+  private static final long[] BITS;
+
+  static {
+    KING_ATTACKS = new long[64];
+    for (int sqrInd = 0; sqrInd < 64; sqrInd++) {
+      KING_ATTACKS[sqrInd] = Bitboard.computeKingMoveSets(1L << sqrInd, Bitboard.FULL_BOARD);
+    }
+    BITS = generate();
+  }
+
+  private KPKBitbase() {
+  }
+
+  /**
+   * Makes sure that the bitbase is generated. The bitbase is generated by the static initializer and calling any static method of the class
+   * triggers its initialization; this method does nothing else. As the generation takes up to a few hundred milliseconds, it can be used to
+   * have it done ahead of the first probe, e.g. on a background thread.
+   */
+  static void ensureGenerated() {
+  }
+
+  /**
+   * Returns the index of the position in the bitbase.
+   *
+   * @param whiteToMove Whether it is white's turn.
+   * @param whiteKing The index of the white king's square.
+   * @param blackKing The index of the black king's square.
+   * @param whitePawn The index of the white pawn's square. It has to be on the files A to D and on the ranks 2 to 7.
+   * @return The index of the position.
+   */
+  private static int index(boolean whiteToMove, int whiteKing, int blackKing, int whitePawn) {
+    int pawnInd = ((whitePawn >>> 3) - 1) * 4 + (whitePawn & 7);
+    return whiteKing | (blackKing << 6) | ((whiteToMove ? 0 : 1) << 12) | (pawnInd << 13);
+  }
+
+  /**
+   * Classifies the position without looking at its children if possible.
+   *
+   * @param whiteToMove Whether it is white's turn.
+   * @param whiteKing The index of the white king's square.
+   * @param blackKing The index of the black king's square.
+   * @param whitePawn The index of the white pawn's square.
+   * @return The classification of the position.
+   */
+  private static byte classifyStatically(boolean whiteToMove, int whiteKing, int blackKing, int whitePawn) {
+    long whiteKingAttacks = KING_ATTACKS[whiteKing];
+    long blackKingAttacks = KING_ATTACKS[blackKing];
+    long pawnAttacks = Bitboard.computeWhitePawnCaptureSets(1L << whitePawn, Bitboard.FULL_BOARD);
+    if (whiteKing == blackKing || whiteKing == whitePawn || blackKing == whitePawn || (whiteKingAttacks & (1L << blackKing)) != 0 ||
+        (whiteToMove && (pawnAttacks & (1L << blackKing)) != 0)) {
+      return INVALID;
+    }
+    if (whiteToMove) {
+      int promotionSqr = whitePawn + 8;
+      // The pawn can promote without the queen being captured.
+      if (promotionSqr >= 56 && promotionSqr != whiteKing && promotionSqr != blackKing &&
+          ((blackKingAttacks & (1L << promotionSqr)) == 0 || (whiteKingAttacks & (1L << promotionSqr)) != 0)) {
+        return WIN;
+      }
+    } else {
+      long blackKingMoves = blackKingAttacks & ~(whiteKingAttacks | pawnAttacks);
+      // Stalemate or the pawn can be captured.
+      if (blackKingMoves == 0 || (blackKingMoves & (1L << whitePawn)) != 0) {
+        return DRAW;
+      }
+    }
+    return UNKNOWN;
+  }
+
+  /**
+   * Classifies the position based on the current classifications of its children.
+   *
+   * @param db The classifications of all the positions.
+   * @param whiteToMove Whether it is white's turn.
+   * @param whiteKing The index of the white king's square.
+   * @param blackKing The index of the black king's square.
+   * @param whitePawn The index of the white pawn's square.
+   * @return The classification of the position.
+   */
+  private static byte classify(byte[] db, boolean whiteToMove, int whiteKing, int blackKing, int whitePawn) {
+    int children = 0;
+    long kingMoves = KING_ATTACKS[whiteToMove ? whiteKing : blackKing];
+    // Illegal king moves lead to invalid positions which do not affect the result.
+    while (kingMoves != 0) {
+      int to = BitOperations.indexOfLSBit(kingMoves);
+      children |= whiteToMove ? db[index(false, to, blackKing, whitePawn)] : db[index(true, whiteKing, to, whitePawn)];
+      kingMoves = BitOperations.resetLSBit(kingMoves);
+    }
+    if (whiteToMove) {
+      // Promotions are covered by the static classification.
+      if (whitePawn < 48) {
+        children |= db[index(false, whiteKing, blackKing, whitePawn + 8)];
+      }
+      if (whitePawn < 16 && whitePawn + 8 != whiteKing && whitePawn + 8 != blackKing) {
+        children |= db[index(false, whiteKing, blackKing, whitePawn + 16)];
+      }
+      return (children & WIN) != 0 ? WIN : (children & UNKNOWN) != 0 ? UNKNOWN : DRAW;
+    }
+    return (children & DRAW) != 0 ? DRAW : (children & UNKNOWN) != 0 ? UNKNOWN : WIN;
+  }
+
+  /**
+   * Generates the bitbase.
+   *
+   * @return The bits of the bitbase.
+   */
+  private static long[] generate() {
+    byte[] db = new byte[SIZE];
+    for (int ind = 0; ind < SIZE; ind++) {
+      db[ind] = classifyStatically(isWhiteToMove(ind), whiteKing(ind), blackKing(ind), whitePawn(ind));
+    }
+    boolean changed;
+    do {
+      changed = false;
+      for (int ind = 0; ind < SIZE; ind++) {
+        if (db[ind] == UNKNOWN) {
+          byte res = classify(db, isWhiteToMove(ind), whiteKing(ind), blackKing(ind), whitePawn(ind));
+          if (res != UNKNOWN) {
+            db[ind] = res;
+            changed = true;
+          }
+        }
+      }
+    } while (changed);
+    long[] bits = new long[SIZE / 64];
+    for (int ind = 0; ind < SIZE; ind++) {
+      if (db[ind] == WIN) {
+        bits[ind >>> 6] |= 1L << ind;
+      }
+    }
+    return bits;
+  }
+
+  private static boolean isWhiteToMove(int ind) {
+    return ((ind >>> 12) & 1) == 0;
+  }
+
+  private static int whiteKing(int ind) {
+    return ind & 63;
+  }
+
+  private static int blackKing(int ind) {
+    return (ind >>> 6) & 63;
+  }
+
+  private static int whitePawn(int ind) {
+    int pawnInd = ind >>> 13;
+    return ((pawnInd >>> 2) + 1) * 8 + (pawnInd & 3);
+  }
+
+  /**
+   * Returns whether the position with white having the pawn is won for white.
+   *
+   * @param whiteToMove Whether it is white's turn.
+   * @param whiteKing The index of the white king's square.
+   * @param blackKing The index of the black king's square.
+   * @param whitePawn The index of the white pawn's square.
+   * @return Whether white wins.
+   */
+  static boolean probe(boolean whiteToMove, int whiteKing, int blackKing, int whitePawn) {
+    // Mirror the board horizontally if the pawn is on the king side.
+    if ((whitePawn & 7) > 3) {
+      whiteKing ^= 7;
+      blackKing ^= 7;
+      whitePawn ^= 7;
+    }
+    int ind = index(whiteToMove, whiteKing, blackKing, whitePawn);
+    return (BITS[ind >>> 6] & (1L << ind)) != 0;
+  }
+
+  /**
+   * Returns whether there are only the two kings and a single pawn on the board.
+   *
+   * @param pos The position.
+   * @return Whether the position is a king and pawn versus king ending.
+   */
+  static boolean isKPK(Position pos) {
+    long others = pos.getAllOccupied() ^ pos.getWhiteKing() ^ pos.getBlackKing();
+    return others != 0 && (others & (others - 1)) == 0 && (others & (pos.getWhitePawns() | pos.getBlackPawns())) != 0;
+  }
+
+  /**
+   * Returns whether the side with the pawn wins the king and pawn versus king position. It assumes that {@link #isKPK(Position)} holds
+   * for the position.
+   *
+   * @param pos The position.
+   * @return Whether the side with the pawn wins.
+   */
+  static boolean isWin(Position pos) {
+    byte whiteKing = BitOperations.indexOfBit(pos.getWhiteKing());
+    byte blackKing = BitOperations.indexOfBit(pos.getBlackKing());
+    if (pos.getWhitePawns() != Bitboard.EMPTY_BOARD) {
+      return probe(pos.isWhitesTurn(), whiteKing, blackKing, BitOperations.indexOfBit(pos.getWhitePawns()));
+    }
+    // Flip the colors by mirroring the board vertically.
+    return probe(!pos.isWhitesTurn(), blackKing ^ 56, whiteKing ^ 56, BitOperations.indexOfBit(pos.getBlackPawns()) ^ 56);
+  }
+
+}
@@ -29,11 +29,21 @@ public class KillerTable {
    * @throws ArrayIndexOutOfBoundsException Does not check whether the ply is within the table's bounds.
    */
   public void add(int ply, Move m) throws ArrayIndexOutOfBoundsException {
+    add(ply, m.toInt());
+  }
+
+  /**
+   * Inserts a move into the killer table ensuring distinctness within plies.
+   *
+   * @param ply The ply from which the move caused the cut-off.
+   * @param m The move that caused the cut-off encoded as an integer (see {@link Move#toInt()}).
+   * @throws ArrayIndexOutOfBoundsException Does not check whether the ply is within the table's bounds.
+   */
+  public void add(int ply, int m) throws ArrayIndexOutOfBoundsException {
     KTEntry e = t[ply];
-    int compM = m.toInt();
-    if (e.move1 != compM) {
+    if (e.move1 != m) {
       e.move2 = e.move1;
-      e.move1 = compM;
+      e.move1 = m;
     }
   }
 
@@ -48,6 +58,16 @@ public class KillerTable {
     return t[ply];
   }
 
+  /**
+   * Removes all killer moves from the table.
+   */
+  public void clear() {
+    for (KTEntry e : t) {
+      e.move1 = 0;
+      e.move2 = 0;
+    }
+  }
+
   /**
    * A killer heuristic table entry for storing two killer moves compressed into two integers.
    *
@@ -0,0 +1,179 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.function.LongUnaryOperator;
+import net.viktorc.detroid.framework.util.LongArray;
+import net.viktorc.detroid.framework.util.SizeOf;
+
+/**
+ * A pre-allocated, lock-free hash table of 64 bit keys and 64 bit data values. Every slot takes up two longs; the second one holds the data
+ * and the first one the key XOR-ed with the data. This way, a slot that has been written to by multiple threads simultaneously and thus
+ * contains the data of one entry and the key of another is simply not recognized as an entry belonging to either of the keys, which makes
+ * locking unnecessary. A data value of {@link #MISS} denotes an empty slot, so the data of entries should never be 0; entries with 0 data
+ * are never found.
+ *
+ * The slot of a key is determined by an index function which defaults to masking the key if the capacity is a power of two. Tables with
+ * more than one candidate slot per key may use the slot level methods instead, with the replacement scheme left to the caller. The table
+ * is backed by a {@link LongArray}, so it does not take up heap space.
+ *
+ * Lockless hashing: <a href="http://www.craftychess.com/hyatt/hashing.html">http://www.craftychess.com/hyatt/hashing.html</a>
+ *
+ * @author Viktor
+ */
+final class LockFreeHashTable {
+
+  /**
+   * The data value of empty slots and the value returned by {@link #find(long)} if there is no entry for the key.
+   */
+  static final long MISS = 0;
+  /**
+   * The number of bytes a slot takes up.
+   */
+  static final int SLOT_SIZE = 2 * SizeOf.LONG.getNumOfBytes();
+  /**
+   * The maximum number of slots a table can have.
+   */
+  static final long MAX_CAPACITY = LongArray.maxLength() / 2;
+
+  private final LongArray slots;
+  private final LongUnaryOperator indexFunction;
+
+  /**
+   * Constructs an empty table with the specified number of slots and index function.
+   *
+   * @param capacity The number of slots.
+   * @param indexFunction The function mapping keys to the indices of their slots. Its values have to be between 0 (inclusive) and the
+   * capacity (exclusive). It may be null if only the slot level methods are used.
+   */
+  LockFreeHashTable(long capacity, LongUnaryOperator indexFunction) {
+    slots = LongArray.allocate(2 * capacity);
+    this.indexFunction = indexFunction;
+  }
+
+  /**
+   * Constructs an empty table with the specified number of slots which maps keys to slots by masking their lower bits.
+   *
+   * @param capacity The number of slots. It has to be a power of two.
+   */
+  LockFreeHashTable(long capacity) {
+    this(capacity, key -> key & (capacity - 1));
+  }
+
+  /**
+   * Returns the index of the slot the key maps to according to the index function of the table.
+   *
+   * @param key The key.
+   * @return The index of the slot.
+   */
+  long indexOf(long key) {
+    return indexFunction.applyAsLong(key);
+  }
+
+  /**
+   * Returns the data stored for the key or {@link #MISS} if there is none.
+   *
+   * @param key The key.
+   * @return The data.
+   */
+  long find(long key) {
+    return find(indexOf(key), key);
+  }
+
+  /**
+   * Returns the data stored for the key in the specified slot or {@link #MISS} if the slot does not hold the entry of the key.
+   *
+   * @param slot The index of the slot.
+   * @param key The key.
+   * @return The data.
+   */
+  long find(long slot, long key) {
+    long data = slots.get(2 * slot + 1);
+    return data != MISS && (slots.get(2 * slot) ^ data) == key ? data : MISS;
+  }
+
+  /**
+   * Stores the data for the key in the slot it maps to, replacing the entry in the slot, if any.
+   *
+   * @param key The key.
+   * @param data The data. It should not be {@link #MISS}.
+   */
+  void store(long key, long data) {
+    store(indexOf(key), key, data);
+  }
+
+  /**
+   * Stores the data for the key in the specified slot, replacing the entry in the slot, if any.
+   *
+   * @param slot The index of the slot.
+   * @param key The key.
+   * @param data The data. It should not be {@link #MISS}.
+   */
+  void store(long slot, long key, long data) {
+    slots.set(2 * slot, key ^ data);
+    slots.set(2 * slot + 1, data);
+  }
+
+  /**
+   * Returns the data held by the specified slot regardless of the key it belongs to.
+   *
+   * @param slot The index of the slot.
+   * @return The data.
+   */
+  long dataAt(long slot) {
+    return slots.get(2 * slot + 1);
+  }
+
+  /**
+   * Returns whether the data held by the specified slot, as returned by {@link #dataAt(long)}, belongs to the key.
+   *
+   * @param slot The index of the slot.
+   * @param key The key.
+   * @param data The data read from the slot.
+   * @return Whether the slot holds the data of the key.
+   */
+  boolean isEntryOf(long slot, long key, long data) {
+    return (slots.get(2 * slot) ^ data) == key;
+  }
+
+  /**
+   * Empties the specified slot.
+   *
+   * @param slot The index of the slot.
+   */
+  void remove(long slot) {
+    slots.set(2 * slot + 1, MISS);
+    slots.set(2 * slot, 0);
+  }
+
+  /**
+   * Returns the number of slots in the table.
+   *
+   * @return The number of slots.
+   */
+  long capacity() {
+    return slots.length() / 2;
+  }
+
+  /**
+   * Returns the size of the table in bytes.
+   *
+   * @return The size of the table in bytes.
+   */
+  long memorySize() {
+    return slots.length() * SizeOf.LONG.getNumOfBytes();
+  }
+
+  /**
+   * Empties all slots.
+   */
+  void clear() {
+    slots.clear();
+  }
+
+  /**
+   * Releases the memory held by the table. The table must not be used after the call.
+   */
+  void free() {
+    slots.free();
+  }
+
+}
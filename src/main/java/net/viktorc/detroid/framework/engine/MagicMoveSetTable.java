@@ -0,0 +1,112 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A single contiguous 'fancy magic' move set table for sliding pieces shared by all the squares of the board. The rook and bishop move
+ * sets of each square occupy adjacent, densely packed segments of the table whose starting indices are stored as per-square offsets, so
+ * the whole table takes up about 850KB without any per-square array headers or padding and the move sets looked up for the same square
+ * are close to each other in memory. The move sets are generated by enumerating the occupancy variations of each square in place, without
+ * allocating intermediate arrays.
+ *
+ * @author Viktor
+ */
+final class MagicMoveSetTable {
+
+  private static final MagicMoveSetTable INSTANCE;
+
+  static {
+    MagicsConfig magicsConfig = MagicsConfig.getInstance();
+    try {
+      magicsConfig.load();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    INSTANCE = new MagicMoveSetTable(magicsConfig);
+  }
+
+  final long[] moveSets;
+  final int[] rookOffsets;
+  final int[] bishopOffsets;
+  final long[] rookOccupancyMasks;
+  final long[] bishopOccupancyMasks;
+  final long[] rookMagicNumbers;
+  final long[] bishopMagicNumbers;
+  final byte[] rookMagicShifts;
+  final byte[] bishopMagicShifts;
+
+  /**
+   * Builds the move set table using the magic numbers and magic shift values provided by the specified configuration.
+   *
+   * @param magicsConfig The loaded magics configuration.
+   */
+  MagicMoveSetTable(MagicsConfig magicsConfig) {
+    rookOffsets = new int[64];
+    bishopOffsets = new int[64];
+    rookOccupancyMasks = new long[64];
+    bishopOccupancyMasks = new long[64];
+    rookMagicNumbers = new long[64];
+    bishopMagicNumbers = new long[64];
+    rookMagicShifts = new byte[64];
+    bishopMagicShifts = new byte[64];
+    int size = 0;
+    for (int sqrInd = 0; sqrInd < 64; sqrInd++) {
+      long bit = 1L << sqrInd;
+      Map.Entry<Long, Byte> rookMagics = magicsConfig.getRookMagics(sqrInd);
+      Map.Entry<Long, Byte> bishopMagics = magicsConfig.getBishopMagics(sqrInd);
+      rookOccupancyMasks[sqrInd] = Bitboard.computeRookOccupancyMasks(bit);
+      bishopOccupancyMasks[sqrInd] = Bitboard.computeBishopOccupancyMasks(bit);
+      rookMagicNumbers[sqrInd] = rookMagics.getKey();
+      rookMagicShifts[sqrInd] = rookMagics.getValue();
+      bishopMagicNumbers[sqrInd] = bishopMagics.getKey();
+      bishopMagicShifts[sqrInd] = bishopMagics.getValue();
+      rookOffsets[sqrInd] = size;
+      size += 1 << (64 - rookMagicShifts[sqrInd]);
+      bishopOffsets[sqrInd] = size;
+      size += 1 << (64 - bishopMagicShifts[sqrInd]);
+    }
+    moveSets = new long[size];
+    for (int sqrInd = 0; sqrInd < 64; sqrInd++) {
+      fillSquare(sqrInd);
+    }
+  }
+
+  /**
+   * Fills in the rook and bishop move set segments of the specified square.
+   *
+   * @param sqrInd The index of the square.
+   */
+  private void fillSquare(int sqrInd) {
+    long bit = 1L << sqrInd;
+    int offset = rookOffsets[sqrInd];
+    long mask = rookOccupancyMasks[sqrInd];
+    long magicNumber = rookMagicNumbers[sqrInd];
+    byte magicShift = rookMagicShifts[sqrInd];
+    // Enumerate all the subsets of the occupancy mask using the carry-rippler trick.
+    long occupancy = 0;
+    do {
+      moveSets[offset + (int) ((occupancy * magicNumber) >>> magicShift)] =
+          Bitboard.computeRookMoveSets(bit, Bitboard.FULL_BOARD, ~occupancy);
+      occupancy = (occupancy - mask) & mask;
+    } while (occupancy != 0);
+    offset = bishopOffsets[sqrInd];
+    mask = bishopOccupancyMasks[sqrInd];
+    magicNumber = bishopMagicNumbers[sqrInd];
+    magicShift = bishopMagicShifts[sqrInd];
+    occupancy = 0;
+    do {
+      moveSets[offset + (int) ((occupancy * magicNumber) >>> magicShift)] =
+          Bitboard.computeBishopMoveSets(bit, Bitboard.FULL_BOARD, ~occupancy);
+      occupancy = (occupancy - mask) & mask;
+    } while (occupancy != 0);
+  }
+
+  /**
+   * @return The table built using the magics of the magics configuration file.
+   */
+  static MagicMoveSetTable getInstance() {
+    return INSTANCE;
+  }
+
+}
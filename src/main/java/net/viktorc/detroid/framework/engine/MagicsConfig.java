@@ -16,8 +16,8 @@ import java.util.Properties;
 public class MagicsConfig {
 
   private static final String PROPERTIES_FILE = "/magics.properties";
-  private static final String ROOK_KEY_FORMAT = "R%d";
-  private static final String BISHOP_KEY_FORMAT = "B%d";
+  private static final String ROOK_KEY_PREFIX = "R";
+  private static final String BISHOP_KEY_PREFIX = "B";
   private static final String VALUE_SEPARATOR = ":";
   private static final String DESCRIPTION = "Magic numbers and magic shift values.";
   private static final MagicsConfig INSTANCE = new MagicsConfig();
@@ -41,8 +41,10 @@ public class MagicsConfig {
     if (val == null) {
       return null;
     }
-    String[] magics = val.split(VALUE_SEPARATOR);
-    return new AbstractMap.SimpleEntry<>(Long.valueOf(magics[0]), Byte.valueOf(magics[1]));
+    // Avoid regular expressions as the magics are read during start-up.
+    int separatorInd = val.indexOf(VALUE_SEPARATOR);
+    return new AbstractMap.SimpleEntry<>(Long.parseLong(val.substring(0, separatorInd)),
+        Byte.parseByte(val.substring(separatorInd + 1)));
   }
 
   private void setMagics(String key, Map.Entry<Long, Byte> magics) {
@@ -54,7 +56,7 @@ public class MagicsConfig {
    * @return A key-value pair containing the magic number and the magic shift for a rook on the specified square.
    */
   public Map.Entry<Long, Byte> getRookMagics(int sqrInd) {
-    return getMagics(String.format(ROOK_KEY_FORMAT, sqrInd));
+    return getMagics(ROOK_KEY_PREFIX + sqrInd);
   }
 
   /**
@@ -62,7 +64,7 @@ public class MagicsConfig {
    * @param magics A key-value pair containing the magic number and the magic shift for a rook on the specified square.
    */
   public synchronized void setRookMagics(int sqrInd, Map.Entry<Long, Byte> magics) {
-    setMagics(String.format(ROOK_KEY_FORMAT, sqrInd), magics);
+    setMagics(ROOK_KEY_PREFIX + sqrInd, magics);
   }
 
   /**
@@ -70,7 +72,7 @@ public class MagicsConfig {
    * @return A key-value pair containing the magic number and the magic shift for a bishop on the specified square.
    */
   public Map.Entry<Long, Byte> getBishopMagics(int sqrInd) {
-    return getMagics(String.format(BISHOP_KEY_FORMAT, sqrInd));
+    return getMagics(BISHOP_KEY_PREFIX + sqrInd);
   }
 
   /**
@@ -78,7 +80,7 @@ public class MagicsConfig {
    * @param magics A key-value pair containing the magic number and the magic shift for a bishop on the specified square.
    */
   public synchronized void setBishopMagics(int sqrInd, Map.Entry<Long, Byte> magics) {
-    setMagics(String.format(BISHOP_KEY_FORMAT, sqrInd), magics);
+    setMagics(BISHOP_KEY_PREFIX + sqrInd, magics);
   }
 
   /**
@@ -0,0 +1,413 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+import net.viktorc.detroid.framework.util.BitOperations;
+
+/**
+ * A pure Java endgame tablebase implementation for the 3 and 4 piece tablebase files generated by {@link TableBaseGenerator}. The files
+ * are memory-mapped read-only, so probing is lock-free and the caching of the tablebase data is left to the operating system's page
+ * cache; there is no probing library to load and there is no probing cache to set up or clear.
+ *
+ * Every file starts with a header of {@link #HEADER_SIZE} bytes holding the {@link #MAGIC} bytes, the number of pieces, and the name of
+ * the material signature; it is followed by a single byte for every index of the {@link TableBaseIndex} of the material signature. A
+ * byte value of 0 denotes a draw and any other value the distance to mate in plies plus one; odd distances are wins and even distances
+ * are losses for the side to move. Positions in which castling is still possible are not covered by the tablebases, while positions with
+ * en passant rights are resolved by combining the value of the position without the en passant rights with the values of the positions
+ * after the en passant captures. The tables are looked up by a material key computed from the pieces on the board and the squares of the
+ * pieces are marshalled into thread-local arrays, so probes do not allocate any memory unless the position has en passant rights.
+ *
+ * @author Viktor
+ */
+public class MappedTableBase extends EndGameTableBase {
+
+  /**
+   * The extension of the tablebase files.
+   */
+  public static final String FILE_EXTENSION = ".dtb";
+
+  static final int HEADER_SIZE = 16;
+  static final byte[] MAGIC = "DTB1".getBytes(StandardCharsets.US_ASCII);
+
+  // The material key is a base 3 number with a digit for the count of each type of piece other than the kings.
+  private static final int NUM_OF_MATERIAL_KEYS = 59049;
+  private static final int[] MATERIAL_KEY_UNITS = new int[Piece.values().length];
+  private static final ThreadLocal<ProbeBuffers> BUFFERS = ThreadLocal.withInitial(ProbeBuffers::new);
+  // The immutable DTM objects for all the possible byte values and for the value one greater used for en passant captures.
+  private static final DTM[] DTMS = new DTM[257];
+
+  static {
+    for (int value = 0; value < DTMS.length; value++) {
+      int distance = value - 1;
+      DTMS[value] = value == 0 ? new DTM(WDL.DRAW, 0) : new DTM((distance & 1) == 1 ? WDL.WIN : WDL.LOSS, distance);
+    }
+    int unit = 1;
+    for (Piece piece : Piece.values()) {
+      if (piece != Piece.NULL && piece != Piece.W_KING && piece != Piece.B_KING) {
+        MATERIAL_KEY_UNITS[piece.ind] = unit;
+        unit *= 3;
+      }
+    }
+  }
+
+  private final LongAdder hardProbes;
+  private final LongAdder softProbes;
+  private final LongAdder hits;
+  // The tables by the material keys of both their own material signature and its flipped counterpart.
+  private volatile Table[] tables;
+  // The bits of the numbers of pieces there are tables for.
+  private volatile int availableNumsOfPieces;
+  private volatile boolean init;
+
+  /**
+   * Constructs an uninitialized instance without any tablebases loaded.
+   */
+  public MappedTableBase() {
+    hardProbes = new LongAdder();
+    softProbes = new LongAdder();
+    hits = new LongAdder();
+    tables = new Table[NUM_OF_MATERIAL_KEYS];
+  }
+
+  /**
+   * Returns the material key of the material signature. As there are at most two pieces other than the kings, none of the digits of the
+   * key can overflow.
+   *
+   * @param index The index of the material signature.
+   * @param flip Whether the colors of the pieces are to be swapped.
+   * @return The material key.
+   */
+  static int materialKey(TableBaseIndex index, boolean flip) {
+    int key = 0;
+    for (int i = 0; i < index.numOfPieces(); i++) {
+      key += MATERIAL_KEY_UNITS[index.white[i] ^ flip ? index.types[i] : index.types[i] + Piece.W_PAWN.ind];
+    }
+    return key;
+  }
+
+  /**
+   * Decodes a value read from a tablebase file into the result of the position from the point of view of the side to move.
+   *
+   * @param value The unsigned byte value or the value one greater than it if the position is one ply before the stored one.
+   * @return The DTM information.
+   */
+  static DTM toDTM(int value) {
+    return DTMS[value];
+  }
+
+  /**
+   * Fills in the squares of the pieces of the position in the order of the slots of the index.
+   *
+   * @param pos The position. It has to be of the material signature of the index, or of its flipped counterpart if <code>flip</code> is
+   * true.
+   * @param index The index.
+   * @param flip Whether the colors of the pieces are to be swapped and the board mirrored vertically.
+   * @param squares The array to write the squares to.
+   */
+  private static void fillSquares(Position pos, TableBaseIndex index, boolean flip, int[] squares) {
+    long used = 0;
+    for (int i = 0; i < index.numOfPieces(); i++) {
+      long candidates = pos.getAllOccupied() & ~used;
+      while (candidates != 0) {
+        byte sqr = BitOperations.indexOfLSBit(candidates);
+        byte piece = pos.getPiece(sqr);
+        boolean white = piece < Piece.B_KING.ind;
+        if ((white ^ flip) == index.white[i] && (white ? piece : piece - Piece.W_PAWN.ind) == index.types[i]) {
+          squares[i] = flip ? sqr ^ 56 : sqr;
+          used |= 1L << sqr;
+          break;
+        }
+        candidates = BitOperations.resetLSBit(candidates);
+      }
+    }
+  }
+
+  /**
+   * Returns the value of the position disregarding its en passant rights or -1 if there is no table loaded for its material signature.
+   *
+   * @param pos The position.
+   * @return The unsigned byte value of the position or -1.
+   */
+  private int value(Position pos) {
+    long occupied = pos.getAllOccupied();
+    int numOfPieces = BitOperations.hammingWeight(occupied);
+    if (numOfPieces < TableBaseIndex.MIN_NUMBER_OF_PIECES || numOfPieces > TableBaseIndex.MAX_NUMBER_OF_PIECES) {
+      return -1;
+    }
+    int key = 0;
+    while (occupied != 0) {
+      key += MATERIAL_KEY_UNITS[pos.getPiece(BitOperations.indexOfLSBit(occupied))];
+      occupied = BitOperations.resetLSBit(occupied);
+    }
+    Table table = tables[key];
+    if (table == null) {
+      return -1;
+    }
+    boolean flip = table.materialKey != key;
+    ProbeBuffers buffers = BUFFERS.get();
+    fillSquares(pos, table.index, flip, buffers.squares);
+    return table.get(table.index.index(buffers.squares, pos.isWhitesTurn() ^ flip, buffers.transformedSquares));
+  }
+
+  /**
+   * Probes the loaded tablebases for the position.
+   *
+   * @param pos The position.
+   * @param soft Whether it is a soft probe.
+   * @return The DTM information or null if the position is not covered by the loaded tablebases.
+   */
+  private DTM probe(Position pos, boolean soft) {
+    (soft ? softProbes : hardProbes).increment();
+    if (pos.getWhiteCastlingRights() != CastlingRights.NONE.ind || pos.getBlackCastlingRights() != CastlingRights.NONE.ind) {
+      return null;
+    }
+    int value = value(pos);
+    if (value < 0) {
+      return null;
+    }
+    hits.increment();
+    DTM dtm = toDTM(value);
+    if (pos.getEnPassantRights() == EnPassantRights.NONE.ind) {
+      return dtm;
+    }
+    // Combine the result with those of the en passant captures.
+    Position copy = new Position(pos);
+    MoveList moves = new MoveList();
+    copy.getMoves(moves);
+    boolean hasOtherMoves = false;
+    DTM best = null;
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.get(i);
+      if (Move.getType(move) != MoveType.EN_PASSANT.ind) {
+        hasOtherMoves = true;
+        continue;
+      }
+      copy.makeMove(move);
+      int childValue = value(copy);
+      copy.unmakeMoveAsInt();
+      if (childValue < 0) {
+        return null;
+      }
+      DTM childDtm = toDTM(childValue == 0 ? 0 : childValue + 1);
+      if (best == null || rank(childDtm) > rank(best)) {
+        best = childDtm;
+      }
+    }
+    if (best == null) {
+      return dtm;
+    }
+    return hasOtherMoves && rank(dtm) > rank(best) ? dtm : best;
+  }
+
+  /**
+   * Returns a number that is the greater the better the result is for the side to move.
+   *
+   * @param dtm The DTM information.
+   * @return The rank of the result.
+   */
+  private static int rank(DTM dtm) {
+    switch (dtm.getWdl()) {
+      case WIN:
+        return Integer.MAX_VALUE - dtm.getDistance();
+      case LOSS:
+        return Integer.MIN_VALUE + dtm.getDistance();
+      default:
+        return 0;
+    }
+  }
+
+  @Override
+  public synchronized void loadProbingLibrary(String path) {
+  }
+
+  /**
+   * As the probing code is pure Java, it always returns true.
+   *
+   * @return Whether the probing library is loaded.
+   */
+  @Override
+  public synchronized boolean isProbingLibLoaded() {
+    return true;
+  }
+
+  /**
+   * Memory-maps all the tablebase files in the specified folders. Files that cannot be read or that are not valid tablebase files are
+   * ignored.
+   *
+   * @param path The paths to the folders containing the tablebase files separated by semicolons.
+   * @param cacheSize Ignored; the tablebase data is cached by the operating system.
+   * @param args Ignored.
+   */
+  @Override
+  public void init(String path, long cacheSize, Object... args) {
+    Table[] tables = new Table[NUM_OF_MATERIAL_KEYS];
+    int availableNumsOfPieces = 0;
+    for (String folder : path.split(";")) {
+      File[] files = new File(folder).listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+      if (files == null) {
+        continue;
+      }
+      for (File file : files) {
+        try {
+          Table table = Table.map(file);
+          tables[table.materialKey] = table;
+          availableNumsOfPieces |= 1 << table.index.numOfPieces();
+        } catch (IOException | IllegalArgumentException e) {
+          // Skip invalid files.
+        }
+      }
+    }
+    // Map the flipped material signatures unless there is a table for them in their own right.
+    for (Table table : tables.clone()) {
+      if (table != null) {
+        int flippedKey = materialKey(table.index, true);
+        if (tables[flippedKey] == null) {
+          tables[flippedKey] = table;
+        }
+      }
+    }
+    this.availableNumsOfPieces = availableNumsOfPieces;
+    this.tables = tables;
+    init = true;
+  }
+
+  @Override
+  public boolean isInit() {
+    return init;
+  }
+
+  @Override
+  public void clearCache() {
+  }
+
+  @Override
+  public boolean areTableBasesAvailable(int piecesOnBoard) {
+    return piecesOnBoard >= 0 && piecesOnBoard < Integer.SIZE && (availableNumsOfPieces & (1 << piecesOnBoard)) != 0;
+  }
+
+  @Override
+  public EGTBStats getStats() {
+    return new EGTBStats(hardProbes.sum(), softProbes.sum(), 0, hits.sum());
+  }
+
+  @Override
+  public void resetStats() {
+    hardProbes.reset();
+    softProbes.reset();
+    hits.reset();
+  }
+
+  @Override
+  public WDL probeWDL(Position pos, boolean soft) {
+    DTM dtm = probe(pos, soft);
+    return dtm == null ? null : dtm.getWdl();
+  }
+
+  @Override
+  public DTM probeDTM(Position pos, boolean soft) {
+    return probe(pos, soft);
+  }
+
+  /**
+   * Unmaps the tablebase files. The mappings are released once they are garbage collected.
+   */
+  @Override
+  public void close() {
+    availableNumsOfPieces = 0;
+    tables = new Table[NUM_OF_MATERIAL_KEYS];
+    init = false;
+  }
+
+  /**
+   * A memory-mapped tablebase file of a material signature.
+   *
+   * @author Viktor
+   */
+  static final class Table {
+
+    final TableBaseIndex index;
+    final int materialKey;
+    private final ByteBuffer data;
+
+    private Table(TableBaseIndex index, ByteBuffer data) {
+      this.index = index;
+      this.data = data;
+      materialKey = materialKey(index, false);
+    }
+
+    /**
+     * Memory-maps the tablebase file.
+     *
+     * @param file The tablebase file.
+     * @return The table.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file is not a valid tablebase file.
+     */
+    static Table map(File file) throws IOException {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+        ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (data.limit() < HEADER_SIZE) {
+          throw new IllegalArgumentException("Invalid tablebase file: " + file);
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+          if (data.get(i) != MAGIC[i]) {
+            throw new IllegalArgumentException("Invalid tablebase file: " + file);
+          }
+        }
+        int numOfPieces = data.get(MAGIC.length);
+        byte[] name = new byte[numOfPieces];
+        for (int i = 0; i < numOfPieces; i++) {
+          name[i] = data.get(MAGIC.length + 1 + i);
+        }
+        TableBaseIndex index = TableBaseIndex.forName(new String(name, StandardCharsets.US_ASCII));
+        if (data.limit() != HEADER_SIZE + index.size) {
+          throw new IllegalArgumentException("Invalid tablebase file: " + file);
+        }
+        return new Table(index, data);
+      }
+    }
+
+    /**
+     * Writes the header of the tablebase file of the material signature into the buffer.
+     *
+     * @param index The index of the material signature.
+     * @param header The buffer of at least {@link #HEADER_SIZE} bytes.
+     */
+    static void writeHeader(TableBaseIndex index, byte[] header) {
+      System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+      header[MAGIC.length] = (byte) index.numOfPieces();
+      byte[] name = index.name.getBytes(StandardCharsets.US_ASCII);
+      System.arraycopy(name, 0, header, MAGIC.length + 1, name.length);
+    }
+
+    /**
+     * Returns the value stored at the index. Absolute reads leave the state of the buffer untouched, so the method can be called by
+     * multiple threads concurrently.
+     *
+     * @param ind The index of the position.
+     * @return The unsigned byte value.
+     */
+    int get(int ind) {
+      return data.get(HEADER_SIZE + ind) & 0xFF;
+    }
+
+  }
+
+  /**
+   * The arrays the squares of the pieces are marshalled into when probing on a thread.
+   *
+   * @author Viktor
+   */
+  private static final class ProbeBuffers {
+
+    final int[] squares = new int[TableBaseIndex.MAX_NUMBER_OF_PIECES];
+    final int[] transformedSquares = new int[TableBaseIndex.MAX_NUMBER_OF_PIECES];
+
+  }
+
+}
@@ -0,0 +1,252 @@
+package net.viktorc.detroid.framework.engine;
+
+import net.viktorc.detroid.framework.util.BitOperations;
+
+/**
+ * A small, direct-mapped, lock-free hash table for caching the evaluation terms that only depend on the material on the board such as
+ * the material score, the bishop pair advantage, the phase score, and the draw and mop-up flags. It is indexed by material keys which
+ * encode the number of pieces of each type and color in four bit fields with the bishops counted separately by the color of their
+ * squares. Unlike Zobrist keys, material keys are exact; however, they are just as cheap to update incrementally. As the material
+ * balance changes rarely during the search, almost all probes result in hits. It is backed by a {@link LockFreeHashTable} holding the
+ * packed data; as material keys are structured, they are spread over the table by multiplicative hashing. Entries are always replaced.
+ *
+ * @author Viktor
+ */
+class MaterialTable {
+
+  /**
+   * The value returned by {@link #get(long)} if the table does not contain an entry for the key.
+   */
+  static final long MISS = LockFreeHashTable.MISS;
+  /**
+   * The flag denoting that there is insufficient material on the board to mate.
+   */
+  static final long INSUFFICIENT_MATERIAL = 1L << 27;
+  /**
+   * The flag denoting that there are no pawns and at most three pieces other than the kings on the board.
+   */
+  static final long MOP_UP = 1L << 28;
+  /**
+   * The flag denoting that white has no pieces other than its king and pawns.
+   */
+  static final long WHITE_BARE = 1L << 29;
+  /**
+   * The flag denoting that black has no pieces other than its king and pawns.
+   */
+  static final long BLACK_BARE = 1L << 30;
+  /**
+   * The flag denoting that there is nothing but the kings and a single pawn on the board.
+   */
+  static final long KPK = 1L << 32;
+
+  // The number of entries; it has to be a power of two.
+  private static final int CAPACITY = 1 << 12;
+  private static final int LOG2_CAPACITY = Integer.numberOfTrailingZeros(CAPACITY);
+  // The golden ratio based multiplier used to spread the structured material keys over the table.
+  private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+  // The number of bits of the material key per piece type and color.
+  private static final int BITS_PER_COUNT = 4;
+  private static final long MASK_COUNT = (1L << BITS_PER_COUNT) - 1;
+  // The material key units indexed by piece index; for bishops, it is the unit of bishops on light squares.
+  private static final long[] UNITS;
+  private static final long DARK_SQUARES;
+  // Shift and mask values for packing the data of an entry into a long.
+  private static final int SHIFT_PHASE_SCORE = 16;
+  private static final int SHIFT_BISHOP_PAIR = 25;
+  private static final long MASK_SCORE = 0xFFFFL;
+  private static final long MASK_PHASE_SCORE = 0x1FFL;
+  private static final long MASK_BISHOP_PAIR = 3L;
+  // Set in every entry so that non-empty slots never hold a value equal to MISS.
+  private static final long OCCUPIED_BIT = 1L << 31;
+
+  static {
+    UNITS = new long[Piece.values().length];
+    Piece[] countedPieces = new Piece[]{Piece.W_PAWN, Piece.W_KNIGHT, Piece.W_BISHOP, null, Piece.W_ROOK, Piece.W_QUEEN,
+        Piece.B_PAWN, Piece.B_KNIGHT, Piece.B_BISHOP, null, Piece.B_ROOK, Piece.B_QUEEN};
+    for (int i = 0; i < countedPieces.length; i++) {
+      if (countedPieces[i] != null) {
+        UNITS[countedPieces[i].ind] = 1L << (i * BITS_PER_COUNT);
+      }
+    }
+    long darkSquares = Bitboard.EMPTY_BOARD;
+    for (int sqrInd = 0; sqrInd < 64; sqrInd++) {
+      if (((sqrInd + (sqrInd >>> 3)) & 1) == 0) {
+        darkSquares |= (1L << sqrInd);
+      }
+    }
+    DARK_SQUARES = darkSquares;
+  }
+
+  private final LockFreeHashTable table;
+
+  /**
+   * Constructs an empty table.
+   */
+  MaterialTable() {
+    table = new LockFreeHashTable(CAPACITY, key -> (key * HASH_MULTIPLIER) >>> (64 - LOG2_CAPACITY));
+  }
+
+  /**
+   * Returns the material key unit of the piece on the specified square.
+   *
+   * @param pieceInd The index of the piece.
+   * @param sqrInd The index of the square.
+   * @return The material key unit.
+   */
+  private static long unit(int pieceInd, int sqrInd) {
+    long unit = UNITS[pieceInd];
+    if ((pieceInd == Piece.W_BISHOP.ind || pieceInd == Piece.B_BISHOP.ind) && (DARK_SQUARES & (1L << sqrInd)) != 0) {
+      unit <<= BITS_PER_COUNT;
+    }
+    return unit;
+  }
+
+  /**
+   * Returns the contribution of the pieces on the board to the material key.
+   *
+   * @param pieceInd The index of the piece type.
+   * @param pieces The bitboard of the pieces.
+   * @return The material key component.
+   */
+  private static long component(int pieceInd, long pieces) {
+    if (pieceInd == Piece.W_BISHOP.ind || pieceInd == Piece.B_BISHOP.ind) {
+      return UNITS[pieceInd] * BitOperations.hammingWeight(pieces & ~DARK_SQUARES) +
+          (UNITS[pieceInd] << BITS_PER_COUNT) * BitOperations.hammingWeight(pieces & DARK_SQUARES);
+    }
+    return UNITS[pieceInd] * BitOperations.hammingWeight(pieces);
+  }
+
+  /**
+   * Generates the material key of the position from scratch.
+   *
+   * @param pos The position.
+   * @return The material key.
+   */
+  static long generateKey(Position pos) {
+    return component(Piece.W_PAWN.ind, pos.getWhitePawns()) + component(Piece.W_KNIGHT.ind, pos.getWhiteKnights()) +
+        component(Piece.W_BISHOP.ind, pos.getWhiteBishops()) + component(Piece.W_ROOK.ind, pos.getWhiteRooks()) +
+        component(Piece.W_QUEEN.ind, pos.getWhiteQueens()) + component(Piece.B_PAWN.ind, pos.getBlackPawns()) +
+        component(Piece.B_KNIGHT.ind, pos.getBlackKnights()) + component(Piece.B_BISHOP.ind, pos.getBlackBishops()) +
+        component(Piece.B_ROOK.ind, pos.getBlackRooks()) + component(Piece.B_QUEEN.ind, pos.getBlackQueens());
+  }
+
+  /**
+   * Returns the value to add to the material key of a position when making the move and to subtract from it when unmaking the move.
+   *
+   * @param move The move encoded as an integer (see {@link Move#toInt()}).
+   * @return The change in the material key.
+   */
+  static long keyDelta(int move) {
+    long delta = 0;
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
+    byte moveType = Move.getType(move);
+    byte to = Move.getTo(move);
+    if (capturedPiece != Piece.NULL.ind) {
+      // The pawn captured en passant is not on the destination square, but pawn units do not depend on the square.
+      delta -= unit(capturedPiece, to);
+    }
+    if (moveType >= MoveType.PROMOTION_TO_QUEEN.ind) {
+      boolean white = movedPiece == Piece.W_PAWN.ind;
+      Piece promotedPiece;
+      if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
+        promotedPiece = white ? Piece.W_QUEEN : Piece.B_QUEEN;
+      } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
+        promotedPiece = white ? Piece.W_ROOK : Piece.B_ROOK;
+      } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
+        promotedPiece = white ? Piece.W_BISHOP : Piece.B_BISHOP;
+      } else {
+        promotedPiece = white ? Piece.W_KNIGHT : Piece.B_KNIGHT;
+      }
+      delta += unit(promotedPiece.ind, to) - UNITS[movedPiece];
+    }
+    return delta;
+  }
+
+
+  /**
+   * Returns the number of pieces of the specified type on the board. For bishops, it counts both the light and the dark square bishops.
+   *
+   * @param key The material key.
+   * @param piece The piece type.
+   * @return The number of pieces.
+   */
+  static int count(long key, Piece piece) {
+    int shift = Long.numberOfTrailingZeros(UNITS[piece.ind]);
+    int count = (int) ((key >>> shift) & MASK_COUNT);
+    if (piece == Piece.W_BISHOP || piece == Piece.B_BISHOP) {
+      count += (int) ((key >>> (shift + BITS_PER_COUNT)) & MASK_COUNT);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of bishops of the specified color on dark squares.
+   *
+   * @param key The material key.
+   * @param bishop The bishop type.
+   * @return The number of dark square bishops.
+   */
+  static int countOnDarkSquares(long key, Piece bishop) {
+    return (int) ((key >>> (Long.numberOfTrailingZeros(UNITS[bishop.ind]) + BITS_PER_COUNT)) & MASK_COUNT);
+  }
+
+  /**
+   * Packs the material dependent evaluation terms into a single long integer.
+   *
+   * @param materialScore The material score from white's point of view.
+   * @param phaseScore The phase score.
+   * @param bishopPairAdvantageDiff The difference between white's and black's bishop pair advantages.
+   * @param flags The flags that apply to the material, e.g. {@link #INSUFFICIENT_MATERIAL}.
+   * @return The packed data.
+   */
+  static long pack(short materialScore, short phaseScore, int bishopPairAdvantageDiff, long flags) {
+    return (materialScore & MASK_SCORE) | ((phaseScore & MASK_PHASE_SCORE) << SHIFT_PHASE_SCORE) |
+        (((bishopPairAdvantageDiff + 1) & MASK_BISHOP_PAIR) << SHIFT_BISHOP_PAIR) | flags | OCCUPIED_BIT;
+  }
+
+  /**
+   * @param data The packed data.
+   * @return The material score from white's point of view.
+   */
+  static short materialScore(long data) {
+    return (short) data;
+  }
+
+  /**
+   * @param data The packed data.
+   * @return The phase score.
+   */
+  static short phaseScore(long data) {
+    return (short) ((data >>> SHIFT_PHASE_SCORE) & MASK_PHASE_SCORE);
+  }
+
+  /**
+   * @param data The packed data.
+   * @return The difference between white's and black's bishop pair advantages.
+   */
+  static int bishopPairAdvantageDiff(long data) {
+    return (int) ((data >>> SHIFT_BISHOP_PAIR) & MASK_BISHOP_PAIR) - 1;
+  }
+
+  /**
+   * Returns the packed data of the material identified by the key or {@link #MISS} if it is not in the table.
+   *
+   * @param key The material key.
+   * @return The packed data.
+   */
+  long get(long key) {
+    return table.find(key);
+  }
+
+  /**
+   * Inserts the packed data of the material identified by the key into the table.
+   *
+   * @param key The material key.
+   * @param data The packed data.
+   */
+  void put(long key, long data) {
+    table.store(key, data);
+  }
+
+}
@@ -62,13 +62,71 @@ public class Move implements Comparable<Move> {
    * @return The decoded move.
    */
   public static Move toMove(int move) {
-    byte from, to, movedPiece, capturedPiece, type;
-    from = (byte) (move & MASK_FROM);
-    to = (byte) ((move >>> SHIFT_TO) & MASK_TO);
-    movedPiece = (byte) ((move >>> SHIFT_MOVED) & MASK_MOVED);
-    capturedPiece = (byte) ((move >>> SHIFT_CAPTURED) & MASK_CAPTURED);
-    type = (byte) (move >>> SHIFT_TYPE);
-    return new Move(from, to, movedPiece, capturedPiece, type);
+    return new Move(getFrom(move), getTo(move), getMovedPiece(move), getCapturedPiece(move), getType(move));
+  }
+
+  /**
+   * Encodes the specified move attributes into a 4 byte integer the same way {@link #toInt()} does.
+   *
+   * @param from The index of the origin square.
+   * @param to The index of the destination square.
+   * @param movedPiece The numeric notation of the type of the moved piece.
+   * @param capturedPiece The numeric notation of the type of the captured piece.
+   * @param type The type of the move.
+   * @return An integer representation of the move.
+   */
+  public static int toInt(byte from, byte to, byte movedPiece, byte capturedPiece, byte type) {
+    return (from | (to << SHIFT_TO) | (movedPiece << SHIFT_MOVED) | (capturedPiece << SHIFT_CAPTURED) | (type << SHIFT_TYPE));
+  }
+
+  /**
+   * @param move The encoded move.
+   * @return The index of the origin square.
+   */
+  public static byte getFrom(int move) {
+    return (byte) (move & MASK_FROM);
+  }
+
+  /**
+   * @param move The encoded move.
+   * @return The index of the destination square.
+   */
+  public static byte getTo(int move) {
+    return (byte) ((move >>> SHIFT_TO) & MASK_TO);
+  }
+
+  /**
+   * @param move The encoded move.
+   * @return The numeric notation of the type of the moved piece.
+   */
+  public static byte getMovedPiece(int move) {
+    return (byte) ((move >>> SHIFT_MOVED) & MASK_MOVED);
+  }
+
+  /**
+   * @param move The encoded move.
+   * @return The numeric notation of the type of the captured piece.
+   */
+  public static byte getCapturedPiece(int move) {
+    return (byte) ((move >>> SHIFT_CAPTURED) & MASK_CAPTURED);
+  }
+
+  /**
+   * @param move The encoded move.
+   * @return The type of the move.
+   */
+  public static byte getType(int move) {
+    return (byte) (move >>> SHIFT_TYPE);
+  }
+
+  /**
+   * Returns whether the encoded move is a tactical move or not.
+   *
+   * @param move The encoded move.
+   * @return Whether the move is tactical.
+   */
+  public static boolean isTactical(int move) {
+    return getCapturedPiece(move) != Piece.NULL.ind || getType(move) >= MoveType.PROMOTION_TO_QUEEN.ind;
   }
 
   /**
@@ -91,8 +149,7 @@ public class Move implements Comparable<Move> {
    * @return An integer representation of the move.
    */
   public int toInt() {
-    return (from | (to << SHIFT_TO) | (movedPiece << SHIFT_MOVED) |
-        (capturedPiece << SHIFT_CAPTURED) | (type << SHIFT_TYPE));
+    return toInt(from, to, movedPiece, capturedPiece, type);
   }
 
   /**
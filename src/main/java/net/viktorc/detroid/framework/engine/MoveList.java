@@ -0,0 +1,161 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.viktorc.detroid.framework.util.QuickSort;
+import net.viktorc.detroid.framework.util.SelectionSort;
+
+/**
+ * A reusable, fixed capacity list of moves encoded as integers (see {@link Move#toInt()}) along with the values assigned to them for
+ * ordering. Unlike lists of {@link Move} objects, it does not allocate any memory once constructed, which makes it suitable for move
+ * generation in the search where new moves are generated at every node. Each search thread is expected to own a list per distance from
+ * the root and kind of move, and reuse them throughout the search. The number of legal moves in a chess position never exceeds 218, so
+ * the capacity of a list is always sufficient to hold all the moves of a position.
+ *
+ * @author Viktor
+ */
+public final class MoveList {
+
+  /**
+   * The maximum number of moves a list can hold.
+   */
+  public static final int CAPACITY = 256;
+
+  private final int[] moves;
+  private final int[] values;
+  private int size;
+
+  /**
+   * Constructs an empty list.
+   */
+  public MoveList() {
+    moves = new int[CAPACITY];
+    values = new int[CAPACITY];
+  }
+
+  /**
+   * Adds the encoded move to the end of the list with a value of zero.
+   *
+   * @param move The encoded move.
+   */
+  public void add(int move) {
+    values[size] = 0;
+    moves[size++] = move;
+  }
+
+  /**
+   * Adds the move defined by the specified attributes to the end of the list with a value of zero.
+   *
+   * @param from The index of the origin square.
+   * @param to The index of the destination square.
+   * @param movedPiece The numeric notation of the type of the moved piece.
+   * @param capturedPiece The numeric notation of the type of the captured piece.
+   * @param type The type of the move.
+   */
+  public void add(byte from, byte to, byte movedPiece, byte capturedPiece, byte type) {
+    add(Move.toInt(from, to, movedPiece, capturedPiece, type));
+  }
+
+  /**
+   * Adds the encoded move to the end of the list along with its value.
+   *
+   * @param move The encoded move.
+   * @param value The value assigned to the move.
+   */
+  public void add(int move, int value) {
+    values[size] = value;
+    moves[size++] = move;
+  }
+
+  /**
+   * @param index The index of the move.
+   * @return The encoded move at the specified index.
+   */
+  public int get(int index) {
+    return moves[index];
+  }
+
+  /**
+   * @param index The index of the move.
+   * @return The value assigned to the move at the specified index.
+   */
+  public int getValue(int index) {
+    return values[index];
+  }
+
+  /**
+   * @param index The index of the move.
+   * @param value The value to assign to the move at the specified index.
+   */
+  public void setValue(int index, int value) {
+    values[index] = value;
+  }
+
+  /**
+   * @return The number of moves in the list.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return Whether the list is empty.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all moves from the list.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Returns whether the list contains the encoded move.
+   *
+   * @param move The encoded move.
+   * @return Whether the move is in the list.
+   */
+  public boolean contains(int move) {
+    for (int i = 0; i < size; i++) {
+      if (moves[i] == move) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sorts the moves in descending order of their values.
+   */
+  public void sort() {
+    QuickSort.sort(values, moves, size);
+  }
+
+  /**
+   * Moves the move with the highest value at or after the specified index to the index and returns it. Calling it with the indices from
+   * zero onwards hands out the moves in descending order of their values without sorting the parts of the list that are never reached.
+   *
+   * @param index The index of the next move to select, all moves before which have already been selected.
+   * @return The encoded move with the highest value among the remaining moves.
+   */
+  public int selectNext(int index) {
+    return SelectionSort.selectNext(values, moves, index, size);
+  }
+
+  /**
+   * Decodes the moves in the list into a new list of move objects.
+   *
+   * @return The list of move objects.
+   */
+  public List<Move> toList() {
+    List<Move> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(Move.toMove(moves[i]));
+    }
+    return list;
+  }
+
+}
@@ -0,0 +1,257 @@
+package net.viktorc.detroid.framework.engine;
+
+import net.viktorc.detroid.framework.engine.KillerTable.KTEntry;
+
+/**
+ * A staged move picker for the main search. It hands out the legal moves of a position one at a time in the order in which they are to
+ * be searched; the hash move, the winning and equal captures and promotions according to SEE, the killer moves, the losing captures, and
+ * finally the quiet moves ordered by the relative history heuristic. The moves of a stage are only generated and scored once all the
+ * moves of the preceding stages have been handed out, so when an early move causes a cut-off, the rest of the moves are never generated.
+ * The instances are meant to be reused at the same distance from the root by the search thread owning them.
+ *
+ * @author Viktor
+ */
+final class MovePicker {
+
+  private final KillerTable killerTable;
+  private final RelativeHistoryTable historyTable;
+  private final MoveList tacticalMoves;
+  private final MoveList quietMoves;
+  private final MoveList losingTacticalMoves;
+  private Position pos;
+  private Evaluator eval;
+  private int distFromRoot;
+  private int hashMove;
+  private int killerMove1;
+  private int killerMove2;
+  private boolean tacticalMovesGenerated;
+  private boolean quietMovesGenerated;
+  private boolean killerMovesLoaded;
+  private Stage stage;
+  private int moveInd;
+  private int value;
+
+  /**
+   * Constructs a move picker using the specified heuristic tables for the ordering of quiet moves.
+   *
+   * @param killerTable The killer table.
+   * @param historyTable The relative history table.
+   */
+  MovePicker(KillerTable killerTable, RelativeHistoryTable historyTable) {
+    this.killerTable = killerTable;
+    this.historyTable = historyTable;
+    tacticalMoves = new MoveList();
+    quietMoves = new MoveList();
+    losingTacticalMoves = new MoveList();
+  }
+
+  /**
+   * Prepares the picker for handing out the moves of the specified position. No moves are generated at this point.
+   *
+   * @param pos The position whose moves are to be picked.
+   * @param eval The evaluator to use for the static exchange evaluation of tactical moves.
+   * @param distFromRoot The distance of the position from the root position in plies.
+   * @param hashMove The encoded hash move which has to be legal in the position, or 0 if there is none.
+   */
+  void init(Position pos, Evaluator eval, int distFromRoot, int hashMove) {
+    this.pos = pos;
+    this.eval = eval;
+    this.distFromRoot = distFromRoot;
+    this.hashMove = hashMove;
+    killerMove1 = 0;
+    killerMove2 = 0;
+    tacticalMovesGenerated = false;
+    quietMovesGenerated = false;
+    killerMovesLoaded = false;
+    tacticalMoves.clear();
+    quietMoves.clear();
+    losingTacticalMoves.clear();
+    stage = hashMove != 0 ? Stage.HASH_MOVE : Stage.WINNING_TACTICAL_MOVES;
+    moveInd = 0;
+    value = 0;
+  }
+
+  private void generateTacticalMoves() {
+    if (!tacticalMovesGenerated) {
+      pos.getTacticalMoves(tacticalMoves);
+      tacticalMovesGenerated = true;
+    }
+  }
+
+  private void generateQuietMoves() {
+    if (!quietMovesGenerated) {
+      pos.getQuietMoves(quietMoves);
+      quietMovesGenerated = true;
+    }
+  }
+
+  private void loadKillerMoves() {
+    if (!killerMovesLoaded) {
+      KTEntry killerEntry = killerTable.retrieve(distFromRoot);
+      int move1 = killerEntry.getMove1();
+      int move2 = killerEntry.getMove2();
+      killerMove1 = move1 != 0 && move1 != hashMove && pos.isLegal(move1) ? move1 : 0;
+      killerMove2 = move2 != 0 && move2 != hashMove && pos.isLegal(move2) ? move2 : 0;
+      killerMovesLoaded = true;
+    }
+  }
+
+  /**
+   * Returns whether the side to move has any legal moves. It generates as few moves as possible to determine the answer and the
+   * generated moves are not generated again when they are picked.
+   *
+   * @return Whether there are any legal moves in the position.
+   */
+  boolean hasLegalMoves() {
+    if (hashMove != 0) {
+      return true;
+    }
+    generateTacticalMoves();
+    if (!tacticalMoves.isEmpty()) {
+      return true;
+    }
+    loadKillerMoves();
+    if (killerMove1 != 0 || killerMove2 != 0) {
+      return true;
+    }
+    generateQuietMoves();
+    return !quietMoves.isEmpty();
+  }
+
+  /**
+   * Returns whether the side to move has exactly one legal move. It generates all the moves of the position, so it should only be
+   * called once the quiet moves are picked.
+   *
+   * @return Whether there is only a single legal move in the position.
+   */
+  boolean hasSingleLegalMove() {
+    generateTacticalMoves();
+    generateQuietMoves();
+    return tacticalMoves.size() + quietMoves.size() == 1;
+  }
+
+  /**
+   * @param move The encoded move.
+   * @return Whether the move is one of the legal killer moves of the position. It is only meaningful once the killer moves are picked.
+   */
+  boolean isKillerMove(int move) {
+    return move != 0 && (move == killerMove1 || move == killerMove2);
+  }
+
+  /**
+   * Returns the next move to search and advances the picker. If all the moves of the current stage have been handed out, the moves of the
+   * next stage are generated and scored. The moves of a stage are selected one at a time in the order of their scores, so the moves that
+   * are never handed out due to a cut-off are not sorted.
+   *
+   * @return The next move encoded as an integer or 0 if all the moves have been handed out.
+   */
+  @SuppressWarnings("fallthrough")
+  int next() {
+    switch (stage) {
+      case HASH_MOVE:
+        if (moveInd == 0) {
+          moveInd++;
+          value = 0;
+          return hashMove;
+        }
+        stage = Stage.WINNING_TACTICAL_MOVES;
+        moveInd = 0;
+        // Fall through.
+      case WINNING_TACTICAL_MOVES:
+        if (moveInd == 0) {
+          generateTacticalMoves();
+          for (int i = 0; i < tacticalMoves.size(); i++) {
+            tacticalMoves.setValue(i, Evaluator.MVVLVA(tacticalMoves.get(i)));
+          }
+        }
+        while (moveInd < tacticalMoves.size()) {
+          int move = tacticalMoves.selectNext(moveInd++);
+          if (move == hashMove) {
+            continue;
+          }
+          // Put the captures with a negative SEE value aside to be searched after the killer moves.
+          if (!eval.isSEEAtLeast(pos, move, 0)) {
+            losingTacticalMoves.add(move, eval.SEE(pos, move));
+            continue;
+          }
+          value = 0;
+          return move;
+        }
+        stage = Stage.KILLER_MOVES;
+        moveInd = 0;
+        // Fall through.
+      case KILLER_MOVES:
+        loadKillerMoves();
+        while (moveInd < 2) {
+          int move = moveInd++ == 0 ? killerMove1 : killerMove2;
+          if (move != 0) {
+            value = 0;
+            return move;
+          }
+        }
+        stage = Stage.LOSING_TACTICAL_MOVES;
+        moveInd = 0;
+        // Fall through.
+      case LOSING_TACTICAL_MOVES:
+        // The SEE values have already been assigned in the winning tactical moves stage.
+        if (moveInd < losingTacticalMoves.size()) {
+          int move = losingTacticalMoves.selectNext(moveInd);
+          value = losingTacticalMoves.getValue(moveInd++);
+          return move;
+        }
+        stage = Stage.QUIET_MOVES;
+        moveInd = 0;
+        // Fall through.
+      case QUIET_MOVES:
+        if (moveInd == 0) {
+          generateQuietMoves();
+          for (int i = 0; i < quietMoves.size(); i++) {
+            quietMoves.setValue(i, historyTable.score(quietMoves.get(i)));
+          }
+        }
+        while (moveInd < quietMoves.size()) {
+          int move = quietMoves.selectNext(moveInd++);
+          if (move == hashMove || move == killerMove1 || move == killerMove2) {
+            continue;
+          }
+          value = 0;
+          return move;
+        }
+        stage = Stage.DONE;
+        // Fall through.
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * @return The stage of the move last returned by {@link #next()}.
+   */
+  Stage getStage() {
+    return stage;
+  }
+
+  /**
+   * @return The SEE value of the move last returned by {@link #next()} if it was a losing capture, 0 otherwise.
+   */
+  int getValue() {
+    return value;
+  }
+
+  /**
+   * The stages of the move picker in the order in which they are gone through.
+   *
+   * @author Viktor
+   */
+  enum Stage {
+
+    HASH_MOVE,
+    WINNING_TACTICAL_MOVES,
+    KILLER_MOVES,
+    LOSING_TACTICAL_MOVES,
+    QUIET_MOVES,
+    DONE
+
+  }
+
+}
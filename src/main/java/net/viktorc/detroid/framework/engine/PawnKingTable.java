@@ -0,0 +1,70 @@
+package net.viktorc.detroid.framework.engine;
+
+/**
+ * A small, direct-mapped, lock-free hash table for caching the mid-game and end-game scores of the evaluation terms that only depend on
+ * the pawn-king structure of a position. As pawn structures change rarely during the search, the vast majority of the probes result in
+ * hits. It is backed by a {@link LockFreeHashTable} holding the packed scores. Entries are always replaced.
+ *
+ * @author Viktor
+ */
+class PawnKingTable {
+
+  /**
+   * The value returned by {@link #get(long)} if the table does not contain an entry for the key.
+   */
+  static final long MISS = LockFreeHashTable.MISS;
+
+  // The number of entries; it has to be a power of two.
+  private static final int CAPACITY = 1 << 16;
+  private static final int SHIFT_EG_SCORE = 16;
+  private static final long MASK_SCORE = 0xFFFFL;
+  // Set in every entry so that non-empty slots never hold a value equal to MISS.
+  private static final long OCCUPIED_BIT = 1L << 32;
+
+  private final LockFreeHashTable table;
+
+  /**
+   * Constructs an empty table.
+   */
+  PawnKingTable() {
+    table = new LockFreeHashTable(CAPACITY);
+  }
+
+  /**
+   * @param data The packed scores.
+   * @return The mid-game score.
+   */
+  static short mgScore(long data) {
+    return (short) data;
+  }
+
+  /**
+   * @param data The packed scores.
+   * @return The end-game score.
+   */
+  static short egScore(long data) {
+    return (short) (data >>> SHIFT_EG_SCORE);
+  }
+
+  /**
+   * Returns the packed scores of the pawn-king structure identified by the key or {@link #MISS} if it is not in the table.
+   *
+   * @param key The 64 bit pawn-king hash key.
+   * @return The packed scores.
+   */
+  long get(long key) {
+    return table.find(key);
+  }
+
+  /**
+   * Inserts the scores of the pawn-king structure identified by the key into the table.
+   *
+   * @param key The 64 bit pawn-king hash key.
+   * @param mgScore The mid-game score.
+   * @param egScore The end-game score.
+   */
+  void put(long key, short mgScore, short egScore) {
+    table.store(key, (mgScore & MASK_SCORE) | ((egScore & MASK_SCORE) << SHIFT_EG_SCORE) | OCCUPIED_BIT);
+  }
+
+}
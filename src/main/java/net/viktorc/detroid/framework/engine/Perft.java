@@ -0,0 +1,163 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A parallel perft implementation for verifying the move generator. The sub-trees of the root moves are counted by separate fork-join
+ * tasks on copies of the root position. The leaf nodes are counted in bulk by generating the moves of the nodes one ply above them without
+ * making the moves, and the node counts of the inner nodes are cached in a lock-free perft hash table keyed by the Zobrist key of the
+ * position and the remaining depth, so transpositions are only counted once.
+ *
+ * The hash table is a {@link LockFreeHashTable} holding the node counts, so torn slots written to by multiple threads simultaneously never
+ * produce false hits. As empty slots hold 0, sub-trees without leaf nodes are never found in the table, which is harmless. The table
+ * should be released by calling {@link #free()}.
+ *
+ * @author Viktor
+ */
+final class Perft {
+
+  // A large odd constant for mixing the depth into the key.
+  private static final long DEPTH_KEY_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  private final ForkJoinPool pool;
+  private final LockFreeHashTable table;
+
+  /**
+   * Constructs a perft instance using the specified pool for counting the sub-trees of the root moves and a perft hash table of at most
+   * approximately the specified size.
+   *
+   * @param pool The fork-join pool to use.
+   * @param hashSizeInBytes The maximum size of the perft hash table in bytes. If it is less than the size of a single slot, no hash table
+   * is used.
+   */
+  Perft(ForkJoinPool pool, long hashSizeInBytes) {
+    this.pool = pool;
+    long capacity = Math.min(hashSizeInBytes / LockFreeHashTable.SLOT_SIZE, LockFreeHashTable.MAX_CAPACITY);
+    table = capacity > 0 ? new LockFreeHashTable(Long.highestOneBit(capacity)) : null;
+  }
+
+  /**
+   * Counts the leaf nodes of the game tree of the specified depth rooted at the position.
+   *
+   * @param pos The root position. It is not modified.
+   * @param depth The depth of the tree.
+   * @return The number of leaf nodes.
+   */
+  long perft(Position pos, int depth) {
+    if (depth <= 0) {
+      return 1;
+    }
+    MoveList moves = new MoveList();
+    pos.getMoves(moves);
+    if (depth == 1) {
+      return moves.size();
+    }
+    List<SubTreeTask> tasks = new ArrayList<>(moves.size());
+    for (int i = 0; i < moves.size(); i++) {
+      tasks.add(new SubTreeTask(pos, moves.get(i), depth - 1));
+    }
+    return pool.invoke(new RootTask(tasks));
+  }
+
+  private long count(Position pos, int depth, MoveList[] moveLists) {
+    MoveList moves = moveLists[depth - 1];
+    moves.clear();
+    pos.getMoves(moves);
+    if (depth == 1) {
+      return moves.size();
+    }
+    long hashKey = pos.getKey() ^ (depth * DEPTH_KEY_MULTIPLIER);
+    if (table != null) {
+      long nodes = table.find(hashKey);
+      if (nodes != LockFreeHashTable.MISS) {
+        return nodes;
+      }
+    }
+    long nodes = 0;
+    for (int i = 0; i < moves.size(); i++) {
+      pos.makeMove(moves.get(i));
+      nodes += count(pos, depth - 1, moveLists);
+      pos.unmakeMoveAsInt();
+    }
+    if (table != null) {
+      table.store(hashKey, nodes);
+    }
+    return nodes;
+  }
+
+  /**
+   * Releases the memory of the perft hash table. The instance must not be used after the call.
+   */
+  void free() {
+    if (table != null) {
+      table.free();
+    }
+  }
+
+  /**
+   * A task for counting the leaf nodes of the sub-trees of all the root moves.
+   *
+   * @author Viktor
+   */
+  private static class RootTask extends RecursiveTask<Long> {
+
+    /**
+     * Default serial version ID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final List<SubTreeTask> subTreeTasks;
+
+    RootTask(List<SubTreeTask> subTreeTasks) {
+      this.subTreeTasks = subTreeTasks;
+    }
+
+    @Override
+    protected Long compute() {
+      long nodes = 0;
+      for (SubTreeTask task : invokeAll(subTreeTasks)) {
+        nodes += task.join();
+      }
+      return nodes;
+    }
+
+  }
+
+  /**
+   * A task for counting the leaf nodes of the sub-tree of a root move on a copy of the root position.
+   *
+   * @author Viktor
+   */
+  private class SubTreeTask extends RecursiveTask<Long> {
+
+    /**
+     * Default serial version ID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final Position pos;
+    private final int move;
+    private final int depth;
+
+    SubTreeTask(Position rootPos, int move, int depth) {
+      pos = new Position(rootPos);
+      this.move = move;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Long compute() {
+      MoveList[] moveLists = new MoveList[depth];
+      for (int i = 0; i < depth; i++) {
+        moveLists[i] = new MoveList();
+      }
+      pos.makeMove(move);
+      return count(pos, depth, moveLists);
+    }
+
+  }
+
+}
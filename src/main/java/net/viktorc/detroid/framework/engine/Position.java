@@ -2,7 +2,6 @@ package net.viktorc.detroid.framework.engine;
 
 import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 import net.viktorc.detroid.framework.util.BitOperations;
 
@@ -32,6 +31,19 @@ public class Position {
       0, QUEEN_PHASE_WEIGHT, ROOK_PHASE_WEIGHT, BISHOP_PHASE_WEIGHT, KNIGHT_PHASE_WEIGHT, 0
   };
 
+  // The flags marking the lazily computed groups of attack information of a ply.
+  private static final byte PIN_INFO_FLAG = 1;
+  private static final byte CHECK_INFO_FLAG = 2;
+  // The offsets of the attack information fields within the block of a ply.
+  private static final int WHITE_PINNED_PIECES = 0;
+  private static final int BLACK_PINNED_PIECES = 1;
+  private static final int WHITE_PINNING_PIECES = 2;
+  private static final int BLACK_PINNING_PIECES = 3;
+  private static final int DISCOVERED_CHECKERS = 4;
+  // The squares from which a king, queen, rook, bishop, knight, or pawn of the side to move would check the opponent's king.
+  private static final int CHECK_SQUARES = 5;
+  private static final int ATTACK_INFO_SIZE = CHECK_SQUARES + 6;
+
   private long whiteKing;
   private long whiteQueens;
   private long whiteRooks;
@@ -62,9 +74,20 @@ public class Position {
   private byte whiteCastlingRights;
   private byte blackCastlingRights;
   private long key;
+  private long pawnKingKey;
+  private long materialKey;
+  private int[] pieceSquareScores;
+  private int pieceSquareScore;
   private long[] keyHistory;
-  private ArrayDeque<Move> moveHistory;
-  private ArrayDeque<PositionStateRecord> stateHistory;
+  private int[] moveHistory;
+  private int moveHistorySize;
+  // The packed castling rights, en passant rights, and fifty-move rule clocks and the checkers of the positions the moves were made in.
+  private int[] stateHistory;
+  private long[] checkersHistory;
+  /* Pin and check information shared by move generation, check detection, and evaluation. It is computed lazily at most once per ply
+   * and as it is kept in a block per ply, it survives the searching of the child positions. */
+  private long[] attackInfo;
+  private byte[] attackInfoFlags;
 
   /**
    * Clones the specified position instance.
@@ -101,10 +124,18 @@ public class Position {
     halfMoveIndex = pos.halfMoveIndex;
     fiftyMoveRuleClock = pos.fiftyMoveRuleClock;
     key = pos.key;
+    pawnKingKey = pos.pawnKingKey;
+    materialKey = pos.materialKey;
+    pieceSquareScores = pos.pieceSquareScores;
+    pieceSquareScore = pos.pieceSquareScore;
     squares = Arrays.copyOf(pos.squares, pos.squares.length);
     keyHistory = Arrays.copyOf(pos.keyHistory, pos.keyHistory.length);
-    moveHistory = new ArrayDeque<>(pos.moveHistory);
-    stateHistory = new ArrayDeque<>(pos.stateHistory);
+    moveHistory = Arrays.copyOf(pos.moveHistory, pos.moveHistory.length);
+    moveHistorySize = pos.moveHistorySize;
+    stateHistory = Arrays.copyOf(pos.stateHistory, pos.stateHistory.length);
+    checkersHistory = Arrays.copyOf(pos.checkersHistory, pos.checkersHistory.length);
+    attackInfo = Arrays.copyOf(pos.attackInfo, pos.attackInfo.length);
+    attackInfoFlags = Arrays.copyOf(pos.attackInfoFlags, pos.attackInfoFlags.length);
   }
 
   /**
@@ -252,6 +283,8 @@ public class Position {
         pos.getWhiteCheckers(BitOperations.indexOfBit(pos.blackKing));
     pos.inCheck = pos.checkers != Bitboard.EMPTY_BOARD;
     pos.key = ZobristKeyGenerator.getInstance().generateHashKey(pos);
+    pos.pawnKingKey = ZobristKeyGenerator.getInstance().generatePawnKingHashKey(pos);
+    pos.materialKey = MaterialTable.generateKey(pos);
     int numOfQueens = BitOperations.hammingWeight(pos.getWhiteQueens() | pos.getBlackQueens());
     int numOfRooks = BitOperations.hammingWeight(pos.getWhiteRooks() | pos.getBlackRooks());
     int numOfBishops = BitOperations.hammingWeight(pos.getWhiteBishops() | pos.getBlackBishops());
@@ -274,9 +307,12 @@ public class Position {
    * Initializes a default, empty position instance.
    */
   private Position() {
-    moveHistory = new ArrayDeque<>();
-    stateHistory = new ArrayDeque<>();
+    moveHistory = new int[32];
+    stateHistory = new int[moveHistory.length];
+    checkersHistory = new long[moveHistory.length];
     keyHistory = new long[32]; // Factor of two.
+    attackInfo = new long[(moveHistory.length + 1) * ATTACK_INFO_SIZE];
+    attackInfoFlags = new byte[moveHistory.length + 1];
   }
 
   /**
@@ -486,31 +522,234 @@ public class Position {
   }
 
   /**
-   * @return A queue of all the moves made so far.
+   * @return A Zobrist key that is fairly close to a unique representation of the pawn-king structure of the instance in one 64 bit number.
+   */
+  public long getPawnKingKey() {
+    return pawnKingKey;
+  }
+
+  /**
+   * @return A key that uniquely identifies the number of pieces of each type and color on the board with the bishops distinguished by
+   * the color of their squares.
+   */
+  public long getMaterialKey() {
+    return materialKey;
+  }
+
+  /**
+   * Returns the offset of the attack information block of the current ply after making sure that the pin information is computed.
+   *
+   * @return The offset of the attack information block.
+   */
+  private int pinInfoOffset() {
+    int offset = moveHistorySize * ATTACK_INFO_SIZE;
+    if ((attackInfoFlags[moveHistorySize] & PIN_INFO_FLAG) == 0) {
+      byte whiteKingInd = BitOperations.indexOfBit(whiteKing);
+      byte blackKingInd = BitOperations.indexOfBit(blackKing);
+      long whiteStraightSliders = whiteQueens | whiteRooks;
+      long whiteDiagonalSliders = whiteQueens | whiteBishops;
+      long blackStraightSliders = blackQueens | blackRooks;
+      long blackDiagonalSliders = blackQueens | blackBishops;
+      attackInfo[offset + WHITE_PINNED_PIECES] = Bitboard.getPinnedPieces(whiteKingInd, blackStraightSliders, blackDiagonalSliders,
+          allOccupied, allWhiteOccupied);
+      attackInfo[offset + BLACK_PINNED_PIECES] = Bitboard.getPinnedPieces(blackKingInd, whiteStraightSliders, whiteDiagonalSliders,
+          allOccupied, allBlackOccupied);
+      attackInfo[offset + WHITE_PINNING_PIECES] = Bitboard.getPinningPieces(blackKingInd, whiteStraightSliders, whiteDiagonalSliders,
+          allOccupied, allBlackOccupied);
+      attackInfo[offset + BLACK_PINNING_PIECES] = Bitboard.getPinningPieces(whiteKingInd, blackStraightSliders, blackDiagonalSliders,
+          allOccupied, allWhiteOccupied);
+      attackInfoFlags[moveHistorySize] |= PIN_INFO_FLAG;
+    }
+    return offset;
+  }
+
+  /**
+   * Returns the offset of the attack information block of the current ply after making sure that the check information is computed.
+   *
+   * @return The offset of the attack information block.
+   */
+  private int checkInfoOffset() {
+    int offset = moveHistorySize * ATTACK_INFO_SIZE;
+    if ((attackInfoFlags[moveHistorySize] & CHECK_INFO_FLAG) == 0) {
+      byte oppKingInd;
+      long pawnCheckSquares;
+      if (whitesTurn) {
+        oppKingInd = BitOperations.indexOfBit(blackKing);
+        attackInfo[offset + DISCOVERED_CHECKERS] = Bitboard.getPinnedPieces(oppKingInd, whiteQueens | whiteRooks,
+            whiteQueens | whiteBishops, allOccupied, allWhiteOccupied);
+        pawnCheckSquares = MoveSetBase.getByIndex(oppKingInd).blackPawnCaptureMoveMask;
+      } else {
+        oppKingInd = BitOperations.indexOfBit(whiteKing);
+        attackInfo[offset + DISCOVERED_CHECKERS] = Bitboard.getPinnedPieces(oppKingInd, blackQueens | blackRooks,
+            blackQueens | blackBishops, allOccupied, allBlackOccupied);
+        pawnCheckSquares = MoveSetBase.getByIndex(oppKingInd).whitePawnCaptureMoveMask;
+      }
+      MoveSetBase dB = MoveSetBase.getByIndex(oppKingInd);
+      long rookCheckSquares = dB.getRookMoveSet(Bitboard.FULL_BOARD, allOccupied);
+      long bishopCheckSquares = dB.getBishopMoveSet(Bitboard.FULL_BOARD, allOccupied);
+      int checkSquaresOffset = offset + CHECK_SQUARES;
+      attackInfo[checkSquaresOffset] = Bitboard.EMPTY_BOARD;
+      attackInfo[checkSquaresOffset + 1] = rookCheckSquares | bishopCheckSquares;
+      attackInfo[checkSquaresOffset + 2] = rookCheckSquares;
+      attackInfo[checkSquaresOffset + 3] = bishopCheckSquares;
+      attackInfo[checkSquaresOffset + 4] = dB.knightMoveMask;
+      attackInfo[checkSquaresOffset + 5] = pawnCheckSquares;
+      attackInfoFlags[moveHistorySize] |= CHECK_INFO_FLAG;
+    }
+    return offset;
+  }
+
+  /**
+   * @return A bitboard of the white pieces pinned to the white king.
+   */
+  public long getWhitePinnedPieces() {
+    return attackInfo[pinInfoOffset() + WHITE_PINNED_PIECES];
+  }
+
+  /**
+   * @return A bitboard of the black pieces pinned to the black king.
+   */
+  public long getBlackPinnedPieces() {
+    return attackInfo[pinInfoOffset() + BLACK_PINNED_PIECES];
+  }
+
+  /**
+   * @return A bitboard of the white sliders pinning black pieces to the black king.
+   */
+  public long getWhitePinningPieces() {
+    return attackInfo[pinInfoOffset() + WHITE_PINNING_PIECES];
+  }
+
+  /**
+   * @return A bitboard of the black sliders pinning white pieces to the white king.
+   */
+  public long getBlackPinningPieces() {
+    return attackInfo[pinInfoOffset() + BLACK_PINNING_PIECES];
+  }
+
+  /**
+   * @return The piece-square table the piece-square score of the position is maintained for or null if there is none.
+   */
+  int[] getPieceSquareScores() {
+    return pieceSquareScores;
+  }
+
+  /**
+   * Sets the piece-square table to maintain the piece-square score of the position for. The table holds a score for each piece on each
+   * square at the index <code>piece * 64 + square</code>; the entries of {@link Piece#NULL} are expected to be 0. The score is computed
+   * from scratch once and then kept up to date incrementally as moves are made and taken back.
+   *
+   * @param pieceSquareScores The piece-square table.
+   */
+  void setPieceSquareScores(int[] pieceSquareScores) {
+    this.pieceSquareScores = pieceSquareScores;
+    pieceSquareScore = 0;
+    if (pieceSquareScores != null) {
+      for (int i = 0; i < squares.length; i++) {
+        pieceSquareScore += pieceSquareScores[squares[i] * 64 + i];
+      }
+    }
+  }
+
+  /**
+   * @return The sum of the piece-square table entries of all the pieces on the board or 0 if no piece-square table is set.
+   */
+  int getPieceSquareScore() {
+    return pieceSquareScore;
+  }
+
+  /**
+   * @return A queue of all the moves made so far with the last move made at its head.
    */
   public ArrayDeque<Move> getMoveHistory() {
-    return new ArrayDeque<>(moveHistory);
+    ArrayDeque<Move> moves = new ArrayDeque<>(moveHistorySize);
+    for (int i = 0; i < moveHistorySize; i++) {
+      moves.addFirst(Move.toMove(moveHistory[i]));
+    }
+    return moves;
   }
 
   /**
-   * @return The last move made.
+   * @return The last move made or null if no move has been made yet.
    */
   public Move getLastMove() {
-    return moveHistory.peekFirst();
+    return moveHistorySize == 0 ? null : Move.toMove(moveHistory[moveHistorySize - 1]);
+  }
+
+  /**
+   * @return The last move made encoded as an integer (see {@link Move#toInt()}) or 0, i.e. the encoded null move, if no move has been
+   * made yet.
+   */
+  int getLastMoveAsInt() {
+    return moveHistorySize == 0 ? 0 : moveHistory[moveHistorySize - 1];
   }
 
   /**
-   * @return A queue of all the state history records so far.
+   * @return A queue of all the state history records so far with the state of the position the last move was made in at its head.
    */
   public ArrayDeque<PositionStateRecord> getStateHistory() {
-    return new ArrayDeque<>(stateHistory);
+    ArrayDeque<PositionStateRecord> states = new ArrayDeque<>(moveHistorySize);
+    for (int i = 0; i < moveHistorySize; i++) {
+      states.addFirst(getStateRecord(i));
+    }
+    return states;
   }
 
   /**
-   * @return The last position state.
+   * @return The state of the position the last move was made in or null if no moves have been made yet.
    */
   public PositionStateRecord getLastState() {
-    return stateHistory.peekFirst();
+    return moveHistorySize == 0 ? null : getStateRecord(moveHistorySize - 1);
+  }
+
+  private PositionStateRecord getStateRecord(int index) {
+    int state = stateHistory[index];
+    return new PositionStateRecord(unpackWhiteCastlingRights(state), unpackBlackCastlingRights(state), unpackEnPassantRights(state),
+        unpackFiftyMoveRuleClock(state), checkersHistory[index]);
+  }
+
+  private static int packState(byte whiteCastlingRights, byte blackCastlingRights, byte enPassantRights, byte fiftyMoveRuleClock) {
+    return whiteCastlingRights | (blackCastlingRights << 2) | (enPassantRights << 4) | ((fiftyMoveRuleClock & 0xFF) << 8);
+  }
+
+  private static byte unpackWhiteCastlingRights(int state) {
+    return (byte) (state & 3);
+  }
+
+  private static byte unpackBlackCastlingRights(int state) {
+    return (byte) ((state >>> 2) & 3);
+  }
+
+  private static byte unpackEnPassantRights(int state) {
+    return (byte) ((state >>> 4) & 15);
+  }
+
+  private static byte unpackFiftyMoveRuleClock(int state) {
+    return (byte) (state >>> 8);
+  }
+
+  /**
+   * Saves the off-board state of the position before making a move so it can be restored when the move is taken back.
+   *
+   * @param move The encoded move to be made.
+   */
+  private void pushState(int move) {
+    ensureHistoryCapacity();
+    stateHistory[moveHistorySize] = packState(whiteCastlingRights, blackCastlingRights, enPassantRights, fiftyMoveRuleClock);
+    checkersHistory[moveHistorySize] = checkers;
+    moveHistory[moveHistorySize++] = move;
+    attackInfoFlags[moveHistorySize] = 0;
+  }
+
+  /**
+   * Updates the key of the position with the new off-board state after making a move and records it in the key history.
+   */
+  private void updateOffBoardKey() {
+    int prevState = stateHistory[moveHistorySize - 1];
+    key = ZobristKeyGenerator.getInstance().getUpdatedOffBoardHashKey(key, unpackWhiteCastlingRights(prevState),
+        unpackBlackCastlingRights(prevState), unpackEnPassantRights(prevState), whiteCastlingRights, blackCastlingRights,
+        enPassantRights);
+    keyHistory[halfMoveIndex] = key;
   }
 
   /**
@@ -533,6 +772,51 @@ public class Position {
     return repetitions >= numberOfTimes;
   }
 
+  /**
+   * Returns the value to add to the piece-square score of the position when making the move and to subtract from it when unmaking the
+   * move. The piece-square table has to be set.
+   *
+   * @param move The move encoded as an integer.
+   * @return The change in the piece-square score.
+   */
+  private int pieceSquareScoreDelta(int move) {
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
+    byte moveType = Move.getType(move);
+    int movedPieceOffset = movedPiece * 64;
+    int delta = -pieceSquareScores[movedPieceOffset + from];
+    if (moveType == MoveType.NORMAL.ind) {
+      delta += pieceSquareScores[movedPieceOffset + to] - pieceSquareScores[capturedPiece * 64 + to];
+    } else if (moveType == MoveType.SHORT_CASTLING.ind) {
+      delta += pieceSquareScores[movedPieceOffset + to];
+      int rookOffset = (movedPiece == Piece.W_KING.ind ? Piece.W_ROOK.ind : Piece.B_ROOK.ind) * 64;
+      delta += pieceSquareScores[rookOffset + to - 1] - pieceSquareScores[rookOffset + to + 1];
+    } else if (moveType == MoveType.LONG_CASTLING.ind) {
+      delta += pieceSquareScores[movedPieceOffset + to];
+      int rookOffset = (movedPiece == Piece.W_KING.ind ? Piece.W_ROOK.ind : Piece.B_ROOK.ind) * 64;
+      delta += pieceSquareScores[rookOffset + to + 1] - pieceSquareScores[rookOffset + to - 2];
+    } else if (moveType == MoveType.EN_PASSANT.ind) {
+      delta += pieceSquareScores[movedPieceOffset + to];
+      delta -= pieceSquareScores[capturedPiece * 64 + (movedPiece == Piece.W_PAWN.ind ? to - 8 : to + 8)];
+    } else {
+      boolean white = movedPiece == Piece.W_PAWN.ind;
+      Piece promotedPiece;
+      if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
+        promotedPiece = white ? Piece.W_QUEEN : Piece.B_QUEEN;
+      } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
+        promotedPiece = white ? Piece.W_ROOK : Piece.B_ROOK;
+      } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
+        promotedPiece = white ? Piece.W_BISHOP : Piece.B_BISHOP;
+      } else {
+        promotedPiece = white ? Piece.W_KNIGHT : Piece.B_KNIGHT;
+      }
+      delta += pieceSquareScores[promotedPiece.ind * 64 + to] - pieceSquareScores[capturedPiece * 64 + to];
+    }
+    return delta;
+  }
+
   private void setPhaseScore() {
     phaseScore = (short) ((Math.max(0, phase) * MAX_PHASE_SCORE + TOTAL_OPENING_PHASE_WEIGHT / 2) / TOTAL_OPENING_PHASE_WEIGHT);
   }
@@ -853,13 +1137,17 @@ public class Position {
         capturedPiece);
   }
 
-  private void makeWhiteMoveOnBoardAndUpdateKey(Move move) {
-    byte moveType = move.type;
+  private void makeWhiteMoveOnBoardAndUpdateKey(int move) {
+    byte moveType = Move.getType(move);
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
     ZobristKeyGenerator gen = ZobristKeyGenerator.getInstance();
     if (moveType == MoveType.NORMAL.ind) {
-      makeWhiteNormalMoveOnBoard(move.from, move.to, move.movedPiece, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterNormalMove(key, move.from, move.to, move.movedPiece,
-          move.capturedPiece);
+      makeWhiteNormalMoveOnBoard(from, to, movedPiece, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterNormalMove(key, from, to, movedPiece,
+          capturedPiece);
     } else if (moveType == MoveType.SHORT_CASTLING.ind) {
       makeWhiteShortCastlingMoveOnBoard();
       key = gen.getUpdatedBoardHashKeyAfterWhiteShortCastlinglMove(key);
@@ -867,34 +1155,38 @@ public class Position {
       makeWhiteLongCastlingMoveOnBoard();
       key = gen.getUpdatedBoardHashKeyAfterWhiteLongCastlinglMove(key);
     } else if (moveType == MoveType.EN_PASSANT.ind) {
-      makeWhiteEnPassantMoveOnBoard(move.from, move.to);
-      key = gen.getUpdatedBoardHashKeyAfterWhiteEnPassantMove(key, move.from, move.to);
+      makeWhiteEnPassantMoveOnBoard(from, to);
+      key = gen.getUpdatedBoardHashKeyAfterWhiteEnPassantMove(key, from, to);
     } else if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
-      makeWhiteQueenPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterWhiteQueenPromotionMove(key, move.from, move.to,
-          move.capturedPiece);
+      makeWhiteQueenPromotionMoveOnBoard(from, to, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterWhiteQueenPromotionMove(key, from, to,
+          capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
-      makeWhiteRookPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterWhiteRookPromotionMove(key, move.from, move.to,
-          move.capturedPiece);
+      makeWhiteRookPromotionMoveOnBoard(from, to, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterWhiteRookPromotionMove(key, from, to,
+          capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
-      makeWhiteBishopPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterWhiteBishopPromotionMove(key, move.from, move.to,
-          move.capturedPiece);
+      makeWhiteBishopPromotionMoveOnBoard(from, to, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterWhiteBishopPromotionMove(key, from, to,
+          capturedPiece);
     } else {
-      makeWhiteKnightPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterWhiteKnightPromotionMove(key, move.from, move.to,
-          move.capturedPiece);
+      makeWhiteKnightPromotionMoveOnBoard(from, to, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterWhiteKnightPromotionMove(key, from, to,
+          capturedPiece);
     }
   }
 
-  private void makeBlackMoveOnBoardAndUpdateKey(Move move) {
-    byte moveType = move.type;
+  private void makeBlackMoveOnBoardAndUpdateKey(int move) {
+    byte moveType = Move.getType(move);
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
     ZobristKeyGenerator gen = ZobristKeyGenerator.getInstance();
     if (moveType == MoveType.NORMAL.ind) {
-      makeBlackNormalMoveOnBoard(move.from, move.to, move.movedPiece, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterNormalMove(key, move.from, move.to, move.movedPiece,
-          move.capturedPiece);
+      makeBlackNormalMoveOnBoard(from, to, movedPiece, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterNormalMove(key, from, to, movedPiece,
+          capturedPiece);
     } else if (moveType == MoveType.SHORT_CASTLING.ind) {
       makeBlackShortCastlingMoveOnBoard();
       key = gen.getUpdatedBoardHashKeyAfterBlackShortCastlinglMove(key);
@@ -902,24 +1194,24 @@ public class Position {
       makeBlackLongCastlingMoveOnBoard();
       key = gen.getUpdatedBoardHashKeyAfterBlackLongCastlinglMove(key);
     } else if (moveType == MoveType.EN_PASSANT.ind) {
-      makeBlackEnPassantMoveOnBoard(move.from, move.to);
-      key = gen.getUpdatedBoardHashKeyAfterBlackEnPassantMove(key, move.from, move.to);
+      makeBlackEnPassantMoveOnBoard(from, to);
+      key = gen.getUpdatedBoardHashKeyAfterBlackEnPassantMove(key, from, to);
     } else if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
-      makeBlackQueenPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterBlackQueenPromotionMove(key, move.from, move.to,
-          move.capturedPiece);
+      makeBlackQueenPromotionMoveOnBoard(from, to, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterBlackQueenPromotionMove(key, from, to,
+          capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
-      makeBlackRookPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterBlackRookPromotionMove(key, move.from, move.to,
-          move.capturedPiece);
+      makeBlackRookPromotionMoveOnBoard(from, to, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterBlackRookPromotionMove(key, from, to,
+          capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
-      makeBlackBishopPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterBlackBishopPromotionMove(key, move.from, move.to,
-          move.capturedPiece);
+      makeBlackBishopPromotionMoveOnBoard(from, to, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterBlackBishopPromotionMove(key, from, to,
+          capturedPiece);
     } else {
-      makeBlackKnightPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
-      key = gen.getUpdatedBoardHashKeyAfterBlackKnightPromotionMove(key, move.from, move.to,
-          move.capturedPiece);
+      makeBlackKnightPromotionMoveOnBoard(from, to, capturedPiece);
+      key = gen.getUpdatedBoardHashKeyAfterBlackKnightPromotionMove(key, from, to,
+          capturedPiece);
     }
   }
 
@@ -985,10 +1277,17 @@ public class Position {
     }
   }
 
-  private void ensureKeyHistoryCapacity() {
+  private void ensureHistoryCapacity() {
     if (keyHistory.length - halfMoveIndex <= 3) {
       keyHistory = Arrays.copyOf(keyHistory, keyHistory.length + (keyHistory.length >> 1));
     }
+    if (moveHistory.length == moveHistorySize) {
+      moveHistory = Arrays.copyOf(moveHistory, moveHistory.length + (moveHistory.length >> 1));
+      stateHistory = Arrays.copyOf(stateHistory, moveHistory.length);
+      checkersHistory = Arrays.copyOf(checkersHistory, moveHistory.length);
+      attackInfo = Arrays.copyOf(attackInfo, (moveHistory.length + 1) * ATTACK_INFO_SIZE);
+      attackInfoFlags = Arrays.copyOf(attackInfoFlags, moveHistory.length + 1);
+    }
   }
 
   private long getWhiteCheckers(int sqrInd) {
@@ -1015,43 +1314,52 @@ public class Position {
    * @param move The move to make.
    */
   public void makeMove(Move move) {
-    moveHistory.addFirst(move);
-    stateHistory.addFirst(new PositionStateRecord(whiteCastlingRights, blackCastlingRights, enPassantRights,
-        fiftyMoveRuleClock, checkers));
+    makeMove(move.toInt());
+  }
+
+  /**
+   * Makes the specified move encoded as an integer (see {@link Move#toInt()}). No legality checks are performed.
+   *
+   * @param move The encoded move to make.
+   */
+  public void makeMove(int move) {
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
+    pushState(move);
     if (whitesTurn) {
       makeWhiteMoveOnBoardAndUpdateKey(move);
       checkers = getWhiteCheckers(BitOperations.indexOfBit(blackKing));
       updateBlackCastlingRights();
-      enPassantRights = (move.movedPiece == Piece.W_PAWN.ind &&
-          move.to - move.from == 16) ? (byte) (move.to % 8) : 8;
-      fiftyMoveRuleClock = (move.capturedPiece != Piece.NULL.ind ||
-          move.movedPiece == Piece.W_PAWN.ind) ? 0 : (byte) (fiftyMoveRuleClock + 1);
+      enPassantRights = (movedPiece == Piece.W_PAWN.ind && to - from == 16) ? (byte) (to % 8) : 8;
+      fiftyMoveRuleClock = (capturedPiece != Piece.NULL.ind || movedPiece == Piece.W_PAWN.ind) ? 0 :
+          (byte) (fiftyMoveRuleClock + 1);
     } else {
       makeBlackMoveOnBoardAndUpdateKey(move);
       checkers = getBlackCheckers(BitOperations.indexOfBit(whiteKing));
       updateWhiteCastlingRights();
-      enPassantRights = (move.movedPiece == Piece.B_PAWN.ind &&
-          move.from - move.to == 16) ? (byte) (move.to % 8) : 8;
-      fiftyMoveRuleClock = (move.capturedPiece != Piece.NULL.ind ||
-          move.movedPiece == Piece.B_PAWN.ind) ? 0 : (byte) (fiftyMoveRuleClock + 1);
+      enPassantRights = (movedPiece == Piece.B_PAWN.ind && from - to == 16) ? (byte) (to % 8) : 8;
+      fiftyMoveRuleClock = (capturedPiece != Piece.NULL.ind || movedPiece == Piece.B_PAWN.ind) ? 0 :
+          (byte) (fiftyMoveRuleClock + 1);
+    }
+    pawnKingKey = ZobristKeyGenerator.getInstance().getUpdatedPawnKingHashKey(pawnKingKey, move);
+    materialKey += MaterialTable.keyDelta(move);
+    if (pieceSquareScores != null) {
+      pieceSquareScore += pieceSquareScoreDelta(move);
     }
     whitesTurn = !whitesTurn;
     inCheck = checkers != Bitboard.EMPTY_BOARD;
     setPhaseScore();
     halfMoveIndex++;
-    ensureKeyHistoryCapacity();
-    key = ZobristKeyGenerator.getInstance().getUpdatedOffBoardHashKey(key, getLastState(),
-        whiteCastlingRights, blackCastlingRights, enPassantRights);
-    keyHistory[halfMoveIndex] = key;
+    updateOffBoardKey();
   }
 
   /**
    * Makes a null move.
    */
   public void makeNullMove() {
-    moveHistory.addFirst(Move.NULL_MOVE);
-    stateHistory.addFirst(new PositionStateRecord(whiteCastlingRights, blackCastlingRights, enPassantRights,
-        fiftyMoveRuleClock, checkers));
+    pushState(Move.NULL_MOVE.toInt());
     if (whitesTurn) {
       updateBlackCastlingRights();
       whitesTurn = false;
@@ -1061,10 +1369,7 @@ public class Position {
     }
     enPassantRights = EnPassantRights.NONE.ind;
     halfMoveIndex++;
-    ensureKeyHistoryCapacity();
-    key = ZobristKeyGenerator.getInstance().getUpdatedOffBoardHashKey(key, getLastState(),
-        whiteCastlingRights, blackCastlingRights, enPassantRights);
-    keyHistory[halfMoveIndex] = key;
+    updateOffBoardKey();
   }
 
   private void unmakeWhiteNormalMoveOnBoard(byte from, byte to, byte movedPiece, byte capturedPiece) {
@@ -1191,45 +1496,53 @@ public class Position {
     makeBlackKnightPromotionMoveOnBitboards(BitOperations.toBit(from), BitOperations.toBit(to), capturedPiece);
   }
 
-  private void unmakeWhiteMoveOnBoard(Move move) {
-    byte moveType = move.type;
+  private void unmakeWhiteMoveOnBoard(int move) {
+    byte moveType = Move.getType(move);
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
     if (moveType == MoveType.NORMAL.ind) {
-      unmakeWhiteNormalMoveOnBoard(move.from, move.to, move.movedPiece, move.capturedPiece);
+      unmakeWhiteNormalMoveOnBoard(from, to, movedPiece, capturedPiece);
     } else if (moveType == MoveType.SHORT_CASTLING.ind) {
       unmakeWhiteShortCastlingMoveOnBoard();
     } else if (moveType == MoveType.LONG_CASTLING.ind) {
       unmakeWhiteLongCastlingMoveOnBoard();
     } else if (moveType == MoveType.EN_PASSANT.ind) {
-      unmakeWhiteEnPassantMoveOnBoard(move.from, move.to);
+      unmakeWhiteEnPassantMoveOnBoard(from, to);
     } else if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
-      unmakeWhiteQueenPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
+      unmakeWhiteQueenPromotionMoveOnBoard(from, to, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
-      unmakeWhiteRookPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
+      unmakeWhiteRookPromotionMoveOnBoard(from, to, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
-      unmakeWhiteBishopPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
+      unmakeWhiteBishopPromotionMoveOnBoard(from, to, capturedPiece);
     } else {
-      unmakeWhiteKnightPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
+      unmakeWhiteKnightPromotionMoveOnBoard(from, to, capturedPiece);
     }
   }
 
-  private void unmakeBlackMoveOnBoard(Move move) {
-    byte moveType = move.type;
+  private void unmakeBlackMoveOnBoard(int move) {
+    byte moveType = Move.getType(move);
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
     if (moveType == MoveType.NORMAL.ind) {
-      unmakeBlackNormalMoveOnBoard(move.from, move.to, move.movedPiece, move.capturedPiece);
+      unmakeBlackNormalMoveOnBoard(from, to, movedPiece, capturedPiece);
     } else if (moveType == MoveType.SHORT_CASTLING.ind) {
       unmakeBlackShortCastlingMoveOnBoard();
     } else if (moveType == MoveType.LONG_CASTLING.ind) {
       unmakeBlackLongCastlingMoveOnBoard();
     } else if (moveType == MoveType.EN_PASSANT.ind) {
-      unmakeBlackEnPassantMoveOnBoard(move.from, move.to);
+      unmakeBlackEnPassantMoveOnBoard(from, to);
     } else if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
-      unmakeBlackQueenPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
+      unmakeBlackQueenPromotionMoveOnBoard(from, to, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
-      unmakeBlackRookPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
+      unmakeBlackRookPromotionMoveOnBoard(from, to, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
-      unmakeBlackBishopPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
+      unmakeBlackBishopPromotionMoveOnBoard(from, to, capturedPiece);
     } else {
-      unmakeBlackKnightPromotionMoveOnBoard(move.from, move.to, move.capturedPiece);
+      unmakeBlackKnightPromotionMoveOnBoard(from, to, capturedPiece);
     }
   }
 
@@ -1239,24 +1552,39 @@ public class Position {
    * @return The move taken back or null if no move has been made yet.
    */
   public Move unmakeMove() {
-    PositionStateRecord prevState = stateHistory.poll();
-    if (prevState == null) {
-      return null;
+    return moveHistorySize == 0 ? null : Move.toMove(unmakeMoveAsInt());
+  }
+
+  /**
+   * Takes back the last move made and returns it encoded as an integer (see {@link Move#toInt()}). If no move has been made yet, it does
+   * nothing and returns 0, i.e. the encoded null move.
+   *
+   * @return The encoded move taken back or 0 if no move has been made yet.
+   */
+  int unmakeMoveAsInt() {
+    if (moveHistorySize == 0) {
+      return 0;
     }
-    Move move = moveHistory.pop();
+    int move = moveHistory[--moveHistorySize];
     whitesTurn = !whitesTurn;
-    if (!move.equals(Move.NULL_MOVE)) {
+    if (move != Move.NULL_MOVE.toInt()) {
       if (whitesTurn) {
         unmakeWhiteMoveOnBoard(move);
       } else {
         unmakeBlackMoveOnBoard(move);
       }
+      pawnKingKey = ZobristKeyGenerator.getInstance().getUpdatedPawnKingHashKey(pawnKingKey, move);
+      materialKey -= MaterialTable.keyDelta(move);
+      if (pieceSquareScores != null) {
+        pieceSquareScore -= pieceSquareScoreDelta(move);
+      }
     }
-    whiteCastlingRights = prevState.getWhiteCastlingRights();
-    blackCastlingRights = prevState.getBlackCastlingRights();
-    enPassantRights = prevState.getEnPassantRights();
-    fiftyMoveRuleClock = prevState.getFiftyMoveRuleClock();
-    checkers = prevState.getCheckers();
+    int prevState = stateHistory[moveHistorySize];
+    whiteCastlingRights = unpackWhiteCastlingRights(prevState);
+    blackCastlingRights = unpackBlackCastlingRights(prevState);
+    enPassantRights = unpackEnPassantRights(prevState);
+    fiftyMoveRuleClock = unpackFiftyMoveRuleClock(prevState);
+    checkers = checkersHistory[moveHistorySize];
     inCheck = checkers != Bitboard.EMPTY_BOARD;
     setPhaseScore();
     keyHistory[halfMoveIndex] = 0;
@@ -1276,23 +1604,27 @@ public class Position {
 
   private boolean isCheckedByBlack(int sqrInd) {
     MoveSetBase dB = MoveSetBase.getByIndex(sqrInd);
-    return ((whiteKnights & dB.knightMoveMask) != Bitboard.EMPTY_BOARD ||
-        (whitePawns & dB.blackPawnCaptureMoveMask) != Bitboard.EMPTY_BOARD ||
-        ((whiteQueens | whiteRooks) & dB.getRookMoveSet(allNonBlackOccupied, allOccupied)) !=
+    return ((blackKnights & dB.knightMoveMask) != Bitboard.EMPTY_BOARD ||
+        (blackPawns & dB.whitePawnCaptureMoveMask) != Bitboard.EMPTY_BOARD ||
+        ((blackQueens | blackRooks) & dB.getRookMoveSet(allNonWhiteOccupied, allOccupied)) !=
             Bitboard.EMPTY_BOARD ||
-        ((whiteQueens | whiteBishops) & dB.getBishopMoveSet(allNonBlackOccupied, allOccupied)) !=
+        ((blackQueens | blackBishops) & dB.getBishopMoveSet(allNonWhiteOccupied, allOccupied)) !=
             Bitboard.EMPTY_BOARD);
   }
 
-  private boolean givesWhiteCheck(Move move) {
-    byte moveType = move.type;
+  private boolean givesWhiteCheck(int move) {
+    byte moveType = Move.getType(move);
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
     boolean givesCheck;
     if (moveType == MoveType.NORMAL.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackNormalMoveOnBitboards(fromBit, toBit, move.movedPiece, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackNormalMoveOnBitboards(fromBit, toBit, movedPiece, capturedPiece);
       givesCheck = isCheckedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeBlackNormalMoveOnBitboards(fromBit, toBit, move.movedPiece, move.capturedPiece);
+      makeBlackNormalMoveOnBitboards(fromBit, toBit, movedPiece, capturedPiece);
     } else if (moveType == MoveType.SHORT_CASTLING.ind) {
       makeBlackShortCastlingMoveOnBitboards();
       givesCheck = isCheckedByBlack(BitOperations.indexOfBit(whiteKing));
@@ -1302,48 +1634,52 @@ public class Position {
       givesCheck = isCheckedByBlack(BitOperations.indexOfBit(whiteKing));
       makeBlackLongCastlingMoveOnBitboards();
     } else if (moveType == MoveType.EN_PASSANT.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
       makeBlackEnPassantMoveOnBitboards(fromBit, toBit);
       givesCheck = isCheckedByBlack(BitOperations.indexOfBit(whiteKing));
       makeBlackEnPassantMoveOnBitboards(fromBit, toBit);
     } else if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackQueenPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackQueenPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       givesCheck = isCheckedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeBlackQueenPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeBlackQueenPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackRookPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackRookPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       givesCheck = isCheckedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeBlackRookPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeBlackRookPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackBishopPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackBishopPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       givesCheck = isCheckedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeBlackBishopPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeBlackBishopPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackKnightPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackKnightPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       givesCheck = isCheckedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeBlackKnightPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeBlackKnightPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     }
     return givesCheck;
   }
 
-  private boolean givesBlackCheck(Move move) {
-    byte moveType = move.type;
+  private boolean givesBlackCheck(int move) {
+    byte moveType = Move.getType(move);
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
     boolean givesCheck;
     if (moveType == MoveType.NORMAL.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteNormalMoveOnBitboards(fromBit, toBit, move.movedPiece, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteNormalMoveOnBitboards(fromBit, toBit, movedPiece, capturedPiece);
       givesCheck = isCheckedByWhite(BitOperations.indexOfBit(blackKing));
-      makeWhiteNormalMoveOnBitboards(fromBit, toBit, move.movedPiece, move.capturedPiece);
+      makeWhiteNormalMoveOnBitboards(fromBit, toBit, movedPiece, capturedPiece);
     } else if (moveType == MoveType.SHORT_CASTLING.ind) {
       makeWhiteShortCastlingMoveOnBitboards();
       givesCheck = isCheckedByWhite(BitOperations.indexOfBit(blackKing));
@@ -1353,35 +1689,35 @@ public class Position {
       givesCheck = isCheckedByWhite(BitOperations.indexOfBit(blackKing));
       makeWhiteLongCastlingMoveOnBitboards();
     } else if (moveType == MoveType.EN_PASSANT.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
       makeWhiteEnPassantMoveOnBitboards(fromBit, toBit);
       givesCheck = isCheckedByWhite(BitOperations.indexOfBit(blackKing));
       makeWhiteEnPassantMoveOnBitboards(fromBit, toBit);
     } else if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteQueenPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteQueenPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       givesCheck = isCheckedByWhite(BitOperations.indexOfBit(blackKing));
-      makeWhiteQueenPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeWhiteQueenPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteRookPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteRookPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       givesCheck = isCheckedByWhite(BitOperations.indexOfBit(blackKing));
-      makeWhiteRookPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeWhiteRookPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteBishopPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteBishopPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       givesCheck = isCheckedByWhite(BitOperations.indexOfBit(blackKing));
-      makeWhiteBishopPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeWhiteBishopPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteKnightPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteKnightPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       givesCheck = isCheckedByWhite(BitOperations.indexOfBit(blackKing));
-      makeWhiteKnightPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeWhiteKnightPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     }
     return givesCheck;
   }
@@ -1393,6 +1729,26 @@ public class Position {
    * @return Whether the move checks the opponent.
    */
   public boolean givesCheck(Move move) {
+    return givesCheck(move.toInt());
+  }
+
+  /**
+   * Checks whether the specified move encoded as an integer (see {@link Move#toInt()}) puts the opponent in check. The move is assumed to
+   * be legal.
+   *
+   * @param move The encoded move to check.
+   * @return Whether the move checks the opponent.
+   */
+  public boolean givesCheck(int move) {
+    /* Normal moves not moving a piece that blocks one of the sliders of the side to move from the opponent's king can only give direct
+     * checks which can be determined by looking up the destination square in the check squares of the moved piece. */
+    if (Move.getType(move) == MoveType.NORMAL.ind) {
+      int offset = checkInfoOffset();
+      if ((attackInfo[offset + DISCOVERED_CHECKERS] & BitOperations.toBit(Move.getFrom(move))) == Bitboard.EMPTY_BOARD) {
+        int pieceKind = (Move.getMovedPiece(move) - Piece.W_KING.ind) % 6;
+        return (attackInfo[offset + CHECK_SQUARES + pieceKind] & BitOperations.toBit(Move.getTo(move))) != Bitboard.EMPTY_BOARD;
+      }
+    }
     return whitesTurn ? givesBlackCheck(move) : givesWhiteCheck(move);
   }
 
@@ -1424,15 +1780,19 @@ public class Position {
             (blackPawns & dB.kingMoveMask & Bitboard.Rank.R4.bitboard) != Bitboard.EMPTY_BOARD));
   }
 
-  private boolean leavesWhiteChecked(Move move) {
-    byte moveType = move.type;
+  private boolean leavesWhiteChecked(int move) {
+    byte moveType = Move.getType(move);
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
     boolean leavesChecked;
     if (moveType == MoveType.NORMAL.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteNormalMoveOnBitboards(fromBit, toBit, move.movedPiece, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteNormalMoveOnBitboards(fromBit, toBit, movedPiece, capturedPiece);
       leavesChecked = isAttackedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeWhiteNormalMoveOnBitboards(fromBit, toBit, move.movedPiece, move.capturedPiece);
+      makeWhiteNormalMoveOnBitboards(fromBit, toBit, movedPiece, capturedPiece);
     } else if (moveType == MoveType.SHORT_CASTLING.ind) {
       makeWhiteShortCastlingMoveOnBitboards();
       leavesChecked = isAttackedByBlack(BitOperations.indexOfBit(whiteKing));
@@ -1442,48 +1802,52 @@ public class Position {
       leavesChecked = isAttackedByBlack(BitOperations.indexOfBit(whiteKing));
       makeWhiteLongCastlingMoveOnBitboards();
     } else if (moveType == MoveType.EN_PASSANT.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
       makeWhiteEnPassantMoveOnBitboards(fromBit, toBit);
       leavesChecked = isAttackedByBlack(BitOperations.indexOfBit(whiteKing));
       makeWhiteEnPassantMoveOnBitboards(fromBit, toBit);
     } else if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteQueenPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteQueenPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       leavesChecked = isAttackedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeWhiteQueenPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeWhiteQueenPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteRookPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteRookPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       leavesChecked = isAttackedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeWhiteRookPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeWhiteRookPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteBishopPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteBishopPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       leavesChecked = isAttackedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeWhiteBishopPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeWhiteBishopPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeWhiteKnightPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeWhiteKnightPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       leavesChecked = isAttackedByBlack(BitOperations.indexOfBit(whiteKing));
-      makeWhiteKnightPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeWhiteKnightPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     }
     return leavesChecked;
   }
 
-  private boolean leavesBlackChecked(Move move) {
-    byte moveType = move.type;
+  private boolean leavesBlackChecked(int move) {
+    byte moveType = Move.getType(move);
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
     boolean leavesChecked;
     if (moveType == MoveType.NORMAL.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackNormalMoveOnBitboards(fromBit, toBit, move.movedPiece, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackNormalMoveOnBitboards(fromBit, toBit, movedPiece, capturedPiece);
       leavesChecked = isAttackedByWhite(BitOperations.indexOfBit(blackKing));
-      makeBlackNormalMoveOnBitboards(fromBit, toBit, move.movedPiece, move.capturedPiece);
+      makeBlackNormalMoveOnBitboards(fromBit, toBit, movedPiece, capturedPiece);
     } else if (moveType == MoveType.SHORT_CASTLING.ind) {
       makeBlackShortCastlingMoveOnBitboards();
       leavesChecked = isAttackedByWhite(BitOperations.indexOfBit(blackKing));
@@ -1493,62 +1857,66 @@ public class Position {
       leavesChecked = isAttackedByWhite(BitOperations.indexOfBit(blackKing));
       makeBlackLongCastlingMoveOnBitboards();
     } else if (moveType == MoveType.EN_PASSANT.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
       makeBlackEnPassantMoveOnBitboards(fromBit, toBit);
       leavesChecked = isAttackedByWhite(BitOperations.indexOfBit(blackKing));
       makeBlackEnPassantMoveOnBitboards(fromBit, toBit);
     } else if (moveType == MoveType.PROMOTION_TO_QUEEN.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackQueenPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackQueenPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       leavesChecked = isAttackedByWhite(BitOperations.indexOfBit(blackKing));
-      makeBlackQueenPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeBlackQueenPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_ROOK.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackRookPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackRookPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       leavesChecked = isAttackedByWhite(BitOperations.indexOfBit(blackKing));
-      makeBlackRookPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeBlackRookPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else if (moveType == MoveType.PROMOTION_TO_BISHOP.ind) {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackBishopPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackBishopPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       leavesChecked = isAttackedByWhite(BitOperations.indexOfBit(blackKing));
-      makeBlackBishopPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeBlackBishopPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     } else {
-      long fromBit = BitOperations.toBit(move.from);
-      long toBit = BitOperations.toBit(move.to);
-      makeBlackKnightPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      long fromBit = BitOperations.toBit(from);
+      long toBit = BitOperations.toBit(to);
+      makeBlackKnightPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
       leavesChecked = isAttackedByWhite(BitOperations.indexOfBit(blackKing));
-      makeBlackKnightPromotionMoveOnBitboards(fromBit, toBit, move.capturedPiece);
+      makeBlackKnightPromotionMoveOnBitboards(fromBit, toBit, capturedPiece);
     }
     return leavesChecked;
   }
 
-  private boolean isLegalForWhite(Move move) {
+  private boolean isLegalForWhite(int move) {
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
+    byte moveType = Move.getType(move);
     long moveSet;
-    byte movedPiece = move.movedPiece;
-    if (squares[move.from] != movedPiece) {
+    if (squares[from] != movedPiece) {
       return false;
     }
-    long toBit = BitOperations.toBit(move.to);
+    long toBit = BitOperations.toBit(to);
     if (movedPiece == Piece.W_PAWN.ind) {
       moveSet = Bitboard.EMPTY_BOARD;
-      if (move.type == MoveType.EN_PASSANT.ind && enPassantRights != EnPassantRights.NONE.ind &&
-          move.to == EnPassantRights.TO_W_DEST_SQR_IND + enPassantRights) {
+      if (moveType == MoveType.EN_PASSANT.ind && enPassantRights != EnPassantRights.NONE.ind &&
+          to == EnPassantRights.TO_W_DEST_SQR_IND + enPassantRights) {
         moveSet |= toBit;
-      } else if (squares[move.to] != move.capturedPiece) {
+      } else if (squares[to] != capturedPiece) {
         return false;
       }
-      moveSet |= MoveSetBase.getByIndex(move.from).getWhitePawnMoveSet(allBlackOccupied, allEmpty);
+      moveSet |= MoveSetBase.getByIndex(from).getWhitePawnMoveSet(allBlackOccupied, allEmpty);
     } else {
-      if (squares[move.to] != move.capturedPiece) {
+      if (squares[to] != capturedPiece) {
         return false;
       }
-      MoveSetBase dB = MoveSetBase.getByIndex(move.from);
+      MoveSetBase dB = MoveSetBase.getByIndex(from);
       if (movedPiece == Piece.W_KING.ind) {
-        if (move.type == MoveType.SHORT_CASTLING.ind) {
+        if (moveType == MoveType.SHORT_CASTLING.ind) {
           return !inCheck && (whiteCastlingRights == CastlingRights.SHORT.ind ||
               whiteCastlingRights == CastlingRights.ALL.ind) &&
               ((Bitboard.Square.F1.bitboard | Bitboard.Square.G1.bitboard) &
@@ -1556,7 +1924,7 @@ public class Position {
               squares[Bitboard.Square.H1.ind] == Piece.W_ROOK.ind &&
               !isAttackedByBlack(Bitboard.Square.F1.ind) &&
               !isAttackedByBlack(Bitboard.Square.G1.ind);
-        } else if (move.type == MoveType.LONG_CASTLING.ind) {
+        } else if (moveType == MoveType.LONG_CASTLING.ind) {
           return !inCheck && (whiteCastlingRights == CastlingRights.LONG.ind ||
               whiteCastlingRights == CastlingRights.ALL.ind) &&
               ((Bitboard.Square.B1.bitboard | Bitboard.Square.C1.bitboard |
@@ -1582,29 +1950,33 @@ public class Position {
     return (moveSet & toBit) != Bitboard.EMPTY_BOARD && !leavesWhiteChecked(move);
   }
 
-  private boolean isLegalForBlack(Move move) {
+  private boolean isLegalForBlack(int move) {
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
+    byte moveType = Move.getType(move);
     long moveSet;
-    byte movedPiece = move.movedPiece;
-    if (squares[move.from] != movedPiece) {
+    if (squares[from] != movedPiece) {
       return false;
     }
-    long toBit = BitOperations.toBit(move.to);
+    long toBit = BitOperations.toBit(to);
     if (movedPiece == Piece.B_PAWN.ind) {
       moveSet = Bitboard.EMPTY_BOARD;
-      if (move.type == MoveType.EN_PASSANT.ind && enPassantRights != EnPassantRights.NONE.ind &&
-          move.to == EnPassantRights.TO_B_DEST_SQR_IND + enPassantRights) {
+      if (moveType == MoveType.EN_PASSANT.ind && enPassantRights != EnPassantRights.NONE.ind &&
+          to == EnPassantRights.TO_B_DEST_SQR_IND + enPassantRights) {
         moveSet |= toBit;
-      } else if (squares[move.to] != move.capturedPiece) {
+      } else if (squares[to] != capturedPiece) {
         return false;
       }
-      moveSet |= MoveSetBase.getByIndex(move.from).getBlackPawnMoveSet(allWhiteOccupied, allEmpty);
+      moveSet |= MoveSetBase.getByIndex(from).getBlackPawnMoveSet(allWhiteOccupied, allEmpty);
     } else {
-      if (squares[move.to] != move.capturedPiece) {
+      if (squares[to] != capturedPiece) {
         return false;
       }
-      MoveSetBase dB = MoveSetBase.getByIndex(move.from);
+      MoveSetBase dB = MoveSetBase.getByIndex(from);
       if (movedPiece == Piece.B_KING.ind) {
-        if (move.type == MoveType.SHORT_CASTLING.ind) {
+        if (moveType == MoveType.SHORT_CASTLING.ind) {
           return !inCheck && (blackCastlingRights == CastlingRights.SHORT.ind ||
               blackCastlingRights == CastlingRights.ALL.ind) &&
               ((Bitboard.Square.F8.bitboard | Bitboard.Square.G8.bitboard) &
@@ -1612,7 +1984,7 @@ public class Position {
               squares[Bitboard.Square.H8.ind] == Piece.B_ROOK.ind &&
               !isAttackedByWhite(Bitboard.Square.F8.ind) &&
               !isAttackedByWhite(Bitboard.Square.G8.ind);
-        } else if (move.type == MoveType.LONG_CASTLING.ind) {
+        } else if (moveType == MoveType.LONG_CASTLING.ind) {
           return !inCheck && (blackCastlingRights == CastlingRights.LONG.ind ||
               blackCastlingRights == CastlingRights.ALL.ind) &&
               ((Bitboard.Square.B8.bitboard | Bitboard.Square.C8.bitboard |
@@ -1647,17 +2019,28 @@ public class Position {
    * @return Whether the move is legal or not.
    */
   public boolean isLegal(Move move) {
+    return isLegal(move.toInt());
+  }
+
+  /**
+   * Determines whether the move encoded as an integer (see {@link Move#toInt()}) is legal in the current position under the same
+   * assumptions as {@link #isLegal(Move)}.
+   *
+   * @param move The encoded move to perform legality check on.
+   * @return Whether the move is legal or not.
+   */
+  public boolean isLegal(int move) {
     return whitesTurn ? isLegalForWhite(move) : isLegalForBlack(move);
   }
 
   private long addTacticalStraightPinnedPieceMoveAndGetPinnedPiece(long pinnedPiece, long pinningPiece,
-      byte queenType, byte rookType, List<Move> moves) {
+      byte queenType, byte rookType, MoveList moves) {
     if (pinningPiece != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfBit(pinnedPiece);
       byte pinnedPieceType = squares[from];
       if (pinnedPieceType == queenType || pinnedPieceType == rookType) {
         byte to = BitOperations.indexOfBit(pinningPiece);
-        moves.add(new Move(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind));
+        moves.add(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind);
       }
       return pinnedPiece;
     }
@@ -1665,13 +2048,13 @@ public class Position {
   }
 
   private long addWhiteTacticalDiagonalPinnedPieceMoveAndGetPinnedPiece(long pinnedPiece, long pinningPiece,
-      long ray, boolean positive, List<Move> moves) {
+      long ray, boolean positive, MoveList moves) {
     if (pinningPiece != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfBit(pinnedPiece);
       byte pinnedPieceType = squares[from];
       if (pinnedPieceType == Piece.W_QUEEN.ind || pinnedPieceType == Piece.W_BISHOP.ind) {
         byte to = BitOperations.indexOfBit(pinningPiece);
-        moves.add(new Move(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind));
+        moves.add(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind);
       } else if (pinnedPieceType == Piece.W_PAWN.ind) {
         if (positive) {
           byte to = BitOperations.indexOfBit(pinningPiece);
@@ -1679,15 +2062,15 @@ public class Position {
             addPromotionMoves(from, to, pinnedPieceType, squares[to], moves);
             return pinnedPiece;
           } else if (Bitboard.computeWhitePawnCaptureSets(pinnedPiece, pinningPiece) != Bitboard.EMPTY_BOARD) {
-            moves.add(new Move(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind));
+            moves.add(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind);
             return pinnedPiece;
           }
         }
         if (enPassantRights != EnPassantRights.NONE.ind &&
             Bitboard.computeWhitePawnCaptureSets(pinnedPiece, BitOperations.toBit(
                 EnPassantRights.TO_W_DEST_SQR_IND + enPassantRights) & ray) != Bitboard.EMPTY_BOARD) {
-          moves.add(new Move(from, BitOperations.indexOfBit(pinningPiece), pinnedPieceType,
-              Piece.B_PAWN.ind, MoveType.EN_PASSANT.ind));
+          moves.add(from, BitOperations.indexOfBit(pinningPiece), pinnedPieceType,
+              Piece.B_PAWN.ind, MoveType.EN_PASSANT.ind);
         }
       }
       return pinnedPiece;
@@ -1696,13 +2079,13 @@ public class Position {
   }
 
   private long addBlackTacticalDiagonalPinnedPieceMoveAndGetPinnedPiece(long pinnedPiece, long pinningPiece,
-      long ray, boolean positive, List<Move> moves) {
+      long ray, boolean positive, MoveList moves) {
     if (pinningPiece != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfBit(pinnedPiece);
       byte pinnedPieceType = squares[from];
       if (pinnedPieceType == Piece.B_QUEEN.ind || pinnedPieceType == Piece.B_BISHOP.ind) {
         byte to = BitOperations.indexOfBit(pinningPiece);
-        moves.add(new Move(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind));
+        moves.add(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind);
       } else if (pinnedPieceType == Piece.B_PAWN.ind) {
         if (!positive) {
           byte to = BitOperations.indexOfBit(pinningPiece);
@@ -1710,15 +2093,15 @@ public class Position {
             addPromotionMoves(from, to, pinnedPieceType, squares[to], moves);
             return pinnedPiece;
           } else if (Bitboard.computeBlackPawnCaptureSets(pinnedPiece, pinningPiece) != Bitboard.EMPTY_BOARD) {
-            moves.add(new Move(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind));
+            moves.add(from, to, pinnedPieceType, squares[to], MoveType.NORMAL.ind);
             return pinnedPiece;
           }
         }
         if (enPassantRights != EnPassantRights.NONE.ind &&
             Bitboard.computeBlackPawnCaptureSets(pinnedPiece, BitOperations.toBit(
                 EnPassantRights.TO_B_DEST_SQR_IND + enPassantRights) & ray) != Bitboard.EMPTY_BOARD) {
-          moves.add(new Move(from, BitOperations.indexOfBit(pinningPiece), pinnedPieceType,
-              Piece.W_PAWN.ind, MoveType.EN_PASSANT.ind));
+          moves.add(from, BitOperations.indexOfBit(pinningPiece), pinnedPieceType,
+              Piece.W_PAWN.ind, MoveType.EN_PASSANT.ind);
         }
       }
       return pinnedPiece;
@@ -1727,7 +2110,7 @@ public class Position {
   }
 
   private long addTacticalPositiveStraightPinnedPieceMoveAndGetPinnedPiece(long rayOccupancy, long allSameColorOccupied,
-      long sliders, byte queenType, byte rookType, List<Move> moves) {
+      long sliders, byte queenType, byte rookType, MoveList moves) {
     long pinnedPiece = BitOperations.getLSBit(rayOccupancy) & allSameColorOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
       return addTacticalStraightPinnedPieceMoveAndGetPinnedPiece(pinnedPiece,
@@ -1737,7 +2120,7 @@ public class Position {
   }
 
   private long addTacticalNegativeStraightPinnedPieceMoveAndGetPinnedPiece(long rayOccupancy, long allSameColorOccupied,
-      long sliders, byte queenType, byte rookType, List<Move> moves) {
+      long sliders, byte queenType, byte rookType, MoveList moves) {
     long pinnedPiece = BitOperations.getMSBit(rayOccupancy) & allSameColorOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
       return addTacticalStraightPinnedPieceMoveAndGetPinnedPiece(pinnedPiece,
@@ -1747,7 +2130,7 @@ public class Position {
   }
 
   private long addWhiteTacticalPositiveDiagonalPinnedPieceMoveAndGetPinnedPiece(long ray, long sliders,
-      List<Move> moves) {
+      MoveList moves) {
     long rayOccupancy = ray & allOccupied;
     long pinnedPiece = BitOperations.getLSBit(rayOccupancy) & allWhiteOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
@@ -1758,7 +2141,7 @@ public class Position {
   }
 
   private long addBlackTacticalPositiveDiagonalPinnedPieceMoveAndGetPinnedPiece(long ray, long sliders,
-      List<Move> moves) {
+      MoveList moves) {
     long rayOccupancy = ray & allOccupied;
     long pinnedPiece = BitOperations.getLSBit(rayOccupancy) & allBlackOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
@@ -1769,7 +2152,7 @@ public class Position {
   }
 
   private long addWhiteTacticalNegativeDiagonalPinnedPieceMoveAndGetPinnedPiece(long ray, long sliders,
-      List<Move> moves) {
+      MoveList moves) {
     long rayOccupancy = ray & allOccupied;
     long pinnedPiece = BitOperations.getMSBit(rayOccupancy) & allWhiteOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
@@ -1780,7 +2163,7 @@ public class Position {
   }
 
   private long addBlackTacticalNegativeDiagonalPinnedPieceMoveAndGetPinnedPiece(long ray, long sliders,
-      List<Move> moves) {
+      MoveList moves) {
     long rayOccupancy = ray & allOccupied;
     long pinnedPiece = BitOperations.getMSBit(rayOccupancy) & allBlackOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
@@ -1790,7 +2173,7 @@ public class Position {
     return Bitboard.EMPTY_BOARD;
   }
 
-  private long addWhiteTacticalPinnedPieceMovesAndGetPinnedPieces(byte kingInd, List<Move> moves) {
+  private long addWhiteTacticalPinnedPieceMovesAndGetPinnedPieces(byte kingInd, MoveList moves) {
     Bitboard.Rays rays = Bitboard.Rays.values()[kingInd];
     long straightSliders = blackQueens | blackRooks;
     long diagonalSliders = blackQueens | blackBishops;
@@ -1813,7 +2196,7 @@ public class Position {
     return pinnedPieces;
   }
 
-  private long addBlackTacticalPinnedPieceMovesAndGetPinnedPieces(byte kingInd, List<Move> moves) {
+  private long addBlackTacticalPinnedPieceMovesAndGetPinnedPieces(byte kingInd, MoveList moves) {
     Bitboard.Rays rays = Bitboard.Rays.values()[kingInd];
     long straightSliders = whiteQueens | whiteRooks;
     long diagonalSliders = whiteQueens | whiteBishops;
@@ -1836,39 +2219,39 @@ public class Position {
     return pinnedPieces;
   }
 
-  private void addWhiteKingNormalMoves(byte from, long targets, List<Move> moves) {
+  private void addWhiteKingNormalMoves(byte from, long targets, MoveList moves) {
     long moveSet = MoveSetBase.getByIndex(from).getKingMoveSet(targets);
     while (moveSet != Bitboard.EMPTY_BOARD) {
       byte to = BitOperations.indexOfLSBit(moveSet);
       if (!isAttackedByBlack(to)) {
-        moves.add(new Move(from, to, Piece.W_KING.ind, squares[to],
-            MoveType.NORMAL.ind));
+        moves.add(from, to, Piece.W_KING.ind, squares[to],
+            MoveType.NORMAL.ind);
       }
       moveSet = BitOperations.resetLSBit(moveSet);
     }
   }
 
-  private void addBlackKingNormalMoves(byte from, long targets, List<Move> moves) {
+  private void addBlackKingNormalMoves(byte from, long targets, MoveList moves) {
     long moveSet = MoveSetBase.getByIndex(from).getKingMoveSet(targets);
     while (moveSet != Bitboard.EMPTY_BOARD) {
       byte to = BitOperations.indexOfLSBit(moveSet);
       if (!isAttackedByWhite(to)) {
-        moves.add(new Move(from, to, Piece.B_KING.ind, squares[to],
-            MoveType.NORMAL.ind));
+        moves.add(from, to, Piece.B_KING.ind, squares[to],
+            MoveType.NORMAL.ind);
       }
       moveSet = BitOperations.resetLSBit(moveSet);
     }
   }
 
-  private void addWhiteKingCastlingMoves(byte from, List<Move> moves) {
+  private void addWhiteKingCastlingMoves(byte from, MoveList moves) {
     if ((whiteCastlingRights == CastlingRights.LONG.ind ||
         whiteCastlingRights == CastlingRights.ALL.ind) &&
         ((Bitboard.Square.B1.bitboard | Bitboard.Square.C1.bitboard |
             Bitboard.Square.D1.bitboard) & allOccupied) == Bitboard.EMPTY_BOARD &&
         !isAttackedByBlack(Bitboard.Square.D1.ind) &&
         !isAttackedByBlack(Bitboard.Square.C1.ind)) {
-      moves.add(new Move(from, Bitboard.Square.C1.ind, Piece.W_KING.ind,
-          Piece.NULL.ind, MoveType.LONG_CASTLING.ind));
+      moves.add(from, Bitboard.Square.C1.ind, Piece.W_KING.ind,
+          Piece.NULL.ind, MoveType.LONG_CASTLING.ind);
     }
     if ((whiteCastlingRights == CastlingRights.SHORT.ind ||
         whiteCastlingRights == CastlingRights.ALL.ind) &&
@@ -1876,20 +2259,20 @@ public class Position {
             allOccupied) == Bitboard.EMPTY_BOARD &&
         !isAttackedByBlack(Bitboard.Square.F1.ind) &&
         !isAttackedByBlack(Bitboard.Square.G1.ind)) {
-      moves.add(new Move(from, Bitboard.Square.G1.ind, Piece.W_KING.ind,
-          Piece.NULL.ind, MoveType.SHORT_CASTLING.ind));
+      moves.add(from, Bitboard.Square.G1.ind, Piece.W_KING.ind,
+          Piece.NULL.ind, MoveType.SHORT_CASTLING.ind);
     }
   }
 
-  private void addBlackKingCastlingMoves(byte from, List<Move> moves) {
+  private void addBlackKingCastlingMoves(byte from, MoveList moves) {
     if ((blackCastlingRights == CastlingRights.LONG.ind ||
         blackCastlingRights == CastlingRights.ALL.ind) &&
         ((Bitboard.Square.B8.bitboard | Bitboard.Square.C8.bitboard |
             Bitboard.Square.D8.bitboard) & allOccupied) == Bitboard.EMPTY_BOARD &&
         !isAttackedByWhite(Bitboard.Square.D8.ind) &&
         !isAttackedByWhite(Bitboard.Square.C8.ind)) {
-      moves.add(new Move(from, Bitboard.Square.C8.ind, Piece.B_KING.ind,
-          Piece.NULL.ind, MoveType.LONG_CASTLING.ind));
+      moves.add(from, Bitboard.Square.C8.ind, Piece.B_KING.ind,
+          Piece.NULL.ind, MoveType.LONG_CASTLING.ind);
     }
     if ((blackCastlingRights == CastlingRights.SHORT.ind ||
         blackCastlingRights == CastlingRights.ALL.ind) &&
@@ -1897,27 +2280,27 @@ public class Position {
             allOccupied) == Bitboard.EMPTY_BOARD &&
         !isAttackedByWhite(Bitboard.Square.F8.ind) &&
         !isAttackedByWhite(Bitboard.Square.G8.ind)) {
-      moves.add(new Move(from, Bitboard.Square.G8.ind, Piece.B_KING.ind,
-          Piece.NULL.ind, MoveType.SHORT_CASTLING.ind));
+      moves.add(from, Bitboard.Square.G8.ind, Piece.B_KING.ind,
+          Piece.NULL.ind, MoveType.SHORT_CASTLING.ind);
     }
   }
 
-  private void addNormalMovesFromOrigin(byte from, byte movedPiece, long moveSet, List<Move> moves) {
+  private void addNormalMovesFromOrigin(byte from, byte movedPiece, long moveSet, MoveList moves) {
     while (moveSet != Bitboard.EMPTY_BOARD) {
       byte to = BitOperations.indexOfLSBit(moveSet);
-      moves.add(new Move(from, to, movedPiece, squares[to], MoveType.NORMAL.ind));
+      moves.add(from, to, movedPiece, squares[to], MoveType.NORMAL.ind);
       moveSet = BitOperations.resetLSBit(moveSet);
     }
   }
 
-  private void addNormalNonCaptureMovesFromOrigin(byte from, byte movedPiece, long moveSet, List<Move> moves) {
+  private void addNormalNonCaptureMovesFromOrigin(byte from, byte movedPiece, long moveSet, MoveList moves) {
     while (moveSet != Bitboard.EMPTY_BOARD) {
-      moves.add(new Move(from, BitOperations.indexOfLSBit(moveSet), movedPiece, Piece.NULL.ind, MoveType.NORMAL.ind));
+      moves.add(from, BitOperations.indexOfLSBit(moveSet), movedPiece, Piece.NULL.ind, MoveType.NORMAL.ind);
       moveSet = BitOperations.resetLSBit(moveSet);
     }
   }
 
-  private void addQueenMoves(byte pieceType, long pieces, long targets, List<Move> moves) {
+  private void addQueenMoves(byte pieceType, long pieces, long targets, MoveList moves) {
     while (pieces != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfLSBit(pieces);
       addNormalMovesFromOrigin(from, pieceType, MoveSetBase.getByIndex(from).getQueenMoveSet(targets, allOccupied),
@@ -1926,7 +2309,7 @@ public class Position {
     }
   }
 
-  private void addRookMoves(byte pieceType, long pieces, long targets, List<Move> moves) {
+  private void addRookMoves(byte pieceType, long pieces, long targets, MoveList moves) {
     while (pieces != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfLSBit(pieces);
       addNormalMovesFromOrigin(from, pieceType, MoveSetBase.getByIndex(from).getRookMoveSet(targets, allOccupied),
@@ -1935,7 +2318,7 @@ public class Position {
     }
   }
 
-  private void addBishopMoves(byte pieceType, long pieces, long targets, List<Move> moves) {
+  private void addBishopMoves(byte pieceType, long pieces, long targets, MoveList moves) {
     while (pieces != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfLSBit(pieces);
       addNormalMovesFromOrigin(from, pieceType, MoveSetBase.getByIndex(from).getBishopMoveSet(targets, allOccupied),
@@ -1944,7 +2327,7 @@ public class Position {
     }
   }
 
-  private void addKnightMoves(byte pieceType, long pieces, long targets, List<Move> moves) {
+  private void addKnightMoves(byte pieceType, long pieces, long targets, MoveList moves) {
     while (pieces != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfLSBit(pieces);
       addNormalMovesFromOrigin(from, pieceType, MoveSetBase.getByIndex(from).getKnightMoveSet(targets), moves);
@@ -1952,7 +2335,7 @@ public class Position {
     }
   }
 
-  private void addWhitePawnNormalMoves(long movablePieces, long oppTargets, long emptyTargets, List<Move> moves) {
+  private void addWhitePawnNormalMoves(long movablePieces, long oppTargets, long emptyTargets, MoveList moves) {
     long pieces = whitePawns & movablePieces & ~Bitboard.Rank.R7.bitboard;
     while (pieces != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfLSBit(pieces);
@@ -1963,7 +2346,7 @@ public class Position {
     }
   }
 
-  private void addBlackPawnNormalMoves(long movablePieces, long oppTargets, long emptyTargets, List<Move> moves) {
+  private void addBlackPawnNormalMoves(long movablePieces, long oppTargets, long emptyTargets, MoveList moves) {
     long pieces = blackPawns & movablePieces & ~Bitboard.Rank.R2.bitboard;
     while (pieces != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfLSBit(pieces);
@@ -1974,7 +2357,7 @@ public class Position {
     }
   }
 
-  private void addWhitePawnEnPassantMoves(long movablePieces, byte whiteKingInd, List<Move> moves) {
+  private void addWhitePawnEnPassantMoves(long movablePieces, byte whiteKingInd, MoveList moves) {
     if (enPassantRights != EnPassantRights.NONE.ind && movablePieces != Bitboard.EMPTY_BOARD) {
       byte to = (byte) (EnPassantRights.TO_W_DEST_SQR_IND + enPassantRights);
       long pieces = MoveSetBase.getByIndex(to).getBlackPawnCaptureSet(whitePawns) & movablePieces;
@@ -1991,15 +2374,15 @@ public class Position {
         if (((blackQueens | blackRooks) & kingDb.getRookMoveSet(allNonWhiteOccupiedTemp,
             allOccupiedTemp)) == Bitboard.EMPTY_BOARD && ((blackQueens | blackBishops) &
             kingDb.getBishopMoveSet(allNonWhiteOccupiedTemp, allOccupiedTemp)) == Bitboard.EMPTY_BOARD) {
-          moves.add(new Move(from, to, Piece.W_PAWN.ind, Piece.B_PAWN.ind,
-              MoveType.EN_PASSANT.ind));
+          moves.add(from, to, Piece.W_PAWN.ind, Piece.B_PAWN.ind,
+              MoveType.EN_PASSANT.ind);
         }
         pieces = BitOperations.resetLSBit(pieces);
       } while (pieces != Bitboard.EMPTY_BOARD);
     }
   }
 
-  private void addBlackPawnEnPassantMoves(long movablePieces, byte blackKingInd, List<Move> moves) {
+  private void addBlackPawnEnPassantMoves(long movablePieces, byte blackKingInd, MoveList moves) {
     if (enPassantRights != EnPassantRights.NONE.ind && movablePieces != Bitboard.EMPTY_BOARD) {
       byte to = (byte) (EnPassantRights.TO_B_DEST_SQR_IND + enPassantRights);
       long pieces = MoveSetBase.getByIndex(to).getWhitePawnCaptureSet(blackPawns) & movablePieces;
@@ -2015,22 +2398,22 @@ public class Position {
         if (((whiteQueens | whiteRooks) & kingDb.getRookMoveSet(allNonBlackOccupiedTemp,
             allOccupiedTemp)) == Bitboard.EMPTY_BOARD && ((whiteQueens | whiteBishops) &
             kingDb.getBishopMoveSet(allNonBlackOccupiedTemp, allOccupiedTemp)) == Bitboard.EMPTY_BOARD) {
-          moves.add(new Move(from, to, Piece.B_PAWN.ind, Piece.W_PAWN.ind,
-              MoveType.EN_PASSANT.ind));
+          moves.add(from, to, Piece.B_PAWN.ind, Piece.W_PAWN.ind,
+              MoveType.EN_PASSANT.ind);
         }
         pieces = BitOperations.resetLSBit(pieces);
       } while (pieces != Bitboard.EMPTY_BOARD);
     }
   }
 
-  private static void addPromotionMoves(byte from, byte to, byte movedPiece, byte capturedPiece, List<Move> moves) {
-    moves.add(new Move(from, to, movedPiece, capturedPiece, MoveType.PROMOTION_TO_QUEEN.ind));
-    moves.add(new Move(from, to, movedPiece, capturedPiece, MoveType.PROMOTION_TO_ROOK.ind));
-    moves.add(new Move(from, to, movedPiece, capturedPiece, MoveType.PROMOTION_TO_BISHOP.ind));
-    moves.add(new Move(from, to, movedPiece, capturedPiece, MoveType.PROMOTION_TO_KNIGHT.ind));
+  private static void addPromotionMoves(byte from, byte to, byte movedPiece, byte capturedPiece, MoveList moves) {
+    moves.add(from, to, movedPiece, capturedPiece, MoveType.PROMOTION_TO_QUEEN.ind);
+    moves.add(from, to, movedPiece, capturedPiece, MoveType.PROMOTION_TO_ROOK.ind);
+    moves.add(from, to, movedPiece, capturedPiece, MoveType.PROMOTION_TO_BISHOP.ind);
+    moves.add(from, to, movedPiece, capturedPiece, MoveType.PROMOTION_TO_KNIGHT.ind);
   }
 
-  private void addWhitePawnPromotionMoves(long movablePieces, long targets, List<Move> moves) {
+  private void addWhitePawnPromotionMoves(long movablePieces, long targets, MoveList moves) {
     long pieces = whitePawns & movablePieces & Bitboard.Rank.R7.bitboard;
     while (pieces != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfLSBit(pieces);
@@ -2044,7 +2427,7 @@ public class Position {
     }
   }
 
-  private void addBlackPawnPromotionMoves(long movablePieces, long targets, List<Move> moves) {
+  private void addBlackPawnPromotionMoves(long movablePieces, long targets, MoveList moves) {
     long pieces = blackPawns & movablePieces & Bitboard.Rank.R2.bitboard;
     while (pieces != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfLSBit(pieces);
@@ -2058,9 +2441,10 @@ public class Position {
     }
   }
 
-  private void addWhiteTacticalMoves(List<Move> moves) {
+  private void addWhiteTacticalMoves(MoveList moves) {
     byte kingInd = BitOperations.indexOfBit(whiteKing);
-    long movablePieces = ~addWhiteTacticalPinnedPieceMovesAndGetPinnedPieces(kingInd, moves);
+    long movablePieces = getWhitePinnedPieces() == Bitboard.EMPTY_BOARD ? Bitboard.FULL_BOARD :
+        ~addWhiteTacticalPinnedPieceMovesAndGetPinnedPieces(kingInd, moves);
     addWhitePawnPromotionMoves(movablePieces, Bitboard.FULL_BOARD, moves);
     addWhitePawnEnPassantMoves(movablePieces, kingInd, moves);
     addWhitePawnNormalMoves(movablePieces, allBlackOccupied, Bitboard.EMPTY_BOARD, moves);
@@ -2071,9 +2455,10 @@ public class Position {
     addWhiteKingNormalMoves(kingInd, allBlackOccupied, moves);
   }
 
-  private void addBlackTacticalMoves(List<Move> moves) {
+  private void addBlackTacticalMoves(MoveList moves) {
     byte kingInd = BitOperations.indexOfBit(blackKing);
-    long movablePieces = ~addBlackTacticalPinnedPieceMovesAndGetPinnedPieces(kingInd, moves);
+    long movablePieces = getBlackPinnedPieces() == Bitboard.EMPTY_BOARD ? Bitboard.FULL_BOARD :
+        ~addBlackTacticalPinnedPieceMovesAndGetPinnedPieces(kingInd, moves);
     addBlackPawnPromotionMoves(movablePieces, Bitboard.FULL_BOARD, moves);
     addBlackPawnEnPassantMoves(movablePieces, kingInd, moves);
     addBlackPawnNormalMoves(movablePieces, allWhiteOccupied, Bitboard.EMPTY_BOARD, moves);
@@ -2084,10 +2469,10 @@ public class Position {
     addBlackKingNormalMoves(kingInd, allWhiteOccupied, moves);
   }
 
-  private void addNormalMovesToDestination(byte to, byte capturedPiece, long pieces, List<Move> moves) {
+  private void addNormalMovesToDestination(byte to, byte capturedPiece, long pieces, MoveList moves) {
     while (pieces != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfLSBit(pieces);
-      moves.add(new Move(from, to, squares[from], capturedPiece, MoveType.NORMAL.ind));
+      moves.add(from, to, squares[from], capturedPiece, MoveType.NORMAL.ind);
       pieces = BitOperations.resetLSBit(pieces);
     }
   }
@@ -2111,7 +2496,7 @@ public class Position {
     return kingAllowedTargets;
   }
 
-  private void addWhiteTacticalCheckEvasionMoves(List<Move> moves) {
+  private void addWhiteTacticalCheckEvasionMoves(MoveList moves) {
     byte kingInd = BitOperations.indexOfBit(whiteKing);
     long checker1 = BitOperations.getLSBit(checkers);
     byte checker1Ind = BitOperations.indexOfBit(checker1);
@@ -2121,8 +2506,7 @@ public class Position {
         whiteKing, allNonWhiteOccupied);
     if (checkersTemp == Bitboard.EMPTY_BOARD) {
       long checkLine = Bitboard.getLineSegment(checker1Ind, kingInd);
-      long movablePieces = ~Bitboard.getPinnedPieces(kingInd, blackQueens | blackRooks, blackQueens | blackBishops,
-          allOccupied, allWhiteOccupied);
+      long movablePieces = ~getWhitePinnedPieces();
       long attackers = getWhiteCheckers(checker1Ind);
       /* The intersection of the last rank and the check line can only be non-empty if the checker truly is a
        * sliding piece (rook or queen) and thus there really is a check line. */
@@ -2146,7 +2530,7 @@ public class Position {
     addWhiteKingNormalMoves(kingInd, allBlackOccupied & kingAllowedTargets, moves);
   }
 
-  private void addBlackTacticalCheckEvasionMoves(List<Move> moves) {
+  private void addBlackTacticalCheckEvasionMoves(MoveList moves) {
     byte kingInd = BitOperations.indexOfBit(blackKing);
     long checker1 = BitOperations.getLSBit(checkers);
     byte checker1Ind = BitOperations.indexOfBit(checker1);
@@ -2156,8 +2540,7 @@ public class Position {
         blackKing, allNonBlackOccupied);
     if (checkersTemp == Bitboard.EMPTY_BOARD) {
       long checkLine = Bitboard.getLineSegment(checker1Ind, kingInd);
-      long movablePieces = ~Bitboard.getPinnedPieces(kingInd, whiteQueens | whiteRooks, whiteQueens | whiteBishops,
-          allOccupied, allBlackOccupied);
+      long movablePieces = ~getBlackPinnedPieces();
       long attackers = getBlackCheckers(checker1Ind);
       long lastRankCheckLine = (Bitboard.Rank.R1.bitboard & checkLine);
       addBlackPawnPromotionMoves(Bitboard.computeWhitePawnAdvanceSets(lastRankCheckLine, movablePieces) |
@@ -2185,7 +2568,18 @@ public class Position {
    * @return A list of all the legal tactical moves.
    */
   public List<Move> getTacticalMoves() {
-    List<Move> moves = new LinkedList<>();
+    MoveList moves = new MoveList();
+    getTacticalMoves(moves);
+    return moves.toList();
+  }
+
+  /**
+   * Adds all the legal tactical moves in the current position to the end of the move list. Unlike {@link #getTacticalMoves()}, it does not
+   * allocate any objects.
+   *
+   * @param moves The list to add the moves to.
+   */
+  public void getTacticalMoves(MoveList moves) {
     if (whitesTurn) {
       if (inCheck) {
         addWhiteTacticalCheckEvasionMoves(moves);
@@ -2199,11 +2593,10 @@ public class Position {
         addBlackTacticalMoves(moves);
       }
     }
-    return moves;
   }
 
   private long addQuietPinnedPieceMoveAndGetPinnedPiece(byte kingInd, long pinnedPiece, long pinningPiece,
-      byte queenType, byte secondarySliderType, List<Move> moves) {
+      byte queenType, byte secondarySliderType, MoveList moves) {
     if (pinningPiece != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfBit(pinnedPiece);
       byte pinnedPieceType = squares[from];
@@ -2217,7 +2610,7 @@ public class Position {
   }
 
   private long addQuietPositivePinnedPieceMoveAndGetPinnedPiece(byte kingInd, long rayOccupancy,
-      long allSameColorOccupied, long sliders, byte queenType, byte secondarySliderType, List<Move> moves) {
+      long allSameColorOccupied, long sliders, byte queenType, byte secondarySliderType, MoveList moves) {
     long pinnedPiece = BitOperations.getLSBit(rayOccupancy) & allSameColorOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
       return addQuietPinnedPieceMoveAndGetPinnedPiece(kingInd, pinnedPiece,
@@ -2228,7 +2621,7 @@ public class Position {
   }
 
   private long addQuietNegativePinnedPieceMoveAndGetPinnedPiece(byte kingInd, long rayOccupancy,
-      long allSameColorOccupied, long sliders, byte queenType, byte secondarySliderType, List<Move> moves) {
+      long allSameColorOccupied, long sliders, byte queenType, byte secondarySliderType, MoveList moves) {
     long pinnedPiece = BitOperations.getMSBit(rayOccupancy) & allSameColorOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
       return addQuietPinnedPieceMoveAndGetPinnedPiece(kingInd, pinnedPiece,
@@ -2239,7 +2632,7 @@ public class Position {
   }
 
   private long addWhiteQuietFilePinnedPieceMoveAndGetPinnedPiece(byte kingInd, long pinnedPiece, long pinningPiece,
-      List<Move> moves) {
+      MoveList moves) {
     if (pinningPiece != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfBit(pinnedPiece);
       byte pinnedPieceType = squares[from];
@@ -2256,7 +2649,7 @@ public class Position {
   }
 
   private long addBlackQuietFilePinnedPieceMoveAndGetPinnedPiece(byte kingInd, long pinnedPiece, long pinningPiece,
-      List<Move> moves) {
+      MoveList moves) {
     if (pinningPiece != Bitboard.EMPTY_BOARD) {
       byte from = BitOperations.indexOfBit(pinnedPiece);
       byte pinnedPieceType = squares[from];
@@ -2273,7 +2666,7 @@ public class Position {
   }
 
   private long addWhiteQuietFilePositivePinnedPieceMoveAndGetPinnedPiece(byte kingInd, long rayOccupancy,
-      long allSameColorOccupied, long sliders, List<Move> moves) {
+      long allSameColorOccupied, long sliders, MoveList moves) {
     long pinnedPiece = BitOperations.getLSBit(rayOccupancy) & allSameColorOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
       return addWhiteQuietFilePinnedPieceMoveAndGetPinnedPiece(kingInd, pinnedPiece,
@@ -2283,7 +2676,7 @@ public class Position {
   }
 
   private long addBlackQuietFilePositivePinnedPieceMoveAndGetPinnedPiece(byte kingInd, long rayOccupancy,
-      long allSameColorOccupied, long sliders, List<Move> moves) {
+      long allSameColorOccupied, long sliders, MoveList moves) {
     long pinnedPiece = BitOperations.getLSBit(rayOccupancy) & allSameColorOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
       return addBlackQuietFilePinnedPieceMoveAndGetPinnedPiece(kingInd, pinnedPiece,
@@ -2293,7 +2686,7 @@ public class Position {
   }
 
   private long addWhiteQuietFileNegativePinnedPieceMoveAndGetPinnedPiece(byte kingInd, long rayOccupancy,
-      long allSameColorOccupied, long sliders, List<Move> moves) {
+      long allSameColorOccupied, long sliders, MoveList moves) {
     long pinnedPiece = BitOperations.getMSBit(rayOccupancy) & allSameColorOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
       return addWhiteQuietFilePinnedPieceMoveAndGetPinnedPiece(kingInd, pinnedPiece,
@@ -2303,7 +2696,7 @@ public class Position {
   }
 
   private long addBlackQuietFileNegativePinnedPieceMoveAndGetPinnedPiece(byte kingInd, long rayOccupancy,
-      long allSameColorOccupied, long sliders, List<Move> moves) {
+      long allSameColorOccupied, long sliders, MoveList moves) {
     long pinnedPiece = BitOperations.getMSBit(rayOccupancy) & allSameColorOccupied;
     if (pinnedPiece != Bitboard.EMPTY_BOARD) {
       return addBlackQuietFilePinnedPieceMoveAndGetPinnedPiece(kingInd, pinnedPiece,
@@ -2312,7 +2705,7 @@ public class Position {
     return Bitboard.EMPTY_BOARD;
   }
 
-  private long addWhiteQuietPinnedPieceMovesAndGetPinnedPieces(byte kingInd, List<Move> moves) {
+  private long addWhiteQuietPinnedPieceMovesAndGetPinnedPieces(byte kingInd, MoveList moves) {
     Bitboard.Rays rays = Bitboard.Rays.values()[kingInd];
     long straightSliders = blackQueens | blackRooks;
     long diagonalSliders = blackQueens | blackBishops;
@@ -2335,7 +2728,7 @@ public class Position {
     return pinnedPieces;
   }
 
-  private long addBlackQuietPinnedPieceMovesAndGetPinnedPieces(byte kingInd, List<Move> moves) {
+  private long addBlackQuietPinnedPieceMovesAndGetPinnedPieces(byte kingInd, MoveList moves) {
     Bitboard.Rays rays = Bitboard.Rays.values()[kingInd];
     long straightSliders = whiteQueens | whiteRooks;
     long diagonalSliders = whiteQueens | whiteBishops;
@@ -2358,9 +2751,10 @@ public class Position {
     return pinnedPieces;
   }
 
-  private void addWhiteQuietMoves(List<Move> moves) {
+  private void addWhiteQuietMoves(MoveList moves) {
     byte kingInd = BitOperations.indexOfBit(whiteKing);
-    long movablePieces = ~addWhiteQuietPinnedPieceMovesAndGetPinnedPieces(kingInd, moves);
+    long movablePieces = getWhitePinnedPieces() == Bitboard.EMPTY_BOARD ? Bitboard.FULL_BOARD :
+        ~addWhiteQuietPinnedPieceMovesAndGetPinnedPieces(kingInd, moves);
     addWhitePawnNormalMoves(movablePieces, Bitboard.EMPTY_BOARD, allEmpty, moves);
     addKnightMoves(Piece.W_KNIGHT.ind, whiteKnights & movablePieces, allEmpty, moves);
     addBishopMoves(Piece.W_BISHOP.ind, whiteBishops & movablePieces, allEmpty, moves);
@@ -2370,9 +2764,10 @@ public class Position {
     addWhiteKingNormalMoves(kingInd, allEmpty, moves);
   }
 
-  private void addBlackQuietMoves(List<Move> moves) {
+  private void addBlackQuietMoves(MoveList moves) {
     byte kingInd = BitOperations.indexOfBit(blackKing);
-    long movablePieces = ~addBlackQuietPinnedPieceMovesAndGetPinnedPieces(kingInd, moves);
+    long movablePieces = getBlackPinnedPieces() == Bitboard.EMPTY_BOARD ? Bitboard.FULL_BOARD :
+        ~addBlackQuietPinnedPieceMovesAndGetPinnedPieces(kingInd, moves);
     addBlackPawnNormalMoves(movablePieces, Bitboard.EMPTY_BOARD, allEmpty, moves);
     addKnightMoves(Piece.B_KNIGHT.ind, blackKnights & movablePieces, allEmpty, moves);
     addBishopMoves(Piece.B_BISHOP.ind, blackBishops & movablePieces, allEmpty, moves);
@@ -2410,7 +2805,7 @@ public class Position {
     return pushers;
   }
 
-  private void addWhiteQuietCheckEvasionMoves(List<Move> moves) {
+  private void addWhiteQuietCheckEvasionMoves(MoveList moves) {
     byte kingInd = BitOperations.indexOfBit(whiteKing);
     long checker1 = BitOperations.getLSBit(checkers);
     byte checker1Ind = BitOperations.indexOfBit(checker1);
@@ -2424,8 +2819,7 @@ public class Position {
       if (((straightSliders | diagonalSliders) & checker1) != Bitboard.EMPTY_BOARD) {
         long checkLine1 = Bitboard.getLineSegment(checker1Ind, kingInd);
         if (checkLine1 != Bitboard.EMPTY_BOARD) {
-          long movablePieces = ~Bitboard.getPinnedPieces(kingInd, straightSliders, diagonalSliders, allOccupied,
-              allWhiteOccupied) & ~(whitePawns & Bitboard.Rank.R7.bitboard);
+          long movablePieces = ~getWhitePinnedPieces() & ~(whitePawns & Bitboard.Rank.R7.bitboard);
           long checkLinesTemp = checkLine1;
           while (checkLinesTemp != Bitboard.EMPTY_BOARD) {
             byte to = BitOperations.indexOfLSBit(checkLinesTemp);
@@ -2443,7 +2837,7 @@ public class Position {
     addWhiteKingNormalMoves(kingInd, allEmpty & kingAllowedTargets, moves);
   }
 
-  private void addBlackQuietCheckEvasionMoves(List<Move> moves) {
+  private void addBlackQuietCheckEvasionMoves(MoveList moves) {
     byte kingInd = BitOperations.indexOfBit(blackKing);
     long checker1 = BitOperations.getLSBit(checkers);
     byte checker1Ind = BitOperations.indexOfBit(checker1);
@@ -2457,8 +2851,7 @@ public class Position {
       if (((straightSliders | diagonalSliders) & checker1) != Bitboard.EMPTY_BOARD) {
         long checkLine1 = Bitboard.getLineSegment(checker1Ind, kingInd);
         if (checkLine1 != Bitboard.EMPTY_BOARD) {
-          long movablePieces = ~Bitboard.getPinnedPieces(kingInd, straightSliders, diagonalSliders, allOccupied,
-              allBlackOccupied) & ~(blackPawns & Bitboard.Rank.R2.bitboard);
+          long movablePieces = ~getBlackPinnedPieces() & ~(blackPawns & Bitboard.Rank.R2.bitboard);
           long checkLinesTemp = checkLine1;
           while (checkLinesTemp != Bitboard.EMPTY_BOARD) {
             byte to = BitOperations.indexOfLSBit(checkLinesTemp);
@@ -2482,7 +2875,18 @@ public class Position {
    * @return A list of all the legal quiet moves.
    */
   public List<Move> getQuietMoves() {
-    List<Move> moves = new LinkedList<>();
+    MoveList moves = new MoveList();
+    getQuietMoves(moves);
+    return moves.toList();
+  }
+
+  /**
+   * Adds all the legal quiet moves in the current position to the end of the move list. Unlike {@link #getQuietMoves()}, it does not
+   * allocate any objects.
+   *
+   * @param moves The list to add the moves to.
+   */
+  public void getQuietMoves(MoveList moves) {
     if (whitesTurn) {
       if (inCheck) {
         addWhiteQuietCheckEvasionMoves(moves);
@@ -2496,7 +2900,6 @@ public class Position {
         addBlackQuietMoves(moves);
       }
     }
-    return moves;
   }
 
   /**
@@ -2505,7 +2908,18 @@ public class Position {
    * @return A list of all the legal moves.
    */
   public List<Move> getMoves() {
-    List<Move> moves = new LinkedList<>();
+    MoveList moves = new MoveList();
+    getMoves(moves);
+    return moves.toList();
+  }
+
+  /**
+   * Adds all the legal moves in the current position to the end of the move list. Unlike {@link #getMoves()}, it does not allocate any
+   * objects.
+   *
+   * @param moves The list to add the moves to.
+   */
+  public void getMoves(MoveList moves) {
     if (whitesTurn) {
       if (inCheck) {
         addWhiteTacticalCheckEvasionMoves(moves);
@@ -2523,7 +2937,6 @@ public class Position {
         addBlackQuietMoves(moves);
       }
     }
-    return moves;
   }
 
   @Override
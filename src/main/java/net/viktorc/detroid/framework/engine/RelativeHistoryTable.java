@@ -1,5 +1,6 @@
 package net.viktorc.detroid.framework.engine;
 
+import java.util.Arrays;
 import net.viktorc.detroid.framework.engine.Bitboard.Square;
 
 /**
@@ -36,8 +37,17 @@ public class RelativeHistoryTable {
    * @param m The move that caused the cut-off.
    */
   public void recordSuccessfulMove(Move m) {
-    byte movedPiece = m.movedPiece;
-    byte to = m.to;
+    recordSuccessfulMove(m.toInt());
+  }
+
+  /**
+   * If a move causes a cut-off, this method updates the relative history table accordingly.
+   *
+   * @param m The move that caused the cut-off encoded as an integer (see {@link Move#toInt()}).
+   */
+  public void recordSuccessfulMove(int m) {
+    byte movedPiece = Move.getMovedPiece(m);
+    byte to = Move.getTo(m);
     historyT[movedPiece][to]++;
     butterflyT[movedPiece][to]++;
   }
@@ -48,7 +58,16 @@ public class RelativeHistoryTable {
    * @param m The move that did not cause a cut-off.
    */
   public void recordUnsuccessfulMove(Move m) {
-    butterflyT[m.movedPiece][m.to]++;
+    recordUnsuccessfulMove(m.toInt());
+  }
+
+  /**
+   * If a move does not cause a cut-off, this method updates the relative history table accordingly.
+   *
+   * @param m The move that did not cause a cut-off encoded as an integer (see {@link Move#toInt()}).
+   */
+  public void recordUnsuccessfulMove(int m) {
+    butterflyT[Move.getMovedPiece(m)][Move.getTo(m)]++;
   }
 
   /**
@@ -59,10 +78,44 @@ public class RelativeHistoryTable {
    * from-to tables.
    */
   public short score(Move m) {
-    byte movedPiece = m.movedPiece;
-    byte to = m.to;
+    return score(m.toInt());
+  }
+
+  /**
+   * Returns the relative history heuristic score for the move parameter.
+   *
+   * @param m The move to be scored encoded as an integer (see {@link Move#toInt()}).
+   * @return The relative history heuristic score for the move according to the cut-off to occurence ratio of the associated entries in the
+   * from-to tables.
+   */
+  public short score(int m) {
+    byte movedPiece = Move.getMovedPiece(m);
+    byte to = Move.getTo(m);
     long bTscore = butterflyT[movedPiece][to];
     return bTscore != 0 ? (short) (maxScore * historyT[movedPiece][to] / bTscore) : 0;
   }
 
+  /**
+   * Halves the counts of both tables so that the moves recorded in later searches carry more weight than the ones recorded in earlier
+   * searches while the relative scores remain approximately the same.
+   */
+  public void decay() {
+    for (int i = 0; i < historyT.length; i++) {
+      for (int j = 0; j < historyT[i].length; j++) {
+        historyT[i][j] >>>= 1;
+        butterflyT[i][j] >>>= 1;
+      }
+    }
+  }
+
+  /**
+   * Resets the counts of both tables to zero.
+   */
+  public void clear() {
+    for (int i = 0; i < historyT.length; i++) {
+      Arrays.fill(historyT[i], 0);
+      Arrays.fill(butterflyT[i], 0);
+    }
+  }
+
 }
@@ -13,18 +13,14 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import net.viktorc.detroid.framework.engine.EndGameTableBase.DTM;
 import net.viktorc.detroid.framework.engine.EndGameTableBase.EGTBStats;
-import net.viktorc.detroid.framework.engine.KillerTable.KTEntry;
 import net.viktorc.detroid.framework.uci.ScoreType;
 import net.viktorc.detroid.framework.uci.SearchResults;
 import net.viktorc.detroid.framework.util.BitOperations;
-import net.viktorc.detroid.framework.util.Cache;
-import net.viktorc.detroid.framework.util.QuickSort;
 
 /**
  * A chess game tree search based on the PVS algorithm supported by a transposition table within an iterative deepening framework with
@@ -44,10 +40,27 @@ public class Search implements Runnable, Future<SearchResults> {
    * The maximum nominal base search depth.
    */
   private static final byte MAX_NOMINAL_SEARCH_DEPTH = 64;
+  /**
+   * The maximum distance from the root position in plies at which killer moves are recorded.
+   */
+  static final int MAX_KILLER_MOVE_DIST_FROM_ROOT = 2 * MAX_NOMINAL_SEARCH_DEPTH;
   /**
    * The number of ply fractions that make up a full ply.
    */
   private static final byte FULL_PLY = 8;
+  /**
+   * The number of nodes a thread searches between two checks of the total number of nodes searched by all threads when running on
+   * multiple threads. It has to be a power of two.
+   */
+  private static final int NODE_LIMIT_CHECK_INTERVAL = 1 << 10;
+  /**
+   * The sizes of the blocks of consecutive depths Lazy SMP helper threads search or skip, indexed by the index of the helper thread.
+   */
+  private static final int[] LAZY_SMP_SKIP_SIZES = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+  /**
+   * The offsets of the depth blocks of the Lazy SMP helper threads indexed by the index of the helper thread.
+   */
+  private static final int[] LAZY_SMP_SKIP_PHASES = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
 
   private final Position rootPos;
   private final DetroidParameters params;
@@ -56,9 +69,13 @@ public class Search implements Runnable, Future<SearchResults> {
   private final boolean useEgtb;
   private final Set<Integer> availableEgtbs;
   private final DetroidSearchInformation info;
-  private final Cache<TTEntry> transTable;
+  private final TranspositionTable transTable;
   private final byte hashEntryGen;
+  private final SearchThreadState[] threadStates;
+  private final ExecutorService helperExecutor;
   private final int numOfHelperThreads;
+  private final boolean lazySmp;
+  private final boolean useBusyFlags;
   private final boolean analysisMode;
   private final boolean ponder;
   private final long maxNodes;
@@ -68,11 +85,10 @@ public class Search implements Runnable, Future<SearchResults> {
   private final int maxExpectedSearchDepth;
   private final int lCheckMateLimit, wCheckMateLimit;
   private final Object rootLock;
-  private ExecutorService executor;
   private Long startTime;
-  private SearchStats searchStats;
+  private SearchStats[] threadStats;
   private CountDownLatch latch;
-  private List<Move> rootMoves;
+  private volatile List<Move> rootMoves;
   private Map<Move, AtomicLong> movesToNodes;
   private volatile int selDepth;
   private volatile boolean isDone;
@@ -88,7 +104,11 @@ public class Search implements Runnable, Future<SearchResults> {
    * @param eval The evaluator object.
    * @param egtb The endgame tablebase object to use.
    * @param info The object to update with search information.
-   * @param numOfSearchThreads The number of search threads to use.
+   * @param threadStates The states of the search threads to use; the first one belongs to the main search thread and the rest to the
+   * helper threads. They are prepared for the search by the caller.
+   * @param helperExecutor The executor to run the helper search threads on. It has to be able to run as many tasks concurrently as the
+   * number of helper threads. If there are no helper threads, it may be <code>null</code>.
+   * @param parallelScheme The way the search threads share the work.
    * @param transTable The transposition table to use.
    * @param hashEntryGen The current hash entry generation.
    * @param analysisMode Whether the search is to be run in analysis mode (e.g. no EGTB moves and even single response root positions are
@@ -99,8 +119,8 @@ public class Search implements Runnable, Future<SearchResults> {
    * @param moves The only moves from the root position that should be searched. If it is <code>null</code>, all moves are to be searched.
    */
   public Search(Position pos, DetroidParameters params, Evaluator eval, EndGameTableBase egtb, DetroidSearchInformation info,
-      int numOfSearchThreads, Cache<TTEntry> transTable, byte hashEntryGen, boolean analysisMode, boolean ponder, int maxDepth,
-      long maxNodes, Set<Move> moves) {
+      SearchThreadState[] threadStates, ExecutorService helperExecutor, ParallelScheme parallelScheme, TranspositionTable transTable,
+      byte hashEntryGen, boolean analysisMode, boolean ponder, int maxDepth, long maxNodes, Set<Move> moves) {
     this.params = params;
     this.info = info;
     this.eval = eval;
@@ -136,30 +156,74 @@ public class Search implements Runnable, Future<SearchResults> {
     wCheckMateLimit = -lCheckMateLimit;
     this.transTable = transTable;
     this.hashEntryGen = hashEntryGen;
-    this.numOfHelperThreads = this.maxNominalDepth > 1 ? numOfSearchThreads - 1 : 0;
+    this.threadStates = threadStates;
+    this.helperExecutor = helperExecutor;
+    this.numOfHelperThreads = this.maxNominalDepth > 1 ? threadStates.length - 1 : 0;
+    lazySmp = parallelScheme == ParallelScheme.LAZY_SMP;
+    useBusyFlags = numOfHelperThreads > 0 && !lazySmp;
     rootLock = new Object();
   }
 
   private long getTotalNodes() {
-    return searchStats.mainNodes.get() + searchStats.quiescenceNodes.get();
+    long nodes = 0;
+    for (SearchStats stats : threadStats) {
+      nodes += stats.getNodes();
+    }
+    return nodes;
+  }
+
+  private SearchStats getTotalStats() {
+    SearchStats totalStats = new SearchStats();
+    for (SearchStats stats : threadStats) {
+      totalStats.add(stats);
+    }
+    return totalStats;
   }
 
   private List<Move> extractPv(Position position, int ply) {
     List<Move> pv = new ArrayList<>();
-    TTEntry e;
+    TTEntry e = new TTEntry();
     int i = 0;
-    while ((e = transTable.get(position.getKey())) != null && e.getBestMove() != 0 && i < ply) {
+    while (i < ply && transTable.get(position.getKey(), e) && e.getBestMove() != 0) {
       Move bestMove = Move.toMove(e.getBestMove());
       position.makeMove(bestMove);
       pv.add(bestMove);
       i++;
     }
     for (int k = 0; k < i; k++) {
-      position.unmakeMove();
+      position.unmakeMoveAsInt();
     }
     return pv;
   }
 
+  /**
+   * Requests the endgame tablebase to prefetch the data of the first position along the principal variation that has few enough pieces on
+   * the board to be covered by the available tablebases.
+   *
+   * @param ply The maximum length of the principal variation to check.
+   */
+  private void prefetchEgtb(int ply) {
+    if (!useEgtb) {
+      return;
+    }
+    List<Move> pv = extractPv(rootPos, ply);
+    int i = 0;
+    for (; ; i++) {
+      int numOfPieces = BitOperations.hammingWeight(rootPos.getAllOccupied());
+      if (numOfPieces <= EndGameTableBase.MAX_NUMBER_OF_PIECES && availableEgtbs.contains(numOfPieces)) {
+        egtb.prefetch(rootPos);
+        break;
+      }
+      if (i == pv.size()) {
+        break;
+      }
+      rootPos.makeMove(pv.get(i));
+    }
+    for (int k = 0; k < i; k++) {
+      rootPos.unmakeMoveAsInt();
+    }
+  }
+
   private Entry<Short, ScoreType> adjustExactScore(int score) {
     int resultScore;
     ScoreType scoreType;
@@ -196,15 +260,16 @@ public class Search implements Runnable, Future<SearchResults> {
     long egtbHits = 0;
     String statInfo = null;
     if (analysisMode) {
-      statInfo = searchStats.toString();
+      statInfo = getTotalStats().toString();
     }
     if (useEgtb) {
       EGTBStats egtbStats = egtb.getStats();
-      egtbHits += egtbStats.getTotalDriveHits() + egtbStats.getTotalCacheHits();
+      egtbHits += egtbStats.getTotalDriveHits() + egtbStats.getTotalCacheHits() + egtbStats.getTotalResultCacheHits();
       if (analysisMode) {
-        statInfo += String.format(" egtb_hp %d egtb_sp %d egtb_chits %d egtb_dhits %d",
-            egtbStats.getTotalHardProbes(), egtbStats.getTotalSoftProbes(), egtbStats.getTotalCacheHits(),
-            egtbStats.getTotalDriveHits());
+        statInfo += String.format(" egtb_hp %d egtb_sp %d egtb_chits %d egtb_dhits %d egtb_rchits %d egtb_rcmisses %d " +
+                "egtb_lcalls %d egtb_lcall_ns %d", egtbStats.getTotalHardProbes(), egtbStats.getTotalSoftProbes(),
+            egtbStats.getTotalCacheHits(), egtbStats.getTotalDriveHits(), egtbStats.getTotalResultCacheHits(),
+            egtbStats.getTotalResultCacheMisses(), egtbStats.getTotalLibraryCalls(), egtbStats.getAverageLibraryCallTime());
       }
     }
     // Update stats.
@@ -215,14 +280,24 @@ public class Search implements Runnable, Future<SearchResults> {
     }
   }
 
+  private void stopHelperThreads(List<SearchThread> slaveThreads) {
+    for (SearchThread t : slaveThreads) {
+      t.stop();
+    }
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      doStopSearch = true;
+    }
+  }
+
   private SearchResults iterativeDeepening() {
     selDepth = 0;
     doStopSearch = false;
-    searchStats = new SearchStats();
     List<SearchThread> slaveThreads = null;
     int alpha = Score.MIN.value;
     int beta = Score.MAX.value;
-    SearchThread masterThread = new SearchThread(rootPos, null);
+    SearchThread masterThread = new SearchThread(rootPos, null, threadStates[0]);
     rootMoves = areMovesRestricted ? allowedRootMoves : rootPos.getMoves();
     movesToNodes = new HashMap<>();
     for (Move m : rootMoves) {
@@ -231,84 +306,111 @@ public class Search implements Runnable, Future<SearchResults> {
     if (numOfHelperThreads > 0) {
       slaveThreads = new ArrayList<>();
       for (int i = 0; i < numOfHelperThreads; i++) {
-        slaveThreads.add(new SearchThread(new Position(rootPos), masterThread));
+        slaveThreads.add(new SearchThread(new Position(rootPos), masterThread, threadStates[i + 1]));
       }
     }
+    threadStats = new SearchStats[numOfHelperThreads + 1];
+    threadStats[0] = masterThread.stats;
+    for (int i = 0; i < numOfHelperThreads; i++) {
+      threadStats[i + 1] = slaveThreads.get(i).stats;
+    }
+    prefetchEgtb(0);
     // The number of consecutive fail-highs/fail-lows.
     int failHigh = 0;
     int failLow = 0;
     // Iterative deepening.
     int score;
     short ply;
-    for (ply = INITIAL_DEPTH; ; ply++) {
-      // Sort moves...
-      if (ply == INITIAL_DEPTH) { // First iteration based on SEE.
-        rootMoves = new ArrayList<>(Arrays.asList(masterThread.orderMaterialMovesSEE(rootPos, rootMoves)));
-      } else { // Subsequent iterations based on cumulative subtree sizes.
-        rootMoves.sort((m1, m2) -> (int) (movesToNodes.get(m2).get() - movesToNodes.get(m1).get()));
-      }
-      masterThread.setPly(ply);
-      masterThread.setBounds(alpha, beta);
-      // Launch helper threads.
-      if (numOfHelperThreads > 0 && ply != INITIAL_DEPTH) {
-        latch = new CountDownLatch(numOfHelperThreads);
-        boolean odd = true;
-        for (int j = 0; j < slaveThreads.size(); j++, odd = !odd) {
-          SearchThread slaveThread = slaveThreads.get(j);
-          slaveThread.setPly((short) (odd && ply < maxNominalDepth ? ply + 1 : ply));
-          slaveThread.setBounds(alpha, beta);
-          executor.submit(slaveThread);
+    latch = null;
+    try {
+      for (ply = INITIAL_DEPTH; ; ply++) {
+        // Sort moves...
+        if (ply == INITIAL_DEPTH) { // First iteration based on SEE.
+          MoveList rootMoveList = new MoveList();
+          for (Move move : rootMoves) {
+            rootMoveList.add(move.toInt());
+          }
+          masterThread.orderMaterialMovesSEE(rootPos, rootMoveList);
+          rootMoves = rootMoveList.toList();
+        } else { // Subsequent iterations based on cumulative subtree sizes.
+          // Sort a copy as Lazy SMP helper threads may be reading the list concurrently.
+          List<Move> sortedRootMoves = new ArrayList<>(rootMoves);
+          sortedRootMoves.sort((m1, m2) -> (int) (movesToNodes.get(m2).get() - movesToNodes.get(m1).get()));
+          rootMoves = sortedRootMoves;
         }
-      }
-      // Launch the master thread.
-      score = masterThread.call();
-      // Interrupt the helpers thread and wait for them to terminate.
-      if (numOfHelperThreads > 0 && ply != INITIAL_DEPTH) {
-        for (SearchThread t : slaveThreads) {
-          t.stop();
+        masterThread.setPly(ply);
+        masterThread.setBounds(alpha, beta);
+        masterThread.clearStopSignal();
+        // Launch the Lazy SMP helper threads once the root moves have been ordered.
+        if (lazySmp && numOfHelperThreads > 0 && ply == INITIAL_DEPTH + 1 && latch == null) {
+          latch = new CountDownLatch(numOfHelperThreads);
+          for (int j = 0; j < slaveThreads.size(); j++) {
+            SearchThread slaveThread = slaveThreads.get(j);
+            int helperInd = j % LAZY_SMP_SKIP_SIZES.length;
+            helperExecutor.submit(() -> slaveThread.iterativeDeepening(LAZY_SMP_SKIP_SIZES[helperInd], LAZY_SMP_SKIP_PHASES[helperInd]));
+          }
         }
-        try {
-          latch.await();
-        } catch (InterruptedException e) {
-          doStopSearch = true;
+        // Launch helper threads.
+        if (!lazySmp && numOfHelperThreads > 0 && ply != INITIAL_DEPTH) {
+          latch = new CountDownLatch(numOfHelperThreads);
+          boolean odd = true;
+          for (int j = 0; j < slaveThreads.size(); j++, odd = !odd) {
+            SearchThread slaveThread = slaveThreads.get(j);
+            slaveThread.setPly((short) (odd && ply < maxNominalDepth ? ply + 1 : ply));
+            slaveThread.setBounds(alpha, beta);
+            slaveThread.clearStopSignal();
+            helperExecutor.submit(slaveThread);
+          }
         }
-      }
-      // Let the engine know that the search at the current ply has completed.
-      synchronized (this) {
-        notifyAll();
-      }
-      if (doStopSearch || ply == maxNominalDepth || score == Score.NULL.value) {
-        break;
-      }
-      // Aspiration windows with gradual widening.
-      if (score <= alpha) {
-        if (score <= lCheckMateLimit) {
-          alpha = Score.MIN.value;
-          failLow = 2;
-        } else {
-          alpha = failLow <= 1 ? Math.max(score - params.aspirationDelta, Score.MIN.value) : Score.MIN.value;
-          failLow++;
+        // Launch the master thread.
+        score = masterThread.call();
+        // Interrupt the helpers thread and wait for them to terminate.
+        if (!lazySmp && numOfHelperThreads > 0 && ply != INITIAL_DEPTH) {
+          stopHelperThreads(slaveThreads);
         }
-        ply--;
-      } else if (score >= beta) {
-        if (score >= wCheckMateLimit) {
-          beta = Score.MAX.value;
-          failHigh = 2;
+        prefetchEgtb(ply);
+        // Let the engine know that the search at the current ply has completed.
+        synchronized (this) {
+          notifyAll();
+        }
+        if (doStopSearch || ply == maxNominalDepth || score == Score.NULL.value) {
+          break;
+        }
+        // Aspiration windows with gradual widening.
+        if (score <= alpha) {
+          if (score <= lCheckMateLimit) {
+            alpha = Score.MIN.value;
+            failLow = 2;
+          } else {
+            alpha = failLow <= 1 ? Math.max(score - params.aspirationDelta, Score.MIN.value) : Score.MIN.value;
+            failLow++;
+          }
+          ply--;
+        } else if (score >= beta) {
+          if (score >= wCheckMateLimit) {
+            beta = Score.MAX.value;
+            failHigh = 2;
+          } else {
+            beta = failHigh <= 1 ? Math.min(score + params.aspirationDelta, Score.MAX.value) : Score.MAX.value;
+            failHigh++;
+          }
+          ply--;
         } else {
-          beta = failHigh <= 1 ? Math.min(score + params.aspirationDelta, Score.MAX.value) : Score.MAX.value;
-          failHigh++;
+          alpha = Math.max(score - params.aspirationDelta, Score.MIN.value);
+          beta = Math.min(score + params.aspirationDelta, Score.MAX.value);
+          failHigh = failLow = 0;
         }
-        ply--;
-      } else {
-        alpha = Math.max(score - params.aspirationDelta, Score.MIN.value);
-        beta = Math.min(score + params.aspirationDelta, Score.MAX.value);
-        failHigh = failLow = 0;
+      }
+    } finally {
+      // Stop the Lazy SMP helper threads if they have been launched.
+      if (lazySmp && latch != null) {
+        stopHelperThreads(slaveThreads);
       }
     }
     Move bestMove = null;
     Move ponderMove = null;
-    TTEntry entry = transTable.get(rootPos.getKey());
-    if (entry != null) {
+    TTEntry entry = new TTEntry();
+    if (transTable.get(rootPos.getKey(), entry)) {
       score = entry.getScore();
     }
     List<Move> pv = extractPv(rootPos, 2);
@@ -385,9 +487,6 @@ public class Search implements Runnable, Future<SearchResults> {
       doStopSearch = false;
       throwable = null;
     }
-    if (numOfHelperThreads > 0) {
-      executor = Executors.newFixedThreadPool(numOfHelperThreads);
-    }
     try {
       results = iterativeDeepening();
     } catch (Throwable e) {
@@ -396,9 +495,6 @@ public class Search implements Runnable, Future<SearchResults> {
       }
     }
     startTime = null;
-    if (executor != null) {
-      executor.shutdown();
-    }
     synchronized (this) {
       doStopSearch = false;
       isDone = true;
@@ -421,12 +517,13 @@ public class Search implements Runnable, Future<SearchResults> {
     private final Position origPos; // The original pos to search.
     private final SearchThread master;
     private final boolean isMainSearchThread;
+    private final SearchThreadState state;
     private final KillerTable killerTable;
     private final RelativeHistoryTable historyTable;
     private final TTEntry transTableEntry;
     private final ETEntry evalTableEntry;
+    private final SearchStats stats;
     private Position pos; // The pos instance to use for the search.
-    private AtomicLong nodes;
     private int alpha;
     private int beta;
     private short ply;
@@ -439,20 +536,18 @@ public class Search implements Runnable, Future<SearchResults> {
      *
      * @param pos The position to search.
      * @param master The master search thread.
+     * @param state The state of the search thread holding the heuristic tables to use.
      */
-    SearchThread(Position pos, SearchThread master) {
+    SearchThread(Position pos, SearchThread master, SearchThreadState state) {
       origPos = pos;
       this.master = master;
       this.isMainSearchThread = master == null;
-      if (maxNominalDepth > 0) {
-        killerTable = new KillerTable(maxNominalDepth * 2);
-        historyTable = new RelativeHistoryTable();
-      } else {
-        killerTable = null;
-        historyTable = null;
-      }
-      transTableEntry = new TTEntry();
-      evalTableEntry = new ETEntry();
+      this.state = state;
+      killerTable = state.getKillerTable();
+      historyTable = state.getHistoryTable();
+      transTableEntry = state.getTransTableEntry();
+      evalTableEntry = state.getEvalTableEntry();
+      stats = new SearchStats();
     }
 
     /**
@@ -486,61 +581,78 @@ public class Search implements Runnable, Future<SearchResults> {
     }
 
     /**
-     * @param move The move to test.
-     * @return Whether a move is a pawn push. A pawn push is a pawn move to the last or the one before the last rank.
+     * Clears the stop signal of the thread before a new iteration is launched.
      */
-    private boolean isPawnPush(Move move) {
-      return (move.movedPiece == Piece.W_PAWN.ind && move.to >= 48) ||
-          (move.movedPiece == Piece.B_PAWN.ind && move.to < 16);
+    void clearStopSignal() {
+      doStopSearchThread = false;
     }
 
     /**
-     * Orders material moves and checks, the former of which according to the SEE swap algorithm.
+     * The iterative deepening loop of Lazy SMP helper threads. The helper searches the root position with a full window at increasing
+     * depths independently of the other threads until it is stopped, only sharing its results through the transposition table. To
+     * diversify the work of the helpers, each one searches and skips blocks of consecutive depths of a different size and offset.
      *
-     * @param pos The current position.
-     * @param moves The moves to order.
-     * @return The ordered moves.
+     * @param skipSize The number of consecutive depths in a block.
+     * @param skipPhase The offset of the blocks.
      */
-    private Move[] orderMaterialMovesSEE(Position pos, List<Move> moves) {
-      Move[] arr = new Move[moves.size()];
-      int i = 0;
-      for (Move move : moves) {
-        move.setValue(eval.SEE(pos, move)); // Static exchange evaluation.
-        arr[i++] = move;
+    void iterativeDeepening(int skipSize, int skipPhase) {
+      try {
+        for (short depth = INITIAL_DEPTH; depth <= maxNominalDepth && !doStopSearch && !doStopSearchThread; depth++) {
+          if (((depth + skipPhase) / skipSize) % 2 != 0) {
+            continue;
+          }
+          setPly(depth);
+          setBounds(Score.MIN.value, Score.MAX.value);
+          call();
+        }
+      } finally {
+        latch.countDown();
       }
-      return QuickSort.sort(arr);
     }
 
     /**
-     * Orders captures and promotions according to the MVV-LVA principle.
+     * Returns whether the maximum number of nodes to search has been reached. When running on multiple threads, the counters of the other
+     * threads are only read at regular intervals to avoid contention over their cache lines.
      *
+     * @return Whether the node limit has been reached.
+     */
+    private boolean isNodeLimitReached() {
+      return !ponder && maxNodes != Long.MAX_VALUE && (numOfHelperThreads == 0 ||
+          (stats.getNodes() & (NODE_LIMIT_CHECK_INTERVAL - 1)) == 0) && getTotalNodes() >= maxNodes;
+    }
+
+    /**
+     * @param move The encoded move to test.
+     * @return Whether a move is a pawn push. A pawn push is a pawn move to the last or the one before the last rank.
+     */
+    private boolean isPawnPush(int move) {
+      byte movedPiece = Move.getMovedPiece(move);
+      byte to = Move.getTo(move);
+      return (movedPiece == Piece.W_PAWN.ind && to >= 48) || (movedPiece == Piece.B_PAWN.ind && to < 16);
+    }
+
+    /**
+     * Orders material moves and checks in place, the former of which according to the SEE swap algorithm.
+     *
+     * @param pos The current position.
      * @param moves The moves to order.
-     * @return The ordered moves.
      */
-    private Move[] orderMaterialMovesMVVLVA(List<Move> moves) {
-      Move[] arr = new Move[moves.size()];
-      int i = 0;
-      for (Move move : moves) {
-        move.setValue(Evaluator.MVVLVA(move));
-        arr[i++] = move;
+    private void orderMaterialMovesSEE(Position pos, MoveList moves) {
+      for (int i = 0; i < moves.size(); i++) {
+        moves.setValue(i, eval.SEE(pos, moves.get(i))); // Static exchange evaluation.
       }
-      return QuickSort.sort(arr);
+      moves.sort();
     }
 
     /**
-     * Orders non-material moves according to the relative history heuristic.
+     * Assigns values to captures and promotions according to the MVV-LVA principle for them to be selected in order.
      *
-     * @param moves The moves to order.
-     * @return The ordered moves.
+     * @param moves The moves to score.
      */
-    private Move[] orderNonMaterialMoves(List<Move> moves) {
-      Move[] arr = new Move[moves.size()];
-      int i = 0;
-      for (Move move : moves) {
-        move.setValue(historyTable.score(move));
-        arr[i++] = move;
+    private void scoreMaterialMovesMVVLVA(MoveList moves) {
+      for (int i = 0; i < moves.size(); i++) {
+        moves.setValue(i, Evaluator.MVVLVA(moves.get(i)));
       }
-      return QuickSort.sort(arr);
     }
 
     /**
@@ -549,13 +661,13 @@ public class Search implements Runnable, Future<SearchResults> {
      * @param key The key of the position.
      * @param alpha The alpha bound.
      * @param beta The beta bound.
-     * @param bestMove The best move found.
+     * @param bestMove The best move found encoded as an integer or 0 if there is none.
      * @param bestScore The best score.
      * @param distFromRoot The distance from the root position in plies.
      * @param depth The depth to which the position has been searched.
      * @return Whether the entry was stored in the transposition table.
      */
-    private boolean insertIntoTt(long key, int alpha, int beta, Move bestMove, int bestScore, short distFromRoot, short depth) {
+    private boolean insertIntoTt(long key, int alpha, int beta, int bestMove, int bestScore, short distFromRoot, short depth) {
       /* Adjustment of the best score for TT insertion according to the distance from the mate pos in case it's a
        * check mate score. */
       int score;
@@ -566,7 +678,6 @@ public class Search implements Runnable, Future<SearchResults> {
       } else {
         score = bestScore;
       }
-      int bestMoveInt = bestMove == null ? 0 : bestMove.toInt();
       // Determine node type.
       byte type;
       if (bestScore <= alpha) {
@@ -578,8 +689,7 @@ public class Search implements Runnable, Future<SearchResults> {
       }
       // Add new entry to the transposition table.
       // First try the primary table.
-      transTableEntry.set(key, depth, type, (short) score, bestMoveInt, hashEntryGen, false);
-      transTableEntry.setupKey();
+      transTableEntry.set(key, depth, type, (short) score, bestMove, hashEntryGen, false);
       return transTable.put(transTableEntry);
     }
 
@@ -596,16 +706,13 @@ public class Search implements Runnable, Future<SearchResults> {
      */
     private int quiescence(int distFromRoot, int alpha, int beta) throws AbnormalSearchTerminationException {
       int mateValue = Score.LOSING_CHECK_MATE.value + distFromRoot;
-      if (!ponder && getTotalNodes() >= maxNodes) {
+      if (isNodeLimitReached()) {
         doStopSearch = true;
       }
       if (doStopSearch || doStopSearchThread) {
         throw new AbnormalSearchTerminationException();
       }
-      if (nodes != null) {
-        nodes.incrementAndGet();
-      }
-      searchStats.quiescenceNodes.incrementAndGet();
+      stats.quiescenceNodes++;
       // Fifty-move rule and repetition rule check.
       if (pos.getFiftyMoveRuleClock() >= 100 || pos.hasRepeated(distFromRoot > 2 ? 1 : 2)) {
         return Score.DRAW_CLAIMED.value;
@@ -624,19 +731,24 @@ public class Search implements Runnable, Future<SearchResults> {
         return alpha;
       }
       // Generate all the material moves or if in check, all moves.
-      List<Move> moves = pos.isInCheck() ? pos.getMoves() : pos.getTacticalMoves();
-      Move[] sortedMoves = orderMaterialMovesMVVLVA(moves);
-      for (Move move : sortedMoves) {
+      MoveList moves = state.getQuiescenceMoves(distFromRoot);
+      if (pos.isInCheck()) {
+        pos.getMoves(moves);
+      } else {
+        pos.getTacticalMoves(moves);
+      }
+      scoreMaterialMovesMVVLVA(moves);
+      for (int i = 0; i < moves.size(); i++) {
+        int move = moves.selectNext(i);
         if (!pos.isInCheck()) {
           // If the SEE value is below 0 or the delta pruning limit, skip.
-          int moveValue = eval.SEE(pos, move);
-          if (moveValue < 0 || moveValue <= alpha - params.deltaPruningMargin) {
+          if (!eval.isSEEAtLeast(pos, move, Math.max(0, alpha - params.deltaPruningMargin + 1))) {
             continue;
           }
         }
         pos.makeMove(move);
         int searchScore = -quiescence(distFromRoot + 1, -beta, -alpha);
-        pos.unmakeMove();
+        pos.unmakeMoveAsInt();
         if (searchScore > bestScore) {
           bestScore = searchScore;
           if (searchScore > alpha) {
@@ -659,16 +771,13 @@ public class Search implements Runnable, Future<SearchResults> {
       if (!nodeBlocked) {
         return;
       }
-      TTEntry hashEntry = transTable.get(pos.getKey());
-      if (hashEntry != null) {
-        hashEntry.setBusy(false);
-      }
+      transTable.setBusy(pos.getKey(), false);
     }
     
     /**
      * Performs a PV search on the specified move.
      *
-     * @param move The move to search.
+     * @param move The encoded move to search.
      * @param depthLimit The maximum allowed remaining search depth.
      * @param depth The current remaining search depth.
      * @param extension The extension to apply to the search depth.
@@ -680,7 +789,7 @@ public class Search implements Runnable, Future<SearchResults> {
      * @param nodeBlocked Whether the current node is blocked.
      * @return The search score of the move.
      */
-    private int pvSearchMove(Move move, int depthLimit, int depth, int extension, int distFromRoot, int searchedMoves,
+    private int pvSearchMove(int move, int depthLimit, int depth, int extension, int distFromRoot, int searchedMoves,
         int alpha, int beta, boolean nullWindowSearchExclusive, boolean nodeBlocked) {
       int score;
       int searchDepth = Math.min(depthLimit, depth + extension) - FULL_PLY;
@@ -703,7 +812,7 @@ public class Search implements Runnable, Future<SearchResults> {
         resetBusyFlag(nodeBlocked);
         throw e;
       }
-      pos.unmakeMove();
+      pos.unmakeMoveAsInt();
       return score;
     }
 
@@ -729,30 +838,22 @@ public class Search implements Runnable, Future<SearchResults> {
       final int depthLimit = distFromRoot >= maxNominalDepth ? depth : depth + FULL_PLY;
       final boolean pvNode = beta > origAlpha + 1;
       int bestScore = mateScore;
-      Move bestMove = null;
-      Move hashMove = null;
-      Move killerMove1 = null;
-      Move killerMove2 = null;
+      int bestMove = 0;
+      int hashMove = 0;
       int searchedMoves = 0;
       boolean nodeBlocked = false;
       boolean isThereHashMove = false;
-      boolean isThereKM1 = false;
-      boolean isThereKM2 = false;
-      List<Move> tacticalMoves = null;
-      List<Move> quietMoves = null;
-      KTEntry killerEntry = null;
-      if (!ponder && getTotalNodes() >= maxNodes) {
+      if (isNodeLimitReached()) {
         doStopSearch = true;
       }
       if (doStopSearch || doStopSearchThread) {
         throw new AbnormalSearchTerminationException();
       }
-      nodes.incrementAndGet();
-      searchStats.mainNodes.incrementAndGet();
+      stats.mainNodes++;
       if (distFromRoot > selDepth) {
         selDepth = distFromRoot;
       }
-      TTEntry hashEntry;
+      TTEntry hashEntry = transTableEntry;
       Search:
       {
         int score;
@@ -789,91 +890,87 @@ public class Search implements Runnable, Future<SearchResults> {
             }
           }
         }
+        // Return a draw score for the king and pawn versus king positions the bitbase does not deem won.
+        if (KPKBitbase.isKPK(pos) && !KPKBitbase.isWin(pos)) {
+          return Score.INSUFFICIENT_MATERIAL.value;
+        }
         // Check extension.
         depth = pos.isInCheck() ? Math.min(depthLimit, depth + params.checkExtension) : depth;
         // Pawn push extension
-        Move lastMove = pos.getLastMove();
+        int lastMove = pos.getLastMoveAsInt();
         boolean pawnPushed = isPawnPush(lastMove);
         depth = pawnPushed ? Math.min(depthLimit, depth + params.pawnPushExtension) : depth;
         // Check the conditions for quiescence search.
         boolean doQuiescence = depth / FULL_PLY <= 0;
         /* Check the hash move and return its score for the pos if it is exact or set alpha or beta according
          * to its score if it is not. */
-        hashEntry = transTable.get(pos.getKey());
-        if (hashEntry != null) {
+        if (transTable.get(pos.getKey(), hashEntry)) {
           int hashDepth = hashEntry.getDepth();
           int hashType = hashEntry.getType();
           int hashScore = hashEntry.getScore();
           int hashMoveInt = hashEntry.getBestMove();
           boolean hashBusy = hashEntry.isBusy();
-          // Make sure that entry was not overwritten in another thread.
-          if (hashEntry.hashKey() == pos.getKey()) {
-            hashEntry.setGeneration(hashEntryGen);
-            searchStats.hashHits.incrementAndGet();
-            /* If the hashed entry's depth is greater than or equal to the current search depth, check if
-             * the stored score is usable. */
-            if (hashDepth >= depth / FULL_PLY && hashScore != Score.NULL.value) {
-              // Mate score adjustment to root distance.
-              if (hashScore <= lCheckMateLimit) {
-                score = hashScore + distFromRoot;
-              } else if (hashEntry.getScore() >= wCheckMateLimit) {
-                score = hashScore - distFromRoot;
-              } else {
-                score = hashScore;
-              }
-              /* If the score was exact, or it was the score of an all node and is smaller than or equal
-               * to alpha, or it is that of a cut node and is greater than or equal to beta, return the
-               * score. If it is a PV node and the score is exact, make sure that either the score is
-               * outside the bounds or the search is about to drop into quiescence search to avoid a PV
-               * cut. */
-              if ((hashType == NodeType.EXACT.ind &&
-                  (!pvNode || doQuiescence || hashScore <= alpha || hashScore >= beta)) ||
-                  /* To make sure that a score that might not have been the exact score for the
-                   * subtree below the node regardless of the alpha-beta boundaries is not treated
-                   * as an exact score in the current context, we can not allow it to fall between
-                   * the current alpha and beta. If it was a fail high node, the score is a lower
-                   * boundary of the exact score of the node due to there possibly being siblings to
-                   * the right of the child node [that raised alpha higher than beta and caused a
-                   * cut-off] that could raise alpha even higher. If it was a fail low node, the
-                   * score is a higher boundary for the exact score of the node, because all children
-                   * of a fail low node are fail high nodes (-score <= alpha -> score >= -alpha
-                   * [-alpha = beta in the child node]). To keep the interval of values the exact
-                   * score could take on out of (alpha, beta), the score has to be lower than or
-                   * equal to alpha if it is a higher boundary, i.e. fail low score, and it has to be
-                   * greater than or equal to beta if it is a lower boundary i.e. fail high score. */
-                  (hashType == NodeType.FAIL_HIGH.ind && score >= beta) ||
-                  (hashType == NodeType.FAIL_LOW.ind && score <= alpha)) {
-                searchStats.hashScoreHits.incrementAndGet();
-                return score;
-              }
+          transTable.setGeneration(pos.getKey(), hashEntryGen);
+          stats.hashHits++;
+          /* If the hashed entry's depth is greater than or equal to the current search depth, check if
+           * the stored score is usable. */
+          if (hashDepth >= depth / FULL_PLY && hashScore != Score.NULL.value) {
+            // Mate score adjustment to root distance.
+            if (hashScore <= lCheckMateLimit) {
+              score = hashScore + distFromRoot;
+            } else if (hashScore >= wCheckMateLimit) {
+              score = hashScore - distFromRoot;
+            } else {
+              score = hashScore;
             }
-            /* Check if the node should be put to the end of the list in the current thread due to another
-             * one already searching it. */
-            if (numOfHelperThreads > 0 && depth / FULL_PLY >= params.nodeBusinessCheckMinDepthLeft) {
-              if (exclusive && hashBusy) {
-                searchStats.busyNodes.incrementAndGet();
-                return BUSY_SCORE;
-              }
-              // If it is still the right entry, set it to busy.
-              if (hashEntry.hashKey() == pos.getKey()) {
-                hashEntry.setBusy(true);
-                nodeBlocked = true;
-              }
+            /* If the score was exact, or it was the score of an all node and is smaller than or equal
+             * to alpha, or it is that of a cut node and is greater than or equal to beta, return the
+             * score. If it is a PV node and the score is exact, make sure that either the score is
+             * outside the bounds or the search is about to drop into quiescence search to avoid a PV
+             * cut. */
+            if ((hashType == NodeType.EXACT.ind &&
+                (!pvNode || doQuiescence || hashScore <= alpha || hashScore >= beta)) ||
+                /* To make sure that a score that might not have been the exact score for the
+                 * subtree below the node regardless of the alpha-beta boundaries is not treated
+                 * as an exact score in the current context, we can not allow it to fall between
+                 * the current alpha and beta. If it was a fail high node, the score is a lower
+                 * boundary of the exact score of the node due to there possibly being siblings to
+                 * the right of the child node [that raised alpha higher than beta and caused a
+                 * cut-off] that could raise alpha even higher. If it was a fail low node, the
+                 * score is a higher boundary for the exact score of the node, because all children
+                 * of a fail low node are fail high nodes (-score <= alpha -> score >= -alpha
+                 * [-alpha = beta in the child node]). To keep the interval of values the exact
+                 * score could take on out of (alpha, beta), the score has to be lower than or
+                 * equal to alpha if it is a higher boundary, i.e. fail low score, and it has to be
+                 * greater than or equal to beta if it is a lower boundary i.e. fail high score. */
+                (hashType == NodeType.FAIL_HIGH.ind && score >= beta) ||
+                (hashType == NodeType.FAIL_LOW.ind && score <= alpha)) {
+              stats.hashScoreHits++;
+              return score;
             }
-            /* Check for the stored move and make it the best guess if it is not null and the node is not
-             * fail low. */
-            if (hashMoveInt != 0 && !doQuiescence) {
-              hashMove = Move.toMove(hashMoveInt);
-              isThereHashMove = pos.isLegal(hashMove);
+          }
+          /* Check if the node should be put to the end of the list in the current thread due to another
+           * one already searching it. */
+          if (useBusyFlags && depth / FULL_PLY >= params.nodeBusinessCheckMinDepthLeft) {
+            if (exclusive && hashBusy) {
+              stats.busyNodes++;
+              return BUSY_SCORE;
             }
+            // If it is still the right entry, set it to busy.
+            nodeBlocked = transTable.setBusy(pos.getKey(), true);
+          }
+          /* Check for the stored move and make it the best guess if it is not null and the node is not
+           * fail low. */
+          if (hashMoveInt != 0 && !doQuiescence) {
+            hashMove = hashMoveInt;
+            isThereHashMove = pos.isLegal(hashMove);
           }
         }
         // Perform quiescence search.
         if (doQuiescence) {
-          nodes.decrementAndGet();
-          searchStats.mainNodes.decrementAndGet();
+          stats.mainNodes--;
           bestScore = quiescence(distFromRoot, alpha, beta);
-          bestMove = null;
+          bestMove = 0;
           break Search;
         }
         score = Score.NULL.value;
@@ -903,7 +1000,7 @@ public class Search implements Runnable, Future<SearchResults> {
               evalScore = eval.score(pos, hashEntryGen, evalTableEntry);
             }
             if (evalScore - razMargin >= beta) {
-              searchStats.reverseRazorCutoffs.incrementAndGet();
+              stats.reverseRazorCutoffs++;
               resetBusyFlag(nodeBlocked);
               return evalScore - razMargin;
             }
@@ -914,7 +1011,7 @@ public class Search implements Runnable, Future<SearchResults> {
               evalScore = eval.score(pos, hashEntryGen, evalTableEntry);
             }
             if (evalScore > alpha) {
-              searchStats.nullMoveReductions.incrementAndGet();
+              stats.nullMoveReductions++;
               // Dynamic depth reduction.
               int nullMoveReduction = params.nullMoveReduction * FULL_PLY +
                   params.extraNullMoveReduction * depth / (params.extraNullMoveReductionDepthLimit + 1);
@@ -929,9 +1026,9 @@ public class Search implements Runnable, Future<SearchResults> {
                 resetBusyFlag(nodeBlocked);
                 throw e;
               }
-              pos.unmakeMove();
+              pos.unmakeMoveAsInt();
               if (score >= beta) {
-                searchStats.nullMoveCutoffs.incrementAndGet();
+                stats.nullMoveCutoffs++;
                 resetBusyFlag(nodeBlocked);
                 return score;
               }
@@ -940,49 +1037,31 @@ public class Search implements Runnable, Future<SearchResults> {
         }
         // If there is no hash entry in a PV node that is to be searched deep, try IID.
         if (params.doIid && pvNode && !isThereHashMove && depth / FULL_PLY >= params.iidMinDepthLeft) {
-          searchStats.iids.incrementAndGet();
+          stats.iids++;
           try {
             pvSearch(depth * params.iidRelDepth16th / 16, distFromRoot, alpha, beta, true, false);
           } catch (AbnormalSearchTerminationException e) {
             resetBusyFlag(nodeBlocked);
             throw e;
           }
-          hashEntry = transTable.get(pos.getKey());
           int hashMoveInt;
-          if (hashEntry != null && (hashMoveInt = hashEntry.getBestMove()) != 0 &&
-              hashEntry.hashKey() == pos.getKey()) {
-            searchStats.successfulIids.incrementAndGet();
-            hashMove = Move.toMove(hashMoveInt);
+          if (transTable.get(pos.getKey(), hashEntry) && (hashMoveInt = hashEntry.getBestMove()) != 0) {
+            stats.successfulIids++;
+            hashMove = hashMoveInt;
             isThereHashMove = pos.isLegal(hashMove);
           }
         }
-        // If there was no hash move...
-        if (!isThereHashMove) {
-          // Generate material moves.
-          tacticalMoves = pos.getTacticalMoves();
-          // If there were no material moves, check killer moves...
-          if (tacticalMoves.size() == 0) {
-            killerEntry = killerTable.retrieve(distFromRoot);
-            if (killerEntry.getMove1() != 0 &&
-                pos.isLegal(killerMove1 = Move.toMove(killerEntry.getMove1()))) {
-              isThereKM1 = true;
-            } else if (killerEntry.getMove2() != 0 &&
-                pos.isLegal(killerMove2 = Move.toMove(killerEntry.getMove2()))) {
-              isThereKM2 = true;
-            }
-            // If there were no legal killer moves, generate the quiet moves and perform a mate check.
-            if (!isThereKM1 && !isThereKM2) {
-              quietMoves = pos.getQuietMoves();
-              if (quietMoves.size() == 0) {
-                score = pos.isInCheck() ? mateScore : Score.STALE_MATE.value;
-                if (score > bestScore) {
-                  bestMove = null;
-                  bestScore = score;
-                }
-                break Search;
-              }
-            }
+        // Set up the staged move picker; the moves of each stage are only generated once they are needed.
+        MovePicker movePicker = state.getMovePicker(distFromRoot);
+        movePicker.init(pos, eval, distFromRoot, isThereHashMove ? hashMove : 0);
+        // If there are no legal moves, it is either a check mate or a stale mate.
+        if (!movePicker.hasLegalMoves()) {
+          score = pos.isInCheck() ? mateScore : Score.STALE_MATE.value;
+          if (score > bestScore) {
+            bestMove = 0;
+            bestScore = score;
           }
+          break Search;
         }
         // Check for the fifty-move rule; return a draw score if it applies.
         if (pos.getFiftyMoveRuleClock() >= 100) {
@@ -990,337 +1069,169 @@ public class Search implements Runnable, Future<SearchResults> {
           return Score.DRAW_CLAIMED.value;
         }
         // Check if a recapture extension could possibly be applied.
-        lastMove = pos.getLastMove();
-        boolean lastMoveIsTactical = lastMove != null && lastMove.isTactical();
-        // If there is a hash move, search that first.
-        if (isThereHashMove) {
-          // Recapture extension (includes capturing newly promoted pieces).
-          int extension = lastMoveIsTactical && hashMove.capturedPiece != Piece.NULL.ind &&
-              hashMove.to == lastMove.to ? params.recapExtension : 0;
-          score = pvSearchMove(hashMove, depthLimit, depth, extension, distFromRoot, 0, alpha, beta, true, nodeBlocked);
-          searchedMoves++;
-          if (score > bestScore) {
-            bestMove = hashMove;
-            bestScore = score;
-            if (score > alpha) {
-              alpha = score;
-              if (score >= beta) {
-                searchStats.hashMoveCutoffs.incrementAndGet();
-                if (!hashMove.isTactical()) {
-                  // Add to killer moves.
-                  killerTable.add(distFromRoot, hashMove);
-                  // Record success in the relative history table.
-                  historyTable.recordSuccessfulMove(hashMove);
-                }
-                break Search;
+        lastMove = pos.getLastMoveAsInt();
+        boolean lastMoveIsTactical = Move.isTactical(lastMove);
+        byte lastMoveTo = Move.getTo(lastMove);
+        MoveList deferredMoves = null;
+        boolean quietMovesReached = false;
+        int lateMoveReduction = 0;
+        int futMargin = 0;
+        boolean prunable = false;
+        int move;
+        // Search the moves in the order they are handed out by the move picker.
+        while ((move = movePicker.next()) != 0) {
+          MovePicker.Stage stage = movePicker.getStage();
+          if (stage == MovePicker.Stage.QUIET_MOVES) {
+            if (!quietMovesReached) {
+              quietMovesReached = true;
+              // One reply extension.
+              if (movePicker.hasSingleLegalMove()) {
+                dangerous = true;
+                depth = Math.min(depthLimit, depth + params.singleReplyExtension);
               }
-            }
-          }
-          if (!hashMove.isTactical()) {
-            // Record failure in the relative history table.
-            historyTable.recordUnsuccessfulMove(hashMove);
-          }
-        }
-        // Generate the material moves if they are not generated yet.
-        if (tacticalMoves == null) {
-          tacticalMoves = pos.getTacticalMoves();
-        }
-        List<Move> losingCaptures = null;
-        List<Move> deferredMoves = null;
-        // Sort the material moves.
-        Move[] tacticalMovesArr = orderMaterialMovesMVVLVA(tacticalMoves);
-        // Search winning and equal captures.
-        for (Move move : tacticalMovesArr) {
-          // If this move was the hash move, skip it.
-          if (isThereHashMove && move.equals(hashMove)) {
-            isThereHashMove = false;
-            continue;
-          }
-          // If the current move's SEE value indicates a losing capture, put it in the losing captures list.
-          move.setValue(eval.SEE(pos, move));
-          if (move.getValue() < 0) {
-            if (losingCaptures == null) {
-              losingCaptures = new ArrayList<>();
-            }
-            losingCaptures.add(move);
-            continue;
-          }
-          // Recapture extension (includes capturing newly promoted pieces).
-          int extension = lastMoveIsTactical && move.capturedPiece != Piece.NULL.ind && move.to == lastMove.to ? params.recapExtension : 0;
-          score = pvSearchMove(move, depthLimit, depth, extension, distFromRoot, searchedMoves, alpha, beta, true, nodeBlocked);
-          // If the pos is currently searched by another thread, add it to the list of moves to search later.
-          if (score == -BUSY_SCORE) {
-            if (deferredMoves == null) {
-              deferredMoves = new ArrayList<>();
-            }
-            deferredMoves.add(move);
-          } else { // Do the usual PVS routine.
-            searchedMoves++;
-            if (score > bestScore) {
-              bestMove = move;
-              bestScore = score;
-              if (score > alpha) {
-                alpha = score;
-                if (score >= beta) {
-                  searchStats.winningTacticalCutoffs.incrementAndGet();
-                  break Search;
+              lateMoveReduction = params.lateMoveReduction * FULL_PLY +
+                  params.extraLateMoveReduction * depth / (params.extraLateMoveReductionDepthLimit + 1);
+              prunable = !pvNode && !dangerous && Math.abs(alpha) < wCheckMateLimit;
+              // Futility pruning margin calculation.
+              if (prunable) {
+                switch (depth / FULL_PLY) {
+                  case 1:
+                    // Frontier futility pruning.
+                    futMargin = params.futilityMargin1;
+                    break;
+                  case 2:
+                    // Extended futility pruning.
+                    futMargin = params.futilityMargin2;
+                    break;
+                  case 3:
+                    // Deep futility pruning.
+                    futMargin = params.futilityMargin3;
+                    break;
+                  case 4:
+                    // Deep+ futility pruning.
+                    futMargin = params.futilityMargin4;
+                    break;
+                  case 5:
+                    // Deep++ futility pruning.
+                    futMargin = params.futilityMargin5;
+                    break;
+                  default:
+                    futMargin = 0;
                 }
               }
             }
-          }
-        }
-        // If there are no more winning or equal captures, check and search the killer moves.
-        killerEntry = killerEntry == null ? killerTable.retrieve(distFromRoot) : killerEntry;
-        if (killerEntry != null) {
-          for (int i = 0; i < 2; i++) {
-            int killerMoveInt;
-            Move killerMove;
-            // Assess if the first killer moves is legal.
-            if (i == 0) {
-              // If the killer move has not yet been verified during the mate check and the entry is not empty.
-              if (!isThereKM1 && killerMove1 == null && (killerMoveInt = killerEntry.getMove1()) != 0) {
-                killerMove1 = Move.toMove(killerMoveInt);
-                if (isThereHashMove && killerMove1.equals(hashMove)) {
-                  isThereHashMove = false;
-                } else {
-                  isThereKM1 = pos.isLegal(killerMove1);
-                }
-              }
-              // The killer move is not legal.
-              if (!isThereKM1) {
-                continue;
+            // Futility pruning.
+            if (prunable && depth / FULL_PLY <= 5 && !pos.givesCheck(move)) {
+              if (evalScore == Score.NULL.value) {
+                evalScore = eval.score(pos, hashEntryGen, evalTableEntry);
               }
-              killerMove = killerMove1;
-            } else { // Assess the legality of the second killer move.
-              if (!isThereKM2 && killerMove2 == null && (killerMoveInt = killerEntry.getMove2()) != 0) {
-                killerMove2 = Move.toMove(killerMoveInt);
-                if (isThereHashMove && killerMove2.equals(hashMove)) {
-                  isThereHashMove = false;
-                } else {
-                  isThereKM2 = pos.isLegal(killerMove2);
-                }
-              }
-              if (!isThereKM2) {
+              if (evalScore <= alpha - futMargin) {
+                stats.futilityPrunes++;
+                // Record failure in the relative history table.
+                historyTable.recordUnsuccessfulMove(move);
                 continue;
               }
-              killerMove = killerMove2;
             }
-            score = pvSearchMove(killerMove, depthLimit, depth, 0, distFromRoot, searchedMoves, alpha, beta, true, nodeBlocked);
-            if (score == -BUSY_SCORE) {
-              if (deferredMoves == null) {
-                deferredMoves = new ArrayList<>();
-              }
-              deferredMoves.add(killerMove);
-            } else {
-              searchedMoves++;
-              if (score > bestScore) {
-                bestMove = killerMove;
-                bestScore = score;
-                if (score > alpha) {
-                  alpha = score;
-                  if (score >= beta) {
-                    searchStats.killerCutoffs.incrementAndGet();
-                    if (i == 1) // Make it killer move no. 1.
-                    {
-                      killerTable.add(distFromRoot, killerMove);
-                    }
-                    // Record success in the relative history table.
-                    historyTable.recordSuccessfulMove(killerMove);
-                    break Search;
-                  }
-                }
-              }
-              // Record failure in the relative history table.
-              historyTable.recordUnsuccessfulMove(killerMove);
-            }
-          }
-        }
-        // If there are any losing captures...
-        if (losingCaptures != null) {
-          // Sort them based on their already assigned SEE scores.
-          Move[] losingCapturesArr = QuickSort.sort(losingCaptures.toArray(new Move[losingCaptures.size()]));
-          // And search them.
-          for (Move move : losingCapturesArr) {
-            // No need to check if it is the hash move as that was done before it was added to the losing captures.
-            // Recapture extension.
-            int extension = lastMoveIsTactical && move.capturedPiece != Piece.NULL.ind &&
-                move.to == lastMove.to ? params.recapExtension : 0;
-            score = pvSearchMove(move, depthLimit, depth, extension, distFromRoot, searchedMoves, alpha, beta, true, nodeBlocked);
-            if (score == -BUSY_SCORE) {
-              if (deferredMoves == null) {
-                deferredMoves = new ArrayList<>();
+            pos.makeMove(move);
+            try {
+              // Left-most move.
+              if (searchedMoves == 0) {
+                score = -pvSearch(depth - FULL_PLY, distFromRoot + 1, -beta, -alpha, true, false);
               }
-              deferredMoves.add(move);
-            } else {
-              searchedMoves++;
-              if (score > bestScore) {
-                bestMove = move;
-                bestScore = score;
-                if (score > alpha) {
-                  alpha = score;
-                  if (score >= beta) {
-                    searchStats.losingTacticalCutoffs.incrementAndGet();
-                    break Search;
+              // Try late move reduction.
+              else if (!dangerous && !pos.isInCheck() && searchedMoves > params.minMovesSearchedForLmr &&
+                  depth / FULL_PLY >= params.lateMoveReductionMinDepthLeft) {
+                score = -pvSearch(depth - (FULL_PLY + lateMoveReduction), distFromRoot + 1, -alpha - 1, -alpha, true, true);
+                if (score != -BUSY_SCORE) {
+                  stats.lateMoveReductions++;
+                  // If it does not fail low, research with full window.
+                  if (score > alpha) {
+                    score = -pvSearch(depth - FULL_PLY, distFromRoot + 1, -beta, -alpha, true, false);
+                  } else {
+                    stats.successfulLateMoveReductions++;
                   }
                 }
-              }
-            }
-          }
-        }
-        // Generate the non-material legal moves if they are not generated yet.
-        if (quietMoves == null) {
-          quietMoves = pos.getQuietMoves();
-        }
-        // One reply extension.
-        if (tacticalMoves.size() == 0 && quietMoves.size() == 1) {
-          dangerous = true;
-          depth = Math.min(depthLimit, depth + params.singleReplyExtension);
-        }
-        int lateMoveReduction = params.lateMoveReduction * FULL_PLY +
-            params.extraLateMoveReduction * depth / (params.extraLateMoveReductionDepthLimit + 1);
-        int futMargin;
-        boolean prunable = !pvNode && !dangerous && Math.abs(alpha) < wCheckMateLimit;
-        // Futility pruning margin calculation.
-        if (prunable) {
-          switch (depth / FULL_PLY) {
-            case 1:
-              // Frontier futility pruning.
-              futMargin = params.futilityMargin1;
-              break;
-            case 2:
-              // Extended futility pruning.
-              futMargin = params.futilityMargin2;
-              break;
-            case 3:
-              // Deep futility pruning.
-              futMargin = params.futilityMargin3;
-              break;
-            case 4:
-              // Deep+ futility pruning.
-              futMargin = params.futilityMargin4;
-              break;
-            case 5:
-              // Deep++ futility pruning.
-              futMargin = params.futilityMargin5;
-              break;
-            default:
-              futMargin = 0;
-          }
-        } else {
-          futMargin = 0;
-        }
-        // Order and search the non-material moves.
-        Move[] quietMovesArr = orderNonMaterialMoves(quietMoves);
-        for (Move move : quietMovesArr) {
-          // If this move was the hash move, skip it.
-          if (isThereHashMove && move.equals(hashMove)) {
-            isThereHashMove = false;
-            continue;
-          }
-          // If this move was the first killer move, skip it.
-          if (isThereKM1 && move.equals(killerMove1)) {
-            isThereKM1 = false;
-            continue;
-          }
-          // If this move was the second killer move, skip it.
-          if (isThereKM2 && move.equals(killerMove2)) {
-            isThereKM2 = false;
-            continue;
-          }
-          // Futility pruning.
-          if (prunable && depth / FULL_PLY <= 5 && !pos.givesCheck(move)) {
-            if (evalScore == Score.NULL.value) {
-              evalScore = eval.score(pos, hashEntryGen, evalTableEntry);
-            }
-            if (evalScore <= alpha - futMargin) {
-              searchStats.futilityPrunes.incrementAndGet();
-              // Record failure in the relative history table.
-              historyTable.recordUnsuccessfulMove(move);
-              continue;
-            }
-          }
-          pos.makeMove(move);
-          try {
-            // Left-most move.
-            if (searchedMoves == 0) {
-              score = -pvSearch(depth - FULL_PLY, distFromRoot + 1, -beta, -alpha, true, false);
-            }
-            // Try late move reduction.
-            else if (!dangerous && !pos.isInCheck() && searchedMoves > params.minMovesSearchedForLmr &&
-                depth / FULL_PLY >= params.lateMoveReductionMinDepthLeft) {
-              score = -pvSearch(depth - (FULL_PLY + lateMoveReduction), distFromRoot + 1, -alpha - 1, -alpha, true, true);
-              if (score != -BUSY_SCORE) {
-                searchStats.lateMoveReductions.incrementAndGet();
-                // If it does not fail low, research with full window.
-                if (score > alpha) {
+              } else { // Null-window PVS.
+                score = -pvSearch(depth - FULL_PLY, distFromRoot + 1, -alpha - 1, -alpha, true, true);
+                if (score != -BUSY_SCORE && score > alpha && score < beta) {
                   score = -pvSearch(depth - FULL_PLY, distFromRoot + 1, -beta, -alpha, true, false);
-                } else {
-                  searchStats.successfulLateMoveReductions.incrementAndGet();
                 }
               }
-            } else { // Null-window PVS.
-              score = -pvSearch(depth - FULL_PLY, distFromRoot + 1, -alpha - 1, -alpha, true, true);
-              if (score != -BUSY_SCORE && score > alpha && score < beta) {
-                score = -pvSearch(depth - FULL_PLY, distFromRoot + 1, -beta, -alpha, true, false);
-              }
+            } catch (AbnormalSearchTerminationException e) {
+              resetBusyFlag(nodeBlocked);
+              throw e;
             }
-          } catch (AbnormalSearchTerminationException e) {
-            resetBusyFlag(nodeBlocked);
-            throw e;
+            pos.unmakeMoveAsInt();
+          } else {
+            // Recapture extension (includes capturing newly promoted pieces).
+            int extension = lastMoveIsTactical && Move.getCapturedPiece(move) != Piece.NULL.ind && Move.getTo(move) == lastMoveTo ?
+                params.recapExtension : 0;
+            score = pvSearchMove(move, depthLimit, depth, extension, distFromRoot, searchedMoves, alpha, beta, true, nodeBlocked);
           }
-          pos.unmakeMove();
+          // If the pos is currently searched by another thread, add it to the list of moves to search later.
           if (score == -BUSY_SCORE) {
             if (deferredMoves == null) {
-              deferredMoves = new ArrayList<>();
+              deferredMoves = state.getDeferredMoves(distFromRoot);
             }
-            deferredMoves.add(move);
-          } else {
-            searchedMoves++;
-            if (score > bestScore) {
-              bestMove = move;
-              bestScore = score;
-              if (score > alpha) {
-                alpha = score;
-                // Cutoff from a non-material move.
-                if (score >= beta) {
-                  searchStats.quietCutoffs.incrementAndGet();
+            deferredMoves.add(move, movePicker.getValue());
+            continue;
+          }
+          // Do the usual PVS routine.
+          searchedMoves++;
+          boolean isQuiet = !Move.isTactical(move);
+          if (score > bestScore) {
+            bestMove = move;
+            bestScore = score;
+            if (score > alpha) {
+              alpha = score;
+              if (score >= beta) {
+                switch (stage) {
+                  case HASH_MOVE:
+                    stats.hashMoveCutoffs++;
+                    break;
+                  case WINNING_TACTICAL_MOVES:
+                    stats.winningTacticalCutoffs++;
+                    break;
+                  case KILLER_MOVES:
+                    stats.killerCutoffs++;
+                    break;
+                  case QUIET_MOVES:
+                    stats.quietCutoffs++;
+                    break;
+                  default:
+                    stats.losingTacticalCutoffs++;
+                }
+                if (isQuiet) {
                   // Add to killer moves.
                   killerTable.add(distFromRoot, move);
                   // Record success in the relative history table.
                   historyTable.recordSuccessfulMove(move);
-                  break Search;
                 }
+                break Search;
               }
             }
+          }
+          if (isQuiet) {
             // Record failure in the relative history table.
             historyTable.recordUnsuccessfulMove(move);
           }
         }
         // If moves searched by other threads were rescheduled, search them now.
         if (deferredMoves != null) {
-          for (Move deferredMove : deferredMoves) {
+          for (int moveInd = 0; moveInd < deferredMoves.size(); moveInd++) {
+            int deferredMove = deferredMoves.get(moveInd);
             int searchDepth;
             boolean isKiller;
-            boolean isMaterial = deferredMove.isTactical();
+            boolean isMaterial = Move.isTactical(deferredMove);
             if (isMaterial) {
               isKiller = false;
               // Recapture extension.
-              int extension = isMaterial && lastMoveIsTactical &&
-                  deferredMove.capturedPiece != Piece.NULL.ind &&
-                  deferredMove.to == lastMove.to ? params.recapExtension : 0;
+              int extension = lastMoveIsTactical && Move.getCapturedPiece(deferredMove) != Piece.NULL.ind &&
+                  Move.getTo(deferredMove) == lastMoveTo ? params.recapExtension : 0;
               searchDepth = Math.min(depthLimit, depth + extension) - FULL_PLY;
             } else {
-              // Check if it is a killer move.
-              isKiller = true;
-              if (isThereKM1 && deferredMove.equals(killerMove1)) {
-                isThereKM1 = false;
-              } else if (isThereKM2 && deferredMove.equals(killerMove2)) {
-                isThereKM2 = false;
-              } else {
-                isKiller = false;
-              }
+              isKiller = movePicker.isKillerMove(deferredMove);
               searchDepth = depth - FULL_PLY;
-
             }
             pos.makeMove(deferredMove);
             try {
@@ -1329,12 +1240,12 @@ public class Search implements Runnable, Future<SearchResults> {
                   searchedMoves > params.minMovesSearchedForLmr &&
                   depth / FULL_PLY >= params.lateMoveReductionMinDepthLeft) {
                 score = -pvSearch(searchDepth - lateMoveReduction, distFromRoot + 1, -alpha - 1, -alpha, true, false);
-                searchStats.lateMoveReductions.incrementAndGet();
+                stats.lateMoveReductions++;
                 // If it does not fail low, research with full window.
                 if (score > alpha) {
                   score = -pvSearch(searchDepth, distFromRoot + 1, -beta, -alpha, true, false);
                 } else {
-                  searchStats.successfulLateMoveReductions.incrementAndGet();
+                  stats.successfulLateMoveReductions++;
                 }
               } else { // PVS.
                 score = -pvSearch(searchDepth, distFromRoot + 1, -alpha - 1, -alpha, true, false);
@@ -1346,8 +1257,8 @@ public class Search implements Runnable, Future<SearchResults> {
               resetBusyFlag(nodeBlocked);
               throw e;
             }
-            pos.unmakeMove();
-            searchStats.delayedNodes.incrementAndGet();
+            pos.unmakeMoveAsInt();
+            stats.delayedNodes++;
             searchedMoves++;
             if (score > bestScore) {
               bestMove = deferredMove;
@@ -1357,14 +1268,21 @@ public class Search implements Runnable, Future<SearchResults> {
                 // Cutoff from a non-material move.
                 if (score >= beta) {
                   if (!isMaterial) {
-                    (isKiller ? searchStats.killerCutoffs : searchStats.quietCutoffs).incrementAndGet();
+                    if (isKiller) {
+                      stats.killerCutoffs++;
+                    } else {
+                      stats.quietCutoffs++;
+                    }
                     // Add to killer moves.
                     killerTable.add(distFromRoot, deferredMove);
                     // Record success in the relative history table.
                     historyTable.recordSuccessfulMove(deferredMove);
                   } else {
-                    (deferredMove.getValue() >= 0 ? searchStats.winningTacticalCutoffs :
-                        searchStats.losingTacticalCutoffs).incrementAndGet();
+                    if (deferredMoves.getValue(moveInd) >= 0) {
+                      stats.winningTacticalCutoffs++;
+                    } else {
+                      stats.losingTacticalCutoffs++;
+                    }
                   }
                   break Search;
                 }
@@ -1398,13 +1316,12 @@ public class Search implements Runnable, Future<SearchResults> {
       Move hashMove = null;
       boolean infoUpdated = false;
       try {
-        doStopSearchThread = false;
         pos = new Position(origPos);
         // If ply equals 0, perform quiescence search only.
         if (ply == 0) {
           return quiescence(0, alpha, beta);
         }
-        searchStats.mainNodes.incrementAndGet();
+        stats.mainNodes++;
         // Check for the 3-fold repetition rule.
         if (pos.hasRepeated(2)) {
           return (int) Score.DRAW_CLAIMED.value;
@@ -1423,47 +1340,44 @@ public class Search implements Runnable, Future<SearchResults> {
         if (!analysisMode && !ponder && moves.size() == 1) {
           bestScore = Score.NULL.value;
           synchronized (rootLock) {
-            insertIntoTt(pos.getKey(), origAlpha, beta, moves.get(0), bestScore, (short) 0, (short) (depth / FULL_PLY));
+            insertIntoTt(pos.getKey(), origAlpha, beta, moves.get(0).toInt(), bestScore, (short) 0, (short) (depth / FULL_PLY));
           }
           return bestScore;
         }
         // Check extension.
         depth = pos.isInCheck() ? depth + params.checkExtension : depth;
         // Pawn push extension
-        Move lastMove = pos.getLastMove();
-        depth = lastMove != null && isPawnPush(lastMove) ? depth + params.pawnPushExtension : depth;
+        int lastMove = pos.getLastMoveAsInt();
+        depth = isPawnPush(lastMove) ? depth + params.pawnPushExtension : depth;
         // Hash look-up.
-        TTEntry entry = transTable.get(pos.getKey());
-        if (entry != null) {
+        TTEntry entry = transTableEntry;
+        if (transTable.get(pos.getKey(), entry)) {
           int hashDepth = entry.getDepth();
           int hashType = entry.getType();
           int hashScore = entry.getScore();
           int hashMoveInt = entry.getBestMove();
-          // Make sure the entry was not modified while retrieving the information contained in it.
-          if (entry.hashKey() == pos.getKey()) {
-            entry.setGeneration(hashEntryGen);
-            searchStats.hashHits.incrementAndGet();
-            /* If the hashed entry's depth is greater than or equal to the current search depth, check if
-             * the stored score is usable. */
-            if (hashDepth >= depth / FULL_PLY && hashScore != Score.NULL.value) {
-              /* If the score was exact, or it was the score of an all node and is smaller than or equal
-               * to alpha, or it is that of a cut node and is greater than or equal to beta, return the
-               * score. Only take an exact score if is outside the bounds to avoid the truncation of the
-               * PV line. */
-              if ((hashType == NodeType.EXACT.ind && (hashScore <= alpha || hashScore >= beta)) ||
-                  (hashType == NodeType.FAIL_HIGH.ind && hashScore >= beta) ||
-                  (hashType == NodeType.FAIL_LOW.ind && hashScore <= alpha)) {
-                if (hashDepth > selDepth) {
-                  selDepth = hashDepth;
-                }
-                bestScore = hashScore;
-                searchStats.hashScoreHits.incrementAndGet();
-                return bestScore;
+          transTable.setGeneration(pos.getKey(), hashEntryGen);
+          stats.hashHits++;
+          /* If the hashed entry's depth is greater than or equal to the current search depth, check if
+           * the stored score is usable. */
+          if (hashDepth >= depth / FULL_PLY && hashScore != Score.NULL.value) {
+            /* If the score was exact, or it was the score of an all node and is smaller than or equal
+             * to alpha, or it is that of a cut node and is greater than or equal to beta, return the
+             * score. Only take an exact score if is outside the bounds to avoid the truncation of the
+             * PV line. */
+            if ((hashType == NodeType.EXACT.ind && (hashScore <= alpha || hashScore >= beta)) ||
+                (hashType == NodeType.FAIL_HIGH.ind && hashScore >= beta) ||
+                (hashType == NodeType.FAIL_LOW.ind && hashScore <= alpha)) {
+              if (hashDepth > selDepth) {
+                selDepth = hashDepth;
               }
+              bestScore = hashScore;
+              stats.hashScoreHits++;
+              return bestScore;
             }
-            if (hashMoveInt != 0) {
-              hashMove = Move.toMove(hashMoveInt);
-            }
+          }
+          if (hashMoveInt != 0) {
+            hashMove = Move.toMove(hashMoveInt);
           }
         }
         // If there is a hash move, make sure it is the first element.
@@ -1471,7 +1385,7 @@ public class Search implements Runnable, Future<SearchResults> {
           moves.remove(hashMove);
           moves.add(0, hashMove);
         }
-        boolean lastMoveIsMaterial = lastMove != null && lastMove.isTactical();
+        boolean lastMoveIsMaterial = Move.isTactical(lastMove);
         boolean[] searched = new boolean[moves.size()];
         int searchedMoves = 0;
         RootSearch:
@@ -1482,18 +1396,24 @@ public class Search implements Runnable, Future<SearchResults> {
               continue;
             }
             Move move = moves.get(moveInd);
-            nodes = movesToNodes.get(move);
             // Recapture extension.
-            int extension = lastMoveIsMaterial && move.capturedPiece != Piece.NULL.ind && move.to == lastMove.to ?
+            int extension = lastMoveIsMaterial && move.capturedPiece != Piece.NULL.ind && move.to == Move.getTo(lastMove) ?
                 params.recapExtension : 0;
-            int score = pvSearchMove(move, depthLimit, depth, extension, 0, searchedMoves, alpha, beta, i == 0, false);
+            // The size of the subtree of the move is only added to the shared counter once the move has been searched.
+            long subtreeStartNodes = stats.getNodes();
+            int score;
+            try {
+              score = pvSearchMove(move.toInt(), depthLimit, depth, extension, 0, searchedMoves, alpha, beta, i == 0, false);
+            } finally {
+              movesToNodes.get(move).addAndGet(stats.getNodes() - subtreeStartNodes);
+            }
             if (score == -BUSY_SCORE) {
               continue;
             }
             if (i == 0) {
               searched[moveInd] = true;
             } else {
-              searchStats.delayedNodes.incrementAndGet();
+              stats.delayedNodes++;
             }
             searchedMoves++;
             // Score check.
@@ -1505,7 +1425,7 @@ public class Search implements Runnable, Future<SearchResults> {
                 // If it is the master thread, insert the entry into the TT and update the stats.
                 if (isMainSearchThread) {
                   synchronized (rootLock) {
-                    insertIntoTt(pos.getKey(), origAlpha, beta, move, score, (short) 0,
+                    insertIntoTt(pos.getKey(), origAlpha, beta, move.toInt(), score, (short) 0,
                         (short) (depth / FULL_PLY));
                     updateInfo(pos, move, searchedMoves, ply, origAlpha, beta, score);
                     infoUpdated = true;
@@ -1522,12 +1442,13 @@ public class Search implements Runnable, Future<SearchResults> {
          * the TT. */
         if (!isMainSearchThread || bestScore <= origAlpha) {
           synchronized (rootLock) {
-            insertIntoTt(pos.getKey(), origAlpha, beta, bestMove, bestScore, (short) 0, (short) (depth / FULL_PLY));
+            insertIntoTt(pos.getKey(), origAlpha, beta, bestMove == null ? 0 : bestMove.toInt(), bestScore, (short) 0,
+                (short) (depth / FULL_PLY));
             // If it is the main thread, update the search info with the fail low score.
             if (isMainSearchThread) {
               updateInfo(pos, null, 0, ply, origAlpha, beta, bestScore);
               infoUpdated = true;
-            } else {
+            } else if (!lazySmp) {
               // If it is an early finisher slave thread, set the result of the master thread and stop it.
               master.setResult((short) bestScore);
               master.stop();
@@ -1548,7 +1469,8 @@ public class Search implements Runnable, Future<SearchResults> {
         }
         return bestScore;
       } finally {
-        if (!isMainSearchThread) {
+        // Lazy SMP helper threads only count down once their iterative deepening loops terminate.
+        if (!isMainSearchThread && !lazySmp) {
           latch.countDown();
         }
       }
@@ -1556,40 +1478,54 @@ public class Search implements Runnable, Future<SearchResults> {
   }
 
   /**
-   * A simple, thread-safe container class for search statistics in the form of atomic counters.
+   * A simple container class for the search statistics of a single search thread in the form of plain counters. The counters are only
+   * written by the thread that owns them which keeps the cache lines holding them from bouncing between processor cores. The statistics of
+   * the threads are only aggregated when needed; as the counters are not synchronized, the aggregates read by other threads may be slightly
+   * out of date.
    *
    * @author Viktor
    */
-  private class SearchStats {
+  private static class SearchStats {
 
-    final AtomicLong mainNodes, quiescenceNodes, busyNodes, delayedNodes, hashHits, hashScoreHits, iids,
+    long mainNodes, quiescenceNodes, busyNodes, delayedNodes, hashHits, hashScoreHits, iids,
         successfulIids, nullMoveReductions, nullMoveCutoffs, reverseRazorCutoffs, hashMoveCutoffs,
         winningTacticalCutoffs, killerCutoffs, losingTacticalCutoffs, quietCutoffs, futilityPrunes,
         lateMoveReductions, successfulLateMoveReductions;
+    // Padding to prevent the counters of different threads from sharing a cache line.
+    long p0, p1, p2, p3, p4, p5, p6, p7;
+
+    /**
+     * @return The total number of nodes searched.
+     */
+    long getNodes() {
+      return mainNodes + quiescenceNodes;
+    }
 
     /**
-     * Initializes the counters.
+     * Adds the counters of the specified statistics to the counters of this instance.
+     *
+     * @param stats The statistics to add.
      */
-    SearchStats() {
-      mainNodes = new AtomicLong();
-      quiescenceNodes = new AtomicLong();
-      busyNodes = new AtomicLong();
-      delayedNodes = new AtomicLong();
-      hashHits = new AtomicLong();
-      hashScoreHits = new AtomicLong();
-      iids = new AtomicLong();
-      successfulIids = new AtomicLong();
-      nullMoveReductions = new AtomicLong();
-      nullMoveCutoffs = new AtomicLong();
-      reverseRazorCutoffs = new AtomicLong();
-      hashMoveCutoffs = new AtomicLong();
-      winningTacticalCutoffs = new AtomicLong();
-      killerCutoffs = new AtomicLong();
-      losingTacticalCutoffs = new AtomicLong();
-      quietCutoffs = new AtomicLong();
-      futilityPrunes = new AtomicLong();
-      lateMoveReductions = new AtomicLong();
-      successfulLateMoveReductions = new AtomicLong();
+    void add(SearchStats stats) {
+      mainNodes += stats.mainNodes;
+      quiescenceNodes += stats.quiescenceNodes;
+      busyNodes += stats.busyNodes;
+      delayedNodes += stats.delayedNodes;
+      hashHits += stats.hashHits;
+      hashScoreHits += stats.hashScoreHits;
+      iids += stats.iids;
+      successfulIids += stats.successfulIids;
+      nullMoveReductions += stats.nullMoveReductions;
+      nullMoveCutoffs += stats.nullMoveCutoffs;
+      reverseRazorCutoffs += stats.reverseRazorCutoffs;
+      hashMoveCutoffs += stats.hashMoveCutoffs;
+      winningTacticalCutoffs += stats.winningTacticalCutoffs;
+      killerCutoffs += stats.killerCutoffs;
+      losingTacticalCutoffs += stats.losingTacticalCutoffs;
+      quietCutoffs += stats.quietCutoffs;
+      futilityPrunes += stats.futilityPrunes;
+      lateMoveReductions += stats.lateMoveReductions;
+      successfulLateMoveReductions += stats.successfulLateMoveReductions;
     }
 
     @Override
@@ -1598,22 +1534,42 @@ public class Search implements Runnable, Future<SearchResults> {
               "iids %d iid_success_rate %.2f nmrs %d nmr_success_rate %.2f nullmove_cutoffs %.2f " +
               "razor_cutoffs %.2f h_move_cutoffs %.2f wtactical_cutoffs %.2f killer_cutoffs %.2f " +
               "ltactical_cutoffs %.2f quiet_cutoffs %.2f futility_prunes %d lmrs %d lmr_success_rate %.2f",
-          mainNodes.get(), quiescenceNodes.get(), busyNodes.get(), delayedNodes.get(),
-          ((double) hashHits.get()) / mainNodes.get(), ((double) hashScoreHits.get()) / mainNodes.get(),
-          iids.get(), ((double) successfulIids.get()) / iids.get(), nullMoveReductions.get(),
-          ((double) nullMoveCutoffs.get()) / nullMoveReductions.get(),
-          ((double) nullMoveCutoffs.get()) / mainNodes.get(),
-          ((double) reverseRazorCutoffs.get()) / mainNodes.get(),
-          ((double) hashMoveCutoffs.get()) / mainNodes.get(),
-          ((double) winningTacticalCutoffs.get()) / mainNodes.get(),
-          ((double) killerCutoffs.get()) / mainNodes.get(),
-          ((double) losingTacticalCutoffs.get()) / mainNodes.get(),
-          ((double) quietCutoffs.get()) / mainNodes.get(), futilityPrunes.get(), lateMoveReductions.get(),
-          ((double) successfulLateMoveReductions.get()) / lateMoveReductions.get());
+          mainNodes, quiescenceNodes, busyNodes, delayedNodes,
+          ((double) hashHits) / mainNodes, ((double) hashScoreHits) / mainNodes,
+          iids, ((double) successfulIids) / iids, nullMoveReductions,
+          ((double) nullMoveCutoffs) / nullMoveReductions,
+          ((double) nullMoveCutoffs) / mainNodes,
+          ((double) reverseRazorCutoffs) / mainNodes,
+          ((double) hashMoveCutoffs) / mainNodes,
+          ((double) winningTacticalCutoffs) / mainNodes,
+          ((double) killerCutoffs) / mainNodes,
+          ((double) losingTacticalCutoffs) / mainNodes,
+          ((double) quietCutoffs) / mainNodes, futilityPrunes, lateMoveReductions,
+          ((double) successfulLateMoveReductions) / lateMoveReductions);
     }
 
   }
 
+  /**
+   * An enumeration of the ways the work can be shared between the search threads.
+   *
+   * @author Viktor
+   */
+  enum ParallelScheme {
+
+    /**
+     * The helper threads search the root position at the depth of the current iteration or one ply deeper and skip the nodes that are
+     * marked busy in the transposition table by other threads; the threads are synchronized after every iteration.
+     */
+    BUSY_FLAG,
+    /**
+     * The helper threads run their own iterative deepening loops with staggered depths without any synchronization, only sharing their
+     * results through the transposition table.
+     */
+    LAZY_SMP
+
+  }
+
   /**
    * A {@link java.lang.RuntimeException} for when a search is cancelled or the maximum number of nodes to search have been exceeded and
    * thus the search is interrupted resulting in an abrupt, disorderly termination.
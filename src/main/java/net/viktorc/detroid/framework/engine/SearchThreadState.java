@@ -0,0 +1,144 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.Arrays;
+
+/**
+ * The state of a search thread that is kept across searches; the move ordering heuristic tables, the pre-constructed hash table
+ * entries, and the move pickers and lists the moves are generated into at each distance from the root. Reusing the state saves the
+ * allocation of the tables, pickers, and lists on every search and lets the history heuristic start out with the statistics gathered in
+ * the previous searches of the game. It must only be used by one thread at a time.
+ *
+ * @author Viktor
+ */
+class SearchThreadState {
+
+  // The kinds of move lists kept for each distance from the root.
+  private static final int QUIESCENCE_MOVES = 0;
+  private static final int DEFERRED_MOVES = 1;
+  private static final int MOVE_LISTS_PER_PLY = 2;
+
+  private final KillerTable killerTable;
+  private final RelativeHistoryTable historyTable;
+  private final TTEntry transTableEntry;
+  private final ETEntry evalTableEntry;
+  private MoveList[] moveLists;
+  private MovePicker[] movePickers;
+
+  /**
+   * Constructs a new state.
+   *
+   * @param maxDistFromRoot The maximum distance from the root position in plies the killer table has to cover. It is also the expected
+   * maximum distance at which moves are generated.
+   */
+  SearchThreadState(int maxDistFromRoot) {
+    killerTable = new KillerTable(maxDistFromRoot);
+    historyTable = new RelativeHistoryTable();
+    transTableEntry = new TTEntry();
+    evalTableEntry = new ETEntry();
+    moveLists = new MoveList[maxDistFromRoot * MOVE_LISTS_PER_PLY];
+    movePickers = new MovePicker[maxDistFromRoot];
+  }
+
+  /**
+   * @return The killer move table.
+   */
+  KillerTable getKillerTable() {
+    return killerTable;
+  }
+
+  /**
+   * @return The relative history table.
+   */
+  RelativeHistoryTable getHistoryTable() {
+    return historyTable;
+  }
+
+  /**
+   * @return The pre-constructed transposition table entry.
+   */
+  TTEntry getTransTableEntry() {
+    return transTableEntry;
+  }
+
+  /**
+   * @return The pre-constructed evaluation table entry.
+   */
+  ETEntry getEvalTableEntry() {
+    return evalTableEntry;
+  }
+
+  /**
+   * Returns the empty move list of the specified kind for the distance from the root. The lists are created on demand and their array is
+   * grown if the distance exceeds the expected maximum.
+   *
+   * @param distFromRoot The distance from the root position in plies.
+   * @param kind The kind of the list.
+   * @return The cleared move list.
+   */
+  private MoveList getMoveList(int distFromRoot, int kind) {
+    int ind = distFromRoot * MOVE_LISTS_PER_PLY + kind;
+    if (ind >= moveLists.length) {
+      moveLists = Arrays.copyOf(moveLists, Math.max(ind + 1, 2 * moveLists.length));
+    }
+    MoveList list = moveLists[ind];
+    if (list == null) {
+      list = new MoveList();
+      moveLists[ind] = list;
+    }
+    list.clear();
+    return list;
+  }
+
+  /**
+   * @param distFromRoot The distance from the root position in plies.
+   * @return The empty list for the moves searched in quiescence search at the specified distance.
+   */
+  MoveList getQuiescenceMoves(int distFromRoot) {
+    return getMoveList(distFromRoot, QUIESCENCE_MOVES);
+  }
+
+  /**
+   * @param distFromRoot The distance from the root position in plies.
+   * @return The empty list for the moves deferred due to being searched by other threads at the specified distance.
+   */
+  MoveList getDeferredMoves(int distFromRoot) {
+    return getMoveList(distFromRoot, DEFERRED_MOVES);
+  }
+
+  /**
+   * Returns the move picker for the specified distance from the root. The pickers are created on demand and their array is grown if the
+   * distance exceeds the expected maximum.
+   *
+   * @param distFromRoot The distance from the root position in plies.
+   * @return The move picker to use at the specified distance.
+   */
+  MovePicker getMovePicker(int distFromRoot) {
+    if (distFromRoot >= movePickers.length) {
+      movePickers = Arrays.copyOf(movePickers, Math.max(distFromRoot + 1, 2 * movePickers.length));
+    }
+    MovePicker picker = movePickers[distFromRoot];
+    if (picker == null) {
+      picker = new MovePicker(killerTable, historyTable);
+      movePickers[distFromRoot] = picker;
+    }
+    return picker;
+  }
+
+  /**
+   * Prepares the state for a new search of the same game. The killer moves are cleared as they are tied to the distances from the
+   * previous root position, while the history scores are only decayed.
+   */
+  void prepareForSearch() {
+    killerTable.clear();
+    historyTable.decay();
+  }
+
+  /**
+   * Resets the state to its initial condition.
+   */
+  void reset() {
+    killerTable.clear();
+    historyTable.clear();
+  }
+
+}
@@ -1,25 +1,21 @@
 package net.viktorc.detroid.framework.engine;
 
-import net.viktorc.detroid.framework.util.Cache.Entry;
-
 /**
  * A transposition table entry that stores information about searched positions identified by the key such as the depth of the search, the
- * best move from this position compressed into a short, the score belonging to it, the type of the score, and the age of the entry. It uses
- * Hyatt's lock-less hashing.
- *
- * Lockless hashing: <a href="http://www.craftychess.com/hyatt/hashing.html">http://www.craftychess.com/hyatt/hashing.html</a>
+ * best move from this position compressed into an int, the score belonging to it, the type of the score, and the age of the entry. It is
+ * only a container for the data of an entry; the actual entries are stored in a packed form in the {@link TranspositionTable}.
  *
  * @author Viktor
  */
-class TTEntry implements Entry<TTEntry> {
+class TTEntry {
 
-  private volatile long key;
-  private volatile short depth;
-  private volatile byte type;
-  private volatile short score;
-  private volatile int bestMove;
-  private volatile byte generation;
-  private volatile boolean busy;
+  private long key;
+  private short depth;
+  private byte type;
+  private short score;
+  private int bestMove;
+  private byte generation;
+  private boolean busy;
 
   /**
    * @return The 64 bit position hash key.
@@ -63,13 +59,6 @@ class TTEntry implements Entry<TTEntry> {
     return generation;
   }
 
-  /**
-   * @param generation The age of the entry.
-   */
-  public void setGeneration(byte generation) {
-    this.generation = generation;
-  }
-
   /**
    * @return Whether the entry is in a 'busy' state.
    */
@@ -77,13 +66,6 @@ class TTEntry implements Entry<TTEntry> {
     return busy;
   }
 
-  /**
-   * @param busy Whether the entry is in a 'busy' state.
-   */
-  public void setBusy(boolean busy) {
-    this.busy = busy;
-  }
-
   /**
    * @param key The 64 bit position hash key.
    * @param depth How deep the position has been searched.
@@ -103,87 +85,6 @@ class TTEntry implements Entry<TTEntry> {
     this.busy = busy;
   }
 
-  /**
-   * XORs the data fields into the key.
-   */
-  public synchronized void setupKey() {
-    key ^= depth ^ type ^ score ^ bestMove;
-  }
-
-  @Override
-  public long hashKey() {
-    return key ^ depth ^ type ^ score ^ bestMove;
-  }
-
-  @Override
-  public boolean isEmpty() {
-    return key == 0;
-  }
-
-  @Override
-  public void assume(TTEntry entry) {
-    set(entry.key, entry.depth, entry.type, entry.score, entry.bestMove, entry.generation, entry.busy);
-  }
-
-  @Override
-  public void swap(TTEntry entry) {
-    long key = this.key;
-    short depth = this.depth;
-    byte type = this.type;
-    short score = this.score;
-    int bestMove = this.bestMove;
-    byte generation = this.generation;
-    boolean busy = this.busy;
-    assume(entry);
-    entry.set(key, depth, type, score, bestMove, generation, busy);
-  }
-
-  @Override
-  public void empty() {
-    key = 0;
-  }
-
-  @Override
-  public int compareTo(TTEntry e) {
-    if (generation < e.generation) {
-      return -1;
-    }
-    if (type == e.type) {
-      if (depth == e.depth) {
-        /* To increase the chances of the score being greater than any beta and thus produce more frequent
-         * ready-to-return hash hits... */
-        if (type == NodeType.FAIL_HIGH.ind) {
-          return score - e.score;
-        }
-        // To increase the chances of the score being lower than any alpha.
-        else if (type == NodeType.FAIL_LOW.ind) {
-          return e.score - score;
-        }
-        // Both exact, same depth.
-        else {
-          return 0;
-        }
-      }
-      // Let the search depth determine how valuable the entries are.
-      else {
-        return depth - e.depth;
-      }
-    } else {
-      // If this entry is exact and the other is not, this one is better.
-      if (type == NodeType.EXACT.ind) {
-        return 1;
-      }
-      // If neither of them are exact, let depth determine which one is better.
-      else if (e.type != NodeType.EXACT.ind) {
-        return depth - e.depth;
-      }
-      // If this entry is not exact while the other one is, do not replace.
-      else {
-        return -1;
-      }
-    }
-  }
-
   @Override
   public String toString() {
     String move = (bestMove == 0) ? null : Move.toMove(bestMove).toString();
@@ -0,0 +1,812 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import net.viktorc.detroid.framework.engine.MappedTableBase.Table;
+import net.viktorc.detroid.framework.util.BitOperations;
+
+/**
+ * A multi-threaded retrograde analysis based generator of the 3 and 4 piece endgame tablebases probed by {@link MappedTableBase}. The
+ * tables are generated in the order of their dependencies; the tables of the material signatures a position can be converted into by a
+ * capture or a promotion are generated and memory-mapped first, so the values of the conversions can be looked up directly.
+ *
+ * The generation of a table starts with a pass over all of its positions that determines the mates, the number of moves leading to other
+ * positions of the same table, and the distances at which the positions can be won or lost through their conversions. Then the positions
+ * are resolved in the order of their distance to mate. In each iteration, the predecessors of the positions resolved at the current
+ * distance are enumerated by generating the moves of the side that just moved backwards. If a position is lost, all its predecessors are
+ * won at the next distance. If it is won, the counters of the remaining moves of its predecessors are decremented, and the predecessors
+ * with no moves left are evaluated exactly based on their children to see whether they are lost. Positions that can be resolved through
+ * their conversions or en passant captures at a greater distance are scheduled to be evaluated at that distance. The iterations are
+ * carried out in parallel on the chunks of the index space of the table using a fork-join pool.
+ *
+ * @author Viktor
+ */
+public final class TableBaseGenerator {
+
+  // The number of positions processed by a single task.
+  private static final int CHUNK_SIZE = 1 << 12;
+  // The greatest distance to mate that can be stored in an unsigned byte next to the value for draws.
+  private static final int MAX_DISTANCE = 254;
+  private static final int NUM_OF_PROMOTION_TYPES = 4;
+  private static final byte[] PROMOTION_TYPES = {Piece.W_QUEEN.ind, Piece.W_ROOK.ind, Piece.W_BISHOP.ind, Piece.W_KNIGHT.ind};
+  private static final Piece[] PIECES = Piece.values();
+  private static final MoveSetBase[] MOVE_SET_BASES = MoveSetBase.values();
+
+  private final ForkJoinPool pool;
+  private final File destDir;
+  private final Logger logger;
+  private final Map<String, Table> tables;
+
+  /**
+   * Constructs a generator that writes the tablebase files into the specified folder.
+   *
+   * @param pool The fork-join pool to use for the generation.
+   * @param destDir The path to the folder to write the tablebase files to. Tablebase files already in the folder are not generated again.
+   * @param logger A logger for reporting the progress of the generation. It may be null.
+   */
+  public TableBaseGenerator(ForkJoinPool pool, String destDir, Logger logger) {
+    this.pool = pool;
+    this.destDir = new File(destDir);
+    this.logger = logger;
+    tables = new HashMap<>();
+  }
+
+  /**
+   * Fills in the material of the position resulting from the removal of a captured piece and/or the promotion of a pawn.
+   *
+   * @param index The index of the material signature of the original position.
+   * @param removed The slot of the captured piece or -1 if there is none.
+   * @param promoted The slot of the promoted pawn or -1 if there is none.
+   * @param promotion The index of the type the pawn is promoted to in {@link #PROMOTION_TYPES}.
+   * @param types The array to write the types of the remaining pieces to.
+   * @param white The array to write the colors of the remaining pieces to.
+   * @param slots The array to write the original slots of the remaining pieces to.
+   * @return The number of remaining pieces.
+   */
+  private static int convert(TableBaseIndex index, int removed, int promoted, int promotion, byte[] types, boolean[] white,
+      int[] slots) {
+    int count = 0;
+    for (int i = 0; i < index.numOfPieces(); i++) {
+      if (i != removed) {
+        types[count] = i == promoted ? PROMOTION_TYPES[promotion] : index.types[i];
+        white[count] = index.white[i];
+        slots[count++] = i;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns whether the specified combination of a capture and a promotion can occur in positions of the material signature.
+   */
+  private static boolean isConversion(TableBaseIndex index, int removed, int promoted, int promotion) {
+    return (removed >= 0 || promoted >= 0) && removed != 0 && removed != 1 && (promoted >= 0 || promotion == 0) &&
+        (promoted < 0 || (index.types[promoted] == Piece.W_PAWN.ind && promoted != removed));
+  }
+
+  private static int conversionIndex(int numOfPieces, int removed, int promoted, int promotion) {
+    return ((removed + 1) * (numOfPieces + 1) + promoted + 1) * NUM_OF_PROMOTION_TYPES + promotion;
+  }
+
+  /**
+   * Returns the canonical names of the material signatures of at least 3 pieces positions of the material signature can be converted
+   * into.
+   *
+   * @param index The index of the material signature.
+   * @return The names of the material signatures the table depends on.
+   */
+  private static Set<String> dependencies(TableBaseIndex index) {
+    Set<String> names = new LinkedHashSet<>();
+    int numOfPieces = index.numOfPieces();
+    byte[] types = new byte[numOfPieces];
+    boolean[] white = new boolean[numOfPieces];
+    int[] slots = new int[numOfPieces];
+    for (int removed = -1; removed < numOfPieces; removed++) {
+      for (int promoted = -1; promoted < numOfPieces; promoted++) {
+        for (int promotion = 0; promotion < NUM_OF_PROMOTION_TYPES; promotion++) {
+          if (isConversion(index, removed, promoted, promotion)) {
+            int count = convert(index, removed, promoted, promotion, types, white, slots);
+            if (count >= TableBaseIndex.MIN_NUMBER_OF_PIECES) {
+              names.add(TableBaseIndex.canonicalName(TableBaseIndex.nameOf(types, white, count)));
+            }
+          }
+        }
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Writes the tablebase file. The file is written under a temporary name first, so incomplete files are never mistaken for valid ones.
+   *
+   * @param file The tablebase file.
+   * @param index The index of the material signature.
+   * @param values The values of the positions.
+   * @throws IOException If the file cannot be written.
+   */
+  private static void write(File file, TableBaseIndex index, byte[] values) throws IOException {
+    byte[] header = new byte[MappedTableBase.HEADER_SIZE];
+    Table.writeHeader(index, header);
+    File tempFile = new File(file.getPath() + ".tmp");
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+      out.write(header);
+      out.write(values);
+    }
+    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Generates the tablebases of all material signatures with at most the specified number of pieces.
+   *
+   * @param maxNumOfPieces The maximum number of pieces. Tablebases are generated for at most 4 pieces.
+   * @return The names of the material signatures that had to be generated.
+   * @throws IOException If a tablebase file cannot be written or read.
+   */
+  public List<String> generate(int maxNumOfPieces) throws IOException {
+    List<String> generated = new ArrayList<>();
+    for (int i = TableBaseIndex.MIN_NUMBER_OF_PIECES; i <= Math.min(maxNumOfPieces, TableBaseIndex.MAX_NUMBER_OF_PIECES); i++) {
+      for (String name : TableBaseIndex.canonicalNames(i)) {
+        generate(name, generated);
+      }
+    }
+    return generated;
+  }
+
+  /**
+   * Generates the tablebase of the material signature along with all the tablebases it depends on.
+   *
+   * @param name The name of the material signature, e.g. <code>kqkr</code>.
+   * @return The names of the material signatures that had to be generated.
+   * @throws IOException If a tablebase file cannot be written or read.
+   * @throws IllegalArgumentException If the name is not a valid material signature with 3 to 4 pieces.
+   */
+  public List<String> generate(String name) throws IOException {
+    List<String> generated = new ArrayList<>();
+    generate(name, generated);
+    return generated;
+  }
+
+  private void generate(String name, List<String> generated) throws IOException {
+    name = TableBaseIndex.canonicalName(name);
+    if (tables.containsKey(name)) {
+      return;
+    }
+    File file = new File(destDir, name + MappedTableBase.FILE_EXTENSION);
+    if (file.exists()) {
+      try {
+        tables.put(name, Table.map(file));
+        return;
+      } catch (IllegalArgumentException e) {
+        // Regenerate invalid files.
+      }
+    }
+    TableBaseIndex index = TableBaseIndex.forName(name);
+    for (String dependency : dependencies(index)) {
+      generate(dependency, generated);
+    }
+    long start = System.currentTimeMillis();
+    Generation generation = new Generation(index);
+    byte[] values = generation.run();
+    if (!destDir.exists() && !destDir.mkdirs()) {
+      throw new IOException("Cannot create folder " + destDir);
+    }
+    write(file, index, values);
+    tables.put(name, Table.map(file));
+    generated.add(name);
+    if (logger != null) {
+      logger.info(String.format("%s - positions: %d; longest mate: %d plies; time: %d ms", name, index.size,
+          generation.longestMate, System.currentTimeMillis() - start));
+    }
+  }
+
+  /**
+   * The state of the generation of a single table.
+   *
+   * @author Viktor
+   */
+  private final class Generation {
+
+    final TableBaseIndex index;
+    final int numOfPieces;
+    // The values of the positions in the same encoding as in the files; 0 for draws and positions that have not been resolved yet.
+    final byte[] values;
+    // The number of moves of the positions leading to positions of the same table not yet known to be won.
+    final AtomicIntegerArray counters;
+    // The distances at which the positions are to be evaluated again; 0 if none.
+    final byte[] scheduled;
+    // Whether the positions are to be evaluated at the next distance.
+    final byte[] marks;
+    final Conversion[] conversions;
+    final LongAdder found;
+    final LongAdder resolved;
+    final AtomicInteger maxScheduled;
+    int longestMate;
+
+    Generation(TableBaseIndex index) {
+      this.index = index;
+      numOfPieces = index.numOfPieces();
+      values = new byte[index.size];
+      counters = new AtomicIntegerArray(index.size);
+      scheduled = new byte[index.size];
+      marks = new byte[index.size];
+      conversions = new Conversion[conversionIndex(numOfPieces, numOfPieces, numOfPieces, 0)];
+      found = new LongAdder();
+      resolved = new LongAdder();
+      maxScheduled = new AtomicInteger();
+      byte[] types = new byte[numOfPieces];
+      boolean[] white = new boolean[numOfPieces];
+      int[] slots = new int[numOfPieces];
+      for (int removed = -1; removed < numOfPieces; removed++) {
+        for (int promoted = -1; promoted < numOfPieces; promoted++) {
+          for (int promotion = 0; promotion < NUM_OF_PROMOTION_TYPES; promotion++) {
+            if (isConversion(index, removed, promoted, promotion)) {
+              int count = convert(index, removed, promoted, promotion, types, white, slots);
+              conversions[conversionIndex(numOfPieces, removed, promoted, promotion)] = new Conversion(types, white, slots, count);
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Generates the table.
+     *
+     * @return The values of the positions.
+     */
+    byte[] run() {
+      pool.invoke(new RangeTask(0, index.size, this::initialize));
+      for (int distance = 0; ; distance++) {
+        if (distance >= MAX_DISTANCE) {
+          throw new IllegalStateException("Distance to mate out of range in " + index.name);
+        }
+        int currentDistance = distance;
+        pool.invoke(new RangeTask(0, index.size, (from, to) -> retract(from, to, currentDistance)));
+        long numOfFound = found.sumThenReset();
+        if (numOfFound > 0) {
+          longestMate = distance;
+        }
+        pool.invoke(new RangeTask(0, index.size, (from, to) -> reevaluate(from, to, currentDistance + 1)));
+        long numOfResolved = resolved.sumThenReset();
+        // Nothing can be resolved at greater distances anymore.
+        if (numOfFound == 0 && numOfResolved == 0 && distance + 1 >= maxScheduled.get()) {
+          return values;
+        }
+      }
+    }
+
+    private void initialize(int from, int to) {
+      Worker worker = new Worker(numOfPieces);
+      int[] squares = worker.squares;
+      for (int ind = from; ind < to; ind++) {
+        boolean whiteToMove = index.decode(ind, squares);
+        if (index.index(squares, whiteToMove, worker.buffer) != ind) {
+          continue;
+        }
+        long occupied = 0;
+        for (int i = 0; i < numOfPieces; i++) {
+          occupied |= 1L << squares[i];
+        }
+        if (BitOperations.hammingWeight(occupied) == numOfPieces &&
+            !isAttacked(squares, squares[whiteToMove ? 1 : 0], whiteToMove, occupied, -1)) {
+          evaluate(ind, worker, whiteToMove, 0);
+        }
+      }
+    }
+
+    private void retract(int from, int to, int distance) {
+      Worker worker = new Worker(numOfPieces);
+      int[] squares = worker.squares;
+      for (int ind = from; ind < to; ind++) {
+        if ((values[ind] & 0xFF) != distance + 1) {
+          continue;
+        }
+        found.increment();
+        boolean moverWhite = !index.decode(ind, squares);
+        long occupied = 0;
+        for (int i = 0; i < numOfPieces; i++) {
+          occupied |= 1L << squares[i];
+        }
+        int kingSqr = squares[moverWhite ? 1 : 0];
+        for (int i = 0; i < numOfPieces; i++) {
+          if (index.white[i] != moverWhite) {
+            continue;
+          }
+          int sqr = squares[i];
+          long origins = retractionSet(index.types[i], sqr, moverWhite, occupied);
+          while (origins != 0) {
+            int origin = BitOperations.indexOfLSBit(origins);
+            origins = BitOperations.resetLSBit(origins);
+            squares[i] = origin;
+            if (!isAttacked(squares, kingSqr, moverWhite, occupied ^ (1L << sqr) ^ (1L << origin), -1)) {
+              int predInd = index.index(squares, moverWhite, worker.buffer);
+              if (values[predInd] == 0) {
+                if (isDoublePushNextToPawn(squares, i, origin, sqr)) {
+                  // The en passant captures have to be taken into account.
+                  marks[predInd] = 1;
+                } else if ((distance & 1) == 0) {
+                  values[predInd] = (byte) (distance + 2);
+                } else if (counters.decrementAndGet(predInd) <= 0) {
+                  marks[predInd] = 1;
+                }
+              }
+            }
+          }
+          squares[i] = sqr;
+        }
+      }
+    }
+
+    private void reevaluate(int from, int to, int distance) {
+      Worker worker = new Worker(numOfPieces);
+      for (int ind = from; ind < to; ind++) {
+        boolean marked = marks[ind] != 0;
+        boolean due = (scheduled[ind] & 0xFF) == distance;
+        if (!marked && !due) {
+          continue;
+        }
+        if (marked) {
+          marks[ind] = 0;
+        }
+        if (due) {
+          scheduled[ind] = 0;
+        }
+        if (values[ind] == 0) {
+          evaluate(ind, worker, index.decode(ind, worker.squares), distance);
+        }
+      }
+    }
+
+    /**
+     * Evaluates the position based on the current values of its children. If the position is won or lost at exactly the specified
+     * distance, it is resolved; if it is won or lost at a greater distance according to what is known at this point, or one of its
+     * children is won through an en passant capture at a distance that is not reached yet, it is scheduled to be evaluated again at that
+     * distance. When called with a distance of 0, it also initializes the move counter of the position and resolves mates.
+     */
+    private void evaluate(int ind, Worker worker, boolean whiteToMove, int distance) {
+      int[] squares = worker.squares;
+      long occupied = 0;
+      long own = 0;
+      for (int i = 0; i < numOfPieces; i++) {
+        long bit = 1L << squares[i];
+        occupied |= bit;
+        if (index.white[i] == whiteToMove) {
+          own |= bit;
+        }
+      }
+      long opponent = occupied ^ own;
+      int kingSlot = whiteToMove ? 0 : 1;
+      int shortestWin = Integer.MAX_VALUE;
+      int longestLoss = 0;
+      int revisit = Integer.MAX_VALUE;
+      boolean allWins = true;
+      boolean hasLegalMoves = false;
+      // Moves leading to the same child are only possible in pawnless positions symmetric to the A1-H8 diagonal.
+      boolean mayBeSymmetric = !index.pawns && (squares[0] >>> 3) == (squares[0] & 7);
+      int counter = 0;
+      for (int i = 0; i < numOfPieces; i++) {
+        if (index.white[i] != whiteToMove) {
+          continue;
+        }
+        int from = squares[i];
+        long targets = moveSet(index.types[i], from, whiteToMove, own, opponent, occupied);
+        while (targets != 0) {
+          int to = BitOperations.indexOfLSBit(targets);
+          targets = BitOperations.resetLSBit(targets);
+          int captured = -1;
+          if ((opponent & (1L << to)) != 0) {
+            for (int j = 0; j < numOfPieces; j++) {
+              if (squares[j] == to && index.white[j] != whiteToMove) {
+                captured = j;
+              }
+            }
+          }
+          squares[i] = to;
+          long newOccupied = (occupied ^ (1L << from)) | (1L << to);
+          if (isAttacked(squares, squares[kingSlot], !whiteToMove, newOccupied, captured)) {
+            squares[i] = from;
+            continue;
+          }
+          hasLegalMoves = true;
+          boolean promotion = index.types[i] == Piece.W_PAWN.ind && (to >>> 3) == (whiteToMove ? 7 : 0);
+          for (int p = 0; p < (promotion ? NUM_OF_PROMOTION_TYPES : 1); p++) {
+            int value;
+            if (promotion || captured >= 0) {
+              value = convertedValue(conversionIndex(numOfPieces, captured, promotion ? i : -1, p), worker, !whiteToMove);
+            } else {
+              int childInd = index.index(squares, !whiteToMove, worker.buffer);
+              value = values[childInd] & 0xFF;
+              if (isDoublePushNextToPawn(squares, i, from, to)) {
+                int enPassantValue = enPassantValue(worker, i, from, to, newOccupied, whiteToMove);
+                if (enPassantValue >= 0) {
+                  if (value != 0) {
+                    value = rank(enPassantValue) > rank(value) ? enPassantValue : value;
+                  } else if (!hasLegalMove(squares, !whiteToMove) ||
+                      ((enPassantValue & 1) == 0 && enPassantValue - 1 < distance)) {
+                    value = enPassantValue;
+                  } else {
+                    // The child's value is unknown for now; it is resolved either when the child is or when the distance of the win
+                    // through the en passant capture is reached.
+                    if ((enPassantValue & 1) == 0) {
+                      revisit = Math.min(revisit, enPassantValue);
+                    }
+                    allWins = false;
+                    continue;
+                  }
+                }
+              } else if (distance == 0 && (!mayBeSymmetric || !contains(worker.children, counter, childInd))) {
+                // The counter is decremented once for every child that is won, so children are counted instead of moves.
+                worker.children[counter++] = childInd;
+              }
+            }
+            if (value == 0) {
+              allWins = false;
+            } else if (((value - 1) & 1) == 0) {
+              shortestWin = Math.min(shortestWin, value);
+            } else {
+              longestLoss = Math.max(longestLoss, value);
+            }
+          }
+          squares[i] = from;
+        }
+      }
+      if (!hasLegalMoves) {
+        if (distance == 0 && isAttacked(squares, squares[kingSlot], !whiteToMove, occupied, -1)) {
+          values[ind] = 1;
+        }
+        return;
+      }
+      if (distance == 0) {
+        counters.set(ind, counter);
+      }
+      int target = shortestWin != Integer.MAX_VALUE ? shortestWin : allWins ? longestLoss : Integer.MAX_VALUE;
+      if (target == distance) {
+        values[ind] = (byte) (distance + 1);
+        resolved.increment();
+        return;
+      }
+      if (target < distance) {
+        throw new IllegalStateException("Inconsistent distance to mate in " + index.name + " at index " + ind);
+      }
+      revisit = Math.min(revisit, target);
+      if (revisit != Integer.MAX_VALUE) {
+        if (revisit >= MAX_DISTANCE) {
+          throw new IllegalStateException("Distance to mate out of range in " + index.name);
+        }
+        int current = scheduled[ind] & 0xFF;
+        if (current <= distance || revisit < current) {
+          scheduled[ind] = (byte) revisit;
+        }
+        maxScheduled.accumulateAndGet(revisit, Math::max);
+      }
+    }
+
+    /**
+     * Returns the best value of the en passant captures the opponent can make after the double push from the point of view of the
+     * opponent, or -1 if there are no legal en passant captures.
+     */
+    private int enPassantValue(Worker worker, int pusher, int from, int to, long occupied, boolean whiteToMove) {
+      int[] squares = worker.squares;
+      int enPassantSqr = (from + to) >>> 1;
+      int best = -1;
+      for (int j = 0; j < numOfPieces; j++) {
+        int sqr = squares[j];
+        if (index.white[j] == whiteToMove || index.types[j] != Piece.W_PAWN.ind || (sqr >>> 3) != (to >>> 3) ||
+            Math.abs((sqr & 7) - (to & 7)) != 1) {
+          continue;
+        }
+        squares[j] = enPassantSqr;
+        long newOccupied = (occupied ^ (1L << to) ^ (1L << sqr)) | (1L << enPassantSqr);
+        if (!isAttacked(squares, squares[whiteToMove ? 1 : 0], whiteToMove, newOccupied, pusher)) {
+          int value = convertedValue(conversionIndex(numOfPieces, pusher, -1, 0), worker, whiteToMove);
+          // One ply further from the point of view of the side making the capture.
+          value = value == 0 ? 0 : value + 1;
+          if (best < 0 || rank(value) > rank(best)) {
+            best = value;
+          }
+        }
+        squares[j] = sqr;
+      }
+      return best;
+    }
+
+    private int convertedValue(int conversionInd, Worker worker, boolean whiteToMove) {
+      Conversion conversion = conversions[conversionInd];
+      if (conversion.table == null) {
+        return 0;
+      }
+      int[] squares = worker.squares;
+      int[] converted = worker.converted;
+      int[] sourceSlots = conversion.sourceSlots;
+      for (int i = 0; i < sourceSlots.length; i++) {
+        converted[i] = conversion.flip ? squares[sourceSlots[i]] ^ 56 : squares[sourceSlots[i]];
+      }
+      TableBaseIndex targetIndex = conversion.table.index;
+      return conversion.table.get(targetIndex.index(converted, whiteToMove ^ conversion.flip, worker.buffer));
+    }
+
+    private boolean contains(int[] array, int length, int value) {
+      for (int i = 0; i < length; i++) {
+        if (array[i] == value) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean isDoublePushNextToPawn(int[] squares, int pusher, int from, int to) {
+      if (index.types[pusher] != Piece.W_PAWN.ind || Math.abs(to - from) != 16) {
+        return false;
+      }
+      for (int j = 0; j < numOfPieces; j++) {
+        if (index.white[j] != index.white[pusher] && index.types[j] == Piece.W_PAWN.ind && (squares[j] >>> 3) == (to >>> 3) &&
+            Math.abs((squares[j] & 7) - (to & 7)) == 1) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean hasLegalMove(int[] squares, boolean whiteToMove) {
+      long occupied = 0;
+      long own = 0;
+      for (int i = 0; i < numOfPieces; i++) {
+        long bit = 1L << squares[i];
+        occupied |= bit;
+        if (index.white[i] == whiteToMove) {
+          own |= bit;
+        }
+      }
+      int kingSlot = whiteToMove ? 0 : 1;
+      for (int i = 0; i < numOfPieces; i++) {
+        if (index.white[i] != whiteToMove) {
+          continue;
+        }
+        int from = squares[i];
+        long targets = moveSet(index.types[i], from, whiteToMove, own, occupied ^ own, occupied);
+        while (targets != 0) {
+          int to = BitOperations.indexOfLSBit(targets);
+          targets = BitOperations.resetLSBit(targets);
+          int captured = -1;
+          for (int j = 0; j < numOfPieces; j++) {
+            if (squares[j] == to && index.white[j] != whiteToMove) {
+              captured = j;
+            }
+          }
+          squares[i] = to;
+          boolean legal = !isAttacked(squares, squares[kingSlot], !whiteToMove, (occupied ^ (1L << from)) | (1L << to), captured);
+          squares[i] = from;
+          if (legal) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns whether the square is attacked by any of the pieces of the specified color except for the one in the excluded slot.
+     */
+    private boolean isAttacked(int[] squares, int sqr, boolean byWhite, long occupied, int excluded) {
+      long bit = 1L << sqr;
+      for (int i = 0; i < numOfPieces; i++) {
+        if (index.white[i] != byWhite || i == excluded) {
+          continue;
+        }
+        MoveSetBase moveSetBase = MOVE_SET_BASES[squares[i]];
+        long attacks;
+        switch (PIECES[index.types[i]]) {
+          case W_KING:
+            attacks = moveSetBase.kingMoveMask;
+            break;
+          case W_QUEEN:
+            attacks = moveSetBase.getQueenMoveSet(Bitboard.FULL_BOARD, occupied);
+            break;
+          case W_ROOK:
+            attacks = moveSetBase.getRookMoveSet(Bitboard.FULL_BOARD, occupied);
+            break;
+          case W_BISHOP:
+            attacks = moveSetBase.getBishopMoveSet(Bitboard.FULL_BOARD, occupied);
+            break;
+          case W_KNIGHT:
+            attacks = moveSetBase.knightMoveMask;
+            break;
+          default:
+            attacks = byWhite ? moveSetBase.whitePawnCaptureMoveMask : moveSetBase.blackPawnCaptureMoveMask;
+            break;
+        }
+        if ((attacks & bit) != 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
+  private static long moveSet(byte type, int sqr, boolean white, long own, long opponent, long occupied) {
+    MoveSetBase moveSetBase = MOVE_SET_BASES[sqr];
+    switch (PIECES[type]) {
+      case W_KING:
+        return moveSetBase.getKingMoveSet(~own);
+      case W_QUEEN:
+        return moveSetBase.getQueenMoveSet(~own, occupied);
+      case W_ROOK:
+        return moveSetBase.getRookMoveSet(~own, occupied);
+      case W_BISHOP:
+        return moveSetBase.getBishopMoveSet(~own, occupied);
+      case W_KNIGHT:
+        return moveSetBase.getKnightMoveSet(~own);
+      default:
+        return white ? moveSetBase.getWhitePawnMoveSet(opponent, ~occupied) :
+            moveSetBase.getBlackPawnMoveSet(opponent, ~occupied);
+    }
+  }
+
+  /**
+   * Returns the set of squares the piece on the specified square could have moved from without capturing anything.
+   */
+  private static long retractionSet(byte type, int sqr, boolean white, long occupied) {
+    MoveSetBase moveSetBase = MOVE_SET_BASES[sqr];
+    long empty = ~occupied;
+    switch (PIECES[type]) {
+      case W_KING:
+        return moveSetBase.kingMoveMask & empty;
+      case W_QUEEN:
+        return moveSetBase.getQueenMoveSet(empty, occupied);
+      case W_ROOK:
+        return moveSetBase.getRookMoveSet(empty, occupied);
+      case W_BISHOP:
+        return moveSetBase.getBishopMoveSet(empty, occupied);
+      case W_KNIGHT:
+        return moveSetBase.knightMoveMask & empty;
+      default:
+        int step = white ? -8 : 8;
+        int origin = sqr + step;
+        // Pawns can only have moved from the ranks 2 to 7.
+        if (origin < 8 || origin > 55 || (empty & (1L << origin)) == 0) {
+          return Bitboard.EMPTY_BOARD;
+        }
+        long origins = 1L << origin;
+        if ((sqr >>> 3) == (white ? 3 : 4) && (empty & (1L << (origin + step))) != 0) {
+          origins |= 1L << (origin + step);
+        }
+        return origins;
+    }
+  }
+
+  /**
+   * Returns a number that is the greater the better the value is for the side to move.
+   */
+  private static int rank(int value) {
+    if (value == 0) {
+      return 0;
+    }
+    return ((value - 1) & 1) == 1 ? 2 * MAX_DISTANCE - value : value - 2 * MAX_DISTANCE;
+  }
+
+  /**
+   * A way of looking up the values of the positions resulting from a capture and/or promotion in the table of the resulting material
+   * signature.
+   *
+   * @author Viktor
+   */
+  private final class Conversion {
+
+    // The table of the resulting material signature or null if only the kings remain.
+    final Table table;
+    // Whether the colors have to be swapped to look the position up in the table.
+    final boolean flip;
+    // The slots of the original position the pieces in the slots of the table are in.
+    final int[] sourceSlots;
+
+    Conversion(byte[] types, boolean[] white, int[] slots, int count) {
+      if (count < TableBaseIndex.MIN_NUMBER_OF_PIECES) {
+        table = null;
+        flip = false;
+        sourceSlots = null;
+        return;
+      }
+      String name = TableBaseIndex.nameOf(types, white, count);
+      String canonicalName = TableBaseIndex.canonicalName(name);
+      flip = !canonicalName.equals(name);
+      table = tables.get(canonicalName);
+      sourceSlots = new int[count];
+      boolean[] used = new boolean[count];
+      for (int i = 0; i < count; i++) {
+        for (int j = 0; j < count; j++) {
+          if (!used[j] && types[j] == table.index.types[i] && (white[j] ^ flip) == table.index.white[i]) {
+            sourceSlots[i] = slots[j];
+            used[j] = true;
+            break;
+          }
+        }
+      }
+    }
+
+  }
+
+  /**
+   * The scratch arrays of a task.
+   *
+   * @author Viktor
+   */
+  private static final class Worker {
+
+    final int[] squares;
+    final int[] converted;
+    final int[] buffer;
+    final int[] children;
+
+    Worker(int numOfPieces) {
+      children = new int[MoveList.CAPACITY];
+      squares = new int[numOfPieces];
+      converted = new int[numOfPieces];
+      buffer = new int[numOfPieces];
+    }
+
+  }
+
+  /**
+   * A functional interface for processing a range of indices.
+   *
+   * @author Viktor
+   */
+  @FunctionalInterface
+  private interface RangeProcessor {
+
+    void process(int from, int to);
+
+  }
+
+  /**
+   * A task for processing a range of indices that splits the range in halves until it is no greater than {@link #CHUNK_SIZE}.
+   *
+   * @author Viktor
+   */
+  private static final class RangeTask extends RecursiveAction {
+
+    /**
+     * Default serial version ID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final RangeProcessor processor;
+
+    RangeTask(int from, int to, RangeProcessor processor) {
+      this.from = from;
+      this.to = to;
+      this.processor = processor;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= CHUNK_SIZE) {
+        processor.process(from, to);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new RangeTask(from, mid, processor), new RangeTask(mid, to, processor));
+    }
+
+  }
+
+}
@@ -0,0 +1,291 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The indexing scheme of the tablebases generated by {@link TableBaseGenerator} for a given material signature. The signature is denoted
+ * by a Gaviota style name such as <code>kqkr</code>; the pieces of the white side followed by those of the black side, each starting with
+ * the king and listing the rest of the pieces in the order of queens, rooks, bishops, knights, and pawns. The pieces occupy the slots of
+ * the index in the order of the white king, the black king, the rest of the white pieces, and the rest of the black pieces.
+ *
+ * The index of a position is a mixed radix number of the squares of the pieces and the side to move. The symmetries of the board are used
+ * to make the index space smaller; the white king is always mapped to the files A to D, and if there are no pawns on the board, to the A1,
+ * D1, D4 triangle as well. Pawns can only be on the ranks 2 to 7. Positions with multiple pieces of the same type and color, and pawnless
+ * positions with the white king on the A1-H8 diagonal can be represented by several indices, out of which only the lowest one is
+ * canonical. {@link #index(int[], boolean, int[])} always returns the canonical index of the position.
+ *
+ * @author Viktor
+ */
+final class TableBaseIndex {
+
+  /**
+   * The smallest number of pieces a material signature can have tablebases for.
+   */
+  static final int MIN_NUMBER_OF_PIECES = 3;
+  /**
+   * The largest number of pieces a material signature can have tablebases for.
+   */
+  static final int MAX_NUMBER_OF_PIECES = 4;
+
+  // The piece types in the order they are listed in the names.
+  private static final String PIECE_LETTERS = "kqrbnp";
+  private static final int NUM_OF_TRIANGLE_SQUARES = 10;
+  private static final int[] TRIANGLE_SQUARES = {0, 1, 2, 3, 9, 10, 11, 18, 19, 27};
+  private static final int[] TRIANGLE_CODES = new int[64];
+
+  static {
+    Arrays.fill(TRIANGLE_CODES, -1);
+    for (int i = 0; i < NUM_OF_TRIANGLE_SQUARES; i++) {
+      TRIANGLE_CODES[TRIANGLE_SQUARES[i]] = i;
+    }
+  }
+
+  final String name;
+  // The types of the pieces in the slots as the indices of the white pieces in {@link Piece}.
+  final byte[] types;
+  final boolean[] white;
+  final boolean pawns;
+  final int size;
+  // The first slot of the run of pieces of the same type and color each slot belongs to.
+  private final int[] runStarts;
+  private final int[] radices;
+
+  private TableBaseIndex(String name) {
+    int secondKing = name.indexOf('k', 1);
+    if (!name.startsWith("k") || secondKing < 0 || name.length() < MIN_NUMBER_OF_PIECES || name.length() > MAX_NUMBER_OF_PIECES) {
+      throw new IllegalArgumentException("Invalid material signature: " + name);
+    }
+    this.name = name;
+    int numOfPieces = name.length();
+    types = new byte[numOfPieces];
+    white = new boolean[numOfPieces];
+    runStarts = new int[numOfPieces];
+    radices = new int[numOfPieces];
+    types[0] = types[1] = Piece.W_KING.ind;
+    white[0] = true;
+    int slot = 2;
+    for (int i = 1; i < numOfPieces; i++) {
+      if (i == secondKing) {
+        continue;
+      }
+      int type = PIECE_LETTERS.indexOf(name.charAt(i));
+      if (type <= 0 || (i != 1 && i != secondKing + 1 && PIECE_LETTERS.indexOf(name.charAt(i - 1)) > type)) {
+        throw new IllegalArgumentException("Invalid material signature: " + name);
+      }
+      types[slot] = (byte) (Piece.W_KING.ind + type);
+      white[slot++] = i < secondKing;
+    }
+    boolean pawns = false;
+    long size = 2;
+    for (int i = 0; i < numOfPieces; i++) {
+      pawns |= types[i] == Piece.W_PAWN.ind;
+      runStarts[i] = i > 1 && types[i] == types[i - 1] && white[i] == white[i - 1] ? runStarts[i - 1] : i;
+    }
+    for (int i = 0; i < numOfPieces; i++) {
+      radices[i] = i == 0 ? (pawns ? 32 : NUM_OF_TRIANGLE_SQUARES) : types[i] == Piece.W_PAWN.ind ? 48 : 64;
+      size *= radices[i];
+    }
+    this.pawns = pawns;
+    this.size = (int) size;
+  }
+
+  /**
+   * Returns the index of the specified material signature.
+   *
+   * @param name The name of the material signature.
+   * @return The index.
+   * @throws IllegalArgumentException If the name is not a valid material signature with 3 to 4 pieces.
+   */
+  static TableBaseIndex forName(String name) {
+    return new TableBaseIndex(name);
+  }
+
+  /**
+   * Returns the name of the material signature with the colors of the pieces swapped.
+   *
+   * @param name The name of the material signature.
+   * @return The name of the flipped material signature.
+   */
+  static String flip(String name) {
+    int secondKing = name.indexOf('k', 1);
+    return name.substring(secondKing) + name.substring(0, secondKing);
+  }
+
+  /**
+   * Returns the canonical name of the material signature which is the one with the stronger side being white. Tablebases are only
+   * generated for canonical material signatures. The side with more pieces is considered stronger and if both sides have the same number
+   * of pieces, the one with the strongest piece that the other side does not have.
+   *
+   * @param name The name of the material signature.
+   * @return The canonical name of the material signature.
+   */
+  static String canonicalName(String name) {
+    String flipped = flip(name);
+    int secondKing = name.indexOf('k', 1);
+    int whitePieces = secondKing;
+    int blackPieces = name.length() - secondKing;
+    if (whitePieces != blackPieces) {
+      return whitePieces > blackPieces ? name : flipped;
+    }
+    for (int i = 1; i < secondKing; i++) {
+      int whiteType = PIECE_LETTERS.indexOf(name.charAt(i));
+      int blackType = PIECE_LETTERS.indexOf(name.charAt(secondKing + i));
+      if (whiteType != blackType) {
+        return whiteType < blackType ? name : flipped;
+      }
+    }
+    return name;
+  }
+
+  /**
+   * Returns the name of the material signature of the pieces.
+   *
+   * @param types The types of the pieces as the indices of the white pieces in {@link Piece}.
+   * @param white The colors of the pieces.
+   * @param numOfPieces The number of pieces to consider from the start of the arrays.
+   * @return The name of the material signature.
+   */
+  static String nameOf(byte[] types, boolean[] white, int numOfPieces) {
+    StringBuilder whitePieces = new StringBuilder();
+    StringBuilder blackPieces = new StringBuilder();
+    for (int type = Piece.W_KING.ind; type <= Piece.W_PAWN.ind; type++) {
+      for (int i = 0; i < numOfPieces; i++) {
+        if (types[i] == type) {
+          (white[i] ? whitePieces : blackPieces).append(PIECE_LETTERS.charAt(type - Piece.W_KING.ind));
+        }
+      }
+    }
+    return whitePieces.append(blackPieces).toString();
+  }
+
+  /**
+   * Returns the canonical names of all the material signatures with the specified number of pieces.
+   *
+   * @param numOfPieces The number of pieces.
+   * @return The list of canonical names.
+   */
+  static List<String> canonicalNames(int numOfPieces) {
+    List<String> names = new ArrayList<>();
+    String extras = PIECE_LETTERS.substring(1);
+    int numOfExtras = numOfPieces - 2;
+    // Each combination of extra pieces with repetition is represented by non-decreasing indices into the extra piece letters.
+    int[] combination = new int[numOfExtras];
+    while (true) {
+      for (int numOfWhiteExtras = numOfExtras; numOfWhiteExtras >= 0; numOfWhiteExtras--) {
+        StringBuilder name = new StringBuilder("k");
+        for (int i = 0; i < numOfExtras; i++) {
+          if (i == numOfWhiteExtras) {
+            name.append('k');
+          }
+          name.append(extras.charAt(combination[i]));
+        }
+        if (numOfWhiteExtras == numOfExtras) {
+          name.append('k');
+        }
+        String candidate = name.toString();
+        // Skip the names which do not list the pieces of either side in order.
+        try {
+          forName(candidate);
+        } catch (IllegalArgumentException e) {
+          continue;
+        }
+        if (canonicalName(candidate).equals(candidate) && !names.contains(candidate)) {
+          names.add(candidate);
+        }
+      }
+      int i = numOfExtras - 1;
+      while (i >= 0 && combination[i] == extras.length() - 1) {
+        i--;
+      }
+      if (i < 0) {
+        break;
+      }
+      combination[i]++;
+      for (int j = i + 1; j < numOfExtras; j++) {
+        combination[j] = 0;
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Returns the number of pieces in the material signature.
+   *
+   * @return The number of pieces.
+   */
+  int numOfPieces() {
+    return types.length;
+  }
+
+  /**
+   * Returns the canonical index of the position.
+   *
+   * @param squares The squares of the pieces in the order of the slots.
+   * @param whiteToMove Whether it is white's turn.
+   * @param buffer An array of at least the length of the number of pieces for the transformed squares.
+   * @return The canonical index of the position.
+   */
+  int index(int[] squares, boolean whiteToMove, int[] buffer) {
+    int king = squares[0];
+    int mirror = (king & 7) > 3 ? 7 : 0;
+    if (pawns) {
+      return encode(squares, mirror, false, whiteToMove, buffer);
+    }
+    if ((king >>> 3) > 3) {
+      mirror |= 56;
+    }
+    king ^= mirror;
+    int rank = king >>> 3;
+    int file = king & 7;
+    if (rank > file) {
+      return encode(squares, mirror, true, whiteToMove, buffer);
+    }
+    int ind = encode(squares, mirror, false, whiteToMove, buffer);
+    // Both the position and its reflection along the diagonal have the white king in the triangle; choose the lower index.
+    return rank == file ? Math.min(ind, encode(squares, mirror, true, whiteToMove, buffer)) : ind;
+  }
+
+  private int encode(int[] squares, int mirror, boolean transpose, boolean whiteToMove, int[] buffer) {
+    int numOfPieces = types.length;
+    for (int i = 0; i < numOfPieces; i++) {
+      int sqr = squares[i] ^ mirror;
+      if (transpose) {
+        sqr = ((sqr & 7) << 3) | (sqr >>> 3);
+      }
+      buffer[i] = sqr;
+      // Keep the squares of pieces of the same type and color in ascending order.
+      for (int j = i; j > runStarts[i] && buffer[j - 1] > buffer[j]; j--) {
+        int tmp = buffer[j];
+        buffer[j] = buffer[j - 1];
+        buffer[j - 1] = tmp;
+      }
+    }
+    int ind = pawns ? ((buffer[0] >>> 3) << 2) | (buffer[0] & 7) : TRIANGLE_CODES[buffer[0]];
+    for (int i = 1; i < numOfPieces; i++) {
+      ind = ind * radices[i] + (types[i] == Piece.W_PAWN.ind ? buffer[i] - 8 : buffer[i]);
+    }
+    return (ind << 1) | (whiteToMove ? 0 : 1);
+  }
+
+  /**
+   * Decodes the index into the squares of the pieces. The index does not have to be canonical.
+   *
+   * @param ind The index.
+   * @param squares The array to write the squares of the pieces to in the order of the slots.
+   * @return Whether it is white's turn in the position.
+   */
+  boolean decode(int ind, int[] squares) {
+    boolean whiteToMove = (ind & 1) == 0;
+    ind >>>= 1;
+    for (int i = types.length - 1; i > 0; i--) {
+      int code = ind % radices[i];
+      ind /= radices[i];
+      squares[i] = types[i] == Piece.W_PAWN.ind ? code + 8 : code;
+    }
+    squares[0] = pawns ? ((ind >>> 2) << 3) | (ind & 3) : TRIANGLE_SQUARES[ind];
+    return whiteToMove;
+  }
+
+}
@@ -0,0 +1,388 @@
+package net.viktorc.detroid.framework.engine;
+
+
+/**
+ * An abstract, pre-allocated, lock-free transposition table backed by a {@link LockFreeHashTable}. The data of an entry (the best move,
+ * the score, the depth, the type, the generation, and the 'busy' flag) is packed into 64 bits. The implementations only differ in the way
+ * they map keys to slots and in their replacement schemes. The table does not take up heap space and its memory should be released by
+ * calling {@link #free()}.
+ *
+ * Entries are aged relative to the current generation of the table. Entries older than the entry life cycle are considered expired; they
+ * are not returned by look-ups and their slots are treated as empty by the replacement schemes. This way, starting a new generation takes
+ * constant time regardless of the size of the table. The slots of expired entries may be emptied incrementally via
+ * {@link #removeExpired(long, long)} to prevent them from resurfacing once the generation values wrap around.
+ *
+ * @author Viktor
+ */
+abstract class TranspositionTable {
+
+  /**
+   * The number of bytes a single entry takes up in the table.
+   */
+  static final int ENTRY_SIZE = LockFreeHashTable.SLOT_SIZE;
+  /**
+   * The maximum number of entries the table can hold.
+   */
+  static final long MAX_CAPACITY = LockFreeHashTable.MAX_CAPACITY;
+
+  // The maximum number of slots to check when estimating the load of the table.
+  private static final int LOAD_SAMPLE_SIZE = 1000;
+
+  // Shift and mask values for packing the data of an entry into a long.
+  private static final int SHIFT_SCORE = 23;
+  private static final int SHIFT_DEPTH = 39;
+  private static final int SHIFT_TYPE = 47;
+  private static final int SHIFT_GENERATION = 49;
+  private static final int SHIFT_BUSY = 56;
+  private static final int SHIFT_OCCUPIED = 57;
+  private static final long MASK_MOVE = (1L << SHIFT_SCORE) - 1;
+  private static final long MASK_SCORE = 0xFFFFL;
+  private static final long MASK_DEPTH = 0xFFL;
+  private static final long MASK_TYPE = 3L;
+  private static final long MASK_GENERATION = 0x7FL;
+  private static final long BUSY_BIT = 1L << SHIFT_BUSY;
+  // Set in the data of every entry so that non-empty slots never hold a data value of 0.
+  private static final long OCCUPIED_BIT = 1L << SHIFT_OCCUPIED;
+
+  /**
+   * The slots of the table holding the packed data of the entries.
+   */
+  protected final LockFreeHashTable table;
+
+  private volatile byte currentGeneration;
+  private volatile int entryLifeCycle;
+
+  /**
+   * Constructs a table with the specified number of slots.
+   *
+   * @param capacity The number of entry slots.
+   */
+  protected TranspositionTable(long capacity) {
+    table = new LockFreeHashTable(capacity, null);
+    entryLifeCycle = (int) MASK_GENERATION;
+  }
+
+  /**
+   * Constructs a new transposition table of the specified scheme that takes up at most approximately the specified number of bytes.
+   *
+   * @param scheme The storage and replacement scheme of the table.
+   * @param sizeInBytes The maximum size of the table in bytes.
+   * @return The new transposition table.
+   */
+  static TranspositionTable newInstance(Scheme scheme, long sizeInBytes) {
+    switch (scheme) {
+      case BUCKETED:
+        return new BucketedTranspositionTable(sizeInBytes);
+      default:
+        return new CuckooTranspositionTable(sizeInBytes);
+    }
+  }
+
+  /**
+   * Packs the data fields of an entry into a single long integer.
+   *
+   * @param depth How deep the position has been searched.
+   * @param type The type of the returned score.
+   * @param score The returned score.
+   * @param bestMove The best move compressed into an int.
+   * @param generation The age of the entry.
+   * @param busy Whether the entry is in a 'busy' state.
+   * @return The packed data.
+   */
+  protected static long pack(short depth, byte type, short score, int bestMove, byte generation, boolean busy) {
+    return (bestMove & MASK_MOVE) | ((score & MASK_SCORE) << SHIFT_SCORE) |
+        ((Math.min(Math.max(depth, 0), MASK_DEPTH)) << SHIFT_DEPTH) | ((type & MASK_TYPE) << SHIFT_TYPE) |
+        ((generation & MASK_GENERATION) << SHIFT_GENERATION) | (busy ? BUSY_BIT : 0) | OCCUPIED_BIT;
+  }
+
+  /**
+   * @param data The packed data of an entry.
+   * @return How deep the position has been searched.
+   */
+  protected static short depth(long data) {
+    return (short) ((data >>> SHIFT_DEPTH) & MASK_DEPTH);
+  }
+
+  /**
+   * @param data The packed data of an entry.
+   * @return The type of the returned score.
+   */
+  protected static byte type(long data) {
+    return (byte) ((data >>> SHIFT_TYPE) & MASK_TYPE);
+  }
+
+  /**
+   * @param data The packed data of an entry.
+   * @return The returned score.
+   */
+  protected static short score(long data) {
+    return (short) (data >>> SHIFT_SCORE);
+  }
+
+  /**
+   * @param data The packed data of an entry.
+   * @return The age of the entry.
+   */
+  protected static byte generation(long data) {
+    return (byte) ((data >>> SHIFT_GENERATION) & MASK_GENERATION);
+  }
+
+  /**
+   * Returns the number of generations that have passed since the entry was last written or accessed.
+   *
+   * @param data The packed data of an entry.
+   * @return The age of the entry relative to the current generation of the table.
+   */
+  protected int age(long data) {
+    return (int) ((currentGeneration - generation(data)) & MASK_GENERATION);
+  }
+
+  /**
+   * Returns whether the slot holding the specified data is to be treated as empty, i.e. it either has never been written to or the entry
+   * it holds has expired.
+   *
+   * @param data The packed data of an entry.
+   * @return Whether the slot is vacant.
+   */
+  protected boolean isVacant(long data) {
+    return data == 0 || age(data) > entryLifeCycle;
+  }
+
+  /**
+   * Compares two packed entries. Entries of older generations are always less valuable; otherwise exact entries are preferred to bound
+   * entries and deeper entries are preferred to shallower ones.
+   *
+   * @param data1 The data of the first entry.
+   * @param data2 The data of the second entry.
+   * @return A positive number if the first entry is more valuable than the second, a negative number if it is less valuable, and 0 if
+   * they are equally valuable.
+   */
+  protected int compare(long data1, long data2) {
+    if (age(data1) > age(data2)) {
+      return -1;
+    }
+    byte type1 = type(data1);
+    byte type2 = type(data2);
+    short depth1 = depth(data1);
+    short depth2 = depth(data2);
+    if (type1 == type2) {
+      if (depth1 == depth2) {
+        if (type1 == NodeType.FAIL_HIGH.ind) {
+          return score(data1) - score(data2);
+        } else if (type1 == NodeType.FAIL_LOW.ind) {
+          return score(data2) - score(data1);
+        } else {
+          return 0;
+        }
+      } else {
+        return depth1 - depth2;
+      }
+    } else {
+      if (type1 == NodeType.EXACT.ind) {
+        return 1;
+      } else if (type2 != NodeType.EXACT.ind) {
+        return depth1 - depth2;
+      } else {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Returns whether the slot at the specified index holds the non-expired entry identified by the key.
+   *
+   * @param slot The index of the slot.
+   * @param key The 64 bit position hash key.
+   * @return Whether the slot holds the entry of the key.
+   */
+  protected boolean matches(long slot, long key) {
+    long data = table.dataAt(slot);
+    return !isVacant(data) && table.isEntryOf(slot, key, data);
+  }
+
+  /**
+   * Returns the index of the slot that holds the entry identified by the key or -1 if there is no such slot.
+   *
+   * @param key The 64 bit position hash key.
+   * @return The index of the slot.
+   */
+  protected abstract long find(long key);
+
+  /**
+   * Inserts an entry into the table if the replacement scheme of the table allows for it.
+   *
+   * @param entry The entry to insert.
+   * @return Whether the entry has been inserted into the table.
+   */
+  abstract boolean put(TTEntry entry);
+
+  /**
+   * Returns the total number of slots in the table.
+   *
+   * @return The total number of entry slots.
+   */
+  long capacity() {
+    return table.capacity();
+  }
+
+  /**
+   * Returns an estimate of the number of non-expired entries in the table based on the load of a sample of evenly spaced slots.
+   *
+   * @return The estimated number of non-expired entries.
+   */
+  long size() {
+    long capacity = capacity();
+    long sampleSize = Math.min(capacity, LOAD_SAMPLE_SIZE);
+    long stride = capacity / sampleSize;
+    long load = 0;
+    for (long i = 0; i < sampleSize; i++) {
+      if (!isVacant(table.dataAt(i * stride))) {
+        load++;
+      }
+    }
+    return load * capacity / sampleSize;
+  }
+
+  /**
+   * Returns the size of the table in bytes.
+   *
+   * @return The size of the table in bytes.
+   */
+  long memorySize() {
+    return table.memorySize();
+  }
+
+  /**
+   * Loads the data of the entry identified by the key into the specified entry object if it is in the table.
+   *
+   * @param key The 64 bit position hash key.
+   * @param entry The entry object to load the data into.
+   * @return Whether the table contained an entry for the key.
+   */
+  boolean get(long key, TTEntry entry) {
+    long slot = find(key);
+    if (slot == -1) {
+      return false;
+    }
+    long data = table.dataAt(slot);
+    // Make sure the slot has not been overwritten since it was found.
+    if (!table.isEntryOf(slot, key, data)) {
+      return false;
+    }
+    entry.set(key, depth(data), type(data), score(data), (int) (data & MASK_MOVE), generation(data),
+        (data & BUSY_BIT) != 0);
+    return true;
+  }
+
+  /**
+   * Sets the generation of the entry identified by the key if it is in the table.
+   *
+   * @param key The 64 bit position hash key.
+   * @param generation The new age of the entry.
+   * @return Whether the table contained an entry for the key.
+   */
+  boolean setGeneration(long key, byte generation) {
+    long slot = find(key);
+    if (slot == -1) {
+      return false;
+    }
+    long data = table.dataAt(slot);
+    // Do not re-key the data of another position if the slot has been overwritten since it was found.
+    if (!table.isEntryOf(slot, key, data)) {
+      return false;
+    }
+    if (generation(data) != generation) {
+      table.store(slot, key, (data & ~(MASK_GENERATION << SHIFT_GENERATION)) |
+          ((generation & MASK_GENERATION) << SHIFT_GENERATION));
+    }
+    return true;
+  }
+
+  /**
+   * Sets the 'busy' flag of the entry identified by the key if it is in the table.
+   *
+   * @param key The 64 bit position hash key.
+   * @param busy Whether the entry is in a 'busy' state.
+   * @return Whether the table contained an entry for the key.
+   */
+  boolean setBusy(long key, boolean busy) {
+    long slot = find(key);
+    if (slot == -1) {
+      return false;
+    }
+    long data = table.dataAt(slot);
+    if (!table.isEntryOf(slot, key, data)) {
+      return false;
+    }
+    table.store(slot, key, busy ? data | BUSY_BIT : data & ~BUSY_BIT);
+    return true;
+  }
+
+  /**
+   * Sets the current generation of the table and the number of generations for which entries are retained. It takes constant time as
+   * the entries are aged lazily.
+   *
+   * @param generation The current generation.
+   * @param entryLifeCycle The number of generations after which entries expire.
+   */
+  void setCurrentGeneration(byte generation, int entryLifeCycle) {
+    this.entryLifeCycle = entryLifeCycle;
+    currentGeneration = generation;
+  }
+
+  /**
+   * Empties the slots holding expired entries within the specified range. As the entries are not locked, an entry inserted into a slot
+   * concurrently may be lost, which is harmless.
+   *
+   * @param fromInd The index of the first slot of the range (inclusive).
+   * @param toInd The index of the last slot of the range (exclusive).
+   */
+  void removeExpired(long fromInd, long toInd) {
+    for (long slot = fromInd; slot < toInd; slot++) {
+      long data = table.dataAt(slot);
+      if (data != LockFreeHashTable.MISS && isVacant(data)) {
+        table.remove(slot);
+      }
+    }
+  }
+
+  /**
+   * Clears the table by emptying all slots.
+   */
+  void clear() {
+    table.clear();
+  }
+
+  /**
+   * Releases the memory held by the table. The table must not be used after the call.
+   */
+  void free() {
+    table.free();
+  }
+
+  @Override
+  public String toString() {
+    long load = size();
+    return String.format("Load: %d; Capacity: %d; Load Factor: %.2f; Size: %dkB", load, capacity(),
+        ((double) load) / capacity(), Math.round(((double) memorySize()) / (1L << 10)));
+  }
+
+  /**
+   * An enumeration of the available transposition table storage and replacement schemes.
+   *
+   * @author Viktor
+   */
+  enum Scheme {
+
+    /**
+     * Two regions of different prime lengths with one candidate slot per region (see {@link CuckooTranspositionTable}).
+     */
+    CUCKOO,
+    /**
+     * Buckets of four entries with power-of-two indexing and depth and age based replacement (see {@link BucketedTranspositionTable}).
+     */
+    BUCKETED
+
+  }
+
+}
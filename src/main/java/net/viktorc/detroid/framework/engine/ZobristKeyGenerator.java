@@ -215,6 +215,8 @@ public class ZobristKeyGenerator {
 
   private long turn;
   private long[][] board = new long[Piece.values().length][Bitboard.Square.values().length];
+  // The same as board except that all the rows other than those of the pawns and kings are empty.
+  private long[][] pawnKingBoard = new long[Piece.values().length][Bitboard.Square.values().length];
   private long[] whiteCastlingRights = new long[CastlingRights.values().length];
   private long[] blackCastlingRights = new long[CastlingRights.values().length];
   private long[] enPassantRights = new long[EnPassantRights.values().length];
@@ -230,6 +232,9 @@ public class ZobristKeyGenerator {
         board[i][j] = random.nextLong();
       }
     }
+    for (Piece piece : new Piece[]{Piece.W_PAWN, Piece.B_PAWN, Piece.W_KING, Piece.B_KING}) {
+      pawnKingBoard[piece.ind] = board[piece.ind];
+    }
     for (int i = 0; i < whiteCastlingRights.length; i++) {
       whiteCastlingRights[i] = random.nextLong();
     }
@@ -368,6 +373,37 @@ public class ZobristKeyGenerator {
     return key;
   }
 
+  /**
+   * It updates a position's pawn-king hash key with the changes in the pawn-king structure brought about by the move. As the update is an
+   * involution, the same method can be used to restore the key when the move is taken back.
+   *
+   * @param key The pawn-king key to be updated.
+   * @param move The move made or taken back encoded as an integer (see {@link Move#toInt()}).
+   * @return The updated key.
+   */
+  public long getUpdatedPawnKingHashKey(long key, int move) {
+    byte from = Move.getFrom(move);
+    byte to = Move.getTo(move);
+    byte movedPiece = Move.getMovedPiece(move);
+    byte capturedPiece = Move.getCapturedPiece(move);
+    byte moveType = Move.getType(move);
+    long[] movedRow = pawnKingBoard[movedPiece];
+    if (moveType == MoveType.NORMAL.ind || moveType == MoveType.SHORT_CASTLING.ind || moveType == MoveType.LONG_CASTLING.ind) {
+      key ^= movedRow[from];
+      key ^= movedRow[to];
+      key ^= pawnKingBoard[capturedPiece][to];
+    } else if (moveType == MoveType.EN_PASSANT.ind) {
+      key ^= movedRow[from];
+      key ^= movedRow[to];
+      key ^= pawnKingBoard[capturedPiece][movedPiece == Piece.W_PAWN.ind ? to - 8 : to + 8];
+    } else {
+      // Promotions; the captured piece cannot be a pawn.
+      key ^= movedRow[from];
+    }
+    return key;
+  }
+
+
   /**
    * It updates a position's hash key with off-board state information such as the side to move, castling rights, and en passant rights.
    *
@@ -380,10 +416,28 @@ public class ZobristKeyGenerator {
    */
   public long getUpdatedOffBoardHashKey(long key, PositionStateRecord prevState, byte whiteCastlingRights,
       byte blackCastlingRights, byte enPassantRights) {
+    return getUpdatedOffBoardHashKey(key, prevState.getWhiteCastlingRights(), prevState.getBlackCastlingRights(),
+        prevState.getEnPassantRights(), whiteCastlingRights, blackCastlingRights, enPassantRights);
+  }
+
+  /**
+   * It updates a position's hash key with off-board state information such as the side to move, castling rights, and en passant rights.
+   *
+   * @param key The key to be updated.
+   * @param prevWhiteCastlingRights The white castling rights in the position's previous state.
+   * @param prevBlackCastlingRights The black castling rights in the position's previous state.
+   * @param prevEnPassantRights The en passant rights in the position's previous state.
+   * @param whiteCastlingRights The current white castling rights.
+   * @param blackCastlingRights The current black castling rights.
+   * @param enPassantRights The current en passant rights.
+   * @return The key including the off-board state information.
+   */
+  public long getUpdatedOffBoardHashKey(long key, byte prevWhiteCastlingRights, byte prevBlackCastlingRights,
+      byte prevEnPassantRights, byte whiteCastlingRights, byte blackCastlingRights, byte enPassantRights) {
     key ^= turn;
-    key ^= this.whiteCastlingRights[prevState.getWhiteCastlingRights()];
-    key ^= this.blackCastlingRights[prevState.getBlackCastlingRights()];
-    key ^= this.enPassantRights[prevState.getEnPassantRights()];
+    key ^= this.whiteCastlingRights[prevWhiteCastlingRights];
+    key ^= this.blackCastlingRights[prevBlackCastlingRights];
+    key ^= this.enPassantRights[prevEnPassantRights];
     key ^= this.whiteCastlingRights[whiteCastlingRights];
     key ^= this.blackCastlingRights[blackCastlingRights];
     key ^= this.enPassantRights[enPassantRights];
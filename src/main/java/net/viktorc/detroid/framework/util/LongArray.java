@@ -0,0 +1,66 @@
+package net.viktorc.detroid.framework.util;
+
+/**
+ * An interface for fixed-length arrays of long integers with long indices. It serves as the backing storage of large, pre-allocated hash
+ * tables. Implementations are not required to perform bounds checks.
+ *
+ * @author Viktor
+ */
+public interface LongArray {
+
+  /**
+   * Allocates a new zero-filled off-heap array of the specified length so that it does not take up heap space and the garbage collector
+   * never has to scan it.
+   *
+   * @param length The number of elements.
+   * @return The new array.
+   * @throws IllegalArgumentException If the length is negative or greater than {@link #maxLength()}.
+   * @throws OutOfMemoryError If the direct memory limit of the JVM does not allow for the allocation of the array.
+   */
+  static LongArray allocate(long length) throws IllegalArgumentException, OutOfMemoryError {
+    return new OffHeapLongArray(length);
+  }
+
+  /**
+   * Returns the maximum length of arrays returned by {@link #allocate(long)}.
+   *
+   * @return The maximum array length.
+   */
+  static long maxLength() {
+    return OffHeapLongArray.MAX_LENGTH;
+  }
+
+  /**
+   * Returns the number of elements in the array.
+   *
+   * @return The length of the array.
+   */
+  long length();
+
+  /**
+   * Returns the element at the specified index.
+   *
+   * @param index The index of the element.
+   * @return The element.
+   */
+  long get(long index);
+
+  /**
+   * Sets the element at the specified index.
+   *
+   * @param index The index of the element.
+   * @param value The new value of the element.
+   */
+  void set(long index, long value);
+
+  /**
+   * Sets all the elements to 0.
+   */
+  void clear();
+
+  /**
+   * Releases the memory held by the array. The array must not be accessed after the call.
+   */
+  void free();
+
+}
@@ -0,0 +1,106 @@
+package net.viktorc.detroid.framework.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link net.viktorc.detroid.framework.util.LongArray} implementation backed by direct long buffers. As a single buffer cannot be
+ * larger than 2GB, the array is split into segments of {@link #SEGMENT_LENGTH} elements, the last one of which may be shorter, and the
+ * segment of an element is determined by the upper bits of its index. The memory of the buffers is neither part of the heap nor ever scanned
+ * or moved by the garbage collector; however, it counts towards the direct memory limit of the JVM, which is set by
+ * <code>-XX:MaxDirectMemorySize</code> and defaults to the maximum heap size. The segments are allocated in parallel on the common
+ * fork-join pool, which parallelizes the zeroing of the memory as well. The memory is released by the garbage collector once the array
+ * is freed and accessing the array after it has been freed results in an {@link IllegalStateException}.
+ *
+ * @author Viktor
+ */
+public class OffHeapLongArray implements LongArray {
+
+  /**
+   * The binary logarithm of the number of elements per segment.
+   */
+  public static final int SEGMENT_SHIFT = 24;
+  /**
+   * The number of elements per segment; each segment takes up 128MB.
+   */
+  public static final int SEGMENT_LENGTH = 1 << SEGMENT_SHIFT;
+  /**
+   * The maximum length of the array.
+   */
+  public static final long MAX_LENGTH = ((long) Integer.MAX_VALUE) << SEGMENT_SHIFT;
+
+  private static final int SEGMENT_MASK = SEGMENT_LENGTH - 1;
+  // A block of zeros for clearing the segments with bulk puts.
+  private static final long[] ZEROS = new long[1 << 13];
+
+  private final long length;
+  private volatile LongBuffer[] segments;
+
+  /**
+   * Allocates a zero-filled array of the specified length in direct memory.
+   *
+   * @param length The number of elements.
+   * @throws IllegalArgumentException If the length is negative or greater than {@link #MAX_LENGTH}.
+   * @throws OutOfMemoryError If the direct memory limit of the JVM does not allow for the allocation of the array.
+   */
+  public OffHeapLongArray(long length) throws IllegalArgumentException, OutOfMemoryError {
+    if (length < 0 || length > MAX_LENGTH) {
+      throw new IllegalArgumentException("Illegal length: " + length);
+    }
+    this.length = length;
+    int numOfSegments = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+    segments = IntStream.range(0, numOfSegments).parallel()
+        .mapToObj(i -> ByteBuffer.allocateDirect((int) Math.min(SEGMENT_LENGTH, length - (((long) i) << SEGMENT_SHIFT)) *
+            SizeOf.LONG.getNumOfBytes()).order(ByteOrder.nativeOrder()).asLongBuffer())
+        .toArray(LongBuffer[]::new);
+  }
+
+  @Override
+  public long length() {
+    return length;
+  }
+
+  /**
+   * Returns the segments of the array.
+   *
+   * @return The segments.
+   * @throws IllegalStateException If the array has been freed.
+   */
+  private LongBuffer[] segments() throws IllegalStateException {
+    LongBuffer[] segments = this.segments;
+    if (segments == null) {
+      throw new IllegalStateException("The array has been freed.");
+    }
+    return segments;
+  }
+
+  @Override
+  public long get(long index) {
+    return segments()[(int) (index >>> SEGMENT_SHIFT)].get((int) index & SEGMENT_MASK);
+  }
+
+  @Override
+  public void set(long index, long value) {
+    segments()[(int) (index >>> SEGMENT_SHIFT)].put((int) index & SEGMENT_MASK, value);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.stream(segments()).parallel().forEach(segment -> {
+      LongBuffer view = segment.duplicate();
+      view.clear();
+      while (view.hasRemaining()) {
+        view.put(ZEROS, 0, Math.min(ZEROS.length, view.remaining()));
+      }
+    });
+  }
+
+  @Override
+  public void free() {
+    segments = null;
+  }
+
+}
@@ -2,7 +2,7 @@ package net.viktorc.detroid.framework.util;
 
 /**
  * An implementation of the quickSort algorithm to sort arrays of generic objects. The objects to be sorted have to implement the {@link
- * java.lang.Comparable} interface.
+ * java.lang.Comparable} interface. It can also sort parallel arrays of integer keys and values without allocating any objects.
  *
  * @author Viktor
  */
@@ -64,4 +64,61 @@ public final class QuickSort {
     }
   }
 
+  /**
+   * Sorts the first elements of the two parallel arrays in descending order of the keys. It uses the same partitioning scheme as {@link
+   * #sort(Comparable[])}, thus elements with equal keys end up in the same order as they would if they were objects compared by their
+   * keys. Neither array is copied.
+   *
+   * @param keys The keys to sort the elements by.
+   * @param values The values associated with the keys.
+   * @param length The number of elements to sort starting from the first one.
+   */
+  public static void sort(int[] keys, int[] values, int length) {
+    if (length > 1) {
+      quickSort(keys, values, 0, length - 1);
+    }
+  }
+
+  /**
+   * The quicksort algorithm for parallel primitive arrays.
+   *
+   * @param keys The keys to sort the elements by.
+   * @param values The values associated with the keys.
+   * @param beg The index of the first element of the array partition.
+   * @param end The index of the last element of the array partition.
+   */
+  private static void quickSort(int[] keys, int[] values, int beg, int end) {
+    int pivot = keys[(beg + end) / 2];
+    int j = end;
+    for (int i = beg; ; ) {
+      while (keys[i] > pivot) {
+        i++;
+      }
+      while (keys[j] < pivot) {
+        j--;
+      }
+      if (i < j) {
+        int tempKey = keys[i];
+        keys[i] = keys[j];
+        keys[j] = tempKey;
+        int tempValue = values[i];
+        values[i] = values[j];
+        values[j] = tempValue;
+        i++;
+        j--;
+        if (i >= j) {
+          break;
+        }
+      } else {
+        break;
+      }
+    }
+    if (beg < j) {
+      quickSort(keys, values, beg, j);
+    }
+    if (j + 1 < end) {
+      quickSort(keys, values, j + 1, end);
+    }
+  }
+
 }
@@ -0,0 +1,48 @@
+package net.viktorc.detroid.framework.util;
+
+/**
+ * An in-place selection sort for parallel arrays of integer keys and values that can be performed one step at a time. Each step moves
+ * the element with the greatest key among the unsorted elements to the front of the unsorted part of the arrays. It makes it possible to
+ * sort arrays lazily in descending order; if only the first few elements are needed, the rest of the arrays are never sorted and no
+ * elements are moved needlessly.
+ *
+ * @author Viktor
+ */
+public final class SelectionSort {
+
+  private SelectionSort() {
+
+  }
+
+  /**
+   * Performs a single step of the selection sort. It assumes that the elements before the specified index are already sorted and finds
+   * the element with the greatest key at or after the index and swaps it with the element at the index. Of elements with equal keys, the
+   * one with the highest index is selected.
+   *
+   * @param keys The keys to sort by.
+   * @param values The values to move along with the keys.
+   * @param index The index of the first unsorted element.
+   * @param length The number of elements in the arrays to consider.
+   * @return The value that ended up at the specified index.
+   */
+  public static int selectNext(int[] keys, int[] values, int index, int length) {
+    int bestInd = index;
+    int bestKey = keys[index];
+    for (int i = index + 1; i < length; i++) {
+      int key = keys[i];
+      if (key >= bestKey) {
+        bestKey = key;
+        bestInd = i;
+      }
+    }
+    int value = values[bestInd];
+    if (bestInd != index) {
+      keys[bestInd] = keys[index];
+      keys[index] = bestKey;
+      values[bestInd] = values[index];
+      values[index] = value;
+    }
+    return value;
+  }
+
+}
@@ -44,7 +44,8 @@ public class PerftSuite {
 
   /**
    * Runs a perft test on the position specified in the record to the depth noted using the provided engine and returns whether the engine
-   * counted the same number of positions as stated in the record.
+   * counted the same number of positions as stated in the record. The result is logged to the standard output along with the time the
+   * perft took and the number of leaf nodes counted per second.
    *
    * @param engine The engine to test.
    * @param record The perft record specifying the position, the depth, and the correct number of nodes.
@@ -60,10 +61,11 @@ public class PerftSuite {
     engine.setControllerMode(true);
     engine.newGame();
     engine.setPosition(record.getPosition());
-    long start = System.currentTimeMillis();
+    long start = System.nanoTime();
     long nodes = engine.perft(depth);
-    long end = System.currentTimeMillis();
-    String log = String.format("%s - %d in %.3fs", record, nodes, ((double) (end - start)) / 1000);
+    long end = System.nanoTime();
+    double seconds = ((double) (end - start)) / 1e9;
+    String log = String.format("%s - %d in %.3fs (%.0f nps)", record, nodes, seconds, nodes / seconds);
     System.out.println(log);
     return expectedNodes == nodes;
   }
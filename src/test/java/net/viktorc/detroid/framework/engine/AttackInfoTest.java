@@ -0,0 +1,57 @@
+package net.viktorc.detroid.framework.engine;
+
+import net.viktorc.detroid.framework.util.BitOperations;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for verifying the lazily computed attack information of positions. The pinned and pinning pieces are compared to the ones
+ * computed from scratch and the check detection of each legal move is compared to whether the opponent is in check after making the
+ * move in all the positions within a few plies of the test positions.
+ *
+ * @author Viktor
+ */
+public final class AttackInfoTest {
+
+  private static final int DEPTH = 3;
+
+  private static void verify(Position pos, int depth) {
+    byte whiteKingInd = BitOperations.indexOfBit(pos.getWhiteKing());
+    byte blackKingInd = BitOperations.indexOfBit(pos.getBlackKing());
+    long whiteStraightSliders = pos.getWhiteQueens() | pos.getWhiteRooks();
+    long whiteDiagonalSliders = pos.getWhiteQueens() | pos.getWhiteBishops();
+    long blackStraightSliders = pos.getBlackQueens() | pos.getBlackRooks();
+    long blackDiagonalSliders = pos.getBlackQueens() | pos.getBlackBishops();
+    Assert.assertEquals(Bitboard.getPinnedPieces(whiteKingInd, blackStraightSliders, blackDiagonalSliders, pos.getAllOccupied(),
+        pos.getAllWhiteOccupied()), pos.getWhitePinnedPieces());
+    Assert.assertEquals(Bitboard.getPinnedPieces(blackKingInd, whiteStraightSliders, whiteDiagonalSliders, pos.getAllOccupied(),
+        pos.getAllBlackOccupied()), pos.getBlackPinnedPieces());
+    Assert.assertEquals(Bitboard.getPinningPieces(blackKingInd, whiteStraightSliders, whiteDiagonalSliders, pos.getAllOccupied(),
+        pos.getAllBlackOccupied()), pos.getWhitePinningPieces());
+    Assert.assertEquals(Bitboard.getPinningPieces(whiteKingInd, blackStraightSliders, blackDiagonalSliders, pos.getAllOccupied(),
+        pos.getAllWhiteOccupied()), pos.getBlackPinningPieces());
+    MoveList moves = new MoveList();
+    pos.getMoves(moves);
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.get(i);
+      boolean givesCheck = pos.givesCheck(move);
+      pos.makeMove(move);
+      Assert.assertEquals(pos.isInCheck(), givesCheck);
+      if (depth > 1) {
+        verify(pos, depth - 1);
+      }
+      pos.unmakeMoveAsInt();
+    }
+  }
+
+  @Test
+  public void test() throws Exception {
+    for (String fen : TestPositions.FENS) {
+      Position pos = Position.parse(fen);
+      verify(pos, DEPTH);
+      // Make sure that the attack information of the ply is not invalidated by searching the child positions.
+      verify(pos, 1);
+    }
+  }
+
+}
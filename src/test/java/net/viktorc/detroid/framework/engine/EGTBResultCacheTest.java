@@ -0,0 +1,53 @@
+package net.viktorc.detroid.framework.engine;
+
+import net.viktorc.detroid.framework.engine.EndGameTableBase.DTM;
+import net.viktorc.detroid.framework.engine.EndGameTableBase.WDL;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for verifying the semantics of the endgame tablebase result cache. Cached results are compared to the ones put into the cache,
+ * keys colliding in the same slot are checked not to be mistaken for each other, and WDL results are checked not to overwrite DTM
+ * results.
+ *
+ * @author Viktor
+ */
+public final class EGTBResultCacheTest {
+
+  private static final int CAPACITY = 1 << 4;
+
+  @Test
+  public void test() {
+    EGTBResultCache cache = new EGTBResultCache(CAPACITY);
+    long key = 0x123456789ABCDEF0L;
+    long collidingKey = key + CAPACITY;
+    Assert.assertNull(cache.getWDL(key));
+    Assert.assertNull(cache.getDTM(key));
+    cache.putWDL(key, null);
+    cache.putDTM(key, null);
+    Assert.assertNull(cache.getWDL(key));
+    cache.putWDL(key, WDL.WIN);
+    Assert.assertEquals(WDL.WIN, cache.getWDL(key));
+    // A WDL entry cannot answer DTM probes.
+    Assert.assertNull(cache.getDTM(key));
+    Assert.assertNull(cache.getWDL(collidingKey));
+    cache.putDTM(key, new DTM(WDL.LOSS, 17));
+    DTM dtm = cache.getDTM(key);
+    Assert.assertNotNull(dtm);
+    Assert.assertEquals(WDL.LOSS, dtm.getWdl());
+    Assert.assertEquals(17, dtm.getDistance());
+    Assert.assertEquals(WDL.LOSS, cache.getWDL(key));
+    // A WDL result must not replace the more complete DTM entry of the same position.
+    cache.putWDL(key, WDL.LOSS);
+    Assert.assertNotNull(cache.getDTM(key));
+    cache.putDTM(collidingKey, new DTM(WDL.DRAW, 0));
+    Assert.assertNull(cache.getWDL(key));
+    Assert.assertEquals(WDL.DRAW, cache.getDTM(collidingKey).getWdl());
+    Assert.assertEquals(5, cache.getHits());
+    Assert.assertEquals(6, cache.getMisses());
+    cache.resetStats();
+    Assert.assertEquals(0, cache.getHits());
+    Assert.assertEquals(0, cache.getMisses());
+  }
+
+}
@@ -0,0 +1,62 @@
+package net.viktorc.detroid.framework.engine;
+
+import net.viktorc.detroid.framework.uci.Option;
+import net.viktorc.detroid.framework.uci.Option.ButtonOption;
+import net.viktorc.detroid.framework.uci.UCIEngine;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for benchmarking the time it takes the engine to resize and clear its hash tables. As the benchmark allocates up to 4GB of
+ * hash tables, it is only run if the <code>benchmark.tests</code> property is set to true.
+ *
+ * @author Viktor
+ */
+public final class HashResizeBenchmarkTest {
+
+  private static final String CLEAR_HASH_OPTION_NAME = "ClearHash";
+  private static final int MIN_BENCHMARK_HASH_SIZE = 64;
+  private static final int MAX_BENCHMARK_HASH_SIZE = 4096;
+
+  /**
+   * Returns the maximum hash size the engine supports in megabytes.
+   *
+   * @param engine The engine.
+   * @return The maximum hash size.
+   */
+  private static int maxHashSize(UCIEngine engine) {
+    for (Option<?> option : engine.getOptions().keySet()) {
+      if (UCIEngine.HASH_OPTION_NAME.equals(option.getName())) {
+        return option.getMax().orElse(MIN_BENCHMARK_HASH_SIZE);
+      }
+    }
+    return MIN_BENCHMARK_HASH_SIZE;
+  }
+
+  @Test
+  public void test() throws Exception {
+    UCIEngine engine = new Detroid();
+    engine.init();
+    try {
+      int maxHashSize = Math.min(MAX_BENCHMARK_HASH_SIZE, maxHashSize(engine));
+      // Warm up.
+      Assert.assertTrue(engine.setHashSizeOption(MIN_BENCHMARK_HASH_SIZE));
+      Assert.assertTrue(engine.setOption(ButtonOption.class, CLEAR_HASH_OPTION_NAME, null));
+      for (int hashSize = MIN_BENCHMARK_HASH_SIZE * 2; hashSize <= maxHashSize; hashSize *= 2) {
+        double sizeInGb = ((double) hashSize) / 1024;
+        long start = System.nanoTime();
+        Assert.assertTrue(engine.setHashSizeOption(hashSize));
+        long resizeTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        Assert.assertTrue(engine.setOption(ButtonOption.class, CLEAR_HASH_OPTION_NAME, null));
+        long clearTime = System.nanoTime() - start;
+        System.out.printf("Hash size: %d MB; resize time: %.2f ms (%.2f ms/GB); clear time: %.2f ms (%.2f ms/GB)%n", hashSize,
+            ((double) resizeTime) / 1000000, ((double) resizeTime) / 1000000 / sizeInGb, ((double) clearTime) / 1000000,
+            ((double) clearTime) / 1000000 / sizeInGb);
+      }
+    } finally {
+      engine.close();
+    }
+  }
+
+}
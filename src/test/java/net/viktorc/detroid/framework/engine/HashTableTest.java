@@ -0,0 +1,32 @@
+package net.viktorc.detroid.framework.engine;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for making sure that the engine does not access the memory of released hash tables after a resize.
+ *
+ * @author Viktor
+ */
+public final class HashTableTest {
+
+  @Test
+  public void testEvaluationAfterResize() throws Exception {
+    Detroid engine = new Detroid();
+    engine.init();
+    try {
+      double score = engine.eval(null);
+      // Switching modes resizes the hash tables and releases the old ones.
+      engine.setDeterministicEvaluationMode(true);
+      Assert.assertEquals(score, engine.eval(null), 0);
+      engine.setDeterministicEvaluationMode(false);
+      Assert.assertEquals(score, engine.eval(null), 0);
+      engine.setControllerMode(true);
+      Assert.assertEquals(score, engine.eval(null), 0);
+      Assert.assertTrue(engine.getHashLoadPermill() >= 0);
+    } finally {
+      engine.close();
+    }
+  }
+
+}
@@ -0,0 +1,51 @@
+package net.viktorc.detroid.framework.engine;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for verifying the king and pawn versus king bitbase against well-known positions such as the ones decided by the rule of the
+ * square, the opposition, and the rook pawn, with both colors having the pawn.
+ *
+ * @author Viktor
+ */
+public final class KPKBitbaseTest {
+
+  private static final String[] WINS = new String[]{
+      "4k3/8/4K3/4P3/8/8/8/8 w - - 0 1",
+      "4k3/8/4K3/4P3/8/8/8/8 b - - 0 1",
+      "8/8/8/P3k3/8/8/8/7K w - - 0 1",
+      "8/8/8/P6k/8/8/8/7K b - - 0 1",
+      "8/8/8/8/4p3/4k3/8/4K3 b - - 0 1",
+      "8/8/8/8/4p3/4k3/8/4K3 w - - 0 1",
+      "7k/8/8/8/3K4/8/7p/8 w - - 0 1",
+      "4k3/4P3/4K3/8/8/8/8/8 w - - 0 1"
+  };
+  private static final String[] DRAWS = new String[]{
+      "k7/8/K7/P7/8/8/8/8 w - - 0 1",
+      "k7/8/K7/P7/8/8/8/8 b - - 0 1",
+      "4k3/4P3/4K3/8/8/8/8/8 b - - 0 1",
+      "8/8/8/P3k3/8/8/8/7K b - - 0 1",
+      "8/8/8/8/8/4k3/4P3/4K3 w - - 0 1",
+      "8/8/8/8/8/4k3/4P3/4K3 b - - 0 1",
+      "8/8/8/8/p7/k7/8/K7 b - - 0 1"
+  };
+
+  @Test
+  public void test() throws Exception {
+    for (String fen : WINS) {
+      Position pos = Position.parse(fen);
+      Assert.assertTrue(fen, KPKBitbase.isKPK(pos));
+      Assert.assertTrue(fen, KPKBitbase.isWin(pos));
+    }
+    for (String fen : DRAWS) {
+      Position pos = Position.parse(fen);
+      Assert.assertTrue(fen, KPKBitbase.isKPK(pos));
+      Assert.assertFalse(fen, KPKBitbase.isWin(pos));
+    }
+    Assert.assertFalse(KPKBitbase.isKPK(Position.parse(Position.START_POSITION_FEN)));
+    Assert.assertFalse(KPKBitbase.isKPK(Position.parse("4k3/8/4K3/4N3/8/8/8/8 w - - 0 1")));
+    Assert.assertFalse(KPKBitbase.isKPK(Position.parse("4k3/8/4K3/4P3/4p3/8/8/8 w - - 0 1")));
+  }
+
+}
@@ -0,0 +1,35 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for verifying the sliding piece move sets looked up from the shared magic move set table against the ones computed using flood
+ * fills.
+ *
+ * @author Viktor
+ */
+public final class MagicMoveSetTableTest {
+
+  private static final int OCCUPANCIES_PER_SQUARE = 1000;
+
+  @Test
+  public void test() throws Exception {
+    Random rand = new Random(0);
+    for (int i = 0; i < 64 * OCCUPANCIES_PER_SQUARE; i++) {
+      int sqrInd = i % 64;
+      long bit = 1L << sqrInd;
+      // Sparse occupancies are more realistic and more likely to result in long move sets.
+      long occupancy = (rand.nextLong() & rand.nextLong()) | bit;
+      MoveSetBase dB = MoveSetBase.getByIndex(sqrInd);
+      Assert.assertEquals(Bitboard.computeRookMoveSets(bit, Bitboard.FULL_BOARD, ~occupancy),
+          dB.getRookMoveSet(Bitboard.FULL_BOARD, occupancy));
+      Assert.assertEquals(Bitboard.computeBishopMoveSets(bit, Bitboard.FULL_BOARD, ~occupancy),
+          dB.getBishopMoveSet(Bitboard.FULL_BOARD, occupancy));
+      Assert.assertEquals(Bitboard.computeQueenMoveSets(bit, Bitboard.FULL_BOARD, ~occupancy),
+          dB.getQueenMoveSet(Bitboard.FULL_BOARD, occupancy));
+    }
+  }
+
+}
@@ -0,0 +1,59 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import net.viktorc.detroid.framework.util.BitOperations;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for verifying that the parallel magic search produces valid magics with magic shift values not less than those of the magics it
+ * starts from. The search is started from deliberately sparse bishop magics so that denser ones are easy to find.
+ *
+ * @author Viktor
+ */
+public final class MagicSearchTest {
+
+  private static final long ATTEMPTS = 1L << 20;
+
+  @Test
+  public void test() throws Exception {
+    List<Map.Entry<Long, Byte>> sparseMagics = new ArrayList<>(64);
+    for (int i = 0; i < 64; i++) {
+      long mask = Bitboard.computeBishopOccupancyMasks(1L << i);
+      // Only the magic shift values are used by the search, so the magic numbers do not have to be valid.
+      sparseMagics.add(new AbstractMap.SimpleEntry<>(0L, (byte) (63 - BitOperations.hammingWeight(mask))));
+    }
+    ForkJoinPool pool = new ForkJoinPool(2);
+    List<Map.Entry<Long, Byte>> denserMagics;
+    try {
+      denserMagics = Bitboard.generateDenserMagics(false, sparseMagics, ATTEMPTS, pool);
+    } finally {
+      pool.shutdown();
+    }
+    Assert.assertTrue(Bitboard.computeMagicTableSize(denserMagics) < Bitboard.computeMagicTableSize(sparseMagics));
+    for (int i = 0; i < 64; i++) {
+      long bit = 1L << i;
+      long magicNumber = denserMagics.get(i).getKey();
+      byte shift = denserMagics.get(i).getValue();
+      Assert.assertTrue(shift > sparseMagics.get(i).getValue());
+      long[] occVar = BitOperations.getAllSubsets(Bitboard.computeBishopOccupancyMasks(bit));
+      long[] moveVar = Bitboard.computeBishopMoveSetVariations(bit, occVar);
+      long[] magicDatabase = new long[1 << (64 - shift)];
+      boolean[] set = new boolean[magicDatabase.length];
+      for (int j = 0; j < occVar.length; j++) {
+        int index = (int) ((occVar[j] * magicNumber) >>> shift);
+        if (set[index]) {
+          Assert.assertEquals(magicDatabase[index], moveVar[j]);
+        } else {
+          set[index] = true;
+          magicDatabase[index] = moveVar[j];
+        }
+      }
+    }
+  }
+
+}
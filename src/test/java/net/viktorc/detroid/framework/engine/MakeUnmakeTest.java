@@ -0,0 +1,68 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for verifying that making and taking back moves restores positions exactly. The legal moves of all positions within two plies of
+ * the test positions are made and taken back.
+ *
+ * @author Viktor
+ */
+public final class MakeUnmakeTest {
+
+  private static final int DEPTH = 2;
+
+  /**
+   * Collects copies of the position and the positions reachable from it within the specified depth along with their legal moves.
+   *
+   * @param pos The position to start from.
+   * @param depth The number of plies to search beyond the position.
+   * @param positions The list to add the copies of the positions to.
+   * @param moves The list to add the legal moves of the positions to.
+   */
+  static void collectMoves(Position pos, int depth, List<Position> positions, List<int[]> moves) {
+    MoveList moveList = new MoveList();
+    pos.getMoves(moveList);
+    int[] moveArray = new int[moveList.size()];
+    for (int i = 0; i < moveList.size(); i++) {
+      moveArray[i] = moveList.get(i);
+    }
+    positions.add(new Position(pos));
+    moves.add(moveArray);
+    if (depth > 0) {
+      for (int move : moveArray) {
+        pos.makeMove(move);
+        collectMoves(pos, depth - 1, positions, moves);
+        pos.unmakeMoveAsInt();
+      }
+    }
+  }
+
+  @Test
+  public void test() throws Exception {
+    List<Position> positions = new ArrayList<>();
+    List<int[]> moves = new ArrayList<>();
+    for (String fen : TestPositions.FENS) {
+      collectMoves(Position.parse(fen), DEPTH, positions, moves);
+    }
+    Position[] posArray = positions.toArray(new Position[positions.size()]);
+    int[][] moveArrays = moves.toArray(new int[moves.size()][]);
+    for (int i = 0; i < posArray.length; i++) {
+      Position pos = posArray[i];
+      String fen = pos.toString();
+      long key = pos.getKey();
+      for (int move : moveArrays[i]) {
+        pos.makeMove(move);
+        pos.makeNullMove();
+        pos.unmakeMoveAsInt();
+        pos.unmakeMoveAsInt();
+        Assert.assertEquals(key, pos.getKey());
+        Assert.assertEquals(fen, pos.toString());
+      }
+    }
+  }
+
+}
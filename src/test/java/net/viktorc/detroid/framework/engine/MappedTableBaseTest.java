@@ -0,0 +1,164 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import net.viktorc.detroid.framework.engine.EndGameTableBase.DTM;
+import net.viktorc.detroid.framework.engine.EndGameTableBase.WDL;
+import net.viktorc.detroid.framework.engine.GaviotaTableBaseJNI.CompressionScheme;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * A class for verifying the pure Java endgame tablebases generated by {@link TableBaseGenerator}. The 3 piece tablebases are generated
+ * into a temporary folder; the king and pawn versus king tablebase is compared to {@link KPKBitbase} position by position, some positions
+ * with known results are probed, and if the Gaviota probing library can be loaded, the distances to mate of all 3 piece positions are
+ * compared to the ones in the Gaviota tablebases.
+ *
+ * @author Viktor
+ */
+public final class MappedTableBaseTest {
+
+  private static final String GAVIOTA_LIB_PATH = "gtb/libgtb.so";
+  private static final String GAVIOTA_FOLDER_PATH = "gtb/3";
+
+  private static File folder;
+  private static MappedTableBase tableBase;
+
+  @BeforeClass
+  public static void generate() throws IOException {
+    folder = Files.createTempDirectory("dtb").toFile();
+    ForkJoinPool pool = new ForkJoinPool();
+    try {
+      List<String> generated = new TableBaseGenerator(pool, folder.getPath(), null).generate(3);
+      Assert.assertEquals(TableBaseIndex.canonicalNames(3), generated);
+    } finally {
+      pool.shutdown();
+    }
+    tableBase = new MappedTableBase();
+    tableBase.init(folder.getPath(), 0);
+  }
+
+  @AfterClass
+  public static void cleanUp() {
+    tableBase.close();
+    File[] files = folder.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    folder.delete();
+  }
+
+  private static String toFEN(TableBaseIndex index, int[] squares, boolean whiteToMove) {
+    char[] board = new char[64];
+    for (int i = 0; i < squares.length; i++) {
+      char letter = Piece.values()[index.types[i]].letter;
+      board[squares[i]] = index.white[i] ? letter : Character.toLowerCase(letter);
+    }
+    StringBuilder fen = new StringBuilder();
+    for (int rank = 7; rank >= 0; rank--) {
+      int empty = 0;
+      for (int file = 0; file < 8; file++) {
+        char piece = board[rank * 8 + file];
+        if (piece == 0) {
+          empty++;
+          continue;
+        }
+        if (empty > 0) {
+          fen.append(empty);
+          empty = 0;
+        }
+        fen.append(piece);
+      }
+      if (empty > 0) {
+        fen.append(empty);
+      }
+      if (rank > 0) {
+        fen.append('/');
+      }
+    }
+    return fen.append(whiteToMove ? " w" : " b").append(" - - 0 1").toString();
+  }
+
+  @Test
+  public void testAgainstBitbase() throws IOException {
+    MappedTableBase.Table table = MappedTableBase.Table.map(new File(folder, "kpk" + MappedTableBase.FILE_EXTENSION));
+    TableBaseIndex index = table.index;
+    int[] squares = new int[index.numOfPieces()];
+    int[] buffer = new int[index.numOfPieces()];
+    for (int ind = 0; ind < index.size; ind++) {
+      boolean whiteToMove = index.decode(ind, squares);
+      if (index.index(squares, whiteToMove, buffer) != ind) {
+        continue;
+      }
+      DTM dtm = MappedTableBase.toDTM(table.get(ind));
+      // White cannot lose the ending.
+      Assert.assertTrue(dtm.getWdl() != (whiteToMove ? WDL.LOSS : WDL.WIN));
+      Assert.assertEquals(KPKBitbase.probe(whiteToMove, squares[0], squares[1], squares[2]), dtm.getWdl() != WDL.DRAW);
+    }
+  }
+
+  @Test
+  public void testKnownPositions() throws Exception {
+    DTM dtm = tableBase.probeDTM(Position.parse("k7/8/1K6/8/8/8/8/6Q1 w - - 0 1"), false);
+    Assert.assertEquals(WDL.WIN, dtm.getWdl());
+    Assert.assertEquals(1, dtm.getDistance());
+    dtm = tableBase.probeDTM(Position.parse("k6Q/8/1K6/8/8/8/8/8 b - - 0 1"), false);
+    Assert.assertEquals(WDL.LOSS, dtm.getWdl());
+    Assert.assertEquals(0, dtm.getDistance());
+    // Stalemate.
+    Assert.assertEquals(WDL.DRAW, tableBase.probeWDL(Position.parse("k7/8/1Q6/8/8/8/8/7K b - - 0 1"), false));
+    // The colors are swapped.
+    Assert.assertEquals(WDL.LOSS, tableBase.probeWDL(Position.parse("8/8/8/8/8/2k5/8/K6q w - - 0 1"), false));
+    Assert.assertEquals(WDL.DRAW, tableBase.probeWDL(Position.parse("4k3/8/8/8/8/8/8/3BK3 w - - 0 1"), false));
+    Assert.assertEquals(WDL.LOSS, tableBase.probeWDL(Position.parse("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1"), false));
+    Assert.assertEquals(WDL.DRAW, tableBase.probeWDL(Position.parse("4k3/4P3/4K3/8/8/8/8/8 b - - 0 1"), false));
+    // Not covered.
+    Assert.assertNull(tableBase.probeDTM(Position.parse("4k3/8/8/8/8/8/8/R3K3 w Q - 0 1"), false));
+    Assert.assertNull(tableBase.probeDTM(Position.parse("4k3/8/8/8/8/8/8/RR2K3 w - - 0 1"), false));
+    Assert.assertTrue(tableBase.areTableBasesAvailable(3));
+    Assert.assertFalse(tableBase.areTableBasesAvailable(4));
+  }
+
+  @Test
+  public void testAgainstGaviota() throws Exception {
+    GaviotaTableBaseJNI gaviota = GaviotaTableBaseJNI.getInstance();
+    gaviota.loadProbingLibrary(GAVIOTA_LIB_PATH);
+    Assume.assumeTrue(gaviota.isProbingLibLoaded());
+    gaviota.init(new File(ClassLoader.getSystemClassLoader().getResource(GAVIOTA_FOLDER_PATH).toURI()).getAbsolutePath(), 1 << 20,
+        CompressionScheme.CP4);
+    Assume.assumeTrue(gaviota.isInit());
+    for (String name : TableBaseIndex.canonicalNames(3)) {
+      TableBaseIndex index = TableBaseIndex.forName(name);
+      int[] squares = new int[index.numOfPieces()];
+      int[] buffer = new int[index.numOfPieces()];
+      long occupied;
+      for (int ind = 0; ind < index.size; ind++) {
+        boolean whiteToMove = index.decode(ind, squares);
+        occupied = 0;
+        for (int sqr : squares) {
+          occupied |= 1L << sqr;
+        }
+        if (index.index(squares, whiteToMove, buffer) != ind || Long.bitCount(occupied) != squares.length) {
+          continue;
+        }
+        Position pos = Position.parse(toFEN(index, squares, whiteToMove));
+        DTM expected = gaviota.probeDTM(pos, false);
+        if (expected == null || expected.getWdl() == null) {
+          continue;
+        }
+        DTM actual = tableBase.probeDTM(pos, false);
+        Assert.assertEquals(pos.toString(), expected.getWdl(), actual.getWdl());
+        Assert.assertEquals(pos.toString(), expected.getDistance(), actual.getDistance());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,185 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+import org.junit.Test;
+
+/**
+ * A class for benchmarking the time and the number of bytes allocated per call of the performance critical operations of the engine. The
+ * correctness of the benchmarked operations is verified by their unit tests. As the benchmarks only print their results, they are only
+ * run if the <code>benchmark.tests</code> property is set to true.
+ *
+ * @author Viktor
+ */
+public final class MicroBenchmarkTest {
+
+  private static final String PARAMETERS_FILE_PATH = "params.xml";
+  private static final int PERFT_DEPTH = 3;
+  private static final int PERFT_ROUNDS = 100;
+  private static final int COLLECTION_DEPTH = 2;
+  private static final int ROUNDS = 200;
+  private static final int OCCUPANCIES_PER_SQUARE = 1000;
+  private static final int BUILDS = 10;
+
+  /**
+   * Returns the number of bytes allocated by the current thread so far if supported by the thread management bean; otherwise 0.
+   *
+   * @param allocationBean The thread management bean. It may be null.
+   * @return The number of bytes allocated by the current thread.
+   */
+  private static long allocatedBytes(com.sun.management.ThreadMXBean allocationBean) {
+    return allocationBean == null || !allocationBean.isThreadAllocatedMemorySupported() ? 0 :
+        allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Runs the specified number of rounds of the benchmark and prints the average time and number of bytes allocated per call over the
+   * second half of the rounds, the first half being for warming up. The values returned by the rounds are summed up and printed as a
+   * checksum so that the benchmarked calls cannot be optimized away.
+   *
+   * @param name The name of the benchmark.
+   * @param callsPerRound The number of calls made per round.
+   * @param rounds The number of rounds.
+   * @param round A round of the benchmark.
+   */
+  static void benchmark(String name, long callsPerRound, int rounds, LongSupplier round) {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    com.sun.management.ThreadMXBean allocationBean = threadBean instanceof com.sun.management.ThreadMXBean ?
+        (com.sun.management.ThreadMXBean) threadBean : null;
+    long checksum = 0;
+    long time = 0;
+    long bytes = 0;
+    for (int i = 0; i < rounds; i++) {
+      long bytes0 = allocatedBytes(allocationBean);
+      long time0 = System.nanoTime();
+      checksum += round.getAsLong();
+      long time1 = System.nanoTime();
+      long bytes1 = allocatedBytes(allocationBean);
+      if (i >= rounds / 2) {
+        time += time1 - time0;
+        bytes += bytes1 - bytes0;
+      }
+    }
+    double calls = ((double) callsPerRound) * (rounds - rounds / 2);
+    System.out.printf("%s - time per call: %.2f ns; bytes allocated per call: %.2f; checksum: %d%n", name, time / calls,
+        bytes / calls, checksum);
+  }
+
+  @Test
+  public void benchmarkMoveGeneration() throws Exception {
+    Position[] positions = new Position[TestPositions.FENS.length];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = Position.parse(TestPositions.FENS[i]);
+    }
+    MoveList[] moveLists = new MoveList[PERFT_DEPTH];
+    for (int i = 0; i < moveLists.length; i++) {
+      moveLists[i] = new MoveList();
+    }
+    long leafNodes = 0;
+    for (Position pos : positions) {
+      leafNodes += MoveGenerationAllocationTest.perftWithMoveLists(pos, PERFT_DEPTH, moveLists);
+    }
+    benchmark("Perft leaf node with move objects", leafNodes, PERFT_ROUNDS, () -> {
+      long nodes = 0;
+      for (Position pos : positions) {
+        nodes += MoveGenerationAllocationTest.perftWithMoveObjects(pos, PERFT_DEPTH);
+      }
+      return nodes;
+    });
+    benchmark("Perft leaf node with move lists", leafNodes, PERFT_ROUNDS, () -> {
+      long nodes = 0;
+      for (Position pos : positions) {
+        nodes += MoveGenerationAllocationTest.perftWithMoveLists(pos, PERFT_DEPTH, moveLists);
+      }
+      return nodes;
+    });
+  }
+
+  @Test
+  public void benchmarkStaticExchangeEvaluation() throws Exception {
+    DetroidParameters params = new DetroidParameters();
+    params.loadFrom(PARAMETERS_FILE_PATH);
+    Evaluator eval = new Evaluator(params, null);
+    List<Position> positions = new ArrayList<>();
+    List<Integer> moves = new ArrayList<>();
+    for (String fen : TestPositions.FENS) {
+      StaticExchangeEvaluationTest.collectTacticalMoves(Position.parse(fen), COLLECTION_DEPTH, positions, moves);
+    }
+    int numOfMoves = moves.size();
+    Position[] posArray = positions.toArray(new Position[numOfMoves]);
+    int[] moveArray = new int[numOfMoves];
+    for (int i = 0; i < numOfMoves; i++) {
+      moveArray[i] = moves.get(i);
+    }
+    benchmark("SEE", numOfMoves, ROUNDS, () -> {
+      long sum = 0;
+      for (int i = 0; i < numOfMoves; i++) {
+        sum += eval.SEE(posArray[i], moveArray[i]);
+      }
+      return sum;
+    });
+    benchmark("SEE >= 0", numOfMoves, ROUNDS, () -> {
+      long sum = 0;
+      for (int i = 0; i < numOfMoves; i++) {
+        sum += eval.isSEEAtLeast(posArray[i], moveArray[i], 0) ? 1 : 0;
+      }
+      return sum;
+    });
+  }
+
+  @Test
+  public void benchmarkMakeUnmake() throws Exception {
+    List<Position> positions = new ArrayList<>();
+    List<int[]> moves = new ArrayList<>();
+    for (String fen : TestPositions.FENS) {
+      MakeUnmakeTest.collectMoves(Position.parse(fen), COLLECTION_DEPTH, positions, moves);
+    }
+    Position[] posArray = positions.toArray(new Position[positions.size()]);
+    int[][] moveArrays = moves.toArray(new int[moves.size()][]);
+    long numOfMoves = 0;
+    for (int[] moveArray : moveArrays) {
+      numOfMoves += moveArray.length;
+    }
+    benchmark("Make/unmake pair", numOfMoves, ROUNDS, () -> {
+      long sum = 0;
+      for (int i = 0; i < posArray.length; i++) {
+        Position pos = posArray[i];
+        for (int move : moveArrays[i]) {
+          pos.makeMove(move);
+          sum += pos.getKey();
+          pos.unmakeMoveAsInt();
+        }
+      }
+      return sum;
+    });
+  }
+
+  @Test
+  public void benchmarkMagicMoveSetTable() throws Exception {
+    MagicsConfig magicsConfig = MagicsConfig.getInstance();
+    magicsConfig.load();
+    benchmark("Magic move set table build", 1, BUILDS, () -> new MagicMoveSetTable(magicsConfig).moveSets.length);
+    Random rand = new Random(0);
+    int numOfLookups = 64 * OCCUPANCIES_PER_SQUARE;
+    MoveSetBase[] moveSetBases = new MoveSetBase[numOfLookups];
+    long[] occupancies = new long[numOfLookups];
+    for (int i = 0; i < numOfLookups; i++) {
+      int sqrInd = i % 64;
+      moveSetBases[i] = MoveSetBase.getByIndex(sqrInd);
+      // Sparse occupancies are more realistic and more likely to result in long move sets.
+      occupancies[i] = (rand.nextLong() & rand.nextLong()) | (1L << sqrInd);
+    }
+    benchmark("Queen move set look-up", numOfLookups, ROUNDS, () -> {
+      long sum = 0;
+      for (int i = 0; i < numOfLookups; i++) {
+        sum += moveSetBases[i].getQueenMoveSet(Bitboard.FULL_BOARD, occupancies[i]);
+      }
+      return sum;
+    });
+  }
+
+}
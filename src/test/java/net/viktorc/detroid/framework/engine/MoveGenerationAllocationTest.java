@@ -0,0 +1,101 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * A class for comparing the heap allocation rate of move generation into lists of move objects to that of move generation into
+ * preallocated lists of encoded moves. Both variants are exercised through a perft run as it is dominated by move generation and making
+ * moves.
+ *
+ * @author Viktor
+ */
+public final class MoveGenerationAllocationTest {
+
+  private static final int[] DEPTHS = new int[]{4, 3, 5, 3, 3};
+  private static final int ROUNDS = 3;
+
+  static long perftWithMoveObjects(Position pos, int depth) {
+    List<Move> moves = pos.getMoves();
+    if (depth == 1) {
+      return moves.size();
+    }
+    long leafNodes = 0;
+    for (Move move : moves) {
+      pos.makeMove(move);
+      leafNodes += perftWithMoveObjects(pos, depth - 1);
+      pos.unmakeMoveAsInt();
+    }
+    return leafNodes;
+  }
+
+  static long perftWithMoveLists(Position pos, int depth, MoveList[] moveLists) {
+    MoveList moves = moveLists[depth - 1];
+    moves.clear();
+    pos.getMoves(moves);
+    if (depth == 1) {
+      return moves.size();
+    }
+    long leafNodes = 0;
+    for (int i = 0; i < moves.size(); i++) {
+      pos.makeMove(moves.get(i));
+      leafNodes += perftWithMoveLists(pos, depth - 1, moveLists);
+      pos.unmakeMoveAsInt();
+    }
+    return leafNodes;
+  }
+
+  /**
+   * Runs perft on all the test positions and returns the number of bytes allocated per leaf node by the current thread.
+   *
+   * @param threadBean The thread management bean supporting the measurement of allocated bytes.
+   * @param useMoveLists Whether the moves should be generated into move lists.
+   * @return The number of bytes allocated per leaf node.
+   * @throws ChessParseException If a FEN string is invalid.
+   */
+  private static double bytesPerNode(com.sun.management.ThreadMXBean threadBean, boolean useMoveLists) throws ChessParseException {
+    long threadId = Thread.currentThread().getId();
+    long bytes = 0;
+    long nodes = 0;
+    for (int i = 0; i < TestPositions.FENS.length; i++) {
+      Position pos = Position.parse(TestPositions.FENS[i]);
+      MoveList[] moveLists = new MoveList[DEPTHS[i]];
+      for (int j = 0; j < moveLists.length; j++) {
+        moveLists[j] = new MoveList();
+      }
+      long start = threadBean.getThreadAllocatedBytes(threadId);
+      nodes += useMoveLists ? perftWithMoveLists(pos, DEPTHS[i], moveLists) : perftWithMoveObjects(pos, DEPTHS[i]);
+      bytes += threadBean.getThreadAllocatedBytes(threadId) - start;
+    }
+    return ((double) bytes) / nodes;
+  }
+
+  @Test
+  public void test() throws Exception {
+    ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+    Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+    allocationBean.setThreadAllocatedMemoryEnabled(true);
+    for (int i = 0; i < TestPositions.FENS.length; i++) {
+      Position pos = Position.parse(TestPositions.FENS[i]);
+      MoveList[] moveLists = new MoveList[DEPTHS[i]];
+      for (int j = 0; j < moveLists.length; j++) {
+        moveLists[j] = new MoveList();
+      }
+      Assert.assertEquals(perftWithMoveObjects(pos, DEPTHS[i]), perftWithMoveLists(pos, DEPTHS[i], moveLists));
+    }
+    double objectBytes = 0;
+    double listBytes = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      objectBytes = bytesPerNode(allocationBean, false);
+      listBytes = bytesPerNode(allocationBean, true);
+    }
+    Assert.assertTrue(listBytes < objectBytes);
+  }
+
+}
@@ -0,0 +1,57 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for verifying that the parallel perft produces the same leaf node counts with and without the perft hash table as a plain
+ * sequential perft. A tiny hash table is also tested to make sure that frequent slot overwrites do not lead to false hits.
+ *
+ * @author Viktor
+ */
+public final class PerftHashTest {
+
+  private static final int DEPTH = 4;
+  private static final long[] HASH_SIZES = new long[]{0, 1L << 10, 1L << 24};
+
+  private static long sequentialPerft(Position pos, int depth) {
+    MoveList moves = new MoveList();
+    pos.getMoves(moves);
+    if (depth == 1) {
+      return moves.size();
+    }
+    long nodes = 0;
+    for (int i = 0; i < moves.size(); i++) {
+      pos.makeMove(moves.get(i));
+      nodes += sequentialPerft(pos, depth - 1);
+      pos.unmakeMoveAsInt();
+    }
+    return nodes;
+  }
+
+  @Test
+  public void test() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      for (long hashSize : HASH_SIZES) {
+        Perft perft = new Perft(pool, hashSize);
+        try {
+          for (String fen : TestPositions.FENS) {
+            Position pos = Position.parse(fen);
+            String origFen = pos.toString();
+            for (int depth = 1; depth <= DEPTH; depth++) {
+              Assert.assertEquals(sequentialPerft(pos, depth), perft.perft(pos, depth));
+              Assert.assertEquals(origFen, pos.toString());
+            }
+          }
+        } finally {
+          perft.free();
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+}
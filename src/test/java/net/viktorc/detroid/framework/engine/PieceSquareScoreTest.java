@@ -0,0 +1,49 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for verifying that the incrementally maintained piece-square score of positions always equals the score computed from scratch
+ * as moves of all types are made and taken back.
+ *
+ * @author Viktor
+ */
+public final class PieceSquareScoreTest {
+
+  private static final int DEPTH = 3;
+
+  private static void verify(Position pos, int[] pieceSquareScores, int depth) {
+    Position copy = new Position(pos);
+    copy.setPieceSquareScores(pieceSquareScores);
+    Assert.assertEquals(copy.getPieceSquareScore(), pos.getPieceSquareScore());
+    if (depth == 0) {
+      return;
+    }
+    int pieceSquareScore = pos.getPieceSquareScore();
+    MoveList moves = new MoveList();
+    pos.getMoves(moves);
+    for (int i = 0; i < moves.size(); i++) {
+      pos.makeMove(moves.get(i));
+      verify(pos, pieceSquareScores, depth - 1);
+      pos.unmakeMoveAsInt();
+      Assert.assertEquals(pieceSquareScore, pos.getPieceSquareScore());
+    }
+  }
+
+  @Test
+  public void test() throws Exception {
+    Random rand = new Random(0);
+    int[] pieceSquareScores = new int[Piece.values().length * 64];
+    for (int i = 64; i < pieceSquareScores.length; i++) {
+      pieceSquareScores[i] = rand.nextInt(1 << 16) - (1 << 15);
+    }
+    for (String fen : TestPositions.FENS) {
+      Position pos = Position.parse(fen);
+      pos.setPieceSquareScores(pieceSquareScores);
+      verify(pos, pieceSquareScores, DEPTH);
+    }
+  }
+
+}
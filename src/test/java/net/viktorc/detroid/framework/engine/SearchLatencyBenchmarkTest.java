@@ -0,0 +1,69 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.List;
+import net.viktorc.detroid.framework.uci.SearchResults;
+import net.viktorc.detroid.framework.uci.UCIEngine;
+import net.viktorc.detroid.framework.validation.EPDRecord;
+import net.viktorc.detroid.framework.validation.TTDSuite;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for measuring the average latency of very shallow searches such as the ones in bullet games and batch analyses where the fixed
+ * costs of starting a search make up a significant portion of the search time. Each search has to return a best move. As the benchmark
+ * takes minutes, it is only run if the <code>benchmark.tests</code> property is set to true.
+ *
+ * @author Viktor
+ */
+public final class SearchLatencyBenchmarkTest {
+
+  private static final String TTD_PATH = "/ttd.epd";
+  private static final int SEARCH_DEPTH = 2;
+  private static final int ROUNDS = 20;
+  private static final int MAX_THREADS = 4;
+
+  /**
+   * Searches each position to a fixed shallow depth using the specified number of threads and returns the average time it took in
+   * nanoseconds.
+   *
+   * @param engine The engine to test.
+   * @param records The positions to search.
+   * @param threads The number of threads to use.
+   * @return The average search time in nanoseconds.
+   */
+  private static double averageLatency(UCIEngine engine, List<EPDRecord> records, int threads) {
+    engine.setThreadsOption(threads);
+    engine.newGame();
+    long time = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      for (EPDRecord record : records) {
+        engine.setPosition(record.getPosition());
+        long start = System.nanoTime();
+        SearchResults results = engine.search(null, null, null, null, null, null, null, SEARCH_DEPTH, null, null, null, null);
+        time += System.nanoTime() - start;
+        Assert.assertNotNull(results.getBestMove());
+      }
+    }
+    return ((double) time) / (ROUNDS * records.size());
+  }
+
+  @Test
+  public void test() throws Exception {
+    TTDSuite suite = new TTDSuite(TTD_PATH);
+    List<EPDRecord> records = suite.getRecords();
+    UCIEngine engine = new Detroid();
+    engine.init();
+    try {
+      int maxThreads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+      // Warm up.
+      averageLatency(engine, records, maxThreads);
+      for (int threads = 1; threads <= maxThreads; threads *= 2) {
+        System.out.printf("Threads: %d; depth: %d; average search latency: %.2f us%n", threads, SEARCH_DEPTH,
+            averageLatency(engine, records, threads) / 1000);
+      }
+    } finally {
+      engine.close();
+    }
+  }
+
+}
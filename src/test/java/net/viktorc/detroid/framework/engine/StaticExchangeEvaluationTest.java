@@ -0,0 +1,68 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for verifying that the threshold based static exchange evaluation agrees with the full one. The tactical moves of all positions
+ * within two plies of the test positions are evaluated.
+ *
+ * @author Viktor
+ */
+public final class StaticExchangeEvaluationTest {
+
+  private static final String PARAMETERS_FILE_PATH = "params.xml";
+  private static final int[] THRESHOLDS = new int[]{-300, -100, -1, 0, 1, 100, 300};
+  private static final int DEPTH = 2;
+
+  /**
+   * Collects the tactical moves of the position and the positions reachable from it within the specified depth along with copies of the
+   * positions they are legal in.
+   *
+   * @param pos The position to start from.
+   * @param depth The number of plies to search beyond the position.
+   * @param positions The list to add the copies of the positions to.
+   * @param moves The list to add the encoded tactical moves to.
+   */
+  static void collectTacticalMoves(Position pos, int depth, List<Position> positions, List<Integer> moves) {
+    MoveList moveList = new MoveList();
+    pos.getMoves(moveList);
+    for (int i = 0; i < moveList.size(); i++) {
+      int move = moveList.get(i);
+      if (Move.isTactical(move)) {
+        positions.add(new Position(pos));
+        moves.add(move);
+      }
+      if (depth > 0) {
+        pos.makeMove(move);
+        collectTacticalMoves(pos, depth - 1, positions, moves);
+        pos.unmakeMoveAsInt();
+      }
+    }
+  }
+
+  @Test
+  public void test() throws Exception {
+    DetroidParameters params = new DetroidParameters();
+    params.loadFrom(PARAMETERS_FILE_PATH);
+    Evaluator eval = new Evaluator(params, null);
+    List<Position> positions = new ArrayList<>();
+    List<Integer> moves = new ArrayList<>();
+    for (String fen : TestPositions.FENS) {
+      collectTacticalMoves(Position.parse(fen), DEPTH, positions, moves);
+    }
+    int numOfMoves = moves.size();
+    Position[] posArray = positions.toArray(new Position[numOfMoves]);
+    int[] moveArray = new int[numOfMoves];
+    for (int i = 0; i < numOfMoves; i++) {
+      moveArray[i] = moves.get(i);
+      short seeValue = eval.SEE(posArray[i], moveArray[i]);
+      for (int threshold : THRESHOLDS) {
+        Assert.assertEquals(seeValue >= threshold, eval.isSEEAtLeast(posArray[i], moveArray[i], threshold));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+package net.viktorc.detroid.framework.engine;
+
+import java.util.List;
+import net.viktorc.detroid.framework.uci.UCIEngine;
+import net.viktorc.detroid.framework.validation.EPDRecord;
+import net.viktorc.detroid.framework.validation.TTDSuite;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A class for measuring how the search speed of the engine in nodes per second scales with the number of search threads. The benchmark
+ * fails if the speedup of any number of threads up to the number of available processors is not greater than half the number of threads.
+ * As it takes minutes, it is only run if the <code>benchmark.tests</code> property is set to true.
+ *
+ * @author Viktor
+ */
+public final class ThreadScalingBenchmarkTest {
+
+  private static final String TTD_PATH = "/ttd.epd";
+  private static final int NUMBER_OF_POSITIONS = 10;
+  private static final long SEARCH_TIME = 2000;
+  private static final int MAX_THREADS = 32;
+
+  /**
+   * Searches the first positions of the suite for a fixed amount of time each using the specified number of threads and returns the
+   * average search speed.
+   *
+   * @param engine The engine to test.
+   * @param records The positions to search.
+   * @param threads The number of threads to use.
+   * @return The average number of nodes searched per second.
+   */
+  private static double nodesPerSecond(UCIEngine engine, List<EPDRecord> records, int threads) {
+    engine.setThreadsOption(threads);
+    long time = 0;
+    long nodes = 0;
+    for (EPDRecord record : records) {
+      engine.newGame();
+      engine.setPosition(record.getPosition());
+      long start = System.nanoTime();
+      engine.search(null, null, null, null, null, null, null, null, null, null, SEARCH_TIME, null);
+      time += System.nanoTime() - start;
+      nodes += engine.getSearchInfo().getNodes();
+    }
+    return ((double) nodes) * 1000000000 / time;
+  }
+
+  @Test
+  public void test() throws Exception {
+    TTDSuite suite = new TTDSuite(TTD_PATH);
+    List<EPDRecord> records = suite.getRecords().subList(0, NUMBER_OF_POSITIONS);
+    UCIEngine engine = new Detroid();
+    engine.init();
+    try {
+      int maxThreads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+      // Warm up.
+      nodesPerSecond(engine, records, 1);
+      double baseNps = nodesPerSecond(engine, records, 1);
+      Assert.assertTrue(baseNps > 0);
+      System.out.printf("Threads: %d; speed: %.2f kNPS%n", 1, baseNps / 1000);
+      boolean scales = true;
+      for (int threads = 2; threads <= maxThreads; threads *= 2) {
+        double nps = nodesPerSecond(engine, records, threads);
+        double speedup = nps / baseNps;
+        System.out.printf("Threads: %d; speed: %.2f kNPS; speedup: %.2f; efficiency: %.2f%n", threads, nps / 1000, speedup,
+            speedup / threads);
+        scales &= speedup > threads / 2d;
+      }
+      Assert.assertTrue(scales);
+    } finally {
+      engine.close();
+    }
+  }
+
+}
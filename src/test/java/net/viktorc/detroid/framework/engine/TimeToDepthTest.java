@@ -2,9 +2,11 @@ package net.viktorc.detroid.framework.engine;
 
 import java.util.List;
 import java.util.Map.Entry;
+import net.viktorc.detroid.framework.uci.Option.ComboOption;
 import net.viktorc.detroid.framework.uci.UCIEngine;
 import net.viktorc.detroid.framework.validation.EPDRecord;
 import net.viktorc.detroid.framework.validation.TTDSuite;
+import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Test;
 
@@ -16,6 +18,8 @@ import org.junit.Test;
 public final class TimeToDepthTest {
 
   private static final String TTD_PATH = "/ttd.epd";
+  private static final String PARALLEL_SEARCH_SCHEME_OPTION_NAME = "ParallelSearchScheme";
+  private static final int[] COMPARED_THREAD_COUNTS = {1, 2, 4, 8, 16};
 
   /**
    * It runs a test on the specified TTD suite using the specified engine running the specified number of search threads.
@@ -70,4 +74,36 @@ public final class TimeToDepthTest {
     }
   }
 
+  @Test
+  public void compareParallelSchemes() throws Exception {
+    TTDSuite suite = new TTDSuite(TTD_PATH);
+    UCIEngine engine = new Detroid();
+    engine.init();
+    try {
+      int depthAdjustment = -1;
+      int maxThreads = Runtime.getRuntime().availableProcessors();
+      Search.ParallelScheme[] schemes = Search.ParallelScheme.values();
+      long[][] times = new long[schemes.length][COMPARED_THREAD_COUNTS.length];
+      // Warm up.
+      System.out.printf("%n%n%nWARM UP%n%n%n");
+      test(engine, suite, Math.min(4, maxThreads), depthAdjustment);
+      for (int i = 0; i < schemes.length; i++) {
+        Assert.assertTrue(engine.setOption(ComboOption.class, PARALLEL_SEARCH_SCHEME_OPTION_NAME, schemes[i].toString()));
+        System.out.printf("%n%n%n%s%n%n%n", schemes[i]);
+        for (int j = 0; j < COMPARED_THREAD_COUNTS.length && COMPARED_THREAD_COUNTS[j] <= maxThreads; j++) {
+          times[i][j] = test(engine, suite, COMPARED_THREAD_COUNTS[j], depthAdjustment);
+        }
+      }
+      System.out.printf("%n%n%nSUMMARY%n%n%n");
+      for (int i = 0; i < schemes.length; i++) {
+        for (int j = 0; j < COMPARED_THREAD_COUNTS.length && COMPARED_THREAD_COUNTS[j] <= maxThreads; j++) {
+          System.out.printf("Scheme: %s; threads: %d; total time: %.2f ms; time-to-depth speedup: %.2f%n", schemes[i],
+              COMPARED_THREAD_COUNTS[j], ((double) times[i][j]) / 1000000, ((double) times[i][0]) / times[i][j]);
+        }
+      }
+    } finally {
+      engine.close();
+    }
+  }
+
 }